@@ -0,0 +1,52 @@
+package com.digit.app.benchmark;
+
+import com.digit.app.CycleDetection;
+import com.digit.app.Graph;
+import com.digit.app.GraphGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding every cycle from the cycle basis. The number of cycles grows exponentially with the size of the basis, so
+ * this uses much smaller graphs than {@link GraphBenchmark}. With the seed here, 14 nodes at 0.4 already have 355
+ * cycles.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CycleBenchmark {
+    @Param({"10", "12", "14"})
+    public int nodes;
+
+    @Param({"0.2", "0.4"})
+    public double density;
+
+    private List<List<Integer>> basisCycles;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Graph graph = GraphGenerator.create(nodes, density, GraphBenchmark.SEED);
+        basisCycles = CycleDetection.pattonFundamentalSetOfCycles(graph);
+    }
+
+    @Benchmark
+    public List<List<Integer>> findAllCycles() {
+        return CycleDetection.findAllCycles(basisCycles, nodes);
+    }
+}
@@ -0,0 +1,68 @@
+package com.digit.app.benchmark;
+
+import com.digit.app.CycleDetection;
+import com.digit.app.Graph;
+import com.digit.app.GraphGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creating a graph and finding its cycle basis, which both grow polynomially with the number of nodes. The graphs come
+ * from a fixed seed so every run and every commit uses the same graphs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GraphBenchmark {
+    static final long SEED = 42;
+
+    @Param({"10", "50", "100"})
+    public int nodes;
+
+    @Param({"0.1", "0.4"})
+    public double density;
+
+    private Graph graph;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = GraphGenerator.create(nodes, density, SEED);
+    }
+
+    @Benchmark
+    public Graph create() {
+        return GraphGenerator.create(nodes, density, SEED);
+    }
+
+    /**
+     * The adjacent nodes of every node, the way the searches go through the graph
+     */
+    @Benchmark
+    public void getAdjacent(Blackhole blackhole) {
+        for (int node = 1; node <= nodes; node++) {
+            blackhole.consume(graph.getAdjacent(node));
+        }
+    }
+
+    @Benchmark
+    public List<List<Integer>> pattonFundamentalSetOfCycles() {
+        return CycleDetection.pattonFundamentalSetOfCycles(graph);
+    }
+}
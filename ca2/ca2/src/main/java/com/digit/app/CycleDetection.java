@@ -167,8 +167,7 @@ public class CycleDetection {
      * <p>
      * Algorithm here: https://dl-acm-org.ezproxy.lib.utexas.edu/doi/abs/10.1145/363219.363232
      */
-    @VisibleForTesting
-    static List<List<Integer>> pattonFundamentalSetOfCycles(Graph graph) {
+    public static List<List<Integer>> pattonFundamentalSetOfCycles(Graph graph) {
         List<List<Integer>> cycleBasis = new ArrayList<>();
         // We know it is connected, so we should be able to reach everything from a random starting root
         int rootNode = 1;
@@ -25,7 +25,13 @@ public class Graph {
      * Add an edge between the vertices with a random weight between 1 and 10.
      */
     public void addEdgeWithRandomWeight(int v1, int v2) {
-        Random randomGenerator = new Random();
+        addEdgeWithRandomWeight(v1, v2, new Random());
+    }
+
+    /**
+     * Add an edge between the vertices with a weight between 1 and 10 taken from the given random number generator.
+     */
+    public void addEdgeWithRandomWeight(int v1, int v2, Random randomGenerator) {
         // Choose a weight between 1 and 10
         int weight = randomGenerator.nextInt(10) + 1;
 
@@ -10,19 +10,31 @@ public class GraphGenerator {
     /**
      * Create a graph that meets all our criteria.
      */
-    @SuppressWarnings("UnnecessaryLocalVariable")
     public static Graph create(int numberOfNodes, double density) {
+        return create(numberOfNodes, density, new Random());
+    }
+
+    /**
+     * Create a graph from a seed. The same seed, number of nodes and density always give the same graph, which lets
+     * benchmarks run on the same graphs every time.
+     */
+    public static Graph create(int numberOfNodes, double density, long seed) {
+        return create(numberOfNodes, density, new Random(seed));
+    }
+
+    @SuppressWarnings("UnnecessaryLocalVariable")
+    private static Graph create(int numberOfNodes, double density, Random randomGenerator) {
         Preconditions.checkArgument(density > 0 && density <= 1,
                 "The density must be in the range (0,1] but you chose %s".formatted(density));
 
         // Generate an initial graph based on the algorithm given
-        Graph initialGraph = generateInitialGraph(numberOfNodes, density);
+        Graph initialGraph = generateInitialGraph(numberOfNodes, density, randomGenerator);
 
         // Check that each node is connected to at least 2 other nodes
-        Graph minDegree2Graph = ensureDegree2(initialGraph);
+        Graph minDegree2Graph = ensureDegree2(initialGraph, randomGenerator);
 
         // Check that the graph is connected
-        Graph connectedGraph = ensureGraphIsConnected(minDegree2Graph);
+        Graph connectedGraph = ensureGraphIsConnected(minDegree2Graph, randomGenerator);
 
         return connectedGraph;
     }
@@ -31,10 +43,9 @@ public class GraphGenerator {
      * Create the initial graph with a certain number of nodes and a certain density. This is based on the original
      * algorithm and does not guarantee a connected graph or a minimum degree of 2.
      */
-    private static Graph generateInitialGraph(int numberOfNodes, double density) {
-        // Create an empty graph and the random number generator
+    private static Graph generateInitialGraph(int numberOfNodes, double density, Random randomGenerator) {
+        // Create an empty graph
         Graph graph = new Graph(numberOfNodes);
-        Random randomGenerator = new Random();
 
         // For each node number
         for (int node1 = 1; node1 <= numberOfNodes; node1++) {
@@ -46,7 +57,7 @@ public class GraphGenerator {
                 if (probability < density && probability > 0) {
                     // Add the edge with the weight to the graph
                     // Note: we don't need to worry about order of nodes because the internal method takes care of it
-                    graph.addEdgeWithRandomWeight(node1, node2);
+                    graph.addEdgeWithRandomWeight(node1, node2, randomGenerator);
                 }
             }
         }
@@ -57,8 +68,7 @@ public class GraphGenerator {
     /**
      * Ensure there is a degree 2 for each node. If there isn't, generate a random edge until it is degree 2.
      */
-    private static Graph ensureDegree2(Graph graph) {
-        Random random = new Random();;
+    private static Graph ensureDegree2(Graph graph, Random random) {
         int numberOfNodes = graph.getNumberOfNodes();
         // For every node
         for (int node = 1; node <= numberOfNodes; node++) {
@@ -81,7 +91,7 @@ public class GraphGenerator {
                     canMakeEdge = graph.canMakeEdge(node, nodeToConnect);
                 }
 
-                graph.addEdgeWithRandomWeight(node, nodeToConnect);
+                graph.addEdgeWithRandomWeight(node, nodeToConnect, random);
 
                 // We added a degree so increment it
                 degree++;
@@ -96,8 +106,11 @@ public class GraphGenerator {
      */
     @VisibleForTesting
     static Graph ensureGraphIsConnected(Graph graph) {
+        return ensureGraphIsConnected(graph, new Random());
+    }
+
+    private static Graph ensureGraphIsConnected(Graph graph, Random randomGenerator) {
         int numberOfNodes = graph.getNumberOfNodes();
-        Random randomGenerator = new Random();
         List<Integer> unconnectedNodes = getUnvisitedNodes(1, graph);
         int numberOfUnconnectedNodes = unconnectedNodes.size();
 
@@ -128,8 +141,8 @@ public class GraphGenerator {
             }
 
             // Add edges to the nodes
-            graph.addEdgeWithRandomWeight(unconnectedNode1, connectedNode1);
-            graph.addEdgeWithRandomWeight(unconnectedNode2, connectedNode2);
+            graph.addEdgeWithRandomWeight(unconnectedNode1, connectedNode1, randomGenerator);
+            graph.addEdgeWithRandomWeight(unconnectedNode2, connectedNode2, randomGenerator);
 
             // Get the unconnected nodes and store their size
             unconnectedNodes = getUnvisitedNodes(1, graph);
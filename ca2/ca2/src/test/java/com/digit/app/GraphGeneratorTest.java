@@ -51,4 +51,13 @@ public class GraphGeneratorTest {
 
         Assertions.assertThat(unvisitedNodes).isEmpty();;
     }
+
+    @Test
+    public void testCreateWithSeedIsRepeatable() {
+        Graph graph1 = GraphGenerator.create(20, 0.3, 42);
+        Graph graph2 = GraphGenerator.create(20, 0.3, 42);
+
+        Assertions.assertThat(graph1.toString()).isEqualTo(graph2.toString());
+        Assertions.assertThat(GraphGenerator.getUnvisitedNodes(1, graph1)).isEmpty();
+    }
 }
@@ -0,0 +1,40 @@
+package com.digit.app.benchmark;
+
+import com.digit.app.DataGenerator;
+import com.digit.app.data.Data;
+import com.google.common.base.Preconditions;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A generated instance along with half of its constraints relaxed, like the middle round of a run. The instance is
+ * given as constraints x variables @ density so that only sizes that fit in memory get run. The seed is fixed so every
+ * run and every commit benchmarks the same instances.
+ */
+@State(Scope.Benchmark)
+public class InstanceState {
+    private static final long SEED = 42;
+
+    @Param({"10x15@0.4", "100x1000@0.4", "1000x10000@0.1", "10000x100000@0.001", "10000x100000@0.01"})
+    public String shape;
+
+    public Data data;
+    public Data lagrangianData;
+    public int round;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] sizeAndDensity = shape.split("@");
+        String[] size = sizeAndDensity[0].split("x");
+        Preconditions.checkArgument(sizeAndDensity.length == 2 && size.length == 2,
+                "The shape has to look like 10x15@0.4 but was %s".formatted(shape));
+
+        data = DataGenerator.create(Integer.parseInt(size[0]), Integer.parseInt(size[1]),
+                Double.parseDouble(sizeAndDensity[1]), SEED);
+        round = Math.max(1, data.getConstraints().getNumConstraints() / 2);
+        lagrangianData = data.relax(round);
+    }
+}
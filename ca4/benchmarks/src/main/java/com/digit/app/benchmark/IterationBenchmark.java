@@ -0,0 +1,94 @@
+package com.digit.app.benchmark;
+
+import com.digit.app.IPSolution;
+import com.digit.app.LagrangianRelaxation;
+import com.digit.app.LagrangianSubproblem;
+import com.digit.app.LagrangianWorkspace;
+import com.digit.app.RoundSettings;
+import com.digit.app.dual.DualEngine;
+import com.digit.app.dual.DualEngineType;
+import com.digit.app.solver.SolverType;
+import com.digit.app.step.StepRuleType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One whole iteration of a round, the same steps that LagrangianRound takes, with the solve swapped for
+ * {@link StubSolver}. This is the overhead that every iteration pays on top of the solver.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class IterationBenchmark {
+    /**
+     * The bundle engine solves its own LP with a real solver, so it isn't included
+     */
+    @Param({"SUBGRADIENT", "VOLUME"})
+    public DualEngineType engineType;
+
+    private double[] originalC;
+    private LagrangianWorkspace workspace;
+    private LagrangianSubproblem subproblem;
+    private DualEngine engine;
+    private double upperBound;
+    private double lastValue;
+    private double[] lastX;
+
+    @Setup(Level.Iteration)
+    public void setUp(InstanceState instance) throws Exception {
+        originalC = instance.data.getOptimizationFn().getC();
+        workspace = new LagrangianWorkspace(instance.lagrangianData.getOptimizationFn());
+        workspace.fillMultipliers(1);
+        subproblem = new LagrangianSubproblem(instance.lagrangianData, new StubSolver());
+
+        RoundSettings settings = new RoundSettings(SolverType.JAVA, StepRuleType.POLYAK, engineType);
+        engine = engineType.create(instance.lagrangianData.getOptimizationFn(), settings);
+        upperBound = Double.POSITIVE_INFINITY;
+        lastValue = Double.POSITIVE_INFINITY;
+        lastX = null;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception {
+        subproblem.close();
+    }
+
+    @Benchmark
+    public double iteration() throws Exception {
+        IPSolution solution = subproblem.solve(workspace, lastX);
+        lastX = solution.getVariables();
+        workspace.updateSubgradient(solution.getVariables());
+
+        double valueForOrigProblem = LagrangianRelaxation.originalIPOptimalValue(originalC, solution.getVariables());
+        upperBound = Math.min(upperBound, valueForOrigProblem);
+        double violationSquared = LagrangianRelaxation.violationSquared(workspace.getSubgradient());
+
+        boolean improved = solution.getOptimizationValue() < lastValue;
+        lastValue = solution.getOptimizationValue();
+        double step = engine.update(workspace, solution.getOptimizationValue(), upperBound, solution.getVariables(),
+                improved);
+
+        // Start over once the engine is done so that every call is a normal iteration
+        if (engine.isFinished() || workspace.isSubgradientZero()) {
+            workspace.fillMultipliers(1);
+        }
+
+        return step + violationSquared;
+    }
+}
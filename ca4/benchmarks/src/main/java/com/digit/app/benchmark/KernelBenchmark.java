@@ -0,0 +1,117 @@
+package com.digit.app.benchmark;
+
+import com.digit.app.LP;
+import com.digit.app.LagrangianRelaxation;
+import com.digit.app.Pair;
+import com.digit.app.data.Constraints;
+import com.digit.app.data.OptimizationFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The pieces of a Lagrangian Relaxation iteration on their own. The ones ending in Into are the in place versions that
+ * the rounds use, next to the allocating versions they replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class KernelBenchmark {
+    private OptimizationFunction lagrangianFn;
+    private double[] multipliers;
+    private double[] x;
+    private double[] cost;
+    private double[] subgradient;
+
+    @Setup(Level.Trial)
+    public void setUp(InstanceState instance) {
+        lagrangianFn = instance.lagrangianData.getOptimizationFn();
+
+        // Multipliers and an x like the ones in the middle of a round
+        Random random = new Random(7);
+        multipliers = new double[instance.round];
+        for (int i = 0; i < multipliers.length; i++) {
+            multipliers[i] = random.nextDouble() * 2;
+        }
+        x = new double[lagrangianFn.getNumVariables()];
+        for (int j = 0; j < x.length; j++) {
+            x[j] = random.nextBoolean() ? OptimizationFunction.VARIABLE_UPPER_BOUND : 0;
+        }
+
+        cost = new double[x.length];
+        subgradient = lagrangianFn.getSubgradient(x);
+    }
+
+    @Benchmark
+    public Pair<OptimizationFunction, Double> withLagrange() {
+        return lagrangianFn.withLagrange(multipliers);
+    }
+
+    @Benchmark
+    public double withLagrangeInto() {
+        return lagrangianFn.withLagrangeInto(multipliers, cost);
+    }
+
+    @Benchmark
+    public double[] getSubgradient() {
+        return lagrangianFn.getSubgradient(x);
+    }
+
+    @Benchmark
+    public double[] getSubgradientInto() {
+        lagrangianFn.getSubgradientInto(x, subgradient);
+        return subgradient;
+    }
+
+    @Benchmark
+    public double stepValue() {
+        return LagrangianRelaxation.stepValue(1.5, subgradient, 5000, 4000);
+    }
+
+    @Benchmark
+    public double[] newLagrangianMultipliers() {
+        return LagrangianRelaxation.newLagrangianMultipliers(multipliers, 1e-6, subgradient);
+    }
+
+    @Benchmark
+    public double[] updateLagrangianMultipliers() {
+        // Stepping back and forth keeps the multipliers from drifting over the run
+        LagrangianRelaxation.updateLagrangianMultipliers(multipliers, 1e-6, subgradient);
+        LagrangianRelaxation.updateLagrangianMultipliers(multipliers, -1e-6, subgradient);
+        return multipliers;
+    }
+
+    @Benchmark
+    public Constraints relaxConstraints(InstanceState instance) {
+        return instance.data.getConstraints().relax(instance.round);
+    }
+
+    @Benchmark
+    public OptimizationFunction relaxOptimizationFunction(InstanceState instance) {
+        return instance.data.getOptimizationFn().relax(instance.round, instance.data.getConstraints());
+    }
+
+    /**
+     * Building the model through the solver interface, without the cost of a real solver
+     */
+    @Benchmark
+    public LP buildModel(InstanceState instance) throws Exception {
+        try (LP lp = LP.integerProgram(instance.data, new StubSolver())) {
+            return lp;
+        }
+    }
+}
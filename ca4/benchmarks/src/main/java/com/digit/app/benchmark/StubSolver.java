@@ -0,0 +1,101 @@
+package com.digit.app.benchmark;
+
+import com.digit.app.solver.Solver;
+
+import java.util.Arrays;
+
+/**
+ * A solver that ignores the constraints and returns the best corner of the box for the objective. This takes O(n),
+ * so timing a loop with it measures everything except the real solve.
+ */
+class StubSolver implements Solver {
+    private int numVariables = 0;
+    private int numConstraints = 0;
+    private double[] objective = new double[0];
+    private double[] lower = new double[0];
+    private double[] upper = new double[0];
+    private double objectiveValue = 0;
+    private double[] values = new double[0];
+
+    @Override
+    public void addVariables(int numVariables, double lowerBound, double upperBound, boolean integer) {
+        lower = Arrays.copyOf(lower, this.numVariables + numVariables);
+        upper = Arrays.copyOf(upper, this.numVariables + numVariables);
+        Arrays.fill(lower, this.numVariables, lower.length, lowerBound);
+        Arrays.fill(upper, this.numVariables, upper.length, upperBound);
+        this.numVariables = this.numVariables + numVariables;
+    }
+
+    @Override
+    public void setBounds(int variable, double lowerBound, double upperBound) {
+        lower[variable] = lowerBound;
+        upper[variable] = upperBound;
+    }
+
+    @Override
+    public void addConstraint(int[] variables, double[] coefficients, boolean lessThan, double rhs) {
+        numConstraints++;
+    }
+
+    @Override
+    public void setObjective(double[] coefficients) {
+        objective = coefficients;
+    }
+
+    @Override
+    public void setStart(double[] values) {
+    }
+
+    @Override
+    public boolean solve() {
+        // A real solver hands back a new array every time, so this does too
+        values = new double[numVariables];
+        objectiveValue = 0;
+        for (int j = 0; j < numVariables; j++) {
+            values[j] = objective[j] > 0 ? upper[j] : lower[j];
+            objectiveValue = objectiveValue + objective[j] * values[j];
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean isOptimal() {
+        return true;
+    }
+
+    @Override
+    public double getObjectiveValue() {
+        return objectiveValue;
+    }
+
+    @Override
+    public double[] getValues() {
+        return values;
+    }
+
+    @Override
+    public double[] getSlacks() {
+        return new double[numConstraints];
+    }
+
+    /**
+     * The box has no rows in it, so every dual is 0
+     */
+    @Override
+    public double[] getDuals() {
+        return new double[numConstraints];
+    }
+
+    /**
+     * With no rows, moving a variable changes the objective by exactly its coefficient
+     */
+    @Override
+    public double[] getReducedCosts() {
+        return objective.clone();
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -1,7 +1,13 @@
 package com.digit.app;
 
+import com.digit.app.data.Constraints;
 import com.digit.app.data.Data;
+import com.digit.app.data.SparseMatrix;
+import com.digit.app.io.InstanceFormat;
+import com.google.common.base.Preconditions;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Random;
 
 public class DataGenerator {
@@ -14,18 +20,45 @@ public class DataGenerator {
     private static final int MAX_C = 10;
     private static final double PROB_A_LESS_THAN_B = 0.7;
 
+    private static final long SEED = -1549335653;
+
+    /**
+     * Generate an instance and save it, so that runs can load it with -Dinstance instead of generating it again. The
+     * format comes from the extension, and .bin files load the fastest.
+     * ie, java -cp ca4-1.0-SNAPSHOT.jar com.digit.app.DataGenerator 2000 5000 0.4 7 big.bin
+     */
+    public static void main(String[] args) throws IOException {
+        Preconditions.checkArgument(args.length == 5,
+                "Usage: DataGenerator <constraints> <variables> <density> <seed> <file>");
+
+        Path path = Path.of(args[4]);
+        Data data = create(Integer.parseInt(args[0]), Integer.parseInt(args[1]), Double.parseDouble(args[2]),
+                Long.parseLong(args[3]));
+        InstanceFormat.fromPath(path).write(data, path);
+    }
+
+    /**
+     * Create the instance that the README results come from
+     */
     public static Data create(int numConstraints, int numVariables) {
-        int[][] A = new int[numConstraints][numVariables];
+        System.out.printf("Seed: %s\n", SEED);
+        return create(numConstraints, numVariables, DENSITY_A, SEED);
+    }
+
+    /**
+     * Create an instance from the given seed. The same seed, sizes and density always give the same instance.
+     */
+    public static Data create(int numConstraints, int numVariables, double densityA, long seed) {
+        Preconditions.checkArgument(densityA >= 0 && densityA <= 1,
+                "The density of A has to be between 0 and 1 but was %s".formatted(densityA));
+
+        // Only the nonzero entries of A are kept so this scales to a lot of variables
+        SparseMatrix.Builder A = SparseMatrix.builder(numVariables);
         int[] b = new int[numConstraints];
         double[] c = new double[numVariables];
         boolean[] AlessThanb = new boolean[numConstraints];
-        
-        Random randomGenerator = new Random();
-//        int seed = randomGenerator.nextInt();
-//        int seed = 1492842449;
-        int seed = -1549335653;
-        System.out.printf("Seed: %s\n", seed);
-        randomGenerator.setSeed(seed);
+
+        Random randomGenerator = new Random(seed);
 
         // Generate the cost variable
         for (int i = 0; i < numConstraints; i++) {
@@ -44,12 +77,13 @@ public class DataGenerator {
                 }
 
                 // Create a matrix with density equivalent to what was selected within the given range
-                if (randomGenerator.nextDouble() < DENSITY_A) {
-                    A[i][j] = randomGenerator.nextInt((DataGenerator.MAX_A - DataGenerator.MIN_A) + 1) + DataGenerator.MIN_A;
-                }               
+                if (randomGenerator.nextDouble() < densityA) {
+                    A.add(j, randomGenerator.nextInt((DataGenerator.MAX_A - DataGenerator.MIN_A) + 1) + DataGenerator.MIN_A);
+                }
             }
+            A.endRow();
         }
 
-        return Data.create(A, b, AlessThanb, c);
+        return Data.create(new Constraints(A.build(), b, AlessThanb), c);
     }
 }
@@ -0,0 +1,309 @@
+package com.digit.app;
+
+import com.digit.app.data.Constraints;
+import com.digit.app.solver.Solver;
+import com.digit.app.solver.SolverException;
+import com.digit.app.solver.SolverType;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A solver for models whose constraints fall apart into blocks of variables that no constraint connects. Each block
+ * gets its own solver, picked by {@link SubproblemMethod} from the rows in it, so a block with one row is a knapsack.
+ * The blocks are solved at the same time, with the biggest one on the calling thread, so a solve takes about as long as
+ * the biggest block instead of the whole model.
+ *
+ * The blocks are found up front, so the model has to be built with exactly those constraints in the same order. The
+ * objective and start are split between the blocks, and the values and slacks are put back in the original order.
+ */
+public class DecomposedSolver implements Solver {
+    /**
+     * The system property used to pick the number of threads that solve blocks. ie, -DblockThreads=1 to solve them one
+     * at a time
+     */
+    public static final String THREADS_PROPERTY = "blockThreads";
+
+    private final List<Constraints.Block> blocks;
+    private final Solver[] solvers;
+    private final double[][] blockBuffers;
+
+    /**
+     * The block of each variable and row, and its number inside of the block
+     */
+    private final int[] blockOfVariable;
+    private final int[] localVariable;
+    private final int[] blockOfRow;
+
+    /**
+     * Solves every block but the first. It is null when there is only one thread.
+     */
+    private final ExecutorService pool;
+
+    private int numVariables = 0;
+    private int numRows = 0;
+
+    public DecomposedSolver(Constraints constraints, SolverType solverType, int numThreads) throws SolverException {
+        this(constraints.findBlocks(), constraints.getA().getNumColumns(), constraints.getNumConstraints(), solverType,
+                numThreads);
+    }
+
+    private DecomposedSolver(List<Constraints.Block> blocks, int totalVariables, int totalRows, SolverType solverType,
+                             int numThreads) throws SolverException {
+        Preconditions.checkArgument(numThreads > 0, "You need at least one thread but asked for %s".formatted(numThreads));
+        this.blocks = blocks;
+        this.solvers = new Solver[blocks.size()];
+        this.blockBuffers = new double[blocks.size()][];
+        this.blockOfVariable = new int[totalVariables];
+        this.localVariable = new int[totalVariables];
+        this.blockOfRow = new int[totalRows];
+
+        for (int block = 0; block < blocks.size(); block++) {
+            Constraints blockConstraints = blocks.get(block).getConstraints();
+            solvers[block] = SubproblemMethod.choose(blockConstraints).create(blockConstraints, solverType);
+            int[] variables = blocks.get(block).getVariables();
+            blockBuffers[block] = new double[variables.length];
+            for (int k = 0; k < variables.length; k++) {
+                blockOfVariable[variables[k]] = block;
+                localVariable[variables[k]] = k;
+            }
+            for (int row: blocks.get(block).getRows()) {
+                blockOfRow[row] = block;
+            }
+        }
+
+        int poolThreads = Math.min(numThreads, blocks.size()) - 1;
+        this.pool = poolThreads > 0
+                ? Executors.newFixedThreadPool(poolThreads,
+                        new ThreadFactoryBuilder().setNameFormat("block-%d").setDaemon(true).build())
+                : null;
+    }
+
+    /**
+     * Get the number of threads from the system property. By default, use a thread per core.
+     */
+    public static int threadsFromSystemProperty() {
+        return Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * How many blocks the model was split into
+     */
+    public int getNumBlocks() {
+        return blocks.size();
+    }
+
+    @Override
+    public void addVariables(int numNewVariables, double lowerBound, double upperBound, boolean integer) throws SolverException {
+        Preconditions.checkArgument(numVariables + numNewVariables <= blockOfVariable.length,
+                "The blocks only have %s variables".formatted(blockOfVariable.length));
+
+        // Variables are numbered in order inside of each block, so each block gets the new ones all at once
+        int[] counts = new int[blocks.size()];
+        for (int j = numVariables; j < numVariables + numNewVariables; j++) {
+            counts[blockOfVariable[j]]++;
+        }
+        for (int block = 0; block < blocks.size(); block++) {
+            if (counts[block] > 0) {
+                solvers[block].addVariables(counts[block], lowerBound, upperBound, integer);
+            }
+        }
+        numVariables = numVariables + numNewVariables;
+    }
+
+    @Override
+    public void setBounds(int variable, double lowerBound, double upperBound) throws SolverException {
+        solvers[blockOfVariable[variable]].setBounds(localVariable[variable], lowerBound, upperBound);
+    }
+
+    @Override
+    public void addConstraint(int[] variables, double[] coefficients, boolean lessThan, double rhs) throws SolverException {
+        Preconditions.checkArgument(numRows < blockOfRow.length, "The blocks only have %s rows".formatted(blockOfRow.length));
+
+        int block = blockOfRow[numRows++];
+        int[] localVariables = new int[variables.length];
+        for (int k = 0; k < variables.length; k++) {
+            // This runs for every entry, so only build the message when it fails
+            if (blockOfVariable[variables[k]] != block) {
+                throw new IllegalArgumentException("The variable %s isn't in the block of row %s"
+                        .formatted(variables[k], numRows - 1));
+            }
+            localVariables[k] = localVariable[variables[k]];
+        }
+
+        solvers[block].addConstraint(localVariables, coefficients, lessThan, rhs);
+    }
+
+    @Override
+    public void setObjective(double[] coefficients) throws SolverException {
+        Preconditions.checkArgument(coefficients.length == numVariables,
+                "The objective needs a coefficient for each variable. Variables: %s Coefficients: %s".formatted(numVariables, coefficients.length));
+
+        // The solvers copy what they are given, so the buffers can be used again
+        for (int block = 0; block < blocks.size(); block++) {
+            solvers[block].setObjective(split(block, coefficients));
+        }
+    }
+
+    @Override
+    public void setStart(double[] values) throws SolverException {
+        Preconditions.checkArgument(values.length == numVariables,
+                "The start needs a value for each variable. Variables: %s Values: %s".formatted(numVariables, values.length));
+
+        for (int block = 0; block < blocks.size(); block++) {
+            solvers[block].setStart(split(block, values));
+        }
+    }
+
+    @Override
+    public boolean solve() throws SolverException {
+        if (pool == null) {
+            // Stop at the first block without a solution since then the whole model doesn't have one
+            for (Solver solver: solvers) {
+                if (!solver.solve()) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        List<Future<Boolean>> futures = new ArrayList<>(solvers.length - 1);
+        for (int block = 1; block < solvers.length; block++) {
+            Solver solver = solvers[block];
+            futures.add(pool.submit(solver::solve));
+        }
+
+        // Every block has to finish before the next solve changes its objective
+        boolean feasible = solvers[0].solve();
+        for (Future<Boolean> future: futures) {
+            feasible = getResult(future) && feasible;
+        }
+
+        return feasible;
+    }
+
+    /**
+     * The whole model is only optimal if every block is
+     */
+    @Override
+    public boolean isOptimal() throws SolverException {
+        for (Solver solver: solvers) {
+            if (!solver.isOptimal()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public double getObjectiveValue() throws SolverException {
+        double objectiveValue = 0;
+        for (Solver solver: solvers) {
+            objectiveValue = objectiveValue + solver.getObjectiveValue();
+        }
+
+        return objectiveValue;
+    }
+
+    @Override
+    public double[] getValues() throws SolverException {
+        double[] values = new double[numVariables];
+        for (int block = 0; block < blocks.size(); block++) {
+            double[] blockValues = solvers[block].getValues();
+            int[] variables = blocks.get(block).getVariables();
+            for (int k = 0; k < variables.length; k++) {
+                values[variables[k]] = blockValues[k];
+            }
+        }
+
+        return values;
+    }
+
+    @Override
+    public double[] getSlacks() throws SolverException {
+        double[] slacks = new double[numRows];
+        for (int block = 0; block < blocks.size(); block++) {
+            double[] blockSlacks = solvers[block].getSlacks();
+            int[] rows = blocks.get(block).getRows();
+            for (int k = 0; k < rows.length; k++) {
+                slacks[rows[k]] = blockSlacks[k];
+            }
+        }
+
+        return slacks;
+    }
+
+    @Override
+    public double[] getDuals() throws SolverException {
+        double[] duals = new double[numRows];
+        for (int block = 0; block < blocks.size(); block++) {
+            double[] blockDuals = solvers[block].getDuals();
+            int[] rows = blocks.get(block).getRows();
+            for (int k = 0; k < rows.length; k++) {
+                duals[rows[k]] = blockDuals[k];
+            }
+        }
+
+        return duals;
+    }
+
+    @Override
+    public double[] getReducedCosts() throws SolverException {
+        double[] reducedCosts = new double[numVariables];
+        for (int block = 0; block < blocks.size(); block++) {
+            double[] blockReducedCosts = solvers[block].getReducedCosts();
+            int[] variables = blocks.get(block).getVariables();
+            for (int k = 0; k < variables.length; k++) {
+                reducedCosts[variables[k]] = blockReducedCosts[k];
+            }
+        }
+
+        return reducedCosts;
+    }
+
+    @Override
+    public void close() throws SolverException {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+        for (Solver solver: solvers) {
+            solver.close();
+        }
+    }
+
+    /**
+     * Copy the entries of the block's variables into its buffer
+     */
+    private double[] split(int block, double[] values) {
+        double[] buffer = blockBuffers[block];
+        int[] variables = blocks.get(block).getVariables();
+        for (int k = 0; k < variables.length; k++) {
+            buffer[k] = values[variables[k]];
+        }
+
+        return buffer;
+    }
+
+    private static boolean getResult(Future<Boolean> future) throws SolverException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // Throw what the block's solver actually threw
+            if (e.getCause() instanceof SolverException cause) {
+                throw cause;
+            }
+            throw new SolverException("A block could not be solved", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SolverException("Interrupted while solving the blocks", e);
+        }
+    }
+}
@@ -10,14 +10,53 @@ public class IPSolution {
 
     private final double[] slack;
 
+    /**
+     * The duals of the constraints and reduced costs of the variables, which only a linear program has. They are null
+     * for an integer program.
+     */
+    private final double[] duals;
+    private final double[] reducedCosts;
+
+    /**
+     * Whether the solver proved this is the optimal solution. It is false when the solver stopped early, like at its
+     * node limit, so the value is only as good as the best solution it found.
+     */
+    private final boolean optimal;
+
     /**
      * Create a feasible solution
      */
     public IPSolution(double optimizationValue, double[] solution, double[] slack) {
+        this(optimizationValue, solution, slack, true);
+    }
+
+    /**
+     * Create a feasible solution that might not be optimal
+     */
+    public IPSolution(double optimizationValue, double[] solution, double[] slack, boolean optimal) {
+        this(optimizationValue, solution, slack, null, null, optimal);
+    }
+
+    /**
+     * Create a feasible solution of a linear program
+     */
+    public IPSolution(double optimizationValue, double[] solution, double[] slack, double[] duals,
+                      double[] reducedCosts) {
+        this(optimizationValue, solution, slack, duals, reducedCosts, true);
+    }
+
+    /**
+     * Create a feasible solution with everything given, like when it is read back from a file
+     */
+    public IPSolution(double optimizationValue, double[] solution, double[] slack, double[] duals,
+                      double[] reducedCosts, boolean optimal) {
         this.feasible = true;
+        this.optimal = optimal;
         this.optimizationValue = optimizationValue;
         this.variables = solution;
         this.slack = slack;
+        this.duals = duals;
+        this.reducedCosts = reducedCosts;
     }
 
     /**
@@ -33,9 +72,12 @@ public class IPSolution {
      */
     private IPSolution(boolean feasible) {
         this.feasible = feasible;
+        this.optimal = false;
         this.optimizationValue = 0;
         this.variables = new double[0];
         this.slack = new double[0];
+        this.duals = null;
+        this.reducedCosts = null;
     }
 
     @Override
@@ -45,7 +87,8 @@ public class IPSolution {
         }
 
         StringBuilder builder = new StringBuilder();
-        builder.append("The problem is feasible\n");
+        builder.append(optimal ? "The problem is feasible\n"
+                : "The problem is feasible, but the solver stopped before proving this solution optimal\n");
         builder.append("Objective function value: %s\n".formatted(optimizationValue));
         builder.append("Optimal values:\n");
 
@@ -1,78 +1,172 @@
 package com.digit.app;
 
+import com.digit.app.data.Constraints;
 import com.digit.app.data.Data;
+import com.digit.app.data.OptimizationFunction;
+import com.digit.app.data.Presolve;
+import com.digit.app.metrics.Count;
+import com.digit.app.metrics.Metrics;
+import com.digit.app.metrics.MetricsRegistry;
+import com.digit.app.metrics.Phase;
+import com.digit.app.solver.Solver;
+import com.digit.app.solver.SolverException;
+import com.digit.app.solver.SolverType;
+import com.digit.app.trace.Trace;
+import com.digit.app.trace.TraceEvent;
 import com.google.common.base.Preconditions;
-import ilog.concert.*;
-import ilog.cplex.IloCplex;
-
-import java.io.OutputStream;
-import java.io.PrintStream;
+import lombok.Getter;
 
 public class LP implements AutoCloseable {
-    private final IloCplex cplex;
-    private final IloNumVar[] variables;
+    private final Solver solver;
+    private final boolean integerProgramming;
 
-    private final IloRange[] constraints;
+    /**
+     * What the model was presolved into, or null if the solver has the original model
+     */
+    @Getter
+    private final Presolve presolve;
+    private final Constraints constraints;
+    private double[] c;
 
     /**
      * Get the integer program for the lagrange and the amount that needs to be added to the final result
      */
-    public static Pair<LP, Double> createFromLagrange(Data data, double[] lagrangeMultipliers) throws IloException {
+    public static Pair<LP, Double> createFromLagrange(Data data, double[] lagrangeMultipliers) throws SolverException {
         // Create new data based on Lagrange multipliers
+        long start = System.nanoTime();
         Pair<Data, Double> pair = data.withLagrange(lagrangeMultipliers);
+        Metrics.current().time(Phase.WITH_LAGRANGE, start);
 
         Data lagrange = pair.getLeft();
 
-        System.out.println(lagrange.getOptimizationFn().toString());
+        Trace.record(TraceEvent.OBJECTIVE, lagrange.getOptimizationFn().getC());
+        if (Trace.isDebug()) {
+            System.out.println(lagrange.getOptimizationFn().toString());
+        }
 
         LP lagrangeIp = LP.integerProgram(lagrange);
 
         return new Pair<>(lagrangeIp, pair.getRight());
     }
 
-    public static LP integerProgram(Data data) throws IloException {
-        return new LP(data, true);
+    public static LP integerProgram(Data data) throws SolverException {
+        return integerProgram(data, SolverType.fromSystemProperty());
+    }
+
+    /**
+     * Build the integer program, presolved with its objective unless that was turned off
+     */
+    public static LP integerProgram(Data data, SolverType solverType) throws SolverException {
+        Presolve presolve = Presolve.ifEnabled(data.getConstraints(), data.getOptimizationFn().getC());
+        return new LP(data, true, solverType.create(), presolve);
+    }
+
+    /**
+     * Build the integer program in a solver that was already created, like a stub that skips the real solve
+     */
+    public static LP integerProgram(Data data, Solver solver) throws SolverException {
+        return new LP(data, true, solver, null);
+    }
+
+    /**
+     * Build the presolved integer program in a solver that was already created for it. The values, objective and start
+     * stay in terms of the original variables.
+     */
+    public static LP integerProgram(Data data, Solver solver, Presolve presolve) throws SolverException {
+        return new LP(data, true, solver, presolve);
     }
 
-    public static LP linearProgramRelaxation(Data data) throws IloException {
-        return new LP(data, false);
+    public static LP linearProgramRelaxation(Data data) throws SolverException {
+        return linearProgramRelaxation(data, SolverType.fromSystemProperty());
+    }
+
+    /**
+     * Build the linear relaxation. It is never presolved, since the duals and reduced costs have to be for the original
+     * rows and variables.
+     */
+    public static LP linearProgramRelaxation(Data data, SolverType solverType) throws SolverException {
+        return new LP(data, false, solverType.create(), null);
     }
 
-    private LP(Data data, boolean integerProgramming) throws IloException {
+    private LP(Data data, boolean integerProgramming, Solver solver, Presolve presolve) throws SolverException {
         Preconditions.checkArgument(!data.getOptimizationFn().isHasLagrangian(),
                 "This only handles data that does not have lagrangian optimization. If you want to use that, use" +
                         "the create function");
-        // Get CPLEX configured the way we want
-        cplex = configureCplex();
+        this.solver = solver;
+        this.integerProgramming = integerProgramming;
+        this.presolve = presolve;
+        this.constraints = data.getConstraints();
+        this.c = data.getOptimizationFn().getC();
+        long start = System.nanoTime();
+
+        if (presolve != null) {
+            buildPresolved(solver, presolve, c);
+            Metrics.current().time(Phase.MODEL_BUILD, start);
+            return;
+        }
 
-        // Add optimization to cplex and get the variables
+        // Add optimization to the solver along with the variables
         if (integerProgramming) {
-            variables = data.getOptimizationFn().addIPToCplex(cplex);
+            data.getOptimizationFn().addIPToSolver(solver);
         } else {
-            variables = data.getOptimizationFn().addLPToCplex(cplex);
+            data.getOptimizationFn().addLPToSolver(solver);
         }
 
-
         // Add the constraints
-        constraints = data.getConstraints().addToCplex(cplex, variables);
+        data.getConstraints().addToSolver(solver, data.getOptimizationFn().getNumVariables());
+        Metrics.current().time(Phase.MODEL_BUILD, start);
     }
 
-    private IloCplex configureCplex() throws IloException {
-        IloCplex cplex = new IloCplex();
-        // Have it not print stuff out because it is very verbose
-        cplex.setOut(new PrintStream(new OutputStream() {
-            public void write(int b) {
-                //DO NOTHING
+    /**
+     * Replace the optimization function while keeping the variables and constraints that are already in the model
+     */
+    public void setOptimizationFn(OptimizationFunction optimizationFn) throws SolverException {
+        if (presolve != null) {
+            setObjective(optimizationFn.getC());
+            return;
+        }
+
+        optimizationFn.replaceObjectiveInSolver(solver);
+    }
+
+    /**
+     * Replace the objective coefficients while keeping the variables and constraints that are already in the model
+     */
+    public void setObjective(double[] c) throws SolverException {
+        this.c = c;
+        solver.setObjective(presolve == null ? c : presolve.restrict(c));
+    }
+
+    /**
+     * Change the bounds of every variable while keeping the rest of the model
+     */
+    public void setBounds(double[] lower, double[] upper) throws SolverException {
+        if (presolve == null) {
+            for (int j = 0; j < lower.length; j++) {
+                solver.setBounds(j, lower[j], upper[j]);
             }
-        }));
+            return;
+        }
 
-        return cplex;
+        // Only the variables that are left can move, and they keep what presolve already knew
+        int[] columns = presolve.getColumns();
+        for (int k = 0; k < columns.length; k++) {
+            solver.setBounds(k, Math.max(lower[columns[k]], presolve.getLower()[k]),
+                    Math.min(upper[columns[k]], presolve.getUpper()[k]));
+        }
+    }
+
+    /**
+     * Give the next solve a feasible solution to start from
+     */
+    public void setStart(double[] start) throws SolverException {
+        solver.setStart(presolve == null ? start : presolve.restrict(start));
     }
 
     /**
      * Get the generic IP solution to the problem.
      */
-    public IPSolution getGenericSolution() throws IloException {
+    public IPSolution getGenericSolution() throws SolverException {
         return getLDSolution(0);
     }
 
@@ -80,22 +174,58 @@ public class LP implements AutoCloseable {
      * Get the LD solution which may include adding a value to the optimization to account for the constant in the
      * Lagrange
      */
-    public IPSolution getLDSolution(double addToFinal) throws IloException {
-        if (!cplex.solve()) {
+    public IPSolution getLDSolution(double addToFinal) throws SolverException {
+        MetricsRegistry metrics = Metrics.current();
+        long start = System.nanoTime();
+        boolean feasible = solver.solve();
+        metrics.time(Phase.SOLVE, start);
+        if (!feasible) {
+            metrics.increment(Count.INFEASIBLE_SOLVES);
             return IPSolution.infeasible();
         }
 
         // Get the optimal values and slacks
-        double[] values = cplex.getValues(variables);
-        double optimal = cplex.getObjValue();
-        double[] slack = cplex.getSlacks(constraints);
+        start = System.nanoTime();
+        double[] values = solver.getValues();
+        double optimal = solver.getObjectiveValue();
+        double[] slack;
+        if (presolve == null) {
+            slack = solver.getSlacks();
+        } else {
+            // Go back to the original variables, and the removed ones add their part of the objective
+            values = presolve.postsolve(values);
+            optimal = optimal + presolve.fixedValue(c);
+            slack = constraints.slacks(values);
+        }
+        if (integerProgramming) {
+            metrics.time(Phase.EXTRACT, start);
+
+            // The optimal value is really the additional value that needs to be added at the end
+            return new IPSolution(optimal + addToFinal, values, slack, solver.isOptimal());
+        }
 
-        // The optimal value is really the additional value that needs to be added at the end
-        return new IPSolution(optimal + addToFinal, values, slack);
+        double[] duals = solver.getDuals();
+        double[] reducedCosts = solver.getReducedCosts();
+        metrics.time(Phase.EXTRACT, start);
+
+        return new IPSolution(optimal + addToFinal, values, slack, duals, reducedCosts);
+    }
+
+    /**
+     * Add the presolved model to the solver, with every variable inside of the bounds that presolve found
+     */
+    private static void buildPresolved(Solver solver, Presolve presolve, double[] c) throws SolverException {
+        solver.addVariables(presolve.getNumColumns(), OptimizationFunction.VARIABLE_LOWER_BOUND,
+                OptimizationFunction.VARIABLE_UPPER_BOUND, true);
+        for (int k = 0; k < presolve.getNumColumns(); k++) {
+            solver.setBounds(k, presolve.getLower()[k], presolve.getUpper()[k]);
+        }
+        solver.setObjective(presolve.restrict(c));
+        presolve.getConstraints().addToSolver(solver, presolve.getNumColumns());
     }
 
     @Override
-    public void close() throws Exception {
-        cplex.close();
+    public void close() throws SolverException {
+        solver.close();
     }
 }
@@ -1,10 +1,15 @@
 package com.digit.app;
 
+import com.digit.app.trace.Trace;
 import com.google.common.base.Preconditions;
 
 import java.util.Arrays;
 
 public class LagrangianRelaxation {
+    /**
+     * How far L(u) can be above an integer and still count as that integer, since the solver's values aren't exact
+     */
+    private static final double INTEGRALITY_TOLERANCE = 1e-6;
 
     public static double stepValue(double e, double[] subgradient, double optimalValueFromIteration, double lowestOriginalUB) {
         Preconditions.checkArgument(e <= 2, "Epsilon has to be less than 2");
@@ -14,7 +19,9 @@ public class LagrangianRelaxation {
         double numerator = optimalValueFromIteration - lowestOriginalUB;
         double value = e*numerator/denominator;
 
-        System.out.printf("Calculating: %f * (%f - %f)/(%f^2) = %f", e, optimalValueFromIteration, lowestOriginalUB, euclideanNorm, value);
+        if (Trace.isDebug()) {
+            System.out.printf("Calculating: %f * (%f - %f)/(%f^2) = %f", e, optimalValueFromIteration, lowestOriginalUB, euclideanNorm, value);
+        }
 
         return value;
     }
@@ -24,6 +31,32 @@ public class LagrangianRelaxation {
         return euclideanNorm * euclideanNorm;
     }
 
+    /**
+     * The gap between the lowest L(u) and the best feasible value relative to L(u). When c is all integers, the
+     * optimal value is too, so L(u) can be rounded down first.
+     */
+    public static double relativeGap(double dualBound, double primalBound, boolean integralObjective) {
+        if (primalBound == Double.NEGATIVE_INFINITY) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double bound = integralObjective ? Math.floor(dualBound + INTEGRALITY_TOLERANCE) : dualBound;
+        return Math.max(0, bound - primalBound) / Math.max(1, Math.abs(bound));
+    }
+
+    /**
+     * Are all of the values integers
+     */
+    public static boolean isIntegral(double[] values) {
+        for (double value: values) {
+            if (value != Math.rint(value)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     public static double originalIPOptimalValue(double[] originalC, double[] variables) {
         Preconditions.checkArgument(originalC.length == variables.length, "The lengths of C and variables need to be the same");
         double optimalValue = 0;
@@ -35,15 +68,38 @@ public class LagrangianRelaxation {
     }
 
     public static double[] newLagrangianMultipliers(double[] origU, double step, double[] subgradient) {
-        Preconditions.checkArgument(origU.length == subgradient.length, "The lengths of subgradient and u need to be the same");
         double[] newU = Arrays.copyOf(origU, origU.length);
-        for (int i = 0; i < origU.length; i++) {
-            double newVal = origU[i] + step * subgradient[i];
+        updateLagrangianMultipliers(newU, step, subgradient);
 
-            newU[i] = Math.max(newVal, 0);
+        return newU;
+    }
+
+    /**
+     * The same as {@link #newLagrangianMultipliers(double[], double, double[])} but changes u in place
+     */
+    public static void updateLagrangianMultipliers(double[] u, double step, double[] subgradient) {
+        Preconditions.checkArgument(u.length == subgradient.length, "The lengths of subgradient and u need to be the same");
+        for (int i = 0; i < u.length; i++) {
+            double newVal = u[i] + step * subgradient[i];
+
+            u[i] = Math.max(newVal, 0);
         }
+    }
 
-        return newU;
+    /**
+     * Turn the duals of the linear relaxation into multipliers for the first constraints. The multipliers are for the
+     * constraints in <= form, so the dual of a >= constraint, which is <= 0, flips sign. At the best multipliers for
+     * the linear relaxation these are exactly the duals, which makes them a good place for L(u) to start.
+     */
+    public static double[] multipliersFromDuals(double[] duals, boolean[] AlessThanb, int numMultipliers) {
+        Preconditions.checkArgument(duals.length >= numMultipliers,
+                "There are %s duals but %s multipliers".formatted(duals.length, numMultipliers));
+        double[] u = new double[numMultipliers];
+        for (int i = 0; i < numMultipliers; i++) {
+            u[i] = Math.max(0, AlessThanb[i] ? duals[i] : -duals[i]);
+        }
+
+        return u;
     }
 
     private static double euclideanNorm(double[] vector) {
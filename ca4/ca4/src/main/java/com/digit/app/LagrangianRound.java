@@ -0,0 +1,462 @@
+package com.digit.app;
+
+import com.digit.app.data.Data;
+import com.digit.app.data.Presolve;
+import com.digit.app.dual.DualEngine;
+import com.digit.app.metrics.Count;
+import com.digit.app.metrics.Metrics;
+import com.digit.app.metrics.MetricsRegistry;
+import com.digit.app.metrics.Phase;
+import com.digit.app.trace.Trace;
+import com.digit.app.trace.TraceEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * One round of Lagrangian Relaxation where the first {@code round} constraints are relaxed. A round only reads the
+ * original data and builds its own solver, so rounds can run at the same time.
+ */
+public class LagrangianRound implements Callable<RoundResult> {
+    private static final int TOTAL_ROUNDS_TO_TRY = 90000;
+
+    /**
+     * Start each subproblem from the x of the last iteration since it usually barely changes
+     */
+    private static final boolean WARM_START = true;
+
+    private final int round;
+    private final Data origData;
+    private final RoundSettings settings;
+
+    /**
+     * Whether to print the summary of the round to the console. Batches of many instances turn this off.
+     */
+    private final boolean printSummary;
+
+    /**
+     * The value every multiplier starts at
+     */
+    private final double startMultiplier;
+
+    /**
+     * The race this round is one of the runs of, or null if it runs on its own
+     */
+    private final Race race;
+
+    public LagrangianRound(int round, Data origData, RoundSettings settings) {
+        this(round, origData, settings, true);
+    }
+
+    public LagrangianRound(int round, Data origData, RoundSettings settings, boolean printSummary) {
+        this(round, origData, settings, printSummary, 1, null);
+    }
+
+    /**
+     * Create one run of a race, which shares its bounds with the other runs and stops once the gap between the best of
+     * them closes
+     */
+    public LagrangianRound(int round, Data origData, RoundSettings settings, double startMultiplier, Race race) {
+        this(round, origData, settings, false, startMultiplier, race);
+    }
+
+    private LagrangianRound(int round, Data origData, RoundSettings settings, boolean printSummary,
+                            double startMultiplier, Race race) {
+        this.round = round;
+        this.origData = origData;
+        this.settings = settings;
+        this.printSummary = printSummary;
+        this.startMultiplier = startMultiplier;
+        this.race = race;
+    }
+
+    @Override
+    public RoundResult call() throws Exception {
+        long roundStart = System.nanoTime();
+        MetricsRegistry metrics = Metrics.startRound();
+
+        // Rounds run at the same time, so the summary is kept with the result and printed once the rounds before it are
+        ByteArrayOutputStream summaryBytes = new ByteArrayOutputStream();
+        PrintStream summary = new PrintStream(summaryBytes, true, StandardCharsets.UTF_8);
+        if (printSummary) {
+            printSubject(summary, "Lagrangian Relaxation round: %s".formatted(round));
+        }
+        List<Table1> valueTable1 = new ArrayList<>();
+        Table2 valueTable2 = new Table2();
+        valueTable2.setRound(round);
+        // Every way of stopping early replaces this, even on the first iteration
+        valueTable2.setFinalIteration(TOTAL_ROUNDS_TO_TRY);
+
+
+        // Choose a first upper bound and lagrangian multipliers
+        // The first upper bound will be the linear relaxation of the original problem
+        // Every round has the same one, so only the first to get here solves it
+        IPSolution relaxation = ResultCache.shared().linearProgramRelaxation(origData, settings.getSolverType());
+        double upperBound = relaxation.getOptimizationValue();
+        // Get the L(u) function
+        Data lagrangianData = origData.relax(round);
+
+        // The multipliers, c and subgradient are updated in place on every iteration
+        LagrangianWorkspace workspace = new LagrangianWorkspace(lagrangianData.getOptimizationFn());
+        workspace.fillMultipliers(startMultiplier);
+        if (settings.isStartFromDuals() && relaxation.isFeasible()) {
+            workspace.setMultipliers(LagrangianRelaxation.multipliersFromDuals(relaxation.getDuals(),
+                    origData.getConstraints().getAlessThanb(), round));
+        }
+        double[] lagrangianMultipliers = workspace.getLagrangeMultipliers();
+        double[] subgradient = workspace.getSubgradient();
+
+        // The engine keeps its own state, like epsilon, for the round
+        DualEngine engine = settings.getDualEngineType().create(lagrangianData.getOptimizationFn(), settings);
+        if (Trace.isDebug()) {
+            System.out.println(lagrangianData);
+        }
+
+        Trace.setContext(round, 0);
+        Trace.record(TraceEvent.ROUND_START, lagrangianMultipliers.length, upperBound, engine.getE(), 0, 0);
+
+        double lastOptimalZDual = Integer.MAX_VALUE;
+
+        // The true bounds on the optimal value: the lowest L(u) and the best x that the repair made feasible
+        double[] origC = origData.getOptimizationFn().getC();
+        boolean integralObjective = LagrangianRelaxation.isIntegral(origC);
+        PrimalRepair repair = new PrimalRepair(origData.getConstraints(), origC);
+        double dualBound = Double.POSITIVE_INFINITY;
+
+        // An L(u) that the solver stopped on early, like at its node limit, might be below the real one, so it isn't a
+        // bound. Once that happens the round doesn't stop on the gap anymore.
+        boolean exactDualBound = true;
+        double primalBound = Double.NEGATIVE_INFINITY;
+        double[] primalSolution = null;
+
+        // The linear relaxation repaired into a feasible solution is what reduced cost fixing compares against
+        ReducedCostFixing fixing = null;
+        if (settings.isReducedCostFixing() && relaxation.isFeasible()) {
+            double[] repaired = repair.repair(relaxation.getVariables());
+            if (repaired != null) {
+                primalBound = LagrangianRelaxation.originalIPOptimalValue(origC, repaired);
+                primalSolution = repaired;
+                fixing = ReducedCostFixing.tighten(relaxation, primalBound);
+                if (printSummary) {
+                    summary.printf("Reduced costs fixed %s variables and tightened %s more against %f\n",
+                            fixing.getNumFixed(), fixing.getNumTightened(), primalBound);
+                }
+            }
+        }
+
+        double[] primalEstimate = null;
+        int solves;
+        long solverNanos;
+        double[] lastX = null;
+
+        // Pick up from the last checkpoint of this round if there is one, which has to be for the same instance and
+        // settings
+        String instanceHash = null;
+        String settingsKey = RoundCheckpoint.settingsKey(settings, lagrangianMultipliers.length, startMultiplier);
+        Path checkpointPath = null;
+        RoundCheckpoint checkpoint = null;
+        if (settings.getCheckpointDirectory() != null) {
+            instanceHash = ResultCache.contentHash(origData);
+            checkpointPath = RoundCheckpoint.pathFor(settings.getCheckpointDirectory(), round, instanceHash, settings,
+                    startMultiplier);
+            checkpoint = RoundCheckpoint.read(checkpointPath, instanceHash, settingsKey);
+        }
+        int firstIteration = 0;
+        boolean finished = false;
+        if (checkpoint != null) {
+            firstIteration = checkpoint.getIteration();
+            finished = checkpoint.isFinished();
+            upperBound = checkpoint.getUpperBound();
+            lastOptimalZDual = checkpoint.getLastOptimalZDual();
+            dualBound = checkpoint.getDualBound();
+            exactDualBound = checkpoint.isExactDualBound();
+            primalBound = checkpoint.getPrimalBound();
+            primalSolution = checkpoint.getPrimalSolution();
+            lastX = checkpoint.getLastX();
+            workspace.setMultipliers(checkpoint.getMultipliers());
+            System.arraycopy(checkpoint.getDirection(), 0, workspace.getDirection(), 0, workspace.getDirection().length);
+            engine.readState(new DataInputStream(new ByteArrayInputStream(checkpoint.getEngineState())));
+            valueTable1 = new ArrayList<>(checkpoint.getTable1());
+            valueTable2 = checkpoint.getTable2();
+            if (printSummary) {
+                summary.printf("Resuming from the checkpoint at iteration %s\n", firstIteration);
+            }
+        }
+
+        // Build the integer program for L(u) once. Each iteration only changes its objective.
+        // The line search has its own copies of L(u) for the other step lengths
+        try (LagrangianSubproblem subproblem = new LagrangianSubproblem(lagrangianData, settings.getSolverType());
+             LineSearch lineSearch = settings.isLineSearch() ? new LineSearch(lagrangianData, settings.getSolverType(),
+                     settings.getLineSearchCandidates()) : null) {
+            if (fixing != null) {
+                subproblem.setBounds(fixing.getLower(), fixing.getUpper());
+                if (lineSearch != null) {
+                    lineSearch.setBounds(fixing.getLower(), fixing.getUpper());
+                }
+            }
+
+            // The solution the line search already found for the multipliers of the next iteration
+            IPSolution searched = null;
+            for (int iteration = firstIteration; !finished && iteration <= TOTAL_ROUNDS_TO_TRY; iteration++) {
+                Trace.setContext(round, iteration + 1);
+                Trace.record(TraceEvent.MULTIPLIERS, lagrangianMultipliers);
+                metrics.increment(Count.ITERATIONS);
+                if (Trace.isDebug()) {
+                    printSubject(System.out, "Round %s Iteration: %s".formatted(round, iteration + 1));
+                    System.out.printf("Upper Bound: %f\n", upperBound);
+                    System.out.printf("Lagrangian multipliers: %s\n", doubleArrayToString(lagrangianMultipliers));
+                }
+
+                // Run the integer program for L(lagrangianMultipliers) for the round
+                // Get the new optimal value and the value of subgradient b-Ax
+                // For the new optimal value, take the lagrangian data and turn it into an IP
+                // Then, run it and get the solution
+                // The value for this one is listed here
+                IPSolution solution = searched != null ? searched
+                        : subproblem.solve(workspace, WARM_START ? lastX : null);
+                searched = null;
+                lastX = solution.isFeasible() ? solution.getVariables() : null;
+                Trace.record(TraceEvent.SOLUTION, solution.getVariables());
+                if (Trace.isDebug()) {
+                    printSubject(System.out, "LR Solution");
+                    System.out.println(solution);
+                }
+
+                // Now get the subgradient
+                workspace.updateSubgradient(solution.getVariables());
+                Trace.record(TraceEvent.SUBGRADIENT, subgradient);
+
+                // If the subgradient is 0, exit out because we are done
+                if (workspace.isSubgradientZero()) {
+                    valueTable2.setFinalIteration(iteration);
+                    if (Trace.isDebug()) {
+                        System.out.println("The subgradient was 0");
+                    }
+                    break;
+                }
+
+                // Update the lowest upper bound of the original problem if needed
+                double valueForOrigProblem = LagrangianRelaxation.originalIPOptimalValue(origC, solution.getVariables());
+                if (Trace.isDebug()) {
+                    System.out.printf("Value for original problem: %f", valueForOrigProblem);
+                }
+                if (valueForOrigProblem < upperBound) {
+                    if (Trace.isDebug()) {
+                        System.out.printf("\nUpdating the upper bound from %f to %f\n", upperBound, valueForOrigProblem);
+                    }
+                    upperBound = valueForOrigProblem;
+                }
+
+                // Repair x into a feasible solution to get a real lower bound
+                if (solution.isFeasible()) {
+                    if (solution.isOptimal()) {
+                        dualBound = Math.min(dualBound, solution.getOptimizationValue());
+                    } else {
+                        exactDualBound = false;
+                    }
+                    long repairStart = System.nanoTime();
+                    double[] repaired = repair.repair(solution.getVariables());
+                    metrics.time(Phase.REPAIR, repairStart);
+                    if (repaired != null) {
+                        double repairedValue = LagrangianRelaxation.originalIPOptimalValue(origC, repaired);
+                        if (repairedValue > primalBound) {
+                            primalBound = repairedValue;
+                            primalSolution = repaired;
+                        }
+                    }
+
+                    if (race != null) {
+                        race.offerDualBound(dualBound);
+                        race.offerPrimalBound(primalBound);
+                    }
+                }
+
+                double violationSquared = LagrangianRelaxation.violationSquared(subgradient);
+                Trace.record(TraceEvent.ITERATION, solution.getOptimizationValue(), valueForOrigProblem, upperBound,
+                        violationSquared, 0);
+
+                // If we improved the value, set the iterations for improvement to 0
+                // Also, update table 2 because that means this is the first time we are seeing the new data
+                // Also do it if it is iteration 0 since we haven't yet added anything to table 2
+                boolean improved = iteration == 0 || lastOptimalZDual > solution.getOptimizationValue();
+
+                // Store the multipliers for table 1 before the engine moves them
+                double[] multipliersForTable1 = round == 5 ? lagrangianMultipliers.clone() : null;
+
+                if (improved) {
+                    valueTable2.setBestSolutionFoundIteration(iteration);
+                    valueTable2.setLagrangianOptimal(solution.getOptimizationValue());
+                    valueTable2.setLagrangeMultiplier(lagrangianMultipliers.clone());
+                    valueTable2.setOptimalX(solution.getVariables());
+                    valueTable2.setSubgradient(subgradient.clone());
+                }
+
+                // Update the new lagrangian multipliers
+                if (Trace.isDebug()) {
+                    printSubject(System.out, "Step function calculation");
+                }
+                double e = engine.getE();
+                double[] beforeStep = lineSearch != null ? lagrangianMultipliers.clone() : null;
+                long stepStart = System.nanoTime();
+                double stepValue = engine.update(workspace, solution.getOptimizationValue(), upperBound,
+                        solution.getVariables(), improved);
+                metrics.time(Phase.STEP, stepStart);
+                if (engine.getE() < e) {
+                    metrics.increment(Count.E_DECREASES);
+                }
+                Trace.record(TraceEvent.STEP, e, solution.getOptimizationValue(), upperBound,
+                        Math.sqrt(violationSquared), stepValue);
+
+                // Store table 1 data for round 5
+                if (round == 5) {
+                    Table1 valueTab1 = new Table1(round, iteration, multipliersForTable1, solution.getOptimizationValue(), stepValue, e, violationSquared, valueForOrigProblem);
+                    valueTable1.add(valueTab1);
+                }
+
+                lastOptimalZDual = solution.getOptimizationValue();
+
+                // In a race, the gap is between the best bounds of every run
+                double gap = race != null
+                        ? LagrangianRelaxation.relativeGap(race.getDualBound(), race.getPrimalBound(), integralObjective)
+                        : LagrangianRelaxation.relativeGap(dualBound, primalBound, integralObjective);
+                if (exactDualBound && settings.isGapClosed(gap)) {
+                    valueTable2.setFinalIteration(iteration);
+
+                    // The best bounds are close enough, so the other runs can't do any better
+                    if (race != null) {
+                        race.finish();
+                    }
+                    if (printSummary) {
+                        summary.printf("Stopping because the gap between L(u) and the best feasible solution is %f\n",
+                                gap);
+                    }
+                    break;
+                }
+
+                if (race != null && race.isFinished()) {
+                    valueTable2.setFinalIteration(iteration);
+                    break;
+                }
+
+                if (engine.isFinished()) {
+                    valueTable2.setFinalIteration(iteration);
+                    if (printSummary) {
+                        summary.printf("Stopping because the %s method finished with e at %f\n",
+                                settings.describeDualEngine(), engine.getE());
+                    }
+                    break;
+                }
+
+                // Solve the next L(u) at several step lengths along the engine's move and go to the lowest
+                if (lineSearch != null) {
+                    searched = lineSearch.search(subproblem, workspace, beforeStep, WARM_START ? lastX : null);
+                }
+
+                // Everything is ready for the next iteration, so that is where a resumed round starts
+                if (checkpointPath != null && (iteration + 1) % settings.getCheckpointEvery() == 0) {
+                    long checkpointStart = System.nanoTime();
+                    new RoundCheckpoint(instanceHash, settingsKey, iteration + 1, false, upperBound, lastOptimalZDual,
+                            dualBound, exactDualBound, primalBound, primalSolution, lastX,
+                            lagrangianMultipliers.clone(), workspace.getDirection().clone(), engineState(engine),
+                            valueTable1, valueTable2).write(checkpointPath);
+                    metrics.time(Phase.CHECKPOINT, checkpointStart);
+                }
+            }
+
+            // Keep the results so that resuming a round that already ended doesn't run it again
+            if (checkpointPath != null && !finished) {
+                new RoundCheckpoint(instanceHash, settingsKey, valueTable2.getFinalIteration(), true, upperBound,
+                        lastOptimalZDual, dualBound, exactDualBound, primalBound, primalSolution, lastX,
+                        lagrangianMultipliers.clone(), workspace.getDirection().clone(), engineState(engine),
+                        valueTable1, valueTable2).write(checkpointPath);
+            }
+
+            primalEstimate = engine.getPrimalEstimate();
+            if (primalEstimate != null && printSummary) {
+                // A relaxed constraint holds when its term in L is >= 0
+                double[] terms = new double[lagrangianMultipliers.length];
+                lagrangianData.getOptimizationFn().getLagrangianTermsInto(primalEstimate, terms);
+                double maxViolation = 0;
+                for (double term: terms) {
+                    maxViolation = Math.max(maxViolation, -term);
+                }
+                summary.printf("Averaged x has value %f for the original problem and breaks a relaxed constraint by at most %f\n",
+                        LagrangianRelaxation.originalIPOptimalValue(origC, primalEstimate),
+                        maxViolation);
+            }
+
+            if (printSummary) {
+                Presolve presolve = subproblem.getPresolve();
+                if (presolve != null) {
+                    summary.printf("Presolve removed %s of %s constraints and %s variables, and tightened %s bounds and %s coefficients\n",
+                            presolve.getNumRemovedRows(), lagrangianData.getConstraints().getNumConstraints(),
+                            presolve.getNumRemovedColumns(), presolve.getNumTightenedBounds(),
+                            presolve.getNumTightenedCoefficients());
+                }
+                summary.printf("L(u) was solved with %s\n", subproblem.getMethod().name().toLowerCase().replace('_', ' '));
+                summary.printf("Warm start was still optimal for %s of %s solves\n",
+                        subproblem.getWarmStartsStillOptimal(), subproblem.getWarmStarts());
+                if (lineSearch != null) {
+                    summary.printf("Line search went further or shorter than the engine on %s of %s iterations\n",
+                            lineSearch.getImprovements(), lineSearch.getSearches());
+                }
+            }
+            solves = subproblem.getSolves() + (lineSearch != null ? lineSearch.getSolves() : 0);
+            solverNanos = subproblem.getSolverNanos();
+        }
+
+        Trace.record(TraceEvent.ROUND_END, valueTable2.getFinalIteration(), valueTable2.getBestSolutionFoundIteration(),
+                valueTable2.getLagrangianOptimal(), upperBound, 0);
+        Metrics.finishRound(System.nanoTime() - roundStart);
+        if (printSummary) {
+            if (primalSolution != null) {
+                summary.printf("Best feasible solution has value %f, which is a gap of %f to the lowest L(u) of %f\n",
+                        primalBound, LagrangianRelaxation.relativeGap(dualBound, primalBound, integralObjective),
+                        dualBound);
+            } else {
+                summary.println("The repair didn't find a feasible solution");
+            }
+            if (!exactDualBound) {
+                summary.println("Some L(u) were cut off by the solver's node limit, so they were left out of the lowest "
+                        + "L(u) and the round didn't stop on the gap");
+            }
+            summary.printf("Metrics for round %s:\n%s", round, metrics.summary());
+            summary.printf("Ending on optimal integer value %f", upperBound);
+        }
+
+        return new RoundResult(round, valueTable1, valueTable2, upperBound, dualBound, exactDualBound, primalBound,
+                primalSolution,
+                primalEstimate, solves, solverNanos, summaryBytes.toString(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] engineState(DualEngine engine) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        engine.writeState(out);
+        out.flush();
+
+        return bytes.toByteArray();
+    }
+
+    private static String doubleArrayToString(double[] toPrint) {
+        StringBuilder builder = new StringBuilder();
+        for (double value: toPrint) {
+            builder.append("%.5f ".formatted(value));
+        }
+
+        return builder.toString();
+    }
+
+    private static void printSubject(PrintStream out, String topic) {
+        out.printf("\n\n------------ %s ------------ %n", topic);
+    }
+}
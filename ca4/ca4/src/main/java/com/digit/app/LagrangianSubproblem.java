@@ -0,0 +1,182 @@
+package com.digit.app;
+
+import com.digit.app.data.Data;
+import com.digit.app.data.OptimizationFunction;
+import com.digit.app.data.Presolve;
+import com.digit.app.metrics.Metrics;
+import com.digit.app.metrics.Phase;
+import com.digit.app.solver.Solver;
+import com.digit.app.solver.SolverException;
+import com.digit.app.solver.SolverType;
+import com.digit.app.trace.Trace;
+import com.digit.app.trace.TraceEvent;
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+
+/**
+ * The integer program for L(u) that gets solved on every iteration of a round. The constraints never change inside of a
+ * round, only the multipliers do, so the model is built once and each solve only swaps the objective coefficients.
+ * This lets the solver start from the last basis instead of building everything again.
+ */
+public class LagrangianSubproblem implements AutoCloseable {
+    private static final double STILL_OPTIMAL_TOLERANCE = 1e-6;
+
+    private final OptimizationFunction lagrangianFn;
+    private final LP lp;
+
+    /**
+     * How the model gets solved, which depends on how many constraints weren't relaxed
+     */
+    @Getter
+    private final SubproblemMethod method;
+
+    /**
+     * What the constraints that are left were presolved into, or null if they weren't
+     */
+    @Getter
+    private final Presolve presolve;
+
+    /**
+     * How many solves were given a starting solution
+     */
+    @Getter
+    private int warmStarts = 0;
+
+    /**
+     * How many of those starting solutions were still optimal for the new multipliers
+     */
+    @Getter
+    private int warmStartsStillOptimal = 0;
+
+    /**
+     * How many times L(u) was solved
+     */
+    @Getter
+    private int solves = 0;
+
+    /**
+     * The time spent inside of the solver for all of the solves
+     */
+    @Getter
+    private long solverNanos = 0;
+
+    public LagrangianSubproblem(Data lagrangianData) throws SolverException {
+        this(lagrangianData, SolverType.fromSystemProperty());
+    }
+
+    /**
+     * Build the model in the fastest solver for the constraints that are left, which is only the given solver type
+     * when there is more than one. The constraints are presolved first unless that was turned off, and the method is
+     * picked for what presolve left, since removing rows can leave a knapsack or blocks behind.
+     */
+    public LagrangianSubproblem(Data lagrangianData, SolverType solverType) throws SolverException {
+        this(lagrangianData, Presolve.ifEnabled(lagrangianData.getConstraints(), null), solverType);
+    }
+
+    private LagrangianSubproblem(Data lagrangianData, Presolve presolve, SolverType solverType)
+            throws SolverException {
+        this(lagrangianData, presolve,
+                SubproblemMethod.choose(presolve == null ? lagrangianData.getConstraints() : presolve.getConstraints()),
+                solverType);
+    }
+
+    private LagrangianSubproblem(Data lagrangianData, Presolve presolve, SubproblemMethod method, SolverType solverType)
+            throws SolverException {
+        this(lagrangianData, method.create(presolve == null ? lagrangianData.getConstraints() : presolve.getConstraints(),
+                solverType), method, presolve);
+    }
+
+    /**
+     * Build the model in a solver that was already created, like a stub that skips the real solve
+     */
+    public LagrangianSubproblem(Data lagrangianData, Solver solver) throws SolverException {
+        this(lagrangianData, solver, SubproblemMethod.MIP, null);
+    }
+
+    private LagrangianSubproblem(Data lagrangianData, Solver solver, SubproblemMethod method, Presolve presolve)
+            throws SolverException {
+        Preconditions.checkArgument(lagrangianData.getOptimizationFn().isHasLagrangian(),
+                "This only handles data that has lagrangian optimization. Otherwise, use LP directly");
+        this.lagrangianFn = lagrangianData.getOptimizationFn();
+        this.method = method;
+        this.presolve = presolve;
+
+        // Build the model with all multipliers at 0, which is just the original c. The objective changes on every
+        // solve, so presolve didn't get to use it.
+        int numMultipliers = lagrangianFn.getLagrangianOptimizationConstants().length;
+        Data withoutMultipliers = lagrangianData.withLagrange(new double[numMultipliers]).getLeft();
+        this.lp = presolve == null ? LP.integerProgram(withoutMultipliers, solver)
+                : LP.integerProgram(withoutMultipliers, solver, presolve);
+    }
+
+    /**
+     * Narrow the bounds of the variables for every solve after this, like after {@link ReducedCostFixing}
+     */
+    public void setBounds(double[] lower, double[] upper) throws SolverException {
+        lp.setBounds(lower, upper);
+    }
+
+    /**
+     * Solve L(u) for the given lagrange multipliers
+     */
+    public IPSolution solve(double[] lagrangeMultipliers) throws SolverException {
+        return solve(lagrangeMultipliers, null);
+    }
+
+    /**
+     * Solve L(u) for the given lagrange multipliers. If a start is given (usually the x from the last iteration), branch
+     * and bound begins with it as the incumbent instead of starting cold.
+     */
+    public IPSolution solve(double[] lagrangeMultipliers, double[] start) throws SolverException {
+        // Create the new c based on Lagrange multipliers
+        long withLagrangeStart = System.nanoTime();
+        double[] newC = new double[lagrangianFn.getNumVariables()];
+        double constant = lagrangianFn.withLagrangeInto(lagrangeMultipliers, newC);
+        Metrics.current().time(Phase.WITH_LAGRANGE, withLagrangeStart);
+
+        return solve(newC, constant, start);
+    }
+
+    /**
+     * Solve L(u) for the multipliers in the workspace, using the c that it already calculated
+     */
+    public IPSolution solve(LagrangianWorkspace workspace, double[] start) throws SolverException {
+        return solve(workspace.getCost(), workspace.getConstant(), start);
+    }
+
+    private IPSolution solve(double[] newC, double constant, double[] start) throws SolverException {
+        Trace.record(TraceEvent.OBJECTIVE, newC);
+        if (Trace.isDebug()) {
+            System.out.println(new OptimizationFunction(newC));
+        }
+
+        lp.setObjective(newC);
+
+        if (start != null) {
+            lp.setStart(start);
+        }
+
+        // The constant from the multipliers needs to be added to the final result
+        long solveStart = System.nanoTime();
+        IPSolution solution = lp.getLDSolution(constant);
+        solverNanos = solverNanos + System.nanoTime() - solveStart;
+        solves++;
+
+        if (start != null) {
+            warmStarts++;
+
+            // Check if the start would have been just as good
+            double startValue = LagrangianRelaxation.originalIPOptimalValue(newC, start) + constant;
+            if (solution.isFeasible() && startValue >= solution.getOptimizationValue() - STILL_OPTIMAL_TOLERANCE) {
+                warmStartsStillOptimal++;
+            }
+        }
+
+        return solution;
+    }
+
+    @Override
+    public void close() throws SolverException {
+        lp.close();
+    }
+}
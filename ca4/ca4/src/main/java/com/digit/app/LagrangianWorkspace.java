@@ -0,0 +1,114 @@
+package com.digit.app;
+
+import com.digit.app.data.OptimizationFunction;
+import com.digit.app.metrics.Metrics;
+import com.digit.app.metrics.Phase;
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * The vectors that change on every iteration of a round: the lagrange multipliers, the c they give, and the
+ * subgradient. They are allocated once and updated in place, so the iterations themselves don't create any garbage.
+ *
+ * The arrays handed out by the getters are the workspace's own buffers. Anything that needs to keep them past the
+ * next update has to copy them.
+ */
+public class LagrangianWorkspace {
+    private final OptimizationFunction lagrangianFn;
+
+    @Getter
+    private final double[] lagrangeMultipliers;
+
+    /**
+     * The c for the current multipliers
+     */
+    @Getter
+    private final double[] cost;
+
+    @Getter
+    private final double[] subgradient;
+
+    /**
+     * The direction the step rule picked to move the multipliers in
+     */
+    @Getter
+    private final double[] direction;
+
+    /**
+     * The value that needs to be added to the optimization function for the current multipliers
+     */
+    @Getter
+    private double constant;
+
+    public LagrangianWorkspace(OptimizationFunction lagrangianFn) {
+        Preconditions.checkArgument(lagrangianFn.isHasLagrangian(),
+                "The workspace needs an optimization function with a lagrangian part");
+        int numMultipliers = lagrangianFn.getLagrangianOptimizationConstants().length;
+
+        this.lagrangianFn = lagrangianFn;
+        this.lagrangeMultipliers = new double[numMultipliers];
+        this.cost = new double[lagrangianFn.getNumVariables()];
+        this.subgradient = new double[numMultipliers];
+        this.direction = new double[numMultipliers];
+        updateCost();
+    }
+
+    /**
+     * Set every multiplier to the value and update the c
+     */
+    public void fillMultipliers(double value) {
+        Arrays.fill(lagrangeMultipliers, value);
+        updateCost();
+    }
+
+    /**
+     * Set the multipliers and update the c
+     */
+    public void setMultipliers(double[] values) {
+        Preconditions.checkArgument(values.length == lagrangeMultipliers.length,
+                "There are %s multipliers but got %s values".formatted(lagrangeMultipliers.length, values.length));
+        System.arraycopy(values, 0, lagrangeMultipliers, 0, values.length);
+        updateCost();
+    }
+
+    /**
+     * Calculate the subgradient at x
+     */
+    public void updateSubgradient(double[] x) {
+        lagrangianFn.getSubgradientInto(x, subgradient);
+    }
+
+    /**
+     * Move the multipliers by the step along the subgradient and update the c
+     */
+    public void step(double step) {
+        LagrangianRelaxation.updateLagrangianMultipliers(lagrangeMultipliers, step, subgradient);
+        updateCost();
+    }
+
+    /**
+     * Move the multipliers by the step along the direction and update the c
+     */
+    public void stepAlongDirection(double step) {
+        LagrangianRelaxation.updateLagrangianMultipliers(lagrangeMultipliers, step, direction);
+        updateCost();
+    }
+
+    public boolean isSubgradientZero() {
+        for (double value: subgradient) {
+            if (value != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void updateCost() {
+        long start = System.nanoTime();
+        constant = lagrangianFn.withLagrangeInto(lagrangeMultipliers, cost);
+        Metrics.current().time(Phase.WITH_LAGRANGE, start);
+    }
+}
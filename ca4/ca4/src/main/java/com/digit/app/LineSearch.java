@@ -0,0 +1,175 @@
+package com.digit.app;
+
+import com.digit.app.data.Data;
+import com.digit.app.metrics.Metrics;
+import com.digit.app.metrics.MetricsRegistry;
+import com.digit.app.solver.SolverException;
+import com.digit.app.solver.SolverType;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tries more than one step length on every iteration. Once the engine has moved the multipliers, L(u) is solved at the
+ * engine's own step and at shorter and longer steps along the same move at the same time, and the multipliers go to
+ * whichever gave the lowest L(u). That solution is what the next iteration uses, so the engine's step costs nothing
+ * extra and the other ones run on cores that would be idle otherwise.
+ *
+ * Each step length has its own copy of L(u), built once for the round, since a model can only be solved for one
+ * objective at a time.
+ */
+public class LineSearch implements AutoCloseable {
+    /**
+     * How much lower another step has to make L(u) to be picked over the engine's own
+     */
+    private static final double IMPROVEMENT_TOLERANCE = 1e-9;
+
+    /**
+     * How far along the engine's move each step goes. The first one is the engine's own.
+     */
+    private final double[] factors;
+
+    /**
+     * L(u) for every step length other than the engine's own
+     */
+    private final List<LagrangianSubproblem> subproblems = new ArrayList<>();
+    private final ExecutorService pool;
+
+    /**
+     * How many times L(u) was solved for the other step lengths
+     */
+    @Getter
+    private int solves = 0;
+
+    /**
+     * How many searches picked a step other than the engine's own
+     */
+    @Getter
+    private int improvements = 0;
+
+    /**
+     * How many searches there were
+     */
+    @Getter
+    private int searches = 0;
+
+    public LineSearch(Data lagrangianData, SolverType solverType, int numCandidates) throws SolverException {
+        Preconditions.checkArgument(numCandidates > 1,
+                "A line search needs more than the engine's own step but had %s".formatted(numCandidates));
+        this.factors = factors(numCandidates);
+
+        for (int candidate = 1; candidate < numCandidates; candidate++) {
+            subproblems.add(new LagrangianSubproblem(lagrangianData, solverType));
+        }
+        this.pool = Executors.newFixedThreadPool(numCandidates - 1,
+                new ThreadFactoryBuilder().setNameFormat("line-search-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Half and double the engine's step, then a quarter and four times, and so on
+     */
+    static double[] factors(int numCandidates) {
+        double[] factors = new double[numCandidates];
+        factors[0] = 1;
+        for (int candidate = 1; candidate < numCandidates; candidate++) {
+            int power = (candidate + 1) / 2;
+            factors[candidate] = candidate % 2 == 1 ? Math.pow(0.5, power) : Math.pow(2, power);
+        }
+
+        return factors;
+    }
+
+    /**
+     * Narrow the bounds of the variables in every copy of L(u), like the round does for its own
+     */
+    public void setBounds(double[] lower, double[] upper) throws SolverException {
+        for (LagrangianSubproblem subproblem: subproblems) {
+            subproblem.setBounds(lower, upper);
+        }
+    }
+
+    /**
+     * Solve L(u) at every step length along the move from the given multipliers to the ones the engine put in the
+     * workspace. The workspace ends up with the multipliers of the lowest L(u), and that solution is returned.
+     *
+     * @param subproblem The round's own L(u), which solves the engine's step on this thread
+     * @param workspace Holds the multipliers the engine moved to
+     * @param from The multipliers before the engine moved them
+     * @param start The x to warm start every solve with, or null
+     */
+    public IPSolution search(LagrangianSubproblem subproblem, LagrangianWorkspace workspace, double[] from,
+                             double[] start) throws SolverException {
+        double[] to = workspace.getLagrangeMultipliers();
+        double[][] candidates = new double[factors.length][];
+        List<Future<Pair<IPSolution, MetricsRegistry>>> futures = new ArrayList<>(subproblems.size());
+        for (int candidate = 1; candidate < factors.length; candidate++) {
+            // u = max(0, from + factor * (to - from))
+            double[] u = new double[to.length];
+            for (int i = 0; i < u.length; i++) {
+                u[i] = Math.max(0, from[i] + factors[candidate] * (to[i] - from[i]));
+            }
+            candidates[candidate] = u;
+
+            // Each thread records into its own registry, which is added to the round's after
+            LagrangianSubproblem candidateSubproblem = subproblems.get(candidate - 1);
+            futures.add(pool.submit(() -> {
+                MetricsRegistry registry = Metrics.startRound();
+                return new Pair<>(candidateSubproblem.solve(u, start), registry);
+            }));
+        }
+
+        // Every solve has to finish before the next search changes their objectives
+        IPSolution best = subproblem.solve(workspace, start);
+        int bestCandidate = 0;
+        MetricsRegistry metrics = Metrics.current();
+        for (int candidate = 1; candidate < factors.length; candidate++) {
+            Pair<IPSolution, MetricsRegistry> result = getResult(futures.get(candidate - 1));
+            metrics.add(result.getRight());
+            IPSolution solution = result.getLeft();
+            if (solution.isFeasible() && (!best.isFeasible()
+                    || solution.getOptimizationValue() < best.getOptimizationValue() - IMPROVEMENT_TOLERANCE)) {
+                best = solution;
+                bestCandidate = candidate;
+            }
+        }
+        solves = solves + subproblems.size();
+        searches++;
+
+        if (bestCandidate > 0) {
+            workspace.setMultipliers(candidates[bestCandidate]);
+            improvements++;
+        }
+
+        return best;
+    }
+
+    @Override
+    public void close() throws SolverException {
+        pool.shutdownNow();
+        for (LagrangianSubproblem subproblem: subproblems) {
+            subproblem.close();
+        }
+    }
+
+    private static <T> T getResult(Future<T> future) throws SolverException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // Throw what the step's solver actually threw
+            if (e.getCause() instanceof SolverException cause) {
+                throw cause;
+            }
+            throw new SolverException("A step of the line search could not be solved", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SolverException("Interrupted while solving the line search", e);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.digit.app;
+
+import com.digit.app.data.Constraints;
+import com.digit.app.data.OptimizationFunction;
+import com.digit.app.data.SparseMatrix;
+import com.google.common.base.Preconditions;
+
+/**
+ * Turns the x from L(u), which can break the relaxed constraints, into a feasible solution of the original problem so
+ * that a round has a real lower bound to go with the upper bound from L(u).
+ *
+ * The repair is greedy. While some constraint is broken, it takes the most broken one and moves a single variable in
+ * it. Moves that keep every other constraint intact come first, picking the one that gives up the least objective per
+ * unit fixed. If there aren't any, it takes the move that leaves the least total violation. Then every variable is
+ * pushed as far toward its better bound as the constraints allow. Nothing here calls the solver, so this costs about
+ * as much as a few passes over A.
+ */
+public class PrimalRepair {
+    /**
+     * Give up if it takes more moves than this per constraint, since then the moves are probably going in circles
+     */
+    private static final int MOVES_PER_CONSTRAINT = 4;
+
+    private static final double LOWER = OptimizationFunction.VARIABLE_LOWER_BOUND;
+    private static final double UPPER = OptimizationFunction.VARIABLE_UPPER_BOUND;
+
+    private final double[] c;
+    private final SparseMatrix A;
+    private final SparseMatrix columns;
+    private final int[] b;
+    private final boolean[] lessThan;
+
+    private final double[] x;
+    private final double[] activity;
+
+    public PrimalRepair(Constraints constraints, double[] c) {
+        constraints.assertCorrectNumberOfVariables(c.length);
+        this.c = c;
+        this.A = constraints.getA();
+        this.columns = A.getColumnMajor();
+        this.b = constraints.getB();
+        this.lessThan = constraints.getAlessThanb();
+        this.x = new double[c.length];
+        this.activity = new double[constraints.getNumConstraints()];
+    }
+
+    /**
+     * Repair x into a feasible solution of the original constraints. Returns null if the greedy moves couldn't fix
+     * every constraint. The returned array is new, so it can be kept.
+     */
+    public double[] repair(double[] lagrangianX) {
+        Preconditions.checkArgument(lagrangianX.length == x.length,
+                "There are %s variables but x has %s".formatted(x.length, lagrangianX.length));
+
+        // Start from x, rounded into the box in case the solver left it a little off
+        for (int j = 0; j < x.length; j++) {
+            x[j] = Math.min(UPPER, Math.max(LOWER, Math.rint(lagrangianX[j])));
+        }
+        for (int i = 0; i < activity.length; i++) {
+            activity[i] = A.rowDot(i, x);
+        }
+
+        int movesLeft = MOVES_PER_CONSTRAINT * activity.length;
+        for (int row = mostViolated(); row >= 0; row = mostViolated()) {
+            if (movesLeft-- == 0 || !fix(row)) {
+                return null;
+            }
+        }
+
+        improve();
+
+        return x.clone();
+    }
+
+    /**
+     * Move the variable that best fixes the row. Returns false if no move makes the total violation smaller.
+     */
+    private boolean fix(int row) {
+        double rowViolation = violation(row, activity[row]);
+
+        // First try the moves that don't break any other constraint, and take the one that gives up the least of
+        // the objective for each unit of violation it fixes
+        int bestColumn = -1;
+        double bestMove = 0;
+        double bestLoss = Double.POSITIVE_INFINITY;
+        for (int k = A.rowStart(row); k < A.rowEnd(row); k++) {
+            int j = A.column(k);
+            double a = A.value(k);
+
+            // Lower the activity of a <= row or raise it for a >= row, as far as it takes to fix the row
+            double direction = (lessThan[row] ? -1 : 1) * Math.signum(a);
+            double amount = Math.min(room(j, direction, row), Math.ceil(rowViolation / Math.abs(a)));
+            if (amount <= 0) {
+                continue;
+            }
+
+            double loss = - c[j] * direction * amount / Math.min(rowViolation, amount * Math.abs(a));
+            if (loss < bestLoss) {
+                bestColumn = j;
+                bestMove = direction * amount;
+                bestLoss = loss;
+            }
+        }
+
+        if (bestColumn >= 0) {
+            apply(bestColumn, bestMove);
+            return true;
+        }
+
+        // Otherwise take the move that leaves the least total violation, breaking ties by the objective
+        double bestViolationChange = 0;
+        double bestObjectiveChange = Double.NEGATIVE_INFINITY;
+        for (int k = A.rowStart(row); k < A.rowEnd(row); k++) {
+            int j = A.column(k);
+            double a = A.value(k);
+
+            double direction = (lessThan[row] ? -1 : 1) * Math.signum(a);
+            double move = direction * Math.min(boundRoom(j, direction), Math.ceil(rowViolation / Math.abs(a)));
+            if (move == 0) {
+                continue;
+            }
+
+            double violationChange = violationChange(j, move);
+            double objectiveChange = c[j] * move;
+            if (violationChange < bestViolationChange
+                    || (violationChange == bestViolationChange && bestColumn >= 0 && objectiveChange > bestObjectiveChange)) {
+                bestColumn = j;
+                bestMove = move;
+                bestViolationChange = violationChange;
+                bestObjectiveChange = objectiveChange;
+            }
+        }
+
+        if (bestColumn < 0) {
+            return false;
+        }
+
+        apply(bestColumn, bestMove);
+        return true;
+    }
+
+    /**
+     * Move each variable toward the bound that makes the objective better as far as the constraints allow
+     */
+    private void improve() {
+        for (int j = 0; j < x.length; j++) {
+            if (c[j] == 0) {
+                continue;
+            }
+
+            double direction = Math.signum(c[j]);
+            double amount = room(j, direction, -1);
+            if (amount > 0) {
+                apply(j, direction * amount);
+            }
+        }
+    }
+
+    /**
+     * How far x[j] can move in the direction without leaving its bounds or making any constraint other than the
+     * skipped one worse
+     */
+    private double room(int j, double direction, int skipRow) {
+        double room = boundRoom(j, direction);
+        for (int k = columns.rowStart(j); k < columns.rowEnd(j) && room > 0; k++) {
+            int row = columns.column(k);
+            double change = direction * columns.value(k);
+            if (row == skipRow) {
+                continue;
+            }
+
+            // Only rows that the move pushes toward their bound limit it
+            if (lessThan[row] && change > 0) {
+                room = Math.min(room, Math.floor(Math.max(0, b[row] - activity[row]) / change));
+            } else if (!lessThan[row] && change < 0) {
+                room = Math.min(room, Math.floor(Math.max(0, activity[row] - b[row]) / -change));
+            }
+        }
+
+        return room;
+    }
+
+    private double boundRoom(int j, double direction) {
+        return direction > 0 ? UPPER - x[j] : x[j] - LOWER;
+    }
+
+    /**
+     * How much the total violation changes if x[j] moves by the amount
+     */
+    private double violationChange(int j, double move) {
+        double change = 0;
+        for (int k = columns.rowStart(j); k < columns.rowEnd(j); k++) {
+            int row = columns.column(k);
+            change = change + violation(row, activity[row] + columns.value(k) * move) - violation(row, activity[row]);
+        }
+
+        return change;
+    }
+
+    private void apply(int j, double move) {
+        x[j] = x[j] + move;
+        for (int k = columns.rowStart(j); k < columns.rowEnd(j); k++) {
+            int row = columns.column(k);
+            activity[row] = activity[row] + columns.value(k) * move;
+        }
+    }
+
+    private int mostViolated() {
+        int worst = -1;
+        double worstViolation = 0;
+        for (int i = 0; i < activity.length; i++) {
+            double violation = violation(i, activity[i]);
+            if (violation > worstViolation) {
+                worst = i;
+                worstViolation = violation;
+            }
+        }
+
+        return worst;
+    }
+
+    private double violation(int row, double rowActivity) {
+        return lessThan[row] ? Math.max(0, rowActivity - b[row]) : Math.max(0, b[row] - rowActivity);
+    }
+}
@@ -0,0 +1,62 @@
+package com.digit.app;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * What the runs of a multi-start race for one round share. Each run offers its bounds after every iteration and checks
+ * the gap between the best of everyone's, so one run finding a good feasible solution lets every run stop sooner.
+ *
+ * The bounds are doubles kept as their bits in atomic longs. Offering one is a compare and set loop, so runs never
+ * wait on each other.
+ */
+public class Race {
+    private final AtomicLong dualBound = new AtomicLong(Double.doubleToLongBits(Double.POSITIVE_INFINITY));
+    private final AtomicLong primalBound = new AtomicLong(Double.doubleToLongBits(Double.NEGATIVE_INFINITY));
+    private final AtomicBoolean finished = new AtomicBoolean();
+
+    /**
+     * Keep the bound if it is lower than the lowest L(u) so far
+     */
+    public void offerDualBound(double bound) {
+        long current = dualBound.get();
+        while (bound < Double.longBitsToDouble(current) && !dualBound.compareAndSet(current, Double.doubleToLongBits(bound))) {
+            current = dualBound.get();
+        }
+    }
+
+    /**
+     * Keep the bound if it is higher than the best feasible solution so far
+     */
+    public void offerPrimalBound(double bound) {
+        long current = primalBound.get();
+        while (bound > Double.longBitsToDouble(current) && !primalBound.compareAndSet(current, Double.doubleToLongBits(bound))) {
+            current = primalBound.get();
+        }
+    }
+
+    /**
+     * The lowest L(u) any run has found
+     */
+    public double getDualBound() {
+        return Double.longBitsToDouble(dualBound.get());
+    }
+
+    /**
+     * The value of the best feasible solution any run has found
+     */
+    public double getPrimalBound() {
+        return Double.longBitsToDouble(primalBound.get());
+    }
+
+    /**
+     * End the race so the other runs stop on their next iteration. Returns true for the run that ended it.
+     */
+    public boolean finish() {
+        return finished.compareAndSet(false, true);
+    }
+
+    public boolean isFinished() {
+        return finished.get();
+    }
+}
@@ -0,0 +1,88 @@
+package com.digit.app;
+
+import com.digit.app.data.OptimizationFunction;
+import com.google.common.base.Preconditions;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Tighter bounds on the variables from the reduced costs of the linear relaxation. A variable at its lower bound with
+ * reduced cost d < 0 costs at least -d of the relaxation's value for every unit it goes up, so once that would take
+ * the value below a feasible solution we already have, it can't go any further in a solution that is at least as good.
+ * The same goes for a variable at its upper bound with d > 0 going down.
+ *
+ * Every solution at least as good as the feasible one stays inside of the new bounds, so L(u) over them is still an
+ * upper bound on the optimal value, and it is never above L(u) over the full box. Variables whose bounds meet are
+ * fixed, which the later subproblems don't have to search at all.
+ */
+@AllArgsConstructor
+@Value
+public class ReducedCostFixing {
+    /**
+     * How far inside of its bound a variable can be and still count as at the bound
+     */
+    private static final double BOUND_TOLERANCE = 1e-7;
+
+    /**
+     * How small a reduced cost has to be to not count, since the solver's values aren't exact
+     */
+    private static final double REDUCED_COST_TOLERANCE = 1e-9;
+
+    double[] lower;
+    double[] upper;
+
+    /**
+     * How many variables ended up with the same lower and upper bound
+     */
+    int numFixed;
+
+    /**
+     * How many variables got a tighter bound without being fixed
+     */
+    int numTightened;
+
+    /**
+     * Tighten the bounds of every variable using a solution of the linear relaxation and the value of a feasible
+     * solution of the integer program
+     */
+    public static ReducedCostFixing tighten(IPSolution relaxation, double primalBound) {
+        Preconditions.checkArgument(relaxation.getReducedCosts() != null,
+                "Reduced cost fixing needs the solution of a linear program");
+
+        double[] values = relaxation.getVariables();
+        double[] reducedCosts = relaxation.getReducedCosts();
+        int numVariables = values.length;
+        double[] lower = new double[numVariables];
+        double[] upper = new double[numVariables];
+
+        // How much of the relaxation's value can be given up. The margin keeps rounding in the solver from cutting off
+        // a solution that is exactly as good as the feasible one.
+        double room = Math.max(0, relaxation.getOptimizationValue() - primalBound)
+                + 1e-6 * Math.max(1, Math.abs(primalBound));
+
+        int numFixed = 0;
+        int numTightened = 0;
+        for (int j = 0; j < numVariables; j++) {
+            lower[j] = OptimizationFunction.VARIABLE_LOWER_BOUND;
+            upper[j] = OptimizationFunction.VARIABLE_UPPER_BOUND;
+            double d = reducedCosts[j];
+
+            if (d < -REDUCED_COST_TOLERANCE && values[j] <= lower[j] + BOUND_TOLERANCE) {
+                upper[j] = Math.min(upper[j], lower[j] + Math.floor(room / -d));
+            } else if (d > REDUCED_COST_TOLERANCE && values[j] >= upper[j] - BOUND_TOLERANCE) {
+                lower[j] = Math.max(lower[j], upper[j] - Math.floor(room / d));
+            } else {
+                continue;
+            }
+
+            if (lower[j] == upper[j]) {
+                numFixed++;
+            } else if (lower[j] > OptimizationFunction.VARIABLE_LOWER_BOUND
+                    || upper[j] < OptimizationFunction.VARIABLE_UPPER_BOUND) {
+                numTightened++;
+            }
+        }
+
+        return new ReducedCostFixing(lower, upper, numFixed, numTightened);
+    }
+}
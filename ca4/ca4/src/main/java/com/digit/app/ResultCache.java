@@ -0,0 +1,269 @@
+package com.digit.app;
+
+import com.digit.app.data.Constraints;
+import com.digit.app.data.Data;
+import com.digit.app.data.SparseMatrix;
+import com.digit.app.metrics.Count;
+import com.digit.app.metrics.Metrics;
+import com.digit.app.solver.SolverException;
+import com.digit.app.solver.SolverType;
+import com.digit.app.trace.Trace;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.CRC32;
+
+/**
+ * The solutions of the whole instance, the integer program and its linear relaxation, which don't depend on the round.
+ * The linear relaxation also keeps its duals and reduced costs, which rounds can start from.
+ * Every round starts from the linear relaxation and the app and batches solve the integer program, so without this the
+ * same model is solved again and again. Solutions are kept by a SHA-256 of the instance's A, b, signs and c, so two
+ * {@link Data} with the same content share them no matter where they came from.
+ *
+ * Solutions are kept in memory, and also on disk when a directory is given, so repeated runs of the same instance
+ * don't solve it either. When several rounds ask for the same solution at once, one of them solves it and the rest wait.
+ * A file on disk is
+ * <pre>
+ *     int magic, int version, int body length, long CRC32 of the body, body
+ * </pre>
+ * like a {@link RoundCheckpoint}, and one that can't be read is solved again and replaced.
+ */
+public class ResultCache {
+    /**
+     * The system property for the directory to keep solutions in. ie, -Dcache=cache. Without it they are only kept in
+     * memory.
+     */
+    public static final String PROPERTY = "cache";
+
+    private static final int MAGIC = 0x4C524343;
+    private static final int VERSION = 3;
+
+    private static volatile ResultCache shared;
+
+    /**
+     * Where solutions are kept on disk, or null to only keep them in memory
+     */
+    private final Path directory;
+    private final Map<String, CompletableFuture<IPSolution>> solutions = new ConcurrentHashMap<>();
+
+    public ResultCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * The cache the whole app shares, which keeps solutions on disk if the system property is set
+     */
+    public static ResultCache shared() {
+        if (shared == null) {
+            synchronized (ResultCache.class) {
+                if (shared == null) {
+                    String directory = System.getProperty(PROPERTY);
+                    shared = new ResultCache(directory == null ? null : Path.of(directory));
+                }
+            }
+        }
+
+        return shared;
+    }
+
+    /**
+     * Get the solution of the integer program, solving it only if it hasn't been solved before
+     */
+    public IPSolution integerProgram(Data data, SolverType solverType) throws SolverException {
+        return get(data, Model.INTEGER_PROGRAM, solverType);
+    }
+
+    /**
+     * Get the solution of the linear relaxation, solving it only if it hasn't been solved before
+     */
+    public IPSolution linearProgramRelaxation(Data data, SolverType solverType) throws SolverException {
+        return get(data, Model.LINEAR_RELAXATION, solverType);
+    }
+
+    /**
+     * A hash of everything in the instance that changes its solutions
+     */
+    public static String contentHash(Data data) {
+        Constraints constraints = data.getConstraints();
+        SparseMatrix A = constraints.getA();
+        double[] c = data.getOptimizationFn().getC();
+
+        Hasher hasher = Hashing.sha256().newHasher();
+        hasher.putInt(A.getNumRows()).putInt(A.getNumColumns()).putInt(A.getNumNonZeros());
+        for (int row = 0; row < A.getNumRows(); row++) {
+            hasher.putInt(A.rowEnd(row) - A.rowStart(row));
+            for (int position = A.rowStart(row); position < A.rowEnd(row); position++) {
+                hasher.putInt(A.column(position)).putDouble(A.value(position));
+            }
+            hasher.putInt(constraints.getB()[row]).putBoolean(constraints.getAlessThanb()[row]);
+        }
+        for (double value: c) {
+            hasher.putDouble(value);
+        }
+
+        return hasher.hash().toString();
+    }
+
+    private IPSolution get(Data data, Model model, SolverType solverType) throws SolverException {
+        // The solvers don't always agree on the last digits, so each keeps its own
+        String key = "%s-%s-%s".formatted(contentHash(data), model.getSuffix(), solverType.name().toLowerCase());
+        CompletableFuture<IPSolution> future = new CompletableFuture<>();
+        CompletableFuture<IPSolution> existing = solutions.putIfAbsent(key, future);
+        if (existing != null) {
+            Metrics.current().increment(Count.CACHE_HITS);
+            return join(existing);
+        }
+
+        try {
+            IPSolution solution = load(key);
+            if (solution != null) {
+                Metrics.current().increment(Count.CACHE_HITS);
+            } else {
+                solution = model.solve(data, solverType);
+                save(key, solution);
+            }
+            future.complete(solution);
+
+            return solution;
+        } catch (SolverException | RuntimeException e) {
+            // Let the next one try again instead of failing the same way forever
+            solutions.remove(key);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static IPSolution join(CompletableFuture<IPSolution> future) throws SolverException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SolverException("Interrupted while waiting for another solve of the same model", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SolverException solverException) {
+                throw solverException;
+            }
+            throw new SolverException("Another solve of the same model failed", e.getCause());
+        }
+    }
+
+    private IPSolution load(String key) {
+        if (directory == null) {
+            return null;
+        }
+
+        Path path = directory.resolve(key + ".sol");
+        if (!Files.exists(path)) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            byte[] body = new byte[in.readInt()];
+            long expectedCrc = in.readLong();
+            in.readFully(body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if (crc.getValue() != expectedCrc) {
+                return null;
+            }
+
+            DataInputStream bodyIn = new DataInputStream(new ByteArrayInputStream(body));
+            if (!bodyIn.readBoolean()) {
+                return IPSolution.infeasible();
+            }
+            return new IPSolution(bodyIn.readDouble(), RoundCheckpoint.readDoubles(bodyIn),
+                    RoundCheckpoint.readDoubles(bodyIn), RoundCheckpoint.readDoubles(bodyIn),
+                    RoundCheckpoint.readDoubles(bodyIn), bodyIn.readBoolean());
+        } catch (IOException e) {
+            // It gets solved again and the broken file replaced
+            return null;
+        }
+    }
+
+    private void save(String key, IPSolution solution) {
+        if (directory == null) {
+            return;
+        }
+
+        Path path = directory.resolve(key + ".sol");
+        try {
+            ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+            DataOutputStream body = new DataOutputStream(bodyBytes);
+            body.writeBoolean(solution.isFeasible());
+            body.writeDouble(solution.getOptimizationValue());
+            RoundCheckpoint.writeDoubles(body, solution.getVariables());
+            RoundCheckpoint.writeDoubles(body, solution.getSlack());
+            RoundCheckpoint.writeDoubles(body, solution.getDuals());
+            RoundCheckpoint.writeDoubles(body, solution.getReducedCosts());
+            body.writeBoolean(solution.isOptimal());
+            body.flush();
+            CRC32 crc = new CRC32();
+            crc.update(bodyBytes.toByteArray());
+
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, key, ".tmp");
+            try (FileOutputStream file = new FileOutputStream(temporary.toFile())) {
+                DataOutputStream out = new DataOutputStream(file);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(bodyBytes.size());
+                out.writeLong(crc.getValue());
+                bodyBytes.writeTo(out);
+                out.flush();
+                file.getFD().sync();
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // The solution is still in memory, it just has to be solved again next run
+            if (Trace.isDebug()) {
+                System.out.printf("Couldn't keep the solution in %s: %s\n", path, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The models of the whole instance that can be cached
+     */
+    @AllArgsConstructor
+    private enum Model {
+        INTEGER_PROGRAM("ip") {
+            @Override
+            IPSolution solve(Data data, SolverType solverType) throws SolverException {
+                try (LP lp = LP.integerProgram(data, solverType)) {
+                    return lp.getGenericSolution();
+                }
+            }
+        },
+        LINEAR_RELAXATION("lp") {
+            @Override
+            IPSolution solve(Data data, SolverType solverType) throws SolverException {
+                try (LP lp = LP.linearProgramRelaxation(data, solverType)) {
+                    return lp.getGenericSolution();
+                }
+            }
+        };
+
+        @Getter
+        private final String suffix;
+
+        abstract IPSolution solve(Data data, SolverType solverType) throws SolverException;
+    }
+}
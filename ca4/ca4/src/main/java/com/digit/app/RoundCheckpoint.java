@@ -0,0 +1,317 @@
+package com.digit.app;
+
+import com.digit.app.data.Data;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Everything a round needs to pick up where it left off: where the multipliers are, what the dual engine has learned,
+ * the bounds so far and what goes in the tables. A round writes one every few thousand iterations and once more when
+ * it ends, and the next run with the same checkpoint directory starts from it instead of from scratch.
+ *
+ * A checkpoint is written to a temporary file, synced to disk and then moved over the old one, so a crash at any
+ * point leaves either the old checkpoint or the new one. The file is
+ * <pre>
+ *     int magic, int version, int body length, long CRC32 of the body, body
+ * </pre>
+ * where the body is the fields below in order, with arrays written as their length (-1 for null) and then the values.
+ * The body starts with the content hash of the instance and the settings of the round, and a round only resumes from
+ * a checkpoint where both match its own.
+ */
+@AllArgsConstructor
+@Value
+public class RoundCheckpoint {
+    /**
+     * The system property for the directory to keep checkpoints in. ie, -Dcheckpoint=checkpoints
+     */
+    public static final String PROPERTY = "checkpoint";
+
+    /**
+     * The system property for how many iterations to run between checkpoints. ie, -Dcheckpoint.every=5000
+     */
+    public static final String EVERY_PROPERTY = "checkpoint.every";
+    public static final int DEFAULT_EVERY = 1000;
+
+    private static final int MAGIC = 0x4C524350;
+    private static final int VERSION = 3;
+
+    /**
+     * The {@link ResultCache#contentHash(Data)} of the instance the round was run on
+     */
+    String instanceHash;
+
+    /**
+     * What {@link #settingsKey(RoundSettings, int, double)} gave for the round
+     */
+    String settingsKey;
+
+    /**
+     * The next iteration to run
+     */
+    int iteration;
+
+    /**
+     * Whether the round already ended, in which case resuming just gives back its results
+     */
+    boolean finished;
+
+    double upperBound;
+    double lastOptimalZDual;
+    double dualBound;
+
+    /**
+     * Whether every L(u) so far was solved to optimality, which the gap stop needs
+     */
+    boolean exactDualBound;
+
+    double primalBound;
+    double[] primalSolution;
+    double[] lastX;
+    double[] multipliers;
+
+    /**
+     * The last direction the multipliers moved in, which the deflected step rule builds on
+     */
+    double[] direction;
+
+    /**
+     * What {@link com.digit.app.dual.DualEngine#writeState(DataOutput)} wrote
+     */
+    byte[] engineState;
+
+    List<Table1> table1;
+    Table2 table2;
+
+    /**
+     * Where the checkpoint of a round is kept. The name has the round, the start of the content hash of the instance,
+     * the dual engine, what it took from the linear relaxation and the line search, so rounds of different instances
+     * in a batch, or runs with a different engine, never pick up each other's.
+     */
+    public static Path pathFor(Path directory, int round, Data origData, RoundSettings settings) {
+        return pathFor(directory, round, ResultCache.contentHash(origData), settings, 1);
+    }
+
+    /**
+     * Where the checkpoint of a round that started its multipliers somewhere other than 1 is kept, like the runs of a
+     * race that only differ in where they start
+     */
+    public static Path pathFor(Path directory, int round, String instanceHash, RoundSettings settings,
+                               double startMultiplier) {
+        String lineSearch = settings.isLineSearch() ? "line search " + settings.getLineSearchCandidates() : "";
+        String start = startMultiplier != 1 ? "u " + startMultiplier : "";
+        String engine = (settings.describeDualEngine() + " " + settings.describeLinearRelaxationStart() + " "
+                + lineSearch + " " + start).replaceAll("[^a-z0-9]+", "-").replaceAll("-$", "");
+        return directory.resolve("round-%s-%s-%s.ckpt".formatted(round, instanceHash.substring(0, 16), engine));
+    }
+
+    /**
+     * Everything about the settings of a round that changes where its iterations go, which a checkpoint has to match
+     * to be resumed
+     */
+    public static String settingsKey(RoundSettings settings, int numMultipliers, double startMultiplier) {
+        return "step %s, engine %s, duals %s, fixing %s, line search %s, %s multipliers starting at %s".formatted(
+                settings.getStepRuleType().name().toLowerCase(), settings.getDualEngineType().name().toLowerCase(),
+                settings.isStartFromDuals(), settings.isReducedCostFixing(), settings.getLineSearchCandidates(),
+                numMultipliers, startMultiplier);
+    }
+
+    /**
+     * Replace the checkpoint at the path with this one without ever leaving a partly written file there
+     */
+    public void write(Path path) throws IOException {
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+        writeBody(body);
+        body.flush();
+        CRC32 crc = new CRC32();
+        crc.update(bodyBytes.toByteArray());
+
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile())) {
+            DataOutputStream out = new DataOutputStream(file);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(bodyBytes.size());
+            out.writeLong(crc.getValue());
+            bodyBytes.writeTo(out);
+            out.flush();
+
+            // Make sure it is on disk before it replaces the old one
+            file.getFD().sync();
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Read the checkpoint at the path, or return null if there isn't one
+     */
+    public static RoundCheckpoint read(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("%s is not a checkpoint".formatted(path));
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("%s is version %s but only version %s can be read".formatted(path, version, VERSION));
+            }
+
+            byte[] body = new byte[in.readInt()];
+            long expectedCrc = in.readLong();
+            in.readFully(body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if (crc.getValue() != expectedCrc) {
+                throw new IOException("%s is corrupt".formatted(path));
+            }
+
+            return readBody(new DataInputStream(new ByteArrayInputStream(body)));
+        }
+    }
+
+    /**
+     * Read the checkpoint at the path if there is one, but only if it is for the same instance and settings
+     */
+    public static RoundCheckpoint read(Path path, String instanceHash, String settingsKey) throws IOException {
+        RoundCheckpoint checkpoint = read(path);
+        if (checkpoint == null) {
+            return null;
+        }
+
+        if (!checkpoint.instanceHash.equals(instanceHash)) {
+            throw new IOException("%s is for the instance %s, not %s".formatted(path, checkpoint.instanceHash,
+                    instanceHash));
+        }
+        if (!checkpoint.settingsKey.equals(settingsKey)) {
+            throw new IOException("%s was run with %s, not %s".formatted(path, checkpoint.settingsKey, settingsKey));
+        }
+
+        return checkpoint;
+    }
+
+    /**
+     * Write an array as its length and then its values, where null is a length of -1
+     */
+    public static void writeDoubles(DataOutput out, double[] values) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        out.writeInt(values.length);
+        for (double value: values) {
+            out.writeDouble(value);
+        }
+    }
+
+    /**
+     * Read an array written with {@link #writeDoubles(DataOutput, double[])}
+     */
+    public static double[] readDoubles(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = in.readDouble();
+        }
+
+        return values;
+    }
+
+    private void writeBody(DataOutput out) throws IOException {
+        out.writeUTF(instanceHash);
+        out.writeUTF(settingsKey);
+        out.writeInt(iteration);
+        out.writeBoolean(finished);
+        out.writeDouble(upperBound);
+        out.writeDouble(lastOptimalZDual);
+        out.writeDouble(dualBound);
+        out.writeBoolean(exactDualBound);
+        out.writeDouble(primalBound);
+        writeDoubles(out, primalSolution);
+        writeDoubles(out, lastX);
+        writeDoubles(out, multipliers);
+        writeDoubles(out, direction);
+        out.writeInt(engineState.length);
+        out.write(engineState);
+
+        out.writeInt(table1.size());
+        for (Table1 row: table1) {
+            out.writeInt(row.getRound());
+            out.writeInt(row.getIteration());
+            writeDoubles(out, row.getLagrangeMultiplier());
+            out.writeDouble(row.getLagrangeOptimal());
+            out.writeDouble(row.getStepSize());
+            out.writeDouble(row.getE());
+            out.writeDouble(row.getViolationSquared());
+            out.writeDouble(row.getOriginalProblem());
+        }
+
+        out.writeInt(table2.getRound());
+        out.writeInt(table2.getBestSolutionFoundIteration());
+        out.writeInt(table2.getFinalIteration());
+        out.writeDouble(table2.getLagrangianOptimal());
+        writeDoubles(out, table2.getLagrangeMultiplier());
+        writeDoubles(out, table2.getOptimalX());
+        writeDoubles(out, table2.getSubgradient());
+    }
+
+    private static RoundCheckpoint readBody(DataInput in) throws IOException {
+        String instanceHash = in.readUTF();
+        String settingsKey = in.readUTF();
+        int iteration = in.readInt();
+        boolean finished = in.readBoolean();
+        double upperBound = in.readDouble();
+        double lastOptimalZDual = in.readDouble();
+        double dualBound = in.readDouble();
+        boolean exactDualBound = in.readBoolean();
+        double primalBound = in.readDouble();
+        double[] primalSolution = readDoubles(in);
+        double[] lastX = readDoubles(in);
+        double[] multipliers = readDoubles(in);
+        double[] direction = readDoubles(in);
+        byte[] engineState = new byte[in.readInt()];
+        in.readFully(engineState);
+
+        int numRows = in.readInt();
+        List<Table1> table1 = new ArrayList<>(numRows);
+        for (int k = 0; k < numRows; k++) {
+            table1.add(new Table1(in.readInt(), in.readInt(), readDoubles(in), in.readDouble(), in.readDouble(),
+                    in.readDouble(), in.readDouble(), in.readDouble()));
+        }
+
+        Table2 table2 = new Table2();
+        table2.setRound(in.readInt());
+        table2.setBestSolutionFoundIteration(in.readInt());
+        table2.setFinalIteration(in.readInt());
+        table2.setLagrangianOptimal(in.readDouble());
+        table2.setLagrangeMultiplier(readDoubles(in));
+        table2.setOptimalX(readDoubles(in));
+        table2.setSubgradient(readDoubles(in));
+
+        return new RoundCheckpoint(instanceHash, settingsKey, iteration, finished, upperBound, lastOptimalZDual, dualBound, exactDualBound, primalBound,
+                primalSolution, lastX, multipliers, direction, engineState, table1, table2);
+    }
+}
@@ -0,0 +1,76 @@
+package com.digit.app;
+
+import com.digit.app.data.Data;
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Run the rounds of Lagrangian Relaxation on a fixed size pool. The rounds only share the original data, which is
+ * never changed, and each one builds its own solver, so the only thing to coordinate is collecting the results.
+ */
+public class RoundExecutor {
+    /**
+     * The system property used to pick the number of threads. ie, -Dthreads=1 to run the rounds one at a time
+     */
+    public static final String THREADS_PROPERTY = "threads";
+
+    /**
+     * Run rounds 1 through numRounds, racing numRuns starts for each round if there is more than one, and return their
+     * results in round order
+     */
+    public static List<RoundResult> runAll(Data origData, int numRounds, RoundSettings settings, int numThreads,
+                                           int numRuns) throws Exception {
+        Preconditions.checkArgument(numThreads > 0, "You need at least one thread but asked for %s".formatted(numThreads));
+
+        ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+        try {
+            // Submit them all up front so the pool can pick them up as threads free up
+            List<Future<RoundResult>> futures = new ArrayList<>();
+            for (int round = 1; round <= numRounds; round++) {
+                futures.add(pool.submit(numRuns > 1
+                        ? new RoundRace(round, origData, settings, numRuns)
+                        : new LagrangianRound(round, origData, settings)));
+            }
+
+            // Waiting on them in order keeps the results, and what they print, in round order no matter which
+            // finishes first
+            List<RoundResult> results = new ArrayList<>();
+            for (Future<RoundResult> future: futures) {
+                RoundResult result = getResult(future);
+                System.out.print(result.getSummary());
+                results.add(result);
+            }
+
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Get the number of threads from the system property. By default, use a thread per core but no more than the
+     * number of rounds.
+     */
+    public static int threadsFromSystemProperty(int numRounds) {
+        int defaultThreads = Math.min(Runtime.getRuntime().availableProcessors(), numRounds);
+        return Integer.getInteger(THREADS_PROPERTY, defaultThreads);
+    }
+
+    static RoundResult getResult(Future<RoundResult> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // Throw what the round actually threw
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
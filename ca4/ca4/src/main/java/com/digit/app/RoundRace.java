@@ -0,0 +1,138 @@
+package com.digit.app;
+
+import com.digit.app.data.Data;
+import com.digit.app.dual.DualEngineType;
+import com.digit.app.step.StepRuleType;
+import com.google.common.base.Preconditions;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Run one round several times at once from different starts and keep the best. How a round ends depends a lot on
+ * where the multipliers start and how the step shrinks, so instead of guessing, the runs race. They share the lowest
+ * L(u) and the best feasible solution through a {@link Race}, and as soon as the gap between the best of them closes,
+ * the rest stop on their next iteration. A run that stops for its own reasons, like its step getting too small, doesn't
+ * stop the others, so the lowest L(u) comes from the best start and not from the one that stalled first.
+ */
+public class RoundRace implements Callable<RoundResult> {
+    /**
+     * The system property for the number of runs in each race. ie, -Drace=4. Rounds don't race by default.
+     */
+    public static final String PROPERTY = "race";
+
+    /**
+     * The starts to race, in order. The first is always the start that was picked for the run.
+     */
+    private static final List<Start> STARTS = List.of(
+            new Start(1, null, null),
+            new Start(0, null, null),
+            new Start(1, StepRuleType.DEFLECTED, DualEngineType.SUBGRADIENT),
+            new Start(1, StepRuleType.POLYAK, DualEngineType.VOLUME),
+            new Start(2, StepRuleType.TARGET, DualEngineType.SUBGRADIENT),
+            new Start(0.5, StepRuleType.ADAGRAD, DualEngineType.SUBGRADIENT));
+
+    private final int round;
+    private final Data origData;
+    private final RoundSettings settings;
+    private final int numRuns;
+
+    public RoundRace(int round, Data origData, RoundSettings settings, int numRuns) {
+        Preconditions.checkArgument(numRuns > 0 && numRuns <= STARTS.size(),
+                "A race can have 1 to %s runs but asked for %s".formatted(STARTS.size(), numRuns));
+        this.round = round;
+        this.origData = origData;
+        this.settings = settings;
+        this.numRuns = numRuns;
+    }
+
+    /**
+     * Get the number of runs from the system property, which is 1 if rounds shouldn't race
+     */
+    public static int runsFromSystemProperty() {
+        return Integer.getInteger(PROPERTY, 1);
+    }
+
+    @Override
+    public RoundResult call() throws Exception {
+        // Racing only pays off if a proven optimal solution stops everyone, so stop on a gap of 0 unless one was picked
+        double gapTolerance = settings.getGapTolerance() >= 0 ? settings.getGapTolerance() : 0;
+
+        Race race = new Race();
+        List<Start> starts = STARTS.subList(0, numRuns);
+
+        // Every run needs its own thread since one can only stop the others by closing the gap
+        ExecutorService pool = Executors.newFixedThreadPool(numRuns);
+        List<RoundResult> results = new ArrayList<>();
+        try {
+            List<Future<RoundResult>> futures = new ArrayList<>();
+            for (Start start: starts) {
+                futures.add(pool.submit(new LagrangianRound(round, origData, start.settingsFor(settings, gapTolerance),
+                        start.getMultiplier(), race)));
+            }
+            for (Future<RoundResult> future: futures) {
+                results.add(RoundExecutor.getResult(future));
+            }
+        } finally {
+            // If a run failed, the others shouldn't keep going
+            race.finish();
+            pool.shutdownNow();
+        }
+
+        // Keep the tables of the run with the lowest L(u), but the best feasible solution of any run
+        int best = 0;
+        int bestPrimal = 0;
+        int solves = 0;
+        long solverNanos = 0;
+        boolean exactDualBound = true;
+        for (int run = 0; run < results.size(); run++) {
+            if (results.get(run).getDualBound() < results.get(best).getDualBound()) {
+                best = run;
+            }
+            if (results.get(run).getPrimalBound() > results.get(bestPrimal).getPrimalBound()) {
+                bestPrimal = run;
+            }
+            solves = solves + results.get(run).getSolves();
+            solverNanos = solverNanos + results.get(run).getSolverNanos();
+            exactDualBound = exactDualBound && results.get(run).isExactDualBound();
+        }
+
+        RoundResult winner = results.get(best);
+        String summary = "\nRace for round %s: the lowest L(u) of %f came from %s after %s iterations. Best feasible solution: %f\n"
+                .formatted(round, winner.getDualBound(), starts.get(best).describe(settings),
+                        winner.getTable2().getFinalIteration(), race.getPrimalBound());
+
+        return new RoundResult(round, winner.getTable1(), winner.getTable2(), winner.getUpperBound(),
+                winner.getDualBound(), exactDualBound, results.get(bestPrimal).getPrimalBound(),
+                results.get(bestPrimal).getPrimalSolution(), winner.getPrimalEstimate(), solves, solverNanos,
+                summary);
+    }
+
+    /**
+     * Where a run starts. A null step rule or engine uses the one that was picked for the run, and everything else
+     * comes from the settings of the run.
+     */
+    @AllArgsConstructor
+    @Value
+    static class Start {
+        double multiplier;
+        StepRuleType stepRuleType;
+        DualEngineType dualEngineType;
+
+        RoundSettings settingsFor(RoundSettings settings, double gapTolerance) {
+            return settings.withStepRuleType(stepRuleType != null ? stepRuleType : settings.getStepRuleType())
+                    .withDualEngineType(dualEngineType != null ? dualEngineType : settings.getDualEngineType())
+                    .withGapTolerance(gapTolerance);
+        }
+
+        String describe(RoundSettings settings) {
+            return "%s with u = %s".formatted(settingsFor(settings, 0).describeDualEngine(), multiplier);
+        }
+    }
+}
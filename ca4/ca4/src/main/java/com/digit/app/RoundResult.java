@@ -0,0 +1,55 @@
+package com.digit.app;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Everything a single round of Lagrangian Relaxation reports back
+ */
+@AllArgsConstructor
+@Value
+public class RoundResult {
+    private final int round;
+    private final List<Table1> table1;
+    private final Table2 table2;
+    private final double upperBound;
+
+    /**
+     * The lowest L(u) of the round, which no feasible solution can beat
+     */
+    private final double dualBound;
+
+    /**
+     * Whether every L(u) of the round was solved to optimality. If some weren't, they were left out of the dual bound
+     * and the round never stopped on the gap.
+     */
+    private final boolean exactDualBound;
+
+    /**
+     * The value of the best feasible solution that the repair found, or -infinity if it never found one
+     */
+    private final double primalBound;
+
+    /**
+     * The best feasible solution that the repair found, or null if it never found one
+     */
+    private final double[] primalSolution;
+
+    /**
+     * The approximate primal solution from the dual engine, or null if it doesn't recover one
+     */
+    private final double[] primalEstimate;
+
+    /**
+     * How many times L(u) was solved and the time spent inside of the solver for those solves
+     */
+    private final int solves;
+    private final long solverNanos;
+
+    /**
+     * What the round has to say about how it went, which is empty if it wasn't asked to print a summary
+     */
+    private final String summary;
+}
@@ -0,0 +1,142 @@
+package com.digit.app;
+
+import com.digit.app.dual.DualEngineType;
+import com.digit.app.solver.SolverType;
+import com.digit.app.step.StepRuleType;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import lombok.With;
+
+import java.nio.file.Path;
+
+/**
+ * The choices that apply to every round in a run. A copy with one choice changed comes from its {@code withX} method.
+ */
+@AllArgsConstructor
+@Value
+@With
+public class RoundSettings {
+    /**
+     * The system property for stopping a round once the relative gap between L(u) and the best feasible solution is at
+     * most this. ie, -Dgap=0.001, or -Dgap=0 to stop only once the solution is proven optimal
+     */
+    public static final String GAP_PROPERTY = "gap";
+
+    /**
+     * Never stop because of the gap, which is what the results in the README use
+     */
+    public static final double NO_GAP_TOLERANCE = -1;
+
+    /**
+     * The system property for starting the multipliers at the duals of the linear relaxation instead of at 1.
+     * ie, -Dduals=true
+     */
+    public static final String DUALS_PROPERTY = "duals";
+
+    /**
+     * The system property for tightening the bounds of L(u) with the reduced costs of the linear relaxation.
+     * ie, -Dfixing=true
+     */
+    public static final String FIXING_PROPERTY = "fixing";
+
+    /**
+     * The system property for solving L(u) at several step lengths at once on every iteration and keeping the best.
+     * ie, -Dlinesearch=4
+     */
+    public static final String LINE_SEARCH_PROPERTY = "linesearch";
+
+    /**
+     * Only solve L(u) at the step the engine picked, which is what the results in the README use
+     */
+    public static final int NO_LINE_SEARCH = 1;
+
+    private final SolverType solverType;
+    private final StepRuleType stepRuleType;
+    private final DualEngineType dualEngineType;
+    private final double gapTolerance;
+
+    /**
+     * Where rounds keep their checkpoints, or null to not checkpoint
+     */
+    private final Path checkpointDirectory;
+
+    /**
+     * How many iterations a round runs between checkpoints
+     */
+    private final int checkpointEvery;
+
+    /**
+     * Start the multipliers at the duals of the linear relaxation
+     */
+    private final boolean startFromDuals;
+
+    /**
+     * Tighten the bounds of the variables in L(u) with {@link ReducedCostFixing}
+     */
+    private final boolean reducedCostFixing;
+
+    /**
+     * How many step lengths {@link LineSearch} tries on every iteration, counting the engine's own
+     */
+    private final int lineSearchCandidates;
+
+    public RoundSettings(SolverType solverType, StepRuleType stepRuleType, DualEngineType dualEngineType) {
+        this(solverType, stepRuleType, dualEngineType, NO_GAP_TOLERANCE);
+    }
+
+    public RoundSettings(SolverType solverType, StepRuleType stepRuleType, DualEngineType dualEngineType,
+                         double gapTolerance) {
+        this(solverType, stepRuleType, dualEngineType, gapTolerance, null, RoundCheckpoint.DEFAULT_EVERY, false, false,
+                NO_LINE_SEARCH);
+    }
+
+    /**
+     * Get the settings chosen through the system properties
+     */
+    public static RoundSettings fromSystemProperties() {
+        String gap = System.getProperty(GAP_PROPERTY);
+        String checkpoint = System.getProperty(RoundCheckpoint.PROPERTY);
+        return new RoundSettings(SolverType.fromSystemProperty(), StepRuleType.fromSystemProperty(),
+                DualEngineType.fromSystemProperty(), gap == null ? NO_GAP_TOLERANCE : Double.parseDouble(gap),
+                checkpoint == null ? null : Path.of(checkpoint),
+                Integer.getInteger(RoundCheckpoint.EVERY_PROPERTY, RoundCheckpoint.DEFAULT_EVERY),
+                Boolean.getBoolean(DUALS_PROPERTY), Boolean.getBoolean(FIXING_PROPERTY),
+                Integer.getInteger(LINE_SEARCH_PROPERTY, NO_LINE_SEARCH));
+    }
+
+    /**
+     * Should a round stop because the bounds are close enough
+     */
+    public boolean isGapClosed(double gap) {
+        return gapTolerance >= 0 && gap <= gapTolerance;
+    }
+
+    /**
+     * A short name for how the multipliers are searched for, like "subgradient (polyak)"
+     */
+    public String describeDualEngine() {
+        if (dualEngineType == DualEngineType.SUBGRADIENT) {
+            return "%s (%s)".formatted(dualEngineType.name().toLowerCase(), stepRuleType.name().toLowerCase());
+        }
+
+        return dualEngineType.name().toLowerCase();
+    }
+
+    /**
+     * Does each iteration try more than the engine's own step
+     */
+    public boolean isLineSearch() {
+        return lineSearchCandidates > NO_LINE_SEARCH;
+    }
+
+    /**
+     * A short name for what the round takes from the linear relaxation, like "duals, fixing", or "" if nothing
+     */
+    public String describeLinearRelaxationStart() {
+        if (startFromDuals && reducedCostFixing) {
+            return "duals, fixing";
+        }
+
+        return startFromDuals ? "duals" : reducedCostFixing ? "fixing" : "";
+    }
+}
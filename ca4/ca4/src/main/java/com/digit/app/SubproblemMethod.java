@@ -0,0 +1,85 @@
+package com.digit.app;
+
+import com.digit.app.data.Constraints;
+import com.digit.app.solver.ClosedFormSolver;
+import com.digit.app.solver.KnapsackSolver;
+import com.digit.app.solver.Solver;
+import com.digit.app.solver.SolverException;
+import com.digit.app.solver.SolverType;
+
+/**
+ * How L(u) gets solved. The later rounds relax almost every constraint, and what is left is simple enough that it
+ * doesn't need branch and bound at all.
+ */
+public enum SubproblemMethod {
+    /**
+     * Every constraint is relaxed, so each variable goes to the bound its coefficient in c points to
+     */
+    CLOSED_FORM {
+        @Override
+        public Solver create(Constraints constraints, SolverType solverType) {
+            return new ClosedFormSolver();
+        }
+    },
+
+    /**
+     * One constraint is left, which is a bounded knapsack that a small branch and bound solves exactly
+     */
+    KNAPSACK {
+        @Override
+        public Solver create(Constraints constraints, SolverType solverType) {
+            return new KnapsackSolver();
+        }
+    },
+
+    /**
+     * The constraints that are left fall apart into blocks that don't share any variables, so each block gets its own
+     * solver and they are solved in parallel
+     */
+    BLOCKS {
+        @Override
+        public Solver create(Constraints constraints, SolverType solverType) throws SolverException {
+            return new DecomposedSolver(constraints, solverType, DecomposedSolver.threadsFromSystemProperty());
+        }
+    },
+
+    /**
+     * Anything else goes to the solver that was picked
+     */
+    MIP {
+        @Override
+        public Solver create(Constraints constraints, SolverType solverType) throws SolverException {
+            return solverType.create();
+        }
+    };
+
+    /**
+     * The system property for turning the fast paths off to compare against the solver. ie, -Dfastpath=false
+     */
+    public static final String PROPERTY = "fastpath";
+
+    /**
+     * Create an empty model that this method solves, which is then built with the constraints
+     */
+    public abstract Solver create(Constraints constraints, SolverType solverType) throws SolverException;
+
+    /**
+     * Pick how to solve the integer program with these constraints, unless the fast paths were turned off through the
+     * system property
+     */
+    public static SubproblemMethod choose(Constraints constraints) {
+        if (!Boolean.parseBoolean(System.getProperty(PROPERTY, "true"))) {
+            return MIP;
+        }
+
+        if (constraints.getNumConstraints() == 0) {
+            return CLOSED_FORM;
+        }
+
+        if (constraints.getNumConstraints() == 1) {
+            return KNAPSACK;
+        }
+
+        return constraints.findBlocks().size() > 1 ? BLOCKS : MIP;
+    }
+}
@@ -0,0 +1,77 @@
+package com.digit.app.batch;
+
+import com.digit.app.DataGenerator;
+import com.digit.app.IPSolution;
+import com.digit.app.LagrangianRound;
+import com.digit.app.ResultCache;
+import com.digit.app.RoundResult;
+import com.digit.app.RoundSettings;
+import com.digit.app.data.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Generate one instance and run each of the rounds on it one after another. Every solver is built and closed inside of
+ * the instance, so instances never share anything but the settings and the {@link ResultCache}.
+ */
+class BatchInstance implements Callable<List<BatchRow>> {
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final long seed;
+    private final int numConstraints;
+    private final int numVariables;
+    private final double density;
+    private final List<Integer> rounds;
+    private final RoundSettings settings;
+
+    BatchInstance(long seed, int numConstraints, int numVariables, double density, List<Integer> rounds,
+                  RoundSettings settings) {
+        this.seed = seed;
+        this.numConstraints = numConstraints;
+        this.numVariables = numVariables;
+        this.density = density;
+        this.rounds = rounds;
+        this.settings = settings;
+    }
+
+    @Override
+    public List<BatchRow> call() throws Exception {
+        Data data = DataGenerator.create(numConstraints, numVariables, density, seed);
+
+        long start = System.nanoTime();
+        // A rerun of the batch with a cache directory finds these, and the rounds find the linear relaxation
+        ResultCache cache = ResultCache.shared();
+        IPSolution ipSol = cache.integerProgram(data, settings.getSolverType());
+        double lpBound = cache.linearProgramRelaxation(data, settings.getSolverType()).getOptimizationValue();
+
+        List<BatchRow> rows = new ArrayList<>();
+        if (!ipSol.isFeasible()) {
+            rows.add(failed("infeasible", (System.nanoTime() - start) / NANOS_PER_MILLI));
+            return rows;
+        }
+
+        for (int round: rounds) {
+            long roundStart = System.nanoTime();
+            RoundResult result = new LagrangianRound(round, data, settings, false).call();
+            double wallMillis = (System.nanoTime() - roundStart) / NANOS_PER_MILLI;
+
+            rows.add(new BatchRow(seed, numConstraints, numVariables, density, round, "ok",
+                    ipSol.getOptimizationValue(), lpBound, result.getTable2().getLagrangianOptimal(),
+                    result.getUpperBound(), result.getPrimalBound(), result.getTable2().getFinalIteration(),
+                    result.getSolves(), wallMillis,
+                    result.getSolverNanos() / NANOS_PER_MILLI));
+        }
+
+        return rows;
+    }
+
+    /**
+     * A row for an instance that couldn't be run
+     */
+    BatchRow failed(String status, double wallMillis) {
+        return new BatchRow(seed, numConstraints, numVariables, density, 0, status, Double.NaN, Double.NaN,
+                Double.NaN, Double.NaN, Double.NaN, 0, 0, wallMillis, 0);
+    }
+}
@@ -0,0 +1,49 @@
+package com.digit.app.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * The summary of one round on one instance. Instances without a feasible integer solution get a single row with round
+ * 0, since there is nothing to compare the bounds to.
+ */
+@AllArgsConstructor
+@Value
+public class BatchRow {
+    public static final String HEADER = "seed,constraints,variables,density,round,status,ip_optimal,lp_bound,"
+            + "lagrangian_bound,best_value,primal_bound,iterations,solves,wall_ms,solver_ms";
+
+    private final long seed;
+    private final int numConstraints;
+    private final int numVariables;
+    private final double density;
+    private final int round;
+    private final String status;
+    private final double ipOptimal;
+    private final double lpBound;
+
+    /**
+     * The lowest L(u) found, which is the bound from Lagrangian Relaxation
+     */
+    private final double lagrangianBound;
+
+    /**
+     * The lowest c*x of the subproblem solutions, which is what the round ends on
+     */
+    private final double bestValue;
+
+    /**
+     * The value of the best feasible solution from the repair, or -Infinity if there wasn't one
+     */
+    private final double primalBound;
+    private final int iterations;
+    private final int solves;
+    private final double wallMillis;
+    private final double solverMillis;
+
+    public String toCsv() {
+        return "%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%.3f,%.3f".formatted(seed, numConstraints, numVariables,
+                density, round, status, ipOptimal, lpBound, lagrangianBound, bestValue, primalBound, iterations, solves,
+                wallMillis, solverMillis);
+    }
+}
@@ -0,0 +1,96 @@
+package com.digit.app.batch;
+
+import com.digit.app.metrics.Metrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Run Lagrangian Relaxation over a lot of generated instances to compare settings. Instances are spread over a fixed
+ * size pool, and their rows are written to the CSV file as each instance finishes, so a long sweep can be looked at
+ * while it is still going. The rows are in the order the instances finish, not the order they were submitted.
+ *
+ * ie, java -Dsolver=java -cp ca4-1.0-SNAPSHOT.jar com.digit.app.batch.BatchRunner --seeds 1..1000 --out batch.csv
+ */
+public class BatchRunner {
+    public static void main(String[] args) throws Exception {
+        BatchSettings settings = BatchSettings.fromArgs(args);
+        Metrics.registerWithJmx();
+        System.out.printf("Running %s instances on %s threads with %s\n", settings.getNumInstances(),
+                settings.getNumThreads(), settings.getRoundSettings().describeDualEngine());
+
+        long start = System.nanoTime();
+        int failed = run(settings);
+        System.out.printf("Wrote %s in %.1f s. %s instances failed.\n", settings.getOutput(),
+                (System.nanoTime() - start) / 1e9, failed);
+        System.out.printf("Metrics for every round:\n%s", Metrics.total().summary());
+    }
+
+    /**
+     * Run every instance in the batch and write the rows to the output file. Returns how many instances threw instead
+     * of finishing. Those get a row with the error as their status, and the rest of the batch keeps going.
+     */
+    public static int run(BatchSettings settings) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(settings.getNumThreads());
+        try (BufferedWriter out = Files.newBufferedWriter(settings.getOutput(), StandardCharsets.UTF_8)) {
+            out.write(BatchRow.HEADER);
+            out.write('\n');
+            out.flush();
+
+            CompletionService<List<BatchRow>> completed = new ExecutorCompletionService<>(pool);
+            Map<Future<List<BatchRow>>, BatchInstance> instances = new HashMap<>();
+            for (long seed: settings.getSeeds()) {
+                for (int numConstraints: settings.getNumConstraints()) {
+                    for (int numVariables: settings.getNumVariables()) {
+                        for (double density: settings.getDensities()) {
+                            BatchInstance instance = new BatchInstance(seed, numConstraints, numVariables, density,
+                                    settings.roundsFor(numConstraints), settings.getRoundSettings());
+                            instances.put(completed.submit(instance), instance);
+                        }
+                    }
+                }
+            }
+
+            // Write each instance as soon as it is done. Only this thread touches the file.
+            int failed = 0;
+            for (int i = 0; i < instances.size(); i++) {
+                Future<List<BatchRow>> future = completed.take();
+                List<BatchRow> rows;
+                try {
+                    rows = future.get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    rows = List.of(instances.get(future).failed(describe(e.getCause()), 0));
+                }
+
+                for (BatchRow row: rows) {
+                    out.write(row.toCsv());
+                    out.write('\n');
+                }
+                out.flush();
+            }
+
+            return failed;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * A status for an instance that threw. Commas would break the CSV so they are dropped.
+     */
+    private static String describe(Throwable cause) {
+        return "error: %s".formatted(cause).replace(',', ' ').replace('\n', ' ');
+    }
+}
@@ -0,0 +1,143 @@
+package com.digit.app.batch;
+
+import com.digit.app.RoundSettings;
+import com.google.common.base.Preconditions;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What to sweep over in a batch. Every combination of seed, number of constraints, number of variables and density is
+ * one instance, and every round in the list is run on each instance that has at least that many constraints.
+ *
+ * Lists are given on the command line as values separated by commas, ranges like 1..1000, or both.
+ * ie, --seeds 1..500 --constraints 10,20 --variables 15 --density 0.2,0.4 --rounds 1..10 --out batch.csv
+ */
+@AllArgsConstructor
+@Value
+public class BatchSettings {
+    private final List<Long> seeds;
+    private final List<Integer> numConstraints;
+    private final List<Integer> numVariables;
+    private final List<Double> densities;
+
+    /**
+     * The rounds to run. If this is empty, every round from 1 to the number of constraints is run.
+     */
+    private final List<Integer> rounds;
+    private final int numThreads;
+    private final Path output;
+    private final RoundSettings roundSettings;
+
+    /**
+     * Read the settings from the command line. Anything not given uses the same values as the single instance in App,
+     * and the solver, step rule and dual engine still come from the system properties.
+     */
+    public static BatchSettings fromArgs(String[] args) {
+        List<Long> seeds = List.of(1L);
+        List<Integer> numConstraints = List.of(10);
+        List<Integer> numVariables = List.of(15);
+        List<Double> densities = List.of(0.4);
+        List<Integer> rounds = List.of();
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        Path output = Path.of("batch.csv");
+
+        for (int i = 0; i < args.length; i += 2) {
+            Preconditions.checkArgument(i + 1 < args.length, "%s needs a value".formatted(args[i]));
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--seeds" -> seeds = parseLongs(value);
+                case "--constraints" -> numConstraints = positive(parseInts(value), args[i]);
+                case "--variables" -> numVariables = positive(parseInts(value), args[i]);
+                case "--density" -> densities = parseDoubles(value);
+                case "--rounds" -> rounds = positive(parseInts(value), args[i]);
+                case "--threads" -> numThreads = Integer.parseInt(value);
+                case "--out" -> output = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option %s".formatted(args[i]));
+            }
+        }
+        Preconditions.checkArgument(numThreads > 0, "You need at least one thread but asked for %s".formatted(numThreads));
+
+        return new BatchSettings(seeds, numConstraints, numVariables, densities, rounds, numThreads, output,
+                RoundSettings.fromSystemProperties());
+    }
+
+    /**
+     * The rounds to run on an instance with the given number of constraints
+     */
+    public List<Integer> roundsFor(int constraints) {
+        List<Integer> roundsToRun = new ArrayList<>();
+        if (rounds.isEmpty()) {
+            for (int round = 1; round <= constraints; round++) {
+                roundsToRun.add(round);
+            }
+        } else {
+            for (int round: rounds) {
+                if (round <= constraints) {
+                    roundsToRun.add(round);
+                }
+            }
+        }
+
+        return roundsToRun;
+    }
+
+    /**
+     * The number of instances in the batch
+     */
+    public long getNumInstances() {
+        return (long) seeds.size() * numConstraints.size() * numVariables.size() * densities.size();
+    }
+
+    static List<Long> parseLongs(String value) {
+        List<Long> values = new ArrayList<>();
+        for (String part: value.split(",")) {
+            int range = part.indexOf("..");
+            if (range < 0) {
+                values.add(Long.parseLong(part.trim()));
+                continue;
+            }
+
+            long from = Long.parseLong(part.substring(0, range).trim());
+            long to = Long.parseLong(part.substring(range + 2).trim());
+            Preconditions.checkArgument(from <= to, "The range %s goes backwards".formatted(part));
+            for (long v = from; v <= to; v++) {
+                values.add(v);
+            }
+        }
+
+        return values;
+    }
+
+    static List<Integer> parseInts(String value) {
+        List<Integer> values = new ArrayList<>();
+        for (long v: parseLongs(value)) {
+            values.add(Math.toIntExact(v));
+        }
+
+        return values;
+    }
+
+    static List<Double> parseDoubles(String value) {
+        List<Double> values = new ArrayList<>();
+        for (String part: value.split(",")) {
+            double density = Double.parseDouble(part.trim());
+            Preconditions.checkArgument(density >= 0 && density <= 1,
+                    "The density has to be between 0 and 1 but was %s".formatted(density));
+            values.add(density);
+        }
+
+        return values;
+    }
+
+    private static List<Integer> positive(List<Integer> values, String option) {
+        for (int value: values) {
+            Preconditions.checkArgument(value > 0, "%s has to be positive but got %s".formatted(option, value));
+        }
+
+        return values;
+    }
+}
@@ -1,10 +1,15 @@
 package com.digit.app.data;
 
+import com.digit.app.solver.Solver;
+import com.digit.app.solver.SolverException;
 import com.google.common.base.Preconditions;
-import ilog.concert.*;
-import ilog.cplex.IloCplex;
 import lombok.Value;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
 @Value
 public class Constraints {
     /**
@@ -13,9 +18,9 @@ public class Constraints {
     private final int numConstraints;
 
     /**
-     * The constraint matrix
+     * The constraint matrix. Only the nonzero entries are stored.
      */
-    private final int[][] A;
+    private final SparseMatrix A;
 
     /**
      * The constraint RHS
@@ -28,12 +33,16 @@ public class Constraints {
     private final boolean[] AlessThanb;
 
     public Constraints(int[][] A, int[] b, boolean[] AlessThanB) {
+        this(SparseMatrix.fromDense(A, A.length > 0 ? A[0].length : 0), b, AlessThanB);
+    }
+
+    public Constraints(SparseMatrix A, int[] b, boolean[] AlessThanB) {
         this.numConstraints = b.length;
 
-        Preconditions.checkArgument(A.length == this.numConstraints,
-                "A rows needs to be the same size as b but they differ. A: %s b: %s".formatted(A.length, this.numConstraints));
+        Preconditions.checkArgument(A.getNumRows() == this.numConstraints,
+                "A rows needs to be the same size as b but they differ. A: %s b: %s".formatted(A.getNumRows(), this.numConstraints));
         Preconditions.checkArgument(AlessThanB.length == this.numConstraints,
-                "A rows needs to be the same size as b but they differ. A: %s b: %s".formatted(A.length, this.numConstraints));
+                "A rows needs to be the same size as b but they differ. A: %s b: %s".formatted(A.getNumRows(), this.numConstraints));
 
         this.A = A;
         this.b = b;
@@ -41,9 +50,9 @@ public class Constraints {
     }
 
     public void assertCorrectNumberOfVariables(int numVariables) {
-        if (A.length > 0) {
-            Preconditions.checkArgument(A[0].length == numVariables,
-                    "A columns needs to be the same size as c but they differ. A: %s b: %s".formatted(A[0].length, numVariables));
+        if (A.getNumRows() > 0) {
+            Preconditions.checkArgument(A.getNumColumns() == numVariables,
+                    "A columns needs to be the same size as c but they differ. A: %s b: %s".formatted(A.getNumColumns(), numVariables));
         }
     }
 
@@ -51,19 +60,22 @@ public class Constraints {
      * Get the density of the matrix A. ie, the number nonzero entries over the total number of entries
      */
     public double getDensityOfMatrix() {
-        int total = 0;
-        int nonZero = 0;
-        for (int[] row: A) {
-            for (int val: row) {
-                total++;
-
-                if (val != 0) {
-                    nonZero++;
-                }
-            }
+        double total = (double) A.getNumRows() * A.getNumColumns();
+
+        return A.getNumNonZeros() / total;
+    }
+
+    /**
+     * How far each constraint is from being tight at x, which is negative if it is violated
+     */
+    public double[] slacks(double[] x) {
+        double[] slacks = new double[numConstraints];
+        for (int i = 0; i < numConstraints; i++) {
+            double activity = A.rowDot(i, x);
+            slacks[i] = AlessThanb[i] ? b[i] - activity : activity - b[i];
         }
 
-        return ((double) nonZero)/ total;
+        return slacks;
     }
 
     /**
@@ -72,52 +84,154 @@ public class Constraints {
     public Constraints relax(int constraintsToRemove) {
         Preconditions.checkArgument(constraintsToRemove <= numConstraints,
                 "You can only %s constraints".formatted(numConstraints));
-        int newConstraints = numConstraints - constraintsToRemove;
-        int numVariables = A[0].length;
 
-        // Create the new values for the new constraint
-        int[][] newA = new int[newConstraints][numVariables];
-        int[] newB = new int[newConstraints];
-        boolean[] newALessThanB = new boolean[newConstraints];
-
-        for (int origConstraint = constraintsToRemove; origConstraint < numConstraints; origConstraint++) {
-            int newConstraintNum = origConstraint - constraintsToRemove;
-            // Add the old b to the new b
-            newB[newConstraintNum] = b[origConstraint];
-            // Add the old constraint expression to the new one
-            newA[newConstraintNum] = A[origConstraint];
-            // Get the correct less than/equal to
-            newALessThanB[newConstraintNum] = AlessThanb[origConstraint];
-        }
+        // Keep the rows after the ones we are removing, along with their b and less than/equal to
+        SparseMatrix newA = A.rows(constraintsToRemove, numConstraints);
+        int[] newB = Arrays.copyOfRange(b, constraintsToRemove, numConstraints);
+        boolean[] newALessThanB = Arrays.copyOfRange(AlessThanb, constraintsToRemove, numConstraints);
 
         return new Constraints(newA, newB, newALessThanB);
     }
 
     /**
-     * Add the constraints to CPLEX
+     * Split the variables into blocks that no constraint connects, so that each block can be solved on its own. Every
+     * variable that isn't in any constraint goes into one last block without constraints, along with any empty rows.
+     * The other blocks come first, biggest first.
      */
-    public IloRange[] addToCplex(IloCplex cplex, IloNumVar[] variables) throws IloException {
-        // Create the number of constraints
-        IloRange[] constraints = new IloRange[numConstraints];
+    public List<Block> findBlocks() {
+        int numVariables = A.getNumColumns();
 
-        // For each constraint
+        // Union find over the variables, joining all of the ones in a row
+        int[] parent = new int[numVariables];
+        for (int j = 0; j < numVariables; j++) {
+            parent[j] = j;
+        }
+        boolean[] inRow = new boolean[numVariables];
         for (int i = 0; i < numConstraints; i++) {
-            // Create the constraint by looping through each variable per constraint
-            IloLinearNumExpr constraint = cplex.linearNumExpr();
-            for (int j = 0; j < variables.length; j++) {
-                constraint.addTerm(A[i][j], variables[j]);
+            if (A.rowStart(i) == A.rowEnd(i)) {
+                continue;
             }
-            // If it is Ax <= b
-            if (AlessThanb[i]) {
-                constraints[i] = cplex.addLe(constraint, b[i]);
-            // Otherwise it is Ax >= b
-            } else {
-                constraints[i] = cplex.addGe(constraint, b[i]);
+
+            // Only other roots get pointed at the first one, so it stays a root for the whole row
+            int first = findRoot(parent, A.column(A.rowStart(i)));
+            for (int k = A.rowStart(i); k < A.rowEnd(i); k++) {
+                inRow[A.column(k)] = true;
+                parent[findRoot(parent, A.column(k))] = first;
             }
         }
 
-        // Return the constraints we made so we can keep track of it
-        return constraints;
+        // Number the blocks by their root, where the last one is for the variables that aren't in a row
+        int[] blockOfRoot = new int[numVariables];
+        Arrays.fill(blockOfRoot, -1);
+        int[] blockOf = new int[numVariables];
+        int numBlocks = 0;
+        for (int j = 0; j < numVariables; j++) {
+            if (inRow[j]) {
+                int root = findRoot(parent, j);
+                if (blockOfRoot[root] < 0) {
+                    blockOfRoot[root] = numBlocks++;
+                }
+                blockOf[j] = blockOfRoot[root];
+            }
+        }
+        int freeBlock = numBlocks;
+        for (int j = 0; j < numVariables; j++) {
+            if (!inRow[j]) {
+                blockOf[j] = freeBlock;
+            }
+        }
+
+        int[] blockOfRow = new int[numConstraints];
+        for (int i = 0; i < numConstraints; i++) {
+            blockOfRow[i] = A.rowStart(i) < A.rowEnd(i) ? blockOf[A.column(A.rowStart(i))] : freeBlock;
+        }
+
+        // Each variable is numbered by its place in its block
+        int[][] blockVariables = group(blockOf, freeBlock + 1);
+        int[][] blockRows = group(blockOfRow, freeBlock + 1);
+        int[] local = new int[numVariables];
+        for (int[] variables: blockVariables) {
+            for (int k = 0; k < variables.length; k++) {
+                local[variables[k]] = k;
+            }
+        }
+
+        List<Block> blocks = new ArrayList<>();
+        for (int block = 0; block < numBlocks; block++) {
+            blocks.add(new Block(blockVariables[block], blockRows[block],
+                    block(blockVariables[block], blockRows[block], local)));
+        }
+        blocks.sort(Comparator.comparingInt((Block block) -> block.getVariables().length).reversed());
+        if (blockVariables[freeBlock].length > 0 || blockRows[freeBlock].length > 0) {
+            blocks.add(new Block(blockVariables[freeBlock], blockRows[freeBlock],
+                    block(blockVariables[freeBlock], blockRows[freeBlock], local)));
+        }
+
+        return blocks;
+    }
+
+    /**
+     * Get the rows as constraints on only the variables of a block, using the number of each variable in its block
+     */
+    private Constraints block(int[] variables, int[] rows, int[] local) {
+        SparseMatrix.Builder blockA = SparseMatrix.builder(variables.length);
+        int[] blockB = new int[rows.length];
+        boolean[] blockLessThan = new boolean[rows.length];
+        for (int r = 0; r < rows.length; r++) {
+            int i = rows[r];
+            for (int k = A.rowStart(i); k < A.rowEnd(i); k++) {
+                blockA.add(local[A.column(k)], A.value(k));
+            }
+            blockA.endRow();
+            blockB[r] = b[i];
+            blockLessThan[r] = AlessThanb[i];
+        }
+
+        return new Constraints(blockA.build(), blockB, blockLessThan);
+    }
+
+    private static int findRoot(int[] parent, int j) {
+        while (parent[j] != j) {
+            // Point halfway up as we go so the paths stay short
+            parent[j] = parent[parent[j]];
+            j = parent[j];
+        }
+
+        return j;
+    }
+
+    /**
+     * Get the indices with each label, in increasing order
+     */
+    private static int[][] group(int[] labels, int numLabels) {
+        int[] counts = new int[numLabels];
+        for (int label: labels) {
+            counts[label]++;
+        }
+
+        int[][] groups = new int[numLabels][];
+        for (int label = 0; label < numLabels; label++) {
+            groups[label] = new int[counts[label]];
+        }
+        Arrays.fill(counts, 0);
+        for (int index = 0; index < labels.length; index++) {
+            groups[labels[index]][counts[labels[index]]++] = index;
+        }
+
+        return groups;
+    }
+
+    /**
+     * Add the constraints to the solver
+     */
+    public void addToSolver(Solver solver, int numVariables) throws SolverException {
+        assertCorrectNumberOfVariables(numVariables);
+
+        // For each constraint, only add the variables that have a nonzero coefficient
+        for (int i = 0; i < numConstraints; i++) {
+            // If it is Ax <= b or otherwise it is Ax >= b
+            solver.addConstraint(A.rowColumns(i), A.rowValues(i), AlessThanb[i], b[i]);
+        }
     }
 
     /**
@@ -129,7 +243,7 @@ public class Constraints {
 
         builder.append("\n\nConstraints:\n");
 
-        if (A.length == 0) {
+        if (A.getNumRows() == 0) {
             builder.append("No constraints");
             return builder.toString();
         }
@@ -137,7 +251,7 @@ public class Constraints {
         builder.append("%5s ".formatted(""));
 
         // Create description above
-        for (int i = 0; i < A[0].length; i++) {
+        for (int i = 0; i < A.getNumColumns(); i++) {
             builder.append("%5s ".formatted("x" + (i + 1)));
         }
         builder.append("\n");
@@ -145,9 +259,8 @@ public class Constraints {
         // Create labels for the rows
         for (int i = 0; i < numConstraints; i++) {
             builder.append("%4s) ".formatted("c" + (i + 1)));
-            int[] row = A[i];
-            for (int value: row) {
-                builder.append("%5s ".formatted(value));
+            for (int j = 0; j < A.getNumColumns(); j++) {
+                builder.append("%5s ".formatted((int) A.get(i, j)));
             }
 
             if (AlessThanb[i]) {
@@ -161,4 +274,25 @@ public class Constraints {
 
         return builder.toString();
     }
+
+    /**
+     * Variables that no constraint outside of the block touches, along with the rows they are in
+     */
+    @Value
+    public static class Block {
+        /**
+         * The variables in the block, in increasing order. They are numbered in this order in the constraints.
+         */
+        int[] variables;
+
+        /**
+         * The rows of the original constraints that are in the block, in increasing order
+         */
+        int[] rows;
+
+        /**
+         * The rows on only the block's variables
+         */
+        Constraints constraints;
+    }
 }
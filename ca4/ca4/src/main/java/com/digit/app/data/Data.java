@@ -9,10 +9,11 @@ public class Data {
     private final OptimizationFunction optimizationFn;
 
     public static Data create(int[][] A, int[] b, boolean[] AlessThanb, double[] c) {
-        Constraints constraints = new Constraints(A, b, AlessThanb);
-        OptimizationFunction optimizationFunction = new OptimizationFunction(c);
+        return create(new Constraints(A, b, AlessThanb), c);
+    }
 
-        return new Data(constraints, optimizationFunction);
+    public static Data create(Constraints constraints, double[] c) {
+        return new Data(constraints, new OptimizationFunction(c));
     }
 
     private Data(Constraints constraints, OptimizationFunction optimizationFn) {
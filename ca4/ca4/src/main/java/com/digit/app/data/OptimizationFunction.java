@@ -1,17 +1,21 @@
 package com.digit.app.data;
 
 import com.digit.app.Pair;
+import com.digit.app.solver.Solver;
+import com.digit.app.solver.SolverException;
 import com.google.common.base.Preconditions;
-import ilog.concert.IloException;
-import ilog.concert.IloLinearNumExpr;
-import ilog.concert.IloNumVar;
-import ilog.cplex.IloCplex;
 import lombok.Value;
 
 import java.util.Arrays;
 
 @Value
 public class OptimizationFunction {
+    /**
+     * Every variable is kept in [VARIABLE_LOWER_BOUND, VARIABLE_UPPER_BOUND]
+     */
+    public static final double VARIABLE_LOWER_BOUND = 0;
+    public static final double VARIABLE_UPPER_BOUND = 500;
+
     /**
      * The number of variables in this program
      */
@@ -24,8 +28,9 @@ public class OptimizationFunction {
 
     /**
      * The coefficients for the lagrangian part of the optimization function. This is associated with the variables.
+     * Only the nonzero entries are stored.
      */
-    private final double[][] lagrangianOptimizationCoefficients;
+    private final SparseMatrix lagrangianOptimizationCoefficients;
 
     /**
      * The b value in the lagrangian part of the optimization function
@@ -38,22 +43,22 @@ public class OptimizationFunction {
     private final boolean hasLagrangian;
 
     public OptimizationFunction(double[] c) {
-        this(c, new double[0][c.length], new double[0], false);
+        this(c, SparseMatrix.empty(c.length), new double[0], false);
     }
 
-    public OptimizationFunction(double[] c, double[][] lagrangianOptimizationCoefficients,
+    public OptimizationFunction(double[] c, SparseMatrix lagrangianOptimizationCoefficients,
                                 double[] lagrangianOptimizationConstants) {
         this(c, lagrangianOptimizationCoefficients, lagrangianOptimizationConstants, true);
     }
 
-    public OptimizationFunction(double[] c, double[][] lagrangianOptimizationCoefficients,
+    public OptimizationFunction(double[] c, SparseMatrix lagrangianOptimizationCoefficients,
                                 double[] lagrangianOptimizationConstants, boolean hasLagrangian) {
         this.numVariables = c.length;
-        Preconditions.checkArgument(lagrangianOptimizationCoefficients.length == lagrangianOptimizationConstants.length,
+        Preconditions.checkArgument(lagrangianOptimizationCoefficients.getNumRows() == lagrangianOptimizationConstants.length,
                 "You must have the same number of lagrangian constraints in the optimization function");
 
-        if (lagrangianOptimizationCoefficients.length > 0) {
-            Preconditions.checkArgument(lagrangianOptimizationCoefficients[0].length == this.numVariables,
+        if (lagrangianOptimizationCoefficients.getNumRows() > 0) {
+            Preconditions.checkArgument(lagrangianOptimizationCoefficients.getNumColumns() == this.numVariables,
                     "You must have the correct number of variables in your lagrangian optimization function");
         }
 
@@ -67,12 +72,12 @@ public class OptimizationFunction {
      * Return the optimization function for the new lagrangian relaxed function
      */
     public OptimizationFunction relax(int constraintsToAdd, Constraints origConstraints) {
-        Preconditions.checkArgument(lagrangianOptimizationCoefficients.length == 0,
+        Preconditions.checkArgument(lagrangianOptimizationCoefficients.getNumRows() == 0,
                 "This function only works on the original optimization function");
 
         // Create the new variables for the new opt function
         // Note: c will stay the same because the value only changes once we have lagrangian multipliers values
-        double[][] newLCoefficients = new double[constraintsToAdd][numVariables];
+        double[] rowSigns = new double[constraintsToAdd];
         double[] newLConstants = new double[constraintsToAdd];
 
         // For every constraint that we need to remove
@@ -84,63 +89,73 @@ public class OptimizationFunction {
             if (isALessThanB) {
                 // b should be the value it is
                 newLConstants[i] = origConstraints.getB()[i];
-                for (int j = 0; j < numVariables; j++) {
-                    // a_ij should be the negative of what it actually is
-                    newLCoefficients[i][j] = - origConstraints.getA()[i][j];
-                }
+                // a_ij should be the negative of what it actually is
+                rowSigns[i] = -1;
             // Otherwise
             // it is Ax >= b
-            // a1x1+a2x2 <= b becomes l(-b + a1x1 + a2x2) so that l >= 0
+            // a1x1+a2x2 >= b becomes l(-b + a1x1 + a2x2) so that l >= 0
             } else {
                 // b should be the negative of the value it is
                 newLConstants[i] = - origConstraints.getB()[i];
-                for (int j = 0; j < numVariables; j++) {
-                    // a_ij should be the value it actually is
-                    newLCoefficients[i][j] = - origConstraints.getA()[i][j];
-                }
+                // a_ij should be the value it actually is
+                rowSigns[i] = 1;
             }
         }
 
+        // Only the nonzero entries get copied
+        SparseMatrix newLCoefficients = origConstraints.getA().rows(0, constraintsToAdd).scaleRows(rowSigns);
+
         return new OptimizationFunction(Arrays.copyOf(c, c.length), newLCoefficients, newLConstants);
     }
 
-    public IloNumVar[] addIPToCplex(IloCplex cplex) throws IloException {
+    public void addIPToSolver(Solver solver) throws SolverException {
         // Create all the variables with an upper bound of 500
-        IloNumVar[] variables = cplex.intVarArray(numVariables, 0, 500);
+        solver.addVariables(numVariables, VARIABLE_LOWER_BOUND, VARIABLE_UPPER_BOUND, true);
 
-        return addToCplex(cplex, variables);
+        addToSolver(solver);
     }
 
-    public IloNumVar[] addLPToCplex(IloCplex cplex) throws IloException {
+    public void addLPToSolver(Solver solver) throws SolverException {
         // Create all the variables with an upper bound of 500
-        IloNumVar[] variables = cplex.numVarArray(numVariables, 0, 500);
+        solver.addVariables(numVariables, VARIABLE_LOWER_BOUND, VARIABLE_UPPER_BOUND, false);
+
+        addToSolver(solver);
+    }
 
-        return addToCplex(cplex, variables);
+    /**
+     * Swap the objective of a model that was already built with this function's c vector. The variables and
+     * constraints stay as they are.
+     */
+    public void replaceObjectiveInSolver(Solver solver) throws SolverException {
+        addToSolver(solver);
     }
 
     /**
-     * Take the c vector and add it to cplex optimization
+     * Take the c vector and add it to the solver's optimization
      */
-    private IloNumVar[] addToCplex(IloCplex cplex, IloNumVar[] variables) throws IloException {
+    private void addToSolver(Solver solver) throws SolverException {
         Preconditions.checkArgument(!hasLagrangian,
                 "This only handles data that does not have lagrangian optimization.");
         // Create the optimization function (maximize)
-        IloLinearNumExpr optimizationFunction = cplex.linearNumExpr();
-        // For every value of c, add it to the optimization function
-        for (int i = 0; i < numVariables; i++) {
-            optimizationFunction.addTerm(c[i], variables[i]);
-        }
-
-        cplex.addMaximize(optimizationFunction);
-
-        return variables;
+        solver.setObjective(c);
     }
 
     /**
      * Simplify the value with a lagrange multiplier to just have a C
      */
     public Pair<OptimizationFunction, Double> withLagrange(double[] lagrangeMultiplier) {
-        double[] newC = Arrays.copyOf(c, c.length);
+        double[] newC = new double[numVariables];
+        double additionalValueToOpt = withLagrangeInto(lagrangeMultiplier, newC);
+
+        return new Pair<>(new OptimizationFunction(newC), additionalValueToOpt);
+    }
+
+    /**
+     * Write the c for the lagrange multipliers into newC and return the constant that needs to be added to the
+     * optimization function. This doesn't allocate anything so it can be used on every iteration.
+     */
+    public double withLagrangeInto(double[] lagrangeMultiplier, double[] newC) {
+        System.arraycopy(c, 0, newC, 0, numVariables);
         double additionalValueToOpt = 0;
 
         // For each lagrangian constraint
@@ -150,30 +165,43 @@ public class OptimizationFunction {
             double lagrange = lagrangeMultiplier[constraint];
             // Add the b to what needs to be added to optimization function
             additionalValueToOpt = additionalValueToOpt + lagrange * lagrangianOptimizationConstants[constraint];
-            for (int variable = 0; variable < lagrangianOptimizationCoefficients[0].length; variable++) {
-                // Add the lagrangian coefficient times the lagrange multiplier
-                newC[variable] = newC[variable] + lagrange * lagrangianOptimizationCoefficients[constraint][variable];
-            }
+            // Add the lagrangian coefficient times the lagrange multiplier
+            lagrangianOptimizationCoefficients.addRowTimes(constraint, lagrange, newC);
         }
 
-        return new Pair<>(new OptimizationFunction(newC), additionalValueToOpt);
+        return additionalValueToOpt;
     }
 
     public double[] getSubgradient(double[] variables) {
         double[] subgradient = new double[lagrangianOptimizationConstants.length];
+        getSubgradientInto(variables, subgradient);
+
+        return subgradient;
+    }
 
-        // For each lagrange opt. function
+    /**
+     * Write the subgradient at the variables into the given array without allocating anything. This is the negative of
+     * {@link #getLagrangianTermsInto(double[], double[])}, so it points the way L(u) goes down and u <- max(0, u + t*g)
+     * with t >= 0 moves toward the minimum. For a relaxed Ax <= b it is Ax - b, and for Ax >= b it is b - Ax, so a
+     * multiplier goes up when its constraint is broken.
+     */
+    public void getSubgradientInto(double[] variables, double[] subgradient) {
+        getLagrangianTermsInto(variables, subgradient);
         for (int constraint = 0; constraint < subgradient.length; constraint++) {
-            double ax = 0;
-            // Calculate Ax^t
-            for (int variable = 0; variable < lagrangianOptimizationCoefficients[0].length; variable++) {
-                ax = ax + lagrangianOptimizationCoefficients[constraint][variable]*variables[variable];
-            }
-            // Calculate b - Ax^t
-            subgradient[constraint] = lagrangianOptimizationConstants[constraint] - ax;
+            subgradient[constraint] = -subgradient[constraint];
         }
+    }
 
-        return subgradient;
+    /**
+     * Write what each lagrange multiplier is multiplied by in the optimization function at x, which is b + Ax for the
+     * constants and coefficients stored here. L(u) is c*x plus u times this, so this is the exact slope of L(u) in u.
+     * Cutting plane methods need it to build cuts that hold everywhere.
+     */
+    public void getLagrangianTermsInto(double[] variables, double[] terms) {
+        for (int constraint = 0; constraint < terms.length; constraint++) {
+            terms[constraint] = lagrangianOptimizationConstants[constraint]
+                    + lagrangianOptimizationCoefficients.rowDot(constraint, variables);
+        }
     }
 
     /**
@@ -205,11 +233,11 @@ public class OptimizationFunction {
 
         if (hasLagrangian) {
             builder.append("\n");
-            for (int i = 0; i < lagrangianOptimizationCoefficients.length; i++) {
+            for (int i = 0; i < lagrangianOptimizationCoefficients.getNumRows(); i++) {
                 builder.append("%4s) ".formatted("l" + (i + 1)));
 
-                for (int j = 0; j < lagrangianOptimizationCoefficients[0].length; j++) {
-                    builder.append("%5s ".formatted(lagrangianOptimizationCoefficients[i][j]));
+                for (int j = 0; j < lagrangianOptimizationCoefficients.getNumColumns(); j++) {
+                    builder.append("%5s ".formatted(lagrangianOptimizationCoefficients.get(i, j)));
                 }
                 builder.append("%5s ".formatted(lagrangianOptimizationConstants[i]));
                 builder.append("\n");
@@ -0,0 +1,405 @@
+package com.digit.app.data;
+
+import com.google.common.base.Preconditions;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.Arrays;
+
+/**
+ * A smaller integer program with the same integer solutions, and the map back to the original one. Every variable
+ * starts in [VARIABLE_LOWER_BOUND, VARIABLE_UPPER_BOUND] and is integer. Going over the rows until nothing changes:
+ * <ul>
+ *     <li>Bounds are propagated: a row can only let a variable go as far as the rest of the row leaves room for,
+ *     rounded in since the variable is integer. A row with a single variable is just a bound, so it is replaced by
+ *     one.</li>
+ *     <li>A row that holds even at its largest activity inside of the bounds is redundant and removed.</li>
+ * </ul>
+ * Then the coefficients of 0/1 variables are tightened where that keeps the row the same at 0 and 1 but makes the
+ * linear relaxation tighter. Variables whose bounds meet are removed and moved into b. When the objective is known up
+ * front, variables that aren't in any row left are set to their best bound and removed too.
+ *
+ * Everything is done with the rows in <= form, and b has to stay an integer, so a change that would make it a
+ * fraction is skipped. If presolve finds that the program has no solution, it leaves it as it is for the solver to
+ * find out.
+ */
+@AllArgsConstructor
+@Value
+public class Presolve {
+    /**
+     * The system property for building the integer programs without presolving them first. ie, -Dpresolve=false
+     */
+    public static final String PROPERTY = "presolve";
+
+    private static final int MAX_PASSES = 20;
+    private static final double TOLERANCE = 1e-9;
+
+    /**
+     * The rows and variables that are left, numbered from 0
+     */
+    Constraints constraints;
+
+    /**
+     * The original number of each variable that is left
+     */
+    int[] columns;
+
+    /**
+     * The original number of each row that is left
+     */
+    int[] rows;
+
+    /**
+     * The bounds of each variable that is left
+     */
+    double[] lower;
+    double[] upper;
+
+    /**
+     * The value of every original variable that was removed, or NaN if it was kept
+     */
+    double[] fixed;
+
+    int numRedundantRows;
+    int numSingletonRows;
+    int numTightenedBounds;
+    int numTightenedCoefficients;
+
+    /**
+     * Presolve the constraints of an integer program, or return null if presolve was turned off through the system
+     * property. Give the objective if it is known, or null if it will change after the model is built.
+     */
+    public static Presolve ifEnabled(Constraints constraints, double[] c) {
+        if (!Boolean.parseBoolean(System.getProperty(PROPERTY, "true"))) {
+            return null;
+        }
+
+        return run(constraints, c);
+    }
+
+    /**
+     * Presolve the constraints of an integer program. Give the objective if it is known, or null if it will change
+     * after the model is built.
+     */
+    public static Presolve run(Constraints constraints, double[] c) {
+        SparseMatrix A = constraints.getA();
+        int numRows = constraints.getNumConstraints();
+        int numColumns = A.getNumColumns();
+        Preconditions.checkArgument(c == null || c.length == numColumns,
+                "There are %s variables but c has %s".formatted(numColumns, c == null ? 0 : c.length));
+
+        // Work on copies of the rows in <= form
+        int[][] rowColumns = new int[numRows][];
+        double[][] rowValues = new double[numRows][];
+        double[] rhs = new double[numRows];
+        for (int i = 0; i < numRows; i++) {
+            double sign = constraints.getAlessThanb()[i] ? 1 : -1;
+            rowColumns[i] = A.rowColumns(i);
+            rowValues[i] = A.rowValues(i);
+            for (int k = 0; k < rowValues[i].length; k++) {
+                rowValues[i][k] = sign * rowValues[i][k];
+            }
+            rhs[i] = sign * constraints.getB()[i];
+        }
+        double[] lower = new double[numColumns];
+        double[] upper = new double[numColumns];
+        Arrays.fill(lower, OptimizationFunction.VARIABLE_LOWER_BOUND);
+        Arrays.fill(upper, OptimizationFunction.VARIABLE_UPPER_BOUND);
+
+        boolean[] removed = new boolean[numRows];
+        int numRedundantRows = 0;
+        int numSingletonRows = 0;
+        int numTightenedBounds = 0;
+        boolean changed = true;
+        for (int pass = 0; pass < MAX_PASSES && changed; pass++) {
+            changed = false;
+            for (int i = 0; i < numRows; i++) {
+                if (removed[i]) {
+                    continue;
+                }
+
+                int[] columns = rowColumns[i];
+                double[] values = rowValues[i];
+                double minActivity = 0;
+                double maxActivity = 0;
+                for (int k = 0; k < columns.length; k++) {
+                    int j = columns[k];
+                    minActivity = minActivity + values[k] * (values[k] > 0 ? lower[j] : upper[j]);
+                    maxActivity = maxActivity + values[k] * (values[k] > 0 ? upper[j] : lower[j]);
+                }
+                if (minActivity > rhs[i] + tolerance(rhs[i])) {
+                    return identity(constraints);
+                }
+                if (maxActivity <= rhs[i] + tolerance(rhs[i])) {
+                    removed[i] = true;
+                    numRedundantRows++;
+                    changed = true;
+                    continue;
+                }
+
+                // Each variable can use up what the rest of the row leaves at its smallest
+                for (int k = 0; k < columns.length; k++) {
+                    int j = columns[k];
+                    double room = rhs[i] - minActivity;
+                    if (values[k] > 0) {
+                        double newUpper = Math.floor(lower[j] + room / values[k] + TOLERANCE);
+                        // The smallest activity uses the lower bound, so it stays the same
+                        if (newUpper < upper[j]) {
+                            upper[j] = newUpper;
+                            numTightenedBounds++;
+                            changed = true;
+                        }
+                    } else {
+                        double newLower = Math.ceil(upper[j] - room / -values[k] - TOLERANCE);
+                        if (newLower > lower[j]) {
+                            lower[j] = newLower;
+                            numTightenedBounds++;
+                            changed = true;
+                        }
+                    }
+                    if (lower[j] > upper[j]) {
+                        return identity(constraints);
+                    }
+                }
+
+                // With one variable the row is now the bound, so it is always satisfied
+                if (columns.length == 1) {
+                    removed[i] = true;
+                    numSingletonRows++;
+                    changed = true;
+                }
+            }
+        }
+
+        int numTightenedCoefficients = 0;
+        for (int i = 0; i < numRows; i++) {
+            if (!removed[i]) {
+                numTightenedCoefficients = numTightenedCoefficients
+                        + tightenCoefficients(rowColumns[i], rowValues[i], rhs, i, lower, upper);
+            }
+        }
+
+        // Remove the variables that are fixed, or that no row uses when we know which bound is best
+        boolean[] used = new boolean[numColumns];
+        for (int i = 0; i < numRows; i++) {
+            if (!removed[i]) {
+                for (int k = 0; k < rowColumns[i].length; k++) {
+                    used[rowColumns[i][k]] |= rowValues[i][k] != 0;
+                }
+            }
+        }
+        double[] fixed = new double[numColumns];
+        Arrays.fill(fixed, Double.NaN);
+        for (int j = 0; j < numColumns; j++) {
+            if (lower[j] == upper[j]) {
+                fixed[j] = lower[j];
+            } else if (!used[j] && c != null) {
+                fixed[j] = c[j] > 0 ? upper[j] : lower[j];
+            }
+        }
+
+        // Move the fixed variables into b, which has to stay an integer
+        for (int i = 0; i < numRows; i++) {
+            if (removed[i]) {
+                continue;
+            }
+            for (int k = 0; k < rowColumns[i].length; k++) {
+                int j = rowColumns[i][k];
+                if (!Double.isNaN(fixed[j]) && !isInteger(rowValues[i][k] * fixed[j])) {
+                    fixed[j] = Double.NaN;
+                }
+            }
+        }
+
+        return reduced(constraints, rowColumns, rowValues, rhs, removed, lower, upper, fixed, numRedundantRows,
+                numSingletonRows, numTightenedBounds, numTightenedCoefficients);
+    }
+
+    /**
+     * The number of variables that are left
+     */
+    public int getNumColumns() {
+        return columns.length;
+    }
+
+    /**
+     * Take the entries of the variables that are left, like for the objective or a start
+     */
+    public double[] restrict(double[] values) {
+        double[] restricted = new double[columns.length];
+        for (int k = 0; k < columns.length; k++) {
+            restricted[k] = values[columns[k]];
+        }
+
+        return restricted;
+    }
+
+    /**
+     * What the removed variables add to the objective
+     */
+    public double fixedValue(double[] c) {
+        double value = 0;
+        for (int j = 0; j < fixed.length; j++) {
+            if (!Double.isNaN(fixed[j])) {
+                value = value + c[j] * fixed[j];
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Turn the values of the variables that are left into values of every original variable
+     */
+    public double[] postsolve(double[] values) {
+        double[] original = new double[fixed.length];
+        for (int j = 0; j < fixed.length; j++) {
+            original[j] = Double.isNaN(fixed[j]) ? 0 : fixed[j];
+        }
+        for (int k = 0; k < columns.length; k++) {
+            original[columns[k]] = values[k];
+        }
+
+        return original;
+    }
+
+    /**
+     * How many rows and variables were removed
+     */
+    public int getNumRemovedRows() {
+        return numRedundantRows + numSingletonRows;
+    }
+
+    public int getNumRemovedColumns() {
+        return fixed.length - columns.length;
+    }
+
+    /**
+     * Make a 0/1 variable's coefficient smaller when the row can't be tight with it at 1 anyway. For a > 0, when the
+     * rest of the row can only reach b - d with it at 1, a and b both go down by d. For a < 0, when the row can only
+     * reach b - d with it at 1, a goes up by d. Either way the row is the same at 0 and at 1.
+     */
+    private static int tightenCoefficients(int[] columns, double[] values, double[] rhs, int row, double[] lower,
+                                           double[] upper) {
+        double maxActivity = 0;
+        for (int k = 0; k < columns.length; k++) {
+            maxActivity = maxActivity + values[k] * (values[k] > 0 ? upper[columns[k]] : lower[columns[k]]);
+        }
+
+        int tightened = 0;
+        for (int k = 0; k < columns.length; k++) {
+            int j = columns[k];
+            if (lower[j] != 0 || upper[j] != 1) {
+                continue;
+            }
+
+            if (values[k] > 0) {
+                double d = rhs[row] - (maxActivity - values[k]);
+                if (d > TOLERANCE && isInteger(d)) {
+                    values[k] = values[k] - d;
+                    rhs[row] = rhs[row] - d;
+                    maxActivity = maxActivity - d;
+                    tightened++;
+                }
+            } else if (values[k] < 0) {
+                double d = rhs[row] - (maxActivity + values[k]);
+                if (d > TOLERANCE && isInteger(d)) {
+                    values[k] = Math.min(0, values[k] + d);
+                    tightened++;
+                }
+            }
+        }
+
+        return tightened;
+    }
+
+    /**
+     * Build the presolved program from the rows and variables that are left, putting the >= rows back the way they were
+     */
+    private static Presolve reduced(Constraints constraints, int[][] rowColumns, double[][] rowValues, double[] rhs,
+                                    boolean[] removed, double[] lower, double[] upper, double[] fixed,
+                                    int numRedundantRows, int numSingletonRows, int numTightenedBounds,
+                                    int numTightenedCoefficients) {
+        int numColumns = fixed.length;
+        int[] newColumn = new int[numColumns];
+        int numKept = 0;
+        for (int j = 0; j < numColumns; j++) {
+            newColumn[j] = Double.isNaN(fixed[j]) ? numKept++ : -1;
+        }
+        int[] columns = new int[numKept];
+        double[] keptLower = new double[numKept];
+        double[] keptUpper = new double[numKept];
+        for (int j = 0; j < numColumns; j++) {
+            if (newColumn[j] >= 0) {
+                columns[newColumn[j]] = j;
+                keptLower[newColumn[j]] = lower[j];
+                keptUpper[newColumn[j]] = upper[j];
+            }
+        }
+
+        int numKeptRows = 0;
+        for (boolean isRemoved: removed) {
+            numKeptRows = isRemoved ? numKeptRows : numKeptRows + 1;
+        }
+        int[] rows = new int[numKeptRows];
+        int[] b = new int[numKeptRows];
+        boolean[] lessThan = new boolean[numKeptRows];
+        SparseMatrix.Builder builder = SparseMatrix.builder(numKept);
+        int row = 0;
+        for (int i = 0; i < removed.length; i++) {
+            if (removed[i]) {
+                continue;
+            }
+
+            double sign = constraints.getAlessThanb()[i] ? 1 : -1;
+            double rowRhs = rhs[i];
+            for (int k = 0; k < rowColumns[i].length; k++) {
+                int j = rowColumns[i][k];
+                if (newColumn[j] < 0) {
+                    rowRhs = rowRhs - rowValues[i][k] * fixed[j];
+                } else {
+                    builder.add(newColumn[j], sign * rowValues[i][k]);
+                }
+            }
+            builder.endRow();
+            rows[row] = i;
+            b[row] = (int) Math.rint(sign * rowRhs);
+            lessThan[row] = constraints.getAlessThanb()[i];
+            row++;
+        }
+
+        return new Presolve(new Constraints(builder.build(), b, lessThan), columns, rows, keptLower, keptUpper, fixed,
+                numRedundantRows, numSingletonRows, numTightenedBounds, numTightenedCoefficients);
+    }
+
+    /**
+     * A presolve that changes nothing
+     */
+    private static Presolve identity(Constraints constraints) {
+        int numColumns = constraints.getA().getNumColumns();
+        int[] columns = new int[numColumns];
+        for (int j = 0; j < numColumns; j++) {
+            columns[j] = j;
+        }
+        int[] rows = new int[constraints.getNumConstraints()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        double[] lower = new double[numColumns];
+        double[] upper = new double[numColumns];
+        Arrays.fill(lower, OptimizationFunction.VARIABLE_LOWER_BOUND);
+        Arrays.fill(upper, OptimizationFunction.VARIABLE_UPPER_BOUND);
+        double[] fixed = new double[numColumns];
+        Arrays.fill(fixed, Double.NaN);
+
+        return new Presolve(constraints, columns, rows, lower, upper, fixed, 0, 0, 0, 0);
+    }
+
+    private static double tolerance(double value) {
+        return 1e-9 * Math.max(1, Math.abs(value));
+    }
+
+    private static boolean isInteger(double value) {
+        return Math.abs(value - Math.rint(value)) <= TOLERANCE;
+    }
+}
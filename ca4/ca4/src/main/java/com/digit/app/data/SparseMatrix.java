@@ -0,0 +1,365 @@
+package com.digit.app.data;
+
+import com.google.common.base.Preconditions;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * A matrix in compressed sparse row (CSR) form. Only the nonzero entries are kept, so memory and every loop over the
+ * matrix scale with the number of nonzeros instead of rows * columns.
+ *
+ * The entries of row i are at positions rowStart[i] to rowStart[i + 1] - 1 of columns and values, sorted by column.
+ */
+@EqualsAndHashCode
+public class SparseMatrix {
+    @Getter
+    private final int numRows;
+
+    @Getter
+    private final int numColumns;
+
+    private final int[] rowStart;
+    private final int[] columns;
+    private final double[] values;
+
+    /**
+     * The same matrix stored by column (CSC), which is built the first time it is asked for
+     */
+    @EqualsAndHashCode.Exclude
+    private volatile SparseMatrix columnMajor;
+
+    private SparseMatrix(int numRows, int numColumns, int[] rowStart, int[] columns, double[] values) {
+        this.numRows = numRows;
+        this.numColumns = numColumns;
+        this.rowStart = rowStart;
+        this.columns = columns;
+        this.values = values;
+    }
+
+    /**
+     * A matrix with no rows
+     */
+    public static SparseMatrix empty(int numColumns) {
+        return new SparseMatrix(0, numColumns, new int[1], new int[0], new double[0]);
+    }
+
+    /**
+     * Keep only the nonzero entries of a dense matrix
+     */
+    public static SparseMatrix fromDense(int[][] dense, int numColumns) {
+        Builder builder = builder(numColumns);
+        for (int[] row: dense) {
+            Preconditions.checkArgument(row.length == numColumns,
+                    "Every row needs %s columns but one has %s".formatted(numColumns, row.length));
+            for (int j = 0; j < numColumns; j++) {
+                builder.add(j, row[j]);
+            }
+            builder.endRow();
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Build a matrix from entries given in any order. Entries at the same position are added together and zeros are
+     * dropped. Only the first size entries of the arrays are used.
+     */
+    public static SparseMatrix fromTriplets(int numRows, int numColumns, int[] entryRows, int[] entryColumns,
+                                            double[] entryValues, int size) {
+        // Count the entries in each row, then turn the counts into where each row starts
+        int[] start = new int[numRows + 1];
+        for (int k = 0; k < size; k++) {
+            // These run for every entry, so only build the message when it fails
+            if (entryRows[k] < 0 || entryRows[k] >= numRows) {
+                throw new IllegalArgumentException("The row %s is not in a matrix with %s rows"
+                        .formatted(entryRows[k], numRows));
+            }
+            if (entryColumns[k] < 0 || entryColumns[k] >= numColumns) {
+                throw new IllegalArgumentException("The column %s is not in a matrix with %s columns"
+                        .formatted(entryColumns[k], numColumns));
+            }
+            start[entryRows[k] + 1]++;
+        }
+        for (int i = 0; i < numRows; i++) {
+            start[i + 1] = start[i + 1] + start[i];
+        }
+
+        // Sort by row, keeping the entries of each row in the order they were given
+        int[] next = Arrays.copyOf(start, numRows);
+        int[] sortedColumns = new int[size];
+        double[] sortedValues = new double[size];
+        for (int k = 0; k < size; k++) {
+            int position = next[entryRows[k]]++;
+            sortedColumns[position] = entryColumns[k];
+            sortedValues[position] = entryValues[k];
+        }
+
+        // Sort each row by column. Packing the column with the position lets a plain long sort do it.
+        Builder builder = builder(numColumns);
+        long[] keys = new long[0];
+        for (int i = 0; i < numRows; i++) {
+            int rowSize = start[i + 1] - start[i];
+            if (keys.length < rowSize) {
+                keys = new long[rowSize];
+            }
+            for (int k = 0; k < rowSize; k++) {
+                keys[k] = ((long) sortedColumns[start[i] + k] << 32) | k;
+            }
+            Arrays.sort(keys, 0, rowSize);
+
+            for (int k = 0; k < rowSize; ) {
+                int column = (int) (keys[k] >>> 32);
+                double value = 0;
+                for (; k < rowSize && (int) (keys[k] >>> 32) == column; k++) {
+                    value = value + sortedValues[start[i] + (int) keys[k]];
+                }
+                builder.add(column, value);
+            }
+            builder.endRow();
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Use arrays that are already in CSR form, like ones read from a file. They are checked but not copied, so they
+     * shouldn't be changed afterwards.
+     */
+    public static SparseMatrix fromCsr(int numRows, int numColumns, int[] rowStart, int[] columns, double[] values) {
+        Preconditions.checkArgument(rowStart.length == numRows + 1 && rowStart[0] == 0,
+                "rowStart needs %s entries starting at 0".formatted(numRows + 1));
+        Preconditions.checkArgument(columns.length == values.length && rowStart[numRows] == columns.length,
+                "There are %s columns and %s values but rowStart ends at %s"
+                        .formatted(columns.length, values.length, rowStart[numRows]));
+
+        // These run for every entry, so only build the message when it fails
+        for (int i = 0; i < numRows; i++) {
+            if (rowStart[i + 1] < rowStart[i]) {
+                throw new IllegalArgumentException("Row %s ends before it starts".formatted(i));
+            }
+            for (int k = rowStart[i]; k < rowStart[i + 1]; k++) {
+                if (columns[k] < 0 || columns[k] >= numColumns || (k > rowStart[i] && columns[k - 1] >= columns[k])) {
+                    throw new IllegalArgumentException("The columns of row %s have to be increasing and less than %s"
+                            .formatted(i, numColumns));
+                }
+            }
+        }
+
+        return new SparseMatrix(numRows, numColumns, rowStart, columns, values);
+    }
+
+    public static Builder builder(int numColumns) {
+        return new Builder(numColumns);
+    }
+
+    public int getNumNonZeros() {
+        return rowStart[numRows];
+    }
+
+    /**
+     * The position of the first entry in the row. Use with {@link #rowEnd(int)}, {@link #column(int)} and
+     * {@link #value(int)} to loop over a row without copying it.
+     */
+    public int rowStart(int row) {
+        return rowStart[row];
+    }
+
+    /**
+     * One past the position of the last entry in the row
+     */
+    public int rowEnd(int row) {
+        return rowStart[row + 1];
+    }
+
+    public int column(int position) {
+        return columns[position];
+    }
+
+    public double value(int position) {
+        return values[position];
+    }
+
+    /**
+     * Get a single entry. This searches the row so it shouldn't be used in loops over the whole matrix.
+     */
+    public double get(int row, int column) {
+        int position = Arrays.binarySearch(columns, rowStart[row], rowStart[row + 1], column);
+        return position >= 0 ? values[position] : 0;
+    }
+
+    /**
+     * The columns of the nonzero entries in the row
+     */
+    public int[] rowColumns(int row) {
+        return Arrays.copyOfRange(columns, rowStart[row], rowStart[row + 1]);
+    }
+
+    /**
+     * The nonzero entries in the row
+     */
+    public double[] rowValues(int row) {
+        return Arrays.copyOfRange(values, rowStart[row], rowStart[row + 1]);
+    }
+
+    /**
+     * Get row * x
+     */
+    public double rowDot(int row, double[] x) {
+        double sum = 0;
+        for (int k = rowStart[row]; k < rowStart[row + 1]; k++) {
+            sum = sum + values[k] * x[columns[k]];
+        }
+
+        return sum;
+    }
+
+    /**
+     * Add scale * row to the target
+     */
+    public void addRowTimes(int row, double scale, double[] target) {
+        for (int k = rowStart[row]; k < rowStart[row + 1]; k++) {
+            target[columns[k]] = target[columns[k]] + scale * values[k];
+        }
+    }
+
+    /**
+     * Get a new matrix with rows from (inclusive) to to (exclusive)
+     */
+    public SparseMatrix rows(int from, int to) {
+        Preconditions.checkArgument(0 <= from && from <= to && to <= numRows,
+                "The rows %s to %s are not in a matrix with %s rows".formatted(from, to, numRows));
+
+        int[] newRowStart = new int[to - from + 1];
+        for (int i = from; i <= to; i++) {
+            newRowStart[i - from] = rowStart[i] - rowStart[from];
+        }
+
+        return new SparseMatrix(to - from, numColumns, newRowStart,
+                Arrays.copyOfRange(columns, rowStart[from], rowStart[to]),
+                Arrays.copyOfRange(values, rowStart[from], rowStart[to]));
+    }
+
+    /**
+     * Get a new matrix where every entry in row i is multiplied by scale[i]
+     */
+    public SparseMatrix scaleRows(double[] scale) {
+        Preconditions.checkArgument(scale.length == numRows,
+                "There are %s rows but got %s scales".formatted(numRows, scale.length));
+
+        double[] scaled = new double[values.length];
+        for (int i = 0; i < numRows; i++) {
+            for (int k = rowStart[i]; k < rowStart[i + 1]; k++) {
+                scaled[k] = scale[i] * values[k];
+            }
+        }
+
+        return new SparseMatrix(numRows, numColumns, rowStart, columns, scaled);
+    }
+
+    /**
+     * Get -1 * this matrix
+     */
+    public SparseMatrix negate() {
+        double[] negated = new double[values.length];
+        for (int k = 0; k < values.length; k++) {
+            negated[k] = - values[k];
+        }
+
+        return new SparseMatrix(numRows, numColumns, rowStart, columns, negated);
+    }
+
+    /**
+     * Get the transpose, which is the same as this matrix stored by column (CSC). It is only built once.
+     */
+    public SparseMatrix getColumnMajor() {
+        SparseMatrix transpose = columnMajor;
+        if (transpose == null) {
+            transpose = transpose();
+            columnMajor = transpose;
+        }
+
+        return transpose;
+    }
+
+    private SparseMatrix transpose() {
+        // Count the entries in each column, then turn the counts into where each column starts
+        int[] columnStart = new int[numColumns + 1];
+        for (int k = 0; k < getNumNonZeros(); k++) {
+            columnStart[columns[k] + 1]++;
+        }
+        for (int j = 0; j < numColumns; j++) {
+            columnStart[j + 1] = columnStart[j + 1] + columnStart[j];
+        }
+
+        // Going through the rows in order keeps the entries of each column sorted by row
+        int[] next = Arrays.copyOf(columnStart, numColumns);
+        int[] rowsOfEntries = new int[getNumNonZeros()];
+        double[] transposedValues = new double[getNumNonZeros()];
+        for (int i = 0; i < numRows; i++) {
+            for (int k = rowStart[i]; k < rowStart[i + 1]; k++) {
+                int position = next[columns[k]]++;
+                rowsOfEntries[position] = i;
+                transposedValues[position] = values[k];
+            }
+        }
+
+        return new SparseMatrix(numColumns, numRows, columnStart, rowsOfEntries, transposedValues);
+    }
+
+    /**
+     * Builds a matrix one row at a time. Entries have to be added in column order and zeros are dropped.
+     */
+    public static class Builder {
+        private final int numColumns;
+        private int numRows = 0;
+        private int[] rowStart = new int[16];
+        private int[] columns = new int[16];
+        private double[] values = new double[16];
+        private int size = 0;
+
+        private Builder(int numColumns) {
+            this.numColumns = numColumns;
+        }
+
+        public Builder add(int column, double value) {
+            if (value == 0) {
+                return this;
+            }
+
+            // This runs for every entry, so only build the message when it fails
+            if (column < 0 || column >= numColumns) {
+                throw new IllegalArgumentException("The column %s is not in a matrix with %s columns"
+                        .formatted(column, numColumns));
+            }
+            Preconditions.checkArgument(size == rowStart[numRows] || columns[size - 1] < column,
+                    "The entries in a row have to be added in column order");
+
+            if (size == columns.length) {
+                columns = Arrays.copyOf(columns, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            columns[size] = column;
+            values[size] = value;
+            size++;
+
+            return this;
+        }
+
+        public Builder endRow() {
+            numRows++;
+            if (numRows + 1 > rowStart.length) {
+                rowStart = Arrays.copyOf(rowStart, rowStart.length * 2);
+            }
+            rowStart[numRows] = size;
+
+            return this;
+        }
+
+        public SparseMatrix build() {
+            return new SparseMatrix(numRows, numColumns, Arrays.copyOf(rowStart, numRows + 1),
+                    Arrays.copyOf(columns, size), Arrays.copyOf(values, size));
+        }
+    }
+}
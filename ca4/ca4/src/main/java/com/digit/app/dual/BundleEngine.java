@@ -0,0 +1,283 @@
+package com.digit.app.dual;
+
+import com.digit.app.LagrangianWorkspace;
+import com.digit.app.RoundCheckpoint;
+import com.digit.app.data.OptimizationFunction;
+import com.digit.app.solver.Solver;
+import com.digit.app.solver.SolverException;
+import com.digit.app.solver.SolverType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A bundle method for minimizing L(u) over u >= 0. Every solve gives a cut L(v) >= L(u) + s * (v - u) where s is the
+ * exact slope of L at u, and the cuts are kept in a bundle. The next multipliers minimize the best cut within a box
+ * around the stability center:
+ *
+ * min over v >= 0 of max_j (s_j * v + beta_j) such that |v_i - center_i| <= delta
+ *
+ * The box keeps us close to the center the same way a proximal term would, but the master problem stays a small LP
+ * that the solver we already have can solve exactly. If L went down by enough of what the cuts predicted, the center
+ * moves there (a serious step). Otherwise, the center stays put (a null step) and the new cut makes the model better.
+ * We are done once the model can't predict any more decrease. This uses far fewer solves than the subgradient method
+ * since every old solve still shapes the next step.
+ */
+class BundleEngine implements DualEngine {
+    private static final int MAX_CUTS = 50;
+
+    /**
+     * How much of the predicted decrease we need to get for a serious step
+     */
+    private static final double DESCENT_FRACTION = 0.1;
+
+    /**
+     * Stop once the predicted decrease is this fraction of L
+     */
+    private static final double RELATIVE_TOLERANCE = 1e-6;
+
+    private static final double DELTA_INCREASE = 2;
+    private static final double DELTA_DECREASE = 0.5;
+
+    /**
+     * How far the box can grow or shrink from where it started
+     */
+    private static final double DELTA_RANGE = 1e3;
+
+    private final OptimizationFunction lagrangianFn;
+    private final SolverType solverType;
+    private final List<Cut> cuts = new ArrayList<>();
+
+    private double[] center;
+    private double centerValue;
+    private double delta;
+    private double startDelta;
+    private boolean onBoundary = false;
+    private double predictedDecrease = Double.POSITIVE_INFINITY;
+
+    BundleEngine(OptimizationFunction lagrangianFn, SolverType solverType) {
+        this.lagrangianFn = lagrangianFn;
+        this.solverType = solverType;
+    }
+
+    @Override
+    public double update(LagrangianWorkspace workspace, double lagrangianValue, double bound, double[] x,
+                         boolean improved) throws SolverException {
+        double[] u = workspace.getLagrangeMultipliers();
+
+        // L(v) = c*x + v*s for the x we just got, so the cut touches L at u
+        double[] slope = new double[u.length];
+        lagrangianFn.getLagrangianTermsInto(x, slope);
+        cuts.add(new Cut(slope, lagrangianValue - dot(slope, u)));
+
+        if (center == null) {
+            center = u.clone();
+            centerValue = lagrangianValue;
+            // Start with a box about as big as the multipliers
+            startDelta = 1;
+            for (double value: u) {
+                startDelta = Math.max(startDelta, Math.abs(value));
+            }
+            delta = startDelta;
+        } else if (lagrangianValue <= centerValue - DESCENT_FRACTION * predictedDecrease) {
+            // Serious step. If the box stopped us, let it grow.
+            center = u.clone();
+            centerValue = lagrangianValue;
+            if (onBoundary) {
+                delta = Math.min(delta * DELTA_INCREASE, startDelta * DELTA_RANGE);
+            }
+        } else if (lagrangianValue > centerValue) {
+            // Null step where L went up, so the model is bad this far out
+            delta = Math.max(delta * DELTA_DECREASE, startDelta / DELTA_RANGE);
+        }
+
+        double[] trial = new double[u.length];
+        double modelValue = solveMaster(trial);
+        predictedDecrease = centerValue - modelValue;
+        dropInactiveCuts(trial, modelValue);
+
+        double moved = Math.sqrt(distanceSquared(trial, u));
+        workspace.setMultipliers(trial);
+
+        return moved;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return predictedDecrease <= RELATIVE_TOLERANCE * Math.max(1, Math.abs(centerValue));
+    }
+
+    @Override
+    public double getE() {
+        return delta;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(cuts.size());
+        for (Cut cut: cuts) {
+            RoundCheckpoint.writeDoubles(out, cut.slope);
+            out.writeDouble(cut.constant);
+            out.writeInt(cut.inactiveFor);
+        }
+        RoundCheckpoint.writeDoubles(out, center);
+        out.writeDouble(centerValue);
+        out.writeDouble(delta);
+        out.writeDouble(startDelta);
+        out.writeBoolean(onBoundary);
+        out.writeDouble(predictedDecrease);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        cuts.clear();
+        int numCuts = in.readInt();
+        for (int k = 0; k < numCuts; k++) {
+            Cut cut = new Cut(RoundCheckpoint.readDoubles(in), in.readDouble());
+            cut.inactiveFor = in.readInt();
+            cuts.add(cut);
+        }
+        center = RoundCheckpoint.readDoubles(in);
+        centerValue = in.readDouble();
+        delta = in.readDouble();
+        startDelta = in.readDouble();
+        onBoundary = in.readBoolean();
+        predictedDecrease = in.readDouble();
+    }
+
+    /**
+     * Solve the master LP, write the best v into trial and return the value of the model there. The variables are v
+     * followed by r, and we maximize -r.
+     */
+    private double solveMaster(double[] trial) throws SolverException {
+        int numMultipliers = center.length;
+        double[] lower = new double[numMultipliers];
+        double[] upper = new double[numMultipliers];
+        for (int i = 0; i < numMultipliers; i++) {
+            lower[i] = Math.max(0, center[i] - delta);
+            upper[i] = center[i] + delta;
+        }
+
+        // r is at least what any single cut can reach in the box and at most the most any cut can reach
+        double lowestR = Double.NEGATIVE_INFINITY;
+        double highestR = Double.NEGATIVE_INFINITY;
+        for (Cut cut: cuts) {
+            double low = cut.constant;
+            double high = cut.constant;
+            for (int i = 0; i < numMultipliers; i++) {
+                low = low + Math.min(cut.slope[i] * lower[i], cut.slope[i] * upper[i]);
+                high = high + Math.max(cut.slope[i] * lower[i], cut.slope[i] * upper[i]);
+            }
+            lowestR = Math.max(lowestR, low);
+            highestR = Math.max(highestR, high);
+        }
+
+        try (Solver master = solverType.create()) {
+            for (int i = 0; i < numMultipliers; i++) {
+                master.addVariables(1, lower[i], upper[i], false);
+            }
+            master.addVariables(1, lowestR, highestR, false);
+
+            // s_j * v - r <= -beta_j
+            int[] variables = new int[numMultipliers + 1];
+            for (int i = 0; i <= numMultipliers; i++) {
+                variables[i] = i;
+            }
+            for (Cut cut: cuts) {
+                double[] coefficients = new double[numMultipliers + 1];
+                System.arraycopy(cut.slope, 0, coefficients, 0, numMultipliers);
+                coefficients[numMultipliers] = -1;
+                master.addConstraint(variables, coefficients, true, -cut.constant);
+            }
+
+            double[] objective = new double[numMultipliers + 1];
+            objective[numMultipliers] = -1;
+            master.setObjective(objective);
+
+            if (!master.solve()) {
+                throw new SolverException("The bundle master problem has no solution");
+            }
+
+            double[] values = master.getValues();
+            System.arraycopy(values, 0, trial, 0, numMultipliers);
+
+            onBoundary = false;
+            for (int i = 0; i < numMultipliers; i++) {
+                boolean atLower = lower[i] > 0 && trial[i] <= lower[i] + 1e-9;
+                boolean atUpper = trial[i] >= upper[i] - 1e-9;
+                onBoundary = onBoundary || atLower || atUpper;
+            }
+
+            return modelValue(trial);
+        }
+    }
+
+    private double modelValue(double[] v) {
+        double value = Double.NEGATIVE_INFINITY;
+        for (Cut cut: cuts) {
+            value = Math.max(value, cut.valueAt(v));
+        }
+
+        return value;
+    }
+
+    /**
+     * Drop the cuts that have been unused the longest once there are too many. A cut is in use if it is tight at the
+     * new trial point.
+     */
+    private void dropInactiveCuts(double[] trial, double modelValue) {
+        for (Cut cut: cuts) {
+            boolean tight = cut.valueAt(trial) >= modelValue - RELATIVE_TOLERANCE * Math.max(1, Math.abs(modelValue));
+            cut.inactiveFor = tight ? 0 : cut.inactiveFor + 1;
+        }
+
+        while (cuts.size() > MAX_CUTS) {
+            int drop = 0;
+            for (int j = 1; j < cuts.size(); j++) {
+                if (cuts.get(j).inactiveFor > cuts.get(drop).inactiveFor) {
+                    drop = j;
+                }
+            }
+            cuts.remove(drop);
+        }
+    }
+
+    private static double dot(double[] a, double[] b) {
+        double value = 0;
+        for (int i = 0; i < a.length; i++) {
+            value = value + a[i] * b[i];
+        }
+
+        return value;
+    }
+
+    private static double distanceSquared(double[] a, double[] b) {
+        double value = 0;
+        for (int i = 0; i < a.length; i++) {
+            value = value + (a[i] - b[i]) * (a[i] - b[i]);
+        }
+
+        return value;
+    }
+
+    /**
+     * L(v) >= constant + slope * v
+     */
+    private static class Cut {
+        private final double[] slope;
+        private final double constant;
+        private int inactiveFor = 0;
+
+        private Cut(double[] slope, double constant) {
+            this.slope = slope;
+            this.constant = constant;
+        }
+
+        private double valueAt(double[] v) {
+            return constant + dot(slope, v);
+        }
+    }
+}
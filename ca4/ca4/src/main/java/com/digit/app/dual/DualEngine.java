@@ -0,0 +1,55 @@
+package com.digit.app.dual;
+
+import com.digit.app.LagrangianWorkspace;
+import com.digit.app.solver.SolverException;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Picks the lagrange multipliers to try next from what the subproblem returned. The round solves L(u) at the
+ * multipliers in the workspace, and then the engine moves them. A new engine is created for every round.
+ */
+public interface DualEngine {
+
+    /**
+     * Move the multipliers in the workspace to the ones to try next
+     *
+     * @param workspace Holds the multipliers that were just solved along with the subgradient at x
+     * @param lagrangianValue The value of L(u) at those multipliers
+     * @param bound The best value we have for the original problem
+     * @param x The solution of the subproblem
+     * @param improved Whether L(u) went down compared to the last iteration
+     * @return How far the multipliers moved, as the step for the tables
+     */
+    double update(LagrangianWorkspace workspace, double lagrangianValue, double bound, double[] x, boolean improved)
+            throws SolverException;
+
+    /**
+     * Has the engine converged or given up
+     */
+    boolean isFinished();
+
+    /**
+     * The current scale of the step, which is epsilon for the subgradient rules
+     */
+    double getE();
+
+    /**
+     * Write everything the engine keeps between iterations, so that a round can be resumed from a checkpoint
+     */
+    void writeState(DataOutput out) throws IOException;
+
+    /**
+     * Put back what {@link #writeState(DataOutput)} wrote, into an engine that was just created
+     */
+    void readState(DataInput in) throws IOException;
+
+    /**
+     * An approximate solution to the LP over the relaxed constraints, for engines that recover one
+     */
+    default double[] getPrimalEstimate() {
+        return null;
+    }
+}
@@ -0,0 +1,56 @@
+package com.digit.app.dual;
+
+import com.digit.app.RoundSettings;
+import com.digit.app.data.OptimizationFunction;
+
+/**
+ * The ways we can search for the best lagrange multipliers
+ */
+public enum DualEngineType {
+    /**
+     * The subgradient method with the chosen step rule
+     */
+    SUBGRADIENT {
+        @Override
+        public DualEngine create(OptimizationFunction lagrangianFn, RoundSettings settings) {
+            return new SubgradientEngine(settings.getStepRuleType().create());
+        }
+    },
+
+    /**
+     * A bundle method that keeps the cuts from earlier solves. Its master problem is solved with the run's solver.
+     */
+    BUNDLE {
+        @Override
+        public DualEngine create(OptimizationFunction lagrangianFn, RoundSettings settings) {
+            return new BundleEngine(lagrangianFn, settings.getSolverType());
+        }
+    },
+
+    /**
+     * The volume algorithm, which also averages the x from every solve into an approximate primal solution
+     */
+    VOLUME {
+        @Override
+        public DualEngine create(OptimizationFunction lagrangianFn, RoundSettings settings) {
+            return new VolumeEngine(lagrangianFn);
+        }
+    };
+
+    /**
+     * The system property used to pick the engine. ie, -Ddual=bundle
+     */
+    public static final String PROPERTY = "dual";
+
+    /**
+     * Create the engine for a new round
+     */
+    public abstract DualEngine create(OptimizationFunction lagrangianFn, RoundSettings settings);
+
+    /**
+     * Get the engine chosen through the system property. The subgradient method is used if nothing was chosen.
+     */
+    public static DualEngineType fromSystemProperty() {
+        return DualEngineType.valueOf(System.getProperty(PROPERTY, SUBGRADIENT.name()).toUpperCase());
+    }
+}
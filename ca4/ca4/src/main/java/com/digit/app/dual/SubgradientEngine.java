@@ -0,0 +1,52 @@
+package com.digit.app.dual;
+
+import com.digit.app.LagrangianWorkspace;
+import com.digit.app.step.StepRule;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The subgradient method, which moves along the direction from the step rule
+ */
+class SubgradientEngine implements DualEngine {
+    private final StepRule stepRule;
+
+    SubgradientEngine(StepRule stepRule) {
+        this.stepRule = stepRule;
+    }
+
+    @Override
+    public double update(LagrangianWorkspace workspace, double lagrangianValue, double bound, double[] x, boolean improved) {
+        double step = stepRule.step(lagrangianValue, bound, workspace.getSubgradient(), workspace.getDirection());
+
+        // u^{t+1} = max {0, u + step*direction)
+        workspace.stepAlongDirection(step);
+
+        // Let the rule shrink its step if we haven't improved
+        stepRule.record(improved);
+
+        return step;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return stepRule.isFinished();
+    }
+
+    @Override
+    public double getE() {
+        return stepRule.getE();
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        stepRule.writeState(out);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        stepRule.readState(in);
+    }
+}
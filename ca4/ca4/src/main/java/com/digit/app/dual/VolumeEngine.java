@@ -0,0 +1,223 @@
+package com.digit.app.dual;
+
+import com.digit.app.LagrangianWorkspace;
+import com.digit.app.RoundCheckpoint;
+import com.digit.app.data.OptimizationFunction;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Barahona and Anbil's volume algorithm. Along with the multipliers, it keeps an exponential average of the x from
+ * every solve. The direction is the slope of L at that average instead of at the last x, which smooths out the
+ * zig-zagging of the plain subgradient method. The average also converges to a solution of the LP over the relaxed
+ * constraints, so we get an approximate primal solution on top of the bound.
+ *
+ * Steps follow the usual colors. If L went down, the center moves there. It is a green step if the new slope still
+ * agrees with the direction, and then f grows. After enough red steps, where L didn't go down, f shrinks.
+ */
+class VolumeEngine implements DualEngine {
+    private static final double START_F = 0.1;
+    private static final double GREEN_INCREASE = 1.1;
+    private static final double RED_DECREASE = 0.66;
+    private static final int REDS_UNTIL_DECREASE = 20;
+    private static final double BREAK_IF_F_LESS_THAN = 0.0005;
+
+    /**
+     * The most weight the newest x gets in the average. It is halved every ALPHA_INTERVAL updates where the average
+     * didn't get closer to feasible, so the average settles down instead of following the newest vertices.
+     */
+    private static final double START_MAX_ALPHA = 0.1;
+    private static final double MIN_MAX_ALPHA = 0.0001;
+    private static final int ALPHA_INTERVAL = 80;
+
+    /**
+     * Stop once the average x is this close to feasible and its value this close to L
+     */
+    private static final double PRIMAL_TOLERANCE = 1e-4;
+
+    private final OptimizationFunction lagrangianFn;
+
+    private double[] center;
+    private double centerValue;
+    private double[] averageX;
+    private double f = START_F;
+    private int reds = 0;
+    private double maxAlpha = START_MAX_ALPHA;
+    private int updates = 0;
+    private double bestViolation = Double.POSITIVE_INFINITY;
+
+    // Buffers for the slopes at the newest x and at the average
+    private double[] slope;
+    private double[] averageSlope;
+
+    VolumeEngine(OptimizationFunction lagrangianFn) {
+        this.lagrangianFn = lagrangianFn;
+    }
+
+    @Override
+    public double update(LagrangianWorkspace workspace, double lagrangianValue, double bound, double[] x, boolean improved) {
+        double[] u = workspace.getLagrangeMultipliers();
+
+        if (center == null) {
+            center = u.clone();
+            centerValue = lagrangianValue;
+            averageX = x.clone();
+            slope = new double[u.length];
+            averageSlope = new double[u.length];
+            lagrangianFn.getLagrangianTermsInto(averageX, averageSlope);
+        } else {
+            lagrangianFn.getLagrangianTermsInto(x, slope);
+
+            if (lagrangianValue < centerValue) {
+                // Green if the slope at the new x still points the same way as the one we moved against
+                if (dot(slope, averageSlope) >= 0) {
+                    f = f * GREEN_INCREASE;
+                }
+                reds = 0;
+                System.arraycopy(u, 0, center, 0, u.length);
+                centerValue = lagrangianValue;
+            } else {
+                reds++;
+                if (reds >= REDS_UNTIL_DECREASE) {
+                    reds = 0;
+                    f = f * RED_DECREASE;
+                }
+            }
+
+            // Pick the weight that makes the new average slope as short as possible
+            double alpha = bestAlpha(slope, averageSlope, maxAlpha);
+            for (int j = 0; j < averageX.length; j++) {
+                averageX[j] = alpha * x[j] + (1 - alpha) * averageX[j];
+            }
+            // The slope is linear in x so the average slope is the slope at the average
+            for (int i = 0; i < averageSlope.length; i++) {
+                averageSlope[i] = alpha * slope[i] + (1 - alpha) * averageSlope[i];
+            }
+
+            updates++;
+            double violation = maxViolation();
+            if (violation < bestViolation) {
+                bestViolation = violation;
+            } else if (updates % ALPHA_INTERVAL == 0) {
+                maxAlpha = Math.max(MIN_MAX_ALPHA, maxAlpha / 2);
+            }
+        }
+
+        double normSquared = dot(averageSlope, averageSlope);
+        if (normSquared == 0) {
+            return 0;
+        }
+
+        // Polyak step toward the bound, or toward a bit below the center if the bound isn't below it
+        double target = bound < centerValue ? bound : centerValue - 0.01 * Math.max(1, Math.abs(centerValue));
+        double step = f * (centerValue - target) / normSquared;
+
+        // u = max(0, center - step * slope at the average)
+        double movedSquared = 0;
+        double[] next = new double[u.length];
+        for (int i = 0; i < u.length; i++) {
+            next[i] = Math.max(0, center[i] - step * averageSlope[i]);
+            movedSquared = movedSquared + (next[i] - u[i]) * (next[i] - u[i]);
+        }
+        workspace.setMultipliers(next);
+
+        return Math.sqrt(movedSquared);
+    }
+
+    @Override
+    public boolean isFinished() {
+        if (f <= BREAK_IF_F_LESS_THAN) {
+            return true;
+        }
+        if (averageX == null) {
+            return false;
+        }
+
+        double scale = Math.max(1, Math.abs(centerValue));
+        return maxViolation() <= PRIMAL_TOLERANCE * scale
+                && Math.abs(centerValue - primalValue()) <= PRIMAL_TOLERANCE * scale;
+    }
+
+    @Override
+    public double getE() {
+        return f;
+    }
+
+    @Override
+    public double[] getPrimalEstimate() {
+        return averageX == null ? null : averageX.clone();
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        RoundCheckpoint.writeDoubles(out, center);
+        out.writeDouble(centerValue);
+        RoundCheckpoint.writeDoubles(out, averageX);
+        RoundCheckpoint.writeDoubles(out, averageSlope);
+        out.writeDouble(f);
+        out.writeInt(reds);
+        out.writeDouble(maxAlpha);
+        out.writeInt(updates);
+        out.writeDouble(bestViolation);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        center = RoundCheckpoint.readDoubles(in);
+        centerValue = in.readDouble();
+        averageX = RoundCheckpoint.readDoubles(in);
+        averageSlope = RoundCheckpoint.readDoubles(in);
+        f = in.readDouble();
+        reds = in.readInt();
+        maxAlpha = in.readDouble();
+        updates = in.readInt();
+        bestViolation = in.readDouble();
+        slope = averageSlope == null ? null : new double[averageSlope.length];
+    }
+
+    /**
+     * c*x for the average x
+     */
+    private double primalValue() {
+        return dot(lagrangianFn.getC(), averageX);
+    }
+
+    /**
+     * The most that the average x breaks a relaxed constraint by. A constraint holds when its slope term is >= 0.
+     */
+    private double maxViolation() {
+        double violation = 0;
+        for (double value: averageSlope) {
+            violation = Math.max(violation, -value);
+        }
+
+        return violation;
+    }
+
+    /**
+     * The alpha in [maxAlpha / 10, maxAlpha] that minimizes ||alpha * slope + (1 - alpha) * average||
+     */
+    private static double bestAlpha(double[] slope, double[] average, double maxAlpha) {
+        double differenceSquared = 0;
+        double averageDotDifference = 0;
+        for (int i = 0; i < slope.length; i++) {
+            double difference = slope[i] - average[i];
+            differenceSquared = differenceSquared + difference * difference;
+            averageDotDifference = averageDotDifference + average[i] * difference;
+        }
+
+        double alpha = differenceSquared > 0 ? -averageDotDifference / differenceSquared : maxAlpha;
+        return Math.max(maxAlpha / 10, Math.min(maxAlpha, alpha));
+    }
+
+    private static double dot(double[] a, double[] b) {
+        double value = 0;
+        for (int i = 0; i < a.length; i++) {
+            value = value + a[i] * b[i];
+        }
+
+        return value;
+    }
+}
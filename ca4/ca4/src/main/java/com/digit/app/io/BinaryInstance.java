@@ -0,0 +1,252 @@
+package com.digit.app.io;
+
+import com.digit.app.data.Constraints;
+import com.digit.app.data.Data;
+import com.digit.app.data.SparseMatrix;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Our own binary format for {@code Data}, which is just the arrays as they are in memory. Loading maps the file and
+ * copies each array out in bulk, so there is nothing to parse and big instances load about as fast as the disk allows.
+ *
+ * Everything is little endian. The header is
+ * <pre>
+ *     int magic, int version, int rows, int columns, long nonzeros
+ * </pre>
+ * and is followed by these arrays, each starting on a multiple of 8 bytes:
+ * <pre>
+ *     int[rows + 1] rowStart, int[nonzeros] columns, double[nonzeros] values,   (A in CSR form)
+ *     int[rows] b, byte[(rows + 7) / 8] AlessThanb as bits, double[columns] c
+ * </pre>
+ */
+class BinaryInstance {
+    static final int MAGIC = 0x49344143;
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+
+    /**
+     * A single mapping can't be bigger than 2 GB, so bigger arrays are read in pieces
+     */
+    private static final long MAX_MAPPING = 1L << 30;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    static Data read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new InstanceFormatException("%s is too short to be an instance".formatted(path));
+            }
+            ByteBuffer header = map(channel, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new InstanceFormatException("%s is not a binary instance".formatted(path));
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new InstanceFormatException("%s is version %s but only version %s can be read"
+                        .formatted(path, version, VERSION));
+            }
+            int numRows = header.getInt();
+            int numColumns = header.getInt();
+            long numNonZeros = header.getLong();
+            if (numRows < 0 || numColumns < 0 || numNonZeros < 0 || numNonZeros > Integer.MAX_VALUE) {
+                throw new InstanceFormatException("%s has a broken header".formatted(path));
+            }
+
+            long expectedSize = sizeOf(numRows, numColumns, (int) numNonZeros);
+            if (channel.size() != expectedSize) {
+                throw new InstanceFormatException("%s should be %s bytes but is %s"
+                        .formatted(path, expectedSize, channel.size()));
+            }
+
+            long position = HEADER_SIZE;
+            int[] rowStart = readInts(channel, position, numRows + 1);
+            position = align(position + 4L * (numRows + 1));
+            int[] columns = readInts(channel, position, (int) numNonZeros);
+            position = align(position + 4L * numNonZeros);
+            double[] values = readDoubles(channel, position, (int) numNonZeros);
+            position = align(position + 8L * numNonZeros);
+            int[] b = readInts(channel, position, numRows);
+            position = align(position + 4L * numRows);
+
+            ByteBuffer bits = map(channel, position, (numRows + 7) / 8);
+            boolean[] AlessThanb = new boolean[numRows];
+            for (int i = 0; i < numRows; i++) {
+                AlessThanb[i] = (bits.get(i >>> 3) & (1 << (i & 7))) != 0;
+            }
+            position = align(position + (numRows + 7) / 8);
+            double[] c = readDoubles(channel, position, numColumns);
+
+            SparseMatrix A;
+            try {
+                A = SparseMatrix.fromCsr(numRows, numColumns, rowStart, columns, values);
+            } catch (IllegalArgumentException e) {
+                throw new InstanceFormatException("%s has a broken matrix: %s".formatted(path, e.getMessage()));
+            }
+
+            return Data.create(new Constraints(A, b, AlessThanb), c);
+        }
+    }
+
+    static void write(Data data, Path path) throws IOException {
+        Constraints constraints = data.getConstraints();
+        SparseMatrix A = constraints.getA();
+        double[] c = data.getOptimizationFn().getC();
+        int numRows = A.getNumRows();
+        int numNonZeros = A.getNumNonZeros();
+
+        try (Output out = new Output(path)) {
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putInt(numRows);
+            out.putInt(c.length);
+            out.putLong(numNonZeros);
+
+            for (int i = 0; i <= numRows; i++) {
+                out.putInt(i < numRows ? A.rowStart(i) : numNonZeros);
+            }
+            out.pad();
+            for (int k = 0; k < numNonZeros; k++) {
+                out.putInt(A.column(k));
+            }
+            out.pad();
+            for (int k = 0; k < numNonZeros; k++) {
+                out.putDouble(A.value(k));
+            }
+            out.pad();
+            for (int i = 0; i < numRows; i++) {
+                out.putInt(constraints.getB()[i]);
+            }
+            out.pad();
+
+            for (int i = 0; i < numRows; i += 8) {
+                int bits = 0;
+                for (int k = i; k < Math.min(i + 8, numRows); k++) {
+                    if (constraints.getAlessThanb()[k]) {
+                        bits = bits | (1 << (k - i));
+                    }
+                }
+                out.putByte((byte) bits);
+            }
+            out.pad();
+            for (double value: c) {
+                out.putDouble(value);
+            }
+        }
+    }
+
+    /**
+     * The size of a file for an instance of this size
+     */
+    static long sizeOf(int numRows, int numColumns, int numNonZeros) {
+        long size = align(HEADER_SIZE + 4L * (numRows + 1));
+        size = align(size + 4L * numNonZeros);
+        size = align(size + 8L * numNonZeros);
+        size = align(size + 4L * numRows);
+        size = align(size + (numRows + 7) / 8);
+
+        return size + 8L * numColumns;
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        return mapped.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int[] readInts(FileChannel channel, long position, int length) throws IOException {
+        int[] values = new int[length];
+        for (int from = 0; from < length; ) {
+            int count = (int) Math.min(length - from, MAX_MAPPING / 4);
+            map(channel, position + 4L * from, 4L * count).asIntBuffer().get(values, from, count);
+            from = from + count;
+        }
+
+        return values;
+    }
+
+    private static double[] readDoubles(FileChannel channel, long position, int length) throws IOException {
+        double[] values = new double[length];
+        for (int from = 0; from < length; ) {
+            int count = (int) Math.min(length - from, MAX_MAPPING / 8);
+            map(channel, position + 8L * from, 8L * count).asDoubleBuffer().get(values, from, count);
+            from = from + count;
+        }
+
+        return values;
+    }
+
+    /**
+     * Writes the file through a direct buffer, keeping track of where it is in the file so arrays can be aligned
+     */
+    private static class Output implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private long flushed = 0;
+
+        Output(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void putByte(byte value) throws IOException {
+            makeRoom(1);
+            buffer.put(value);
+        }
+
+        void putInt(int value) throws IOException {
+            makeRoom(4);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            makeRoom(8);
+            buffer.putLong(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            makeRoom(8);
+            buffer.putDouble(value);
+        }
+
+        /**
+         * Pad with zeros up to the next multiple of 8 in the file
+         */
+        void pad() throws IOException {
+            while (((flushed + buffer.position()) & 7) != 0) {
+                putByte((byte) 0);
+            }
+        }
+
+        private void makeRoom(int needed) throws IOException {
+            if (buffer.remaining() < needed) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                flushed = flushed + channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
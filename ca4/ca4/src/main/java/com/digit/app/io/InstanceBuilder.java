@@ -0,0 +1,238 @@
+package com.digit.app.io;
+
+import com.digit.app.data.Constraints;
+import com.digit.app.data.Data;
+import com.digit.app.data.OptimizationFunction;
+import com.digit.app.data.SparseMatrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects an instance as a reader goes through a file and turns it into {@code Data} at the end. Entries can come in
+ * any order. The readers share this so they all handle the parts that {@code Data} can't hold in the same way:
+ * <ul>
+ *     <li>Data always maximizes, so a minimization is turned into maximizing -c.</li>
+ *     <li>Data only has &lt;= and &gt;= rows, so an equality row becomes a &lt;= row followed by a &gt;= row.</li>
+ *     <li>Every variable is an integer in the same box, so continuous variables and other bounds are rejected. A
+ *     variable starts out continuous in [0, +inf) like both formats say, so its bounds have to be given.</li>
+ *     <li>The right hand sides are integers, so fractional ones are rejected.</li>
+ * </ul>
+ */
+class InstanceBuilder {
+    static final char LESS_THAN = 'L';
+    static final char GREATER_THAN = 'G';
+    static final char EQUAL = 'E';
+
+    private final Map<String, Integer> variables = new HashMap<>();
+    private final List<String> variableNames = new ArrayList<>();
+    private double[] c = new double[16];
+    private double[] lower = new double[16];
+    private double[] upper = new double[16];
+    private boolean[] integer = new boolean[16];
+
+    private final Map<String, Integer> rows = new HashMap<>();
+    private char[] senses = new char[16];
+    private double[] rhs = new double[16];
+    private int numRows = 0;
+
+    // The entries of A
+    private int[] entryRows = new int[16];
+    private int[] entryColumns = new int[16];
+    private double[] entryValues = new double[16];
+    private int numEntries = 0;
+
+    private boolean minimize = false;
+
+    /**
+     * Get the index of a variable, adding it if it is new
+     */
+    int variable(String name) {
+        Integer index = variables.get(name);
+        if (index != null) {
+            return index;
+        }
+
+        int newIndex = variableNames.size();
+        variables.put(name, newIndex);
+        variableNames.add(name);
+        if (newIndex == c.length) {
+            c = Arrays.copyOf(c, newIndex * 2);
+            lower = Arrays.copyOf(lower, newIndex * 2);
+            upper = Arrays.copyOf(upper, newIndex * 2);
+            integer = Arrays.copyOf(integer, newIndex * 2);
+        }
+        lower[newIndex] = 0;
+        upper[newIndex] = Double.POSITIVE_INFINITY;
+
+        return newIndex;
+    }
+
+    /**
+     * Get the index of a variable or -1 if there isn't one with that name
+     */
+    int findVariable(String name) {
+        return variables.getOrDefault(name, -1);
+    }
+
+    int addRow(String name, char sense, int lineNumber) throws InstanceFormatException {
+        if (rows.containsKey(name)) {
+            throw new InstanceFormatException("The row %s is defined twice".formatted(name), lineNumber);
+        }
+
+        if (numRows == senses.length) {
+            senses = Arrays.copyOf(senses, numRows * 2);
+            rhs = Arrays.copyOf(rhs, numRows * 2);
+        }
+        rows.put(name, numRows);
+        senses[numRows] = sense;
+
+        return numRows++;
+    }
+
+    /**
+     * Get the index of a row or -1 if there isn't one with that name
+     */
+    int findRow(String name) {
+        return rows.getOrDefault(name, -1);
+    }
+
+    /**
+     * Change the sense of a row, for formats where it comes after the entries
+     */
+    void setSense(int row, char sense) {
+        senses[row] = sense;
+    }
+
+    void setMinimize(boolean minimize) {
+        this.minimize = minimize;
+    }
+
+    void addObjective(int variable, double value) {
+        c[variable] = c[variable] + value;
+    }
+
+    void addEntry(int row, int variable, double value) {
+        if (numEntries == entryRows.length) {
+            entryRows = Arrays.copyOf(entryRows, numEntries * 2);
+            entryColumns = Arrays.copyOf(entryColumns, numEntries * 2);
+            entryValues = Arrays.copyOf(entryValues, numEntries * 2);
+        }
+        entryRows[numEntries] = row;
+        entryColumns[numEntries] = variable;
+        entryValues[numEntries] = value;
+        numEntries++;
+    }
+
+    void setRhs(int row, double value, int lineNumber) throws InstanceFormatException {
+        if (value != Math.rint(value) || Math.abs(value) > Integer.MAX_VALUE) {
+            throw new InstanceFormatException("The right hand side of %s is %s but only integers are supported"
+                    .formatted(rowName(row), value), lineNumber);
+        }
+        rhs[row] = value;
+    }
+
+    /**
+     * Set the bounds of a variable from the file, which have to be the same as the box that every variable is kept
+     * in. NaN means that side wasn't given and keeps what it was.
+     */
+    void setBounds(int variable, double lower, double upper, int lineNumber) throws InstanceFormatException {
+        boolean lowerMatches = Double.isNaN(lower) || lower == OptimizationFunction.VARIABLE_LOWER_BOUND;
+        boolean upperMatches = Double.isNaN(upper) || upper == OptimizationFunction.VARIABLE_UPPER_BOUND;
+        if (!lowerMatches || !upperMatches) {
+            throw new InstanceFormatException(("%s has the bounds [%s, %s] but every variable has to be in [%s, %s]")
+                    .formatted(variableNames.get(variable), Double.isNaN(lower) ? "default" : lower,
+                            Double.isNaN(upper) ? "default" : upper, OptimizationFunction.VARIABLE_LOWER_BOUND,
+                            OptimizationFunction.VARIABLE_UPPER_BOUND), lineNumber);
+        }
+
+        if (!Double.isNaN(lower)) {
+            this.lower[variable] = lower;
+        }
+        if (!Double.isNaN(upper)) {
+            this.upper[variable] = upper;
+        }
+    }
+
+    void setInteger(int variable) {
+        integer[variable] = true;
+    }
+
+    Data build() throws InstanceFormatException {
+        int numVariables = variableNames.size();
+        for (int j = 0; j < numVariables; j++) {
+            if (!integer[j]) {
+                throw new InstanceFormatException("%s is continuous but every variable has to be an integer"
+                        .formatted(variableNames.get(j)));
+            }
+            if (lower[j] != OptimizationFunction.VARIABLE_LOWER_BOUND
+                    || upper[j] != OptimizationFunction.VARIABLE_UPPER_BOUND) {
+                throw new InstanceFormatException("%s is in [%s, %s] but every variable has to be in [%s, %s]"
+                        .formatted(variableNames.get(j), lower[j], upper[j], OptimizationFunction.VARIABLE_LOWER_BOUND,
+                                OptimizationFunction.VARIABLE_UPPER_BOUND));
+            }
+        }
+
+        // Give every row its place in the new A, where an equality row takes two
+        int[] newRow = new int[numRows];
+        int numNewRows = 0;
+        for (int i = 0; i < numRows; i++) {
+            newRow[i] = numNewRows;
+            numNewRows = numNewRows + (senses[i] == EQUAL ? 2 : 1);
+        }
+
+        int[] b = new int[numNewRows];
+        boolean[] AlessThanb = new boolean[numNewRows];
+        for (int i = 0; i < numRows; i++) {
+            b[newRow[i]] = (int) rhs[i];
+            AlessThanb[newRow[i]] = senses[i] != GREATER_THAN;
+            if (senses[i] == EQUAL) {
+                b[newRow[i] + 1] = (int) rhs[i];
+            }
+        }
+
+        int numEqualEntries = 0;
+        for (int k = 0; k < numEntries; k++) {
+            if (senses[entryRows[k]] == EQUAL) {
+                numEqualEntries++;
+            }
+        }
+        int[] newEntryRows = new int[numEntries + numEqualEntries];
+        int[] newEntryColumns = Arrays.copyOf(entryColumns, numEntries + numEqualEntries);
+        double[] newEntryValues = Arrays.copyOf(entryValues, numEntries + numEqualEntries);
+        int size = numEntries;
+        for (int k = 0; k < numEntries; k++) {
+            newEntryRows[k] = newRow[entryRows[k]];
+            if (senses[entryRows[k]] == EQUAL) {
+                newEntryRows[size] = newRow[entryRows[k]] + 1;
+                newEntryColumns[size] = entryColumns[k];
+                newEntryValues[size] = entryValues[k];
+                size++;
+            }
+        }
+
+        SparseMatrix A = SparseMatrix.fromTriplets(numNewRows, numVariables, newEntryRows, newEntryColumns,
+                newEntryValues, size);
+        double[] objective = Arrays.copyOf(c, numVariables);
+        if (minimize) {
+            for (int j = 0; j < numVariables; j++) {
+                objective[j] = - objective[j];
+            }
+        }
+
+        return Data.create(new Constraints(A, b, AlessThanb), objective);
+    }
+
+    private String rowName(int row) {
+        for (Map.Entry<String, Integer> entry: rows.entrySet()) {
+            if (entry.getValue() == row) {
+                return entry.getKey();
+            }
+        }
+
+        return "row %s".formatted(row);
+    }
+}
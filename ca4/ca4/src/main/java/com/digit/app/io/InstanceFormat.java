@@ -0,0 +1,100 @@
+package com.digit.app.io;
+
+import com.digit.app.data.Data;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The file formats that instances can be read from and written to
+ */
+public enum InstanceFormat {
+    /**
+     * MPS where each field is in fixed columns. Names can have spaces but only 8 characters.
+     */
+    MPS {
+        @Override
+        public Data read(Path path) throws IOException {
+            return new MpsReader(true).read(path);
+        }
+
+        @Override
+        public void write(Data data, Path path) throws IOException {
+            new MpsWriter(true).write(data, path);
+        }
+    },
+
+    /**
+     * MPS where the fields are separated by white space. This also reads fixed MPS as long as names don't have spaces.
+     */
+    FREE_MPS {
+        @Override
+        public Data read(Path path) throws IOException {
+            return new MpsReader(false).read(path);
+        }
+
+        @Override
+        public void write(Data data, Path path) throws IOException {
+            new MpsWriter(false).write(data, path);
+        }
+    },
+
+    /**
+     * The CPLEX LP format, which writes the program out like it would be on paper
+     */
+    LP {
+        @Override
+        public Data read(Path path) throws IOException {
+            return new LpReader().read(path);
+        }
+
+        @Override
+        public void write(Data data, Path path) throws IOException {
+            new LpWriter().write(data, path);
+        }
+    },
+
+    /**
+     * Our own binary format, which loads in milliseconds since there is nothing to parse. Use this for instances that
+     * are run many times.
+     */
+    BINARY {
+        @Override
+        public Data read(Path path) throws IOException {
+            return BinaryInstance.read(path);
+        }
+
+        @Override
+        public void write(Data data, Path path) throws IOException {
+            BinaryInstance.write(data, path);
+        }
+    };
+
+    /**
+     * The system property used to load an instance instead of generating one. ie, -Dinstance=model.mps
+     */
+    public static final String PROPERTY = "instance";
+
+    public abstract Data read(Path path) throws IOException;
+
+    public abstract void write(Data data, Path path) throws IOException;
+
+    /**
+     * Pick the format from the file extension, which is .mps, .lp or .bin. .mps files are read as free MPS since that
+     * reads most fixed files too.
+     */
+    public static InstanceFormat fromPath(Path path) {
+        String name = path.getFileName().toString().toLowerCase();
+        if (name.endsWith(".mps")) {
+            return FREE_MPS;
+        }
+        if (name.endsWith(".lp")) {
+            return LP;
+        }
+        if (name.endsWith(".bin")) {
+            return BINARY;
+        }
+
+        throw new IllegalArgumentException("Can't tell the format of %s from its extension".formatted(path));
+    }
+}
@@ -0,0 +1,19 @@
+package com.digit.app.io;
+
+import java.io.IOException;
+
+/**
+ * An instance file couldn't be read, either because it is broken or because it uses something that {@code Data}
+ * can't hold, like bounds other than the box every variable is kept in.
+ */
+public class InstanceFormatException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public InstanceFormatException(String message) {
+        super(message);
+    }
+
+    public InstanceFormatException(String message, int lineNumber) {
+        super("Line %s: %s".formatted(lineNumber, message));
+    }
+}
@@ -0,0 +1,96 @@
+package com.digit.app.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads a text file one line at a time through a file channel. Only one buffer of the file and the current line are in
+ * memory, and the line is reused, so reading a huge file doesn't create a string per line. The formats we read are
+ * ASCII, so every byte is one character.
+ */
+class LineReader implements AutoCloseable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private char[] line = new char[256];
+    private int length = 0;
+    private int lineNumber = 0;
+    private boolean endOfFile = false;
+
+    LineReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.buffer.flip();
+    }
+
+    /**
+     * Move to the next line. Returns false once there are no more lines.
+     */
+    boolean next() throws IOException {
+        length = 0;
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                int read = endOfFile ? -1 : channel.read(buffer);
+                buffer.flip();
+                if (read < 0) {
+                    endOfFile = true;
+                    // The last line doesn't always end with a new line
+                    if (length > 0) {
+                        lineNumber++;
+                        return true;
+                    }
+                    return false;
+                }
+                continue;
+            }
+
+            byte[] bytes = buffer.array();
+            int position = buffer.position();
+            int limit = buffer.limit();
+            while (position < limit) {
+                char c = (char) (bytes[position++] & 0xff);
+                if (c == '\n') {
+                    buffer.position(position);
+                    lineNumber++;
+                    return true;
+                }
+                if (c != '\r') {
+                    if (length == line.length) {
+                        line = Arrays.copyOf(line, length * 2);
+                    }
+                    line[length++] = c;
+                }
+            }
+            buffer.position(position);
+        }
+    }
+
+    int length() {
+        return length;
+    }
+
+    char charAt(int index) {
+        return line[index];
+    }
+
+    /**
+     * Get the characters from (inclusive) to to (exclusive) of the current line
+     */
+    String substring(int from, int to) {
+        return new String(line, from, to - from);
+    }
+
+    int getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
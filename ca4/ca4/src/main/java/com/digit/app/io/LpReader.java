@@ -0,0 +1,466 @@
+package com.digit.app.io;
+
+import com.digit.app.data.Data;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+
+/**
+ * Reads a file in the CPLEX LP format into {@code Data}. The file is read a line at a time, so only the instance
+ * itself ends up in memory. Variables are numbered in the order they first show up. See {@link InstanceBuilder} for
+ * the parts of the format that are changed or rejected to fit {@code Data}.
+ */
+class LpReader {
+    private enum Section {
+        OBJECTIVE, CONSTRAINTS, BOUNDS, GENERAL, BINARY, END
+    }
+
+    private static final Set<String> KEYWORDS = Set.of("maximize", "maximise", "maximum", "max", "minimize",
+            "minimise", "minimum", "min", "subject", "such", "st", "s.t.", "st.", "bounds", "bound", "general",
+            "generals", "gen", "integer", "integers", "binary", "binaries", "bin", "semi", "semis", "sos", "end");
+
+    private final InstanceBuilder builder = new InstanceBuilder();
+    private Tokenizer tokens;
+    private int unnamedRows = 0;
+
+    Data read(Path path) throws IOException {
+        try (LineReader reader = new LineReader(path)) {
+            tokens = new Tokenizer(reader);
+
+            Section section = sectionOf(tokens.next());
+            if (section != Section.OBJECTIVE) {
+                throw error("The file has to start with maximize or minimize");
+            }
+
+            while (section != Section.END) {
+                Section next = switch (section) {
+                    case OBJECTIVE -> readObjective();
+                    case CONSTRAINTS -> readConstraints();
+                    case BOUNDS -> readBounds();
+                    case GENERAL, BINARY -> readIntegers(section == Section.BINARY);
+                    case END -> Section.END;
+                };
+                section = next;
+            }
+        }
+
+        return builder.build();
+    }
+
+    private Section readObjective() throws IOException {
+        Token token = tokens.next();
+        if (token.type == TokenType.NAME && tokens.peek().is(":")) {
+            tokens.next();
+            token = tokens.next();
+        }
+
+        double constant = 0;
+        Section section = sectionOf(token);
+        while (section == null) {
+            tokens.pushBack(token);
+            constant = constant + readTerm(-1);
+            token = tokens.next();
+            section = sectionOf(token);
+        }
+        if (constant != 0) {
+            throw error("A constant in the objective isn't supported");
+        }
+
+        return section;
+    }
+
+    private Section readConstraints() throws IOException {
+        while (true) {
+            Token token = tokens.next();
+            Section section = sectionOf(token);
+            if (section != null) {
+                return section;
+            }
+
+            String name;
+            if (token.type == TokenType.NAME && tokens.peek().is(":")) {
+                name = token.text;
+                tokens.next();
+            } else {
+                unnamedRows++;
+                name = "R" + unnamedRows;
+                tokens.pushBack(token);
+            }
+
+            int row = builder.addRow(name, InstanceBuilder.LESS_THAN, tokens.lineNumber());
+            double constant = 0;
+            while (!tokens.peek().isSense()) {
+                constant = constant + readTerm(row);
+            }
+
+            char sense = senseOf(tokens.next());
+            double rhs = readNumber();
+            builder.setSense(row, sense);
+            builder.setRhs(row, rhs - constant, tokens.lineNumber());
+        }
+    }
+
+    private Section readBounds() throws IOException {
+        while (true) {
+            Token token = tokens.next();
+            Section section = sectionOf(token);
+            if (section != null) {
+                return section;
+            }
+
+            double lower = Double.NaN;
+            double upper = Double.NaN;
+            String variable;
+            if (token.type == TokenType.NAME && !isInfinity(token)) {
+                // x <= u, x >= l, x = v or x free
+                variable = token.text;
+                if (tokens.peek().type == TokenType.NAME && tokens.peek().text.equalsIgnoreCase("free")) {
+                    tokens.next();
+                    lower = Double.NEGATIVE_INFINITY;
+                    upper = Double.POSITIVE_INFINITY;
+                } else {
+                    char sense = senseOf(tokens.next());
+                    double value = readNumber();
+                    if (sense != InstanceBuilder.GREATER_THAN) {
+                        upper = value;
+                    }
+                    if (sense != InstanceBuilder.LESS_THAN) {
+                        lower = value;
+                    }
+                }
+            } else {
+                // l <= x, u >= x or l <= x <= u
+                tokens.pushBack(token);
+                double value = readNumber();
+                char sense = senseOf(tokens.next());
+                Token name = tokens.next();
+                if (name.type != TokenType.NAME) {
+                    throw error("Expected a variable but got %s".formatted(name.text));
+                }
+                variable = name.text;
+                if (sense == InstanceBuilder.LESS_THAN) {
+                    lower = value;
+                } else if (sense == InstanceBuilder.GREATER_THAN) {
+                    upper = value;
+                } else {
+                    lower = value;
+                    upper = value;
+                }
+
+                if (tokens.peek().isSense()) {
+                    char secondSense = senseOf(tokens.next());
+                    double secondValue = readNumber();
+                    if (secondSense == InstanceBuilder.LESS_THAN) {
+                        upper = secondValue;
+                    } else if (secondSense == InstanceBuilder.GREATER_THAN) {
+                        lower = secondValue;
+                    } else {
+                        throw error("A bound can't have two equal signs");
+                    }
+                }
+            }
+
+            builder.setBounds(builder.variable(variable), lower, upper, tokens.lineNumber());
+        }
+    }
+
+    private Section readIntegers(boolean binary) throws IOException {
+        while (true) {
+            Token token = tokens.next();
+            Section section = sectionOf(token);
+            if (section != null) {
+                return section;
+            }
+            if (token.type != TokenType.NAME) {
+                throw error("Expected a variable but got %s".formatted(token.text));
+            }
+
+            int variable = builder.variable(token.text);
+            if (binary) {
+                builder.setBounds(variable, 0, 1, tokens.lineNumber());
+            }
+            builder.setInteger(variable);
+        }
+    }
+
+    /**
+     * Read a term like - 3 x, + x or 4 and add it to the row, or the objective if the row is -1. Returns the value of
+     * the term if it is a constant.
+     */
+    private double readTerm(int row) throws IOException {
+        double sign = 1;
+        Token token = tokens.next();
+        while (token.is("+") || token.is("-")) {
+            if (token.is("-")) {
+                sign = - sign;
+            }
+            token = tokens.next();
+        }
+
+        double coefficient = 1;
+        if (token.type == TokenType.NUMBER) {
+            coefficient = parse(token);
+            if (tokens.peek().type != TokenType.NAME || isKeyword(tokens.peek())) {
+                return sign * coefficient;
+            }
+            token = tokens.next();
+        }
+        if (token.type != TokenType.NAME) {
+            throw error("Expected a variable but got %s".formatted(token.text));
+        }
+
+        int variable = builder.variable(token.text);
+        if (row < 0) {
+            builder.addObjective(variable, sign * coefficient);
+        } else {
+            builder.addEntry(row, variable, sign * coefficient);
+        }
+
+        return 0;
+    }
+
+    /**
+     * Read a number with its sign, which can be infinity
+     */
+    private double readNumber() throws IOException {
+        double sign = 1;
+        Token token = tokens.next();
+        if (token.is("+") || token.is("-")) {
+            sign = token.is("-") ? -1 : 1;
+            token = tokens.next();
+        }
+
+        if (isInfinity(token)) {
+            return sign * Double.POSITIVE_INFINITY;
+        }
+        if (token.type != TokenType.NUMBER) {
+            throw error("Expected a number but got %s".formatted(token.text));
+        }
+
+        return sign * parse(token);
+    }
+
+    private char senseOf(Token token) throws InstanceFormatException {
+        if (!token.isSense()) {
+            throw error("Expected <=, >= or = but got %s".formatted(token.text));
+        }
+
+        return switch (token.text) {
+            case "<=", "=<", "<" -> InstanceBuilder.LESS_THAN;
+            case ">=", "=>", ">" -> InstanceBuilder.GREATER_THAN;
+            default -> InstanceBuilder.EQUAL;
+        };
+    }
+
+    /**
+     * The section that the token starts, or null if it isn't a section keyword. Keywords only count at the start of a
+     * line so that variables can have the same names.
+     */
+    private Section sectionOf(Token token) throws IOException {
+        if (token.type == TokenType.END_OF_FILE) {
+            return Section.END;
+        }
+        if (token.type != TokenType.NAME || !token.startsLine) {
+            return null;
+        }
+
+        switch (token.text.toLowerCase()) {
+            case "maximize", "maximise", "maximum", "max" -> {
+                builder.setMinimize(false);
+                return Section.OBJECTIVE;
+            }
+            case "minimize", "minimise", "minimum", "min" -> {
+                builder.setMinimize(true);
+                return Section.OBJECTIVE;
+            }
+            case "subject", "such" -> {
+                Token second = tokens.peek();
+                if (second.type == TokenType.NAME
+                        && (second.text.equalsIgnoreCase("to") || second.text.equalsIgnoreCase("that"))) {
+                    tokens.next();
+                    return Section.CONSTRAINTS;
+                }
+                return null;
+            }
+            case "st", "s.t.", "st." -> {
+                return Section.CONSTRAINTS;
+            }
+            case "bounds", "bound" -> {
+                return Section.BOUNDS;
+            }
+            case "general", "generals", "gen", "integer", "integers" -> {
+                return Section.GENERAL;
+            }
+            case "binary", "binaries", "bin" -> {
+                return Section.BINARY;
+            }
+            case "semis", "semi", "sos" -> throw error("The %s section isn't supported".formatted(token.text));
+            case "end" -> {
+                return Section.END;
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Whether the token could start a section. Unlike {@link #sectionOf(Token)}, this doesn't read anything.
+     */
+    private static boolean isKeyword(Token token) {
+        return token.type == TokenType.NAME && token.startsLine && KEYWORDS.contains(token.text.toLowerCase());
+    }
+
+    private static boolean isInfinity(Token token) {
+        return token.type == TokenType.NAME
+                && (token.text.equalsIgnoreCase("inf") || token.text.equalsIgnoreCase("infinity"));
+    }
+
+    private double parse(Token token) throws InstanceFormatException {
+        try {
+            return Numbers.parse(token.text);
+        } catch (NumberFormatException e) {
+            throw error("%s is not a number".formatted(token.text));
+        }
+    }
+
+    private InstanceFormatException error(String message) {
+        return new InstanceFormatException(message, tokens.lineNumber());
+    }
+
+    private enum TokenType {
+        NAME, NUMBER, OPERATOR, END_OF_FILE
+    }
+
+    private record Token(TokenType type, String text, boolean startsLine) {
+        boolean is(String operator) {
+            return type == TokenType.OPERATOR && text.equals(operator);
+        }
+
+        boolean isSense() {
+            return type == TokenType.OPERATOR && !text.equals("+") && !text.equals("-") && !text.equals(":");
+        }
+    }
+
+    /**
+     * Splits the lines into names, numbers and operators. A backslash starts a comment that goes to the end of the
+     * line.
+     */
+    private static class Tokenizer {
+        private static final String NAME_CHARACTERS = "!\"#$%&()/,.;?@_`'{}|~";
+
+        private final LineReader reader;
+        private int position = 0;
+        private boolean hasLine = false;
+        private boolean atLineStart = true;
+        private final Deque<Token> pushedBack = new ArrayDeque<>();
+
+        Tokenizer(LineReader reader) {
+            this.reader = reader;
+        }
+
+        Token peek() throws IOException {
+            Token token = next();
+            pushBack(token);
+            return token;
+        }
+
+        /**
+         * Put a token back so that it comes out of next again. The last one put back comes out first.
+         */
+        void pushBack(Token token) {
+            pushedBack.push(token);
+        }
+
+        int lineNumber() {
+            return reader.getLineNumber();
+        }
+
+        Token next() throws IOException {
+            if (!pushedBack.isEmpty()) {
+                return pushedBack.pop();
+            }
+
+            while (true) {
+                if (!hasLine) {
+                    if (!reader.next()) {
+                        return new Token(TokenType.END_OF_FILE, "end of file", true);
+                    }
+                    hasLine = true;
+                    atLineStart = true;
+                    position = 0;
+                }
+
+                while (position < reader.length() && Character.isWhitespace(reader.charAt(position))) {
+                    position++;
+                }
+                if (position >= reader.length() || reader.charAt(position) == '\\') {
+                    hasLine = false;
+                    continue;
+                }
+
+                boolean startsLine = atLineStart;
+                atLineStart = false;
+                int start = position;
+                char c = reader.charAt(position);
+
+                if (Character.isDigit(c) || (c == '.' && position + 1 < reader.length()
+                        && Character.isDigit(reader.charAt(position + 1)))) {
+                    position = endOfNumber(position);
+                    return new Token(TokenType.NUMBER, reader.substring(start, position), startsLine);
+                }
+                if (isNameCharacter(c)) {
+                    while (position < reader.length() && (isNameCharacter(reader.charAt(position))
+                            || Character.isDigit(reader.charAt(position)))) {
+                        position++;
+                    }
+                    return new Token(TokenType.NAME, reader.substring(start, position), startsLine);
+                }
+                if (c == '<' || c == '>' || c == '=') {
+                    position++;
+                    if (position < reader.length() && (reader.charAt(position) == '=' || reader.charAt(position) == '<'
+                            || reader.charAt(position) == '>')) {
+                        position++;
+                    }
+                    return new Token(TokenType.OPERATOR, reader.substring(start, position), startsLine);
+                }
+                if (c == '+' || c == '-' || c == ':') {
+                    position++;
+                    return new Token(TokenType.OPERATOR, String.valueOf(c), startsLine);
+                }
+
+                throw new InstanceFormatException("Unexpected character %s".formatted(c), reader.getLineNumber());
+            }
+        }
+
+        private int endOfNumber(int from) {
+            int end = from;
+            while (end < reader.length() && (Character.isDigit(reader.charAt(end)) || reader.charAt(end) == '.')) {
+                end++;
+            }
+
+            // Only treat an e as an exponent if digits come after it, since it could start a name like e1
+            if (end < reader.length() && (reader.charAt(end) == 'e' || reader.charAt(end) == 'E')) {
+                int exponent = end + 1;
+                if (exponent < reader.length() && (reader.charAt(exponent) == '+' || reader.charAt(exponent) == '-')) {
+                    exponent++;
+                }
+                if (exponent < reader.length() && Character.isDigit(reader.charAt(exponent))) {
+                    end = exponent;
+                    while (end < reader.length() && Character.isDigit(reader.charAt(end))) {
+                        end++;
+                    }
+                }
+            }
+
+            return end;
+        }
+
+        private static boolean isNameCharacter(char c) {
+            return Character.isLetter(c) || NAME_CHARACTERS.indexOf(c) >= 0;
+        }
+    }
+}
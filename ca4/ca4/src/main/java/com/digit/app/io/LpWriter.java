@@ -0,0 +1,82 @@
+package com.digit.app.io;
+
+import com.digit.app.data.Constraints;
+import com.digit.app.data.Data;
+import com.digit.app.data.OptimizationFunction;
+import com.digit.app.data.SparseMatrix;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes {@code Data} in the CPLEX LP format with the same names as {@link MpsWriter}. Every variable is written in the
+ * objective, even with a 0, so that reading the file back keeps the variables in the same order.
+ */
+class LpWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * LP lines can't be too long, so start a new line after this many terms
+     */
+    private static final int TERMS_PER_LINE = 8;
+
+    private final StringBuilder line = new StringBuilder();
+
+    void write(Data data, Path path) throws IOException {
+        Constraints constraints = data.getConstraints();
+        double[] c = data.getOptimizationFn().getC();
+        SparseMatrix A = constraints.getA();
+
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(path, StandardCharsets.US_ASCII), BUFFER_SIZE)) {
+            out.write("Maximize\n obj:");
+            for (int j = 0; j < c.length; j++) {
+                writeTerm(out, j, c[j], j);
+            }
+            out.write('\n');
+
+            out.write("Subject To\n");
+            for (int i = 0; i < constraints.getNumConstraints(); i++) {
+                out.write(" %s:".formatted(MpsWriter.rowName(i)));
+                if (A.rowStart(i) == A.rowEnd(i)) {
+                    out.write(" 0 x1");
+                }
+                for (int k = A.rowStart(i); k < A.rowEnd(i); k++) {
+                    writeTerm(out, A.column(k), A.value(k), k - A.rowStart(i));
+                }
+                out.write(constraints.getAlessThanb()[i] ? " <= " : " >= ");
+                out.write(Numbers.format(constraints.getB()[i]));
+                out.write('\n');
+            }
+
+            out.write("Bounds\n");
+            String lower = Numbers.format(OptimizationFunction.VARIABLE_LOWER_BOUND);
+            String upper = Numbers.format(OptimizationFunction.VARIABLE_UPPER_BOUND);
+            for (int j = 0; j < c.length; j++) {
+                out.write(" %s <= %s <= %s\n".formatted(lower, MpsWriter.variableName(j), upper));
+            }
+
+            out.write("General\n");
+            for (int j = 0; j < c.length; j++) {
+                out.write(j % TERMS_PER_LINE == 0 ? (j == 0 ? " " : "\n ") : " ");
+                out.write(MpsWriter.variableName(j));
+            }
+            out.write("\nEnd\n");
+        }
+    }
+
+    private void writeTerm(Writer out, int variable, double value, int termIndex) throws IOException {
+        line.setLength(0);
+        if (termIndex > 0 && termIndex % TERMS_PER_LINE == 0) {
+            line.append("\n   ");
+        }
+        line.append(value < 0 ? " - " : " + ");
+        line.append(Numbers.format(Math.abs(value)));
+        line.append(' ');
+        line.append(MpsWriter.variableName(variable));
+        out.append(line);
+    }
+}
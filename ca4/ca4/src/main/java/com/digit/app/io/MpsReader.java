@@ -0,0 +1,333 @@
+package com.digit.app.io;
+
+import com.digit.app.data.Data;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Reads an MPS file into {@code Data}. Fixed MPS finds the fields by their columns, so names can have spaces in them.
+ * Free MPS splits on white space instead, which also reads most fixed files. The file is read a line at a time, so
+ * only the instance itself ends up in memory. See {@link InstanceBuilder} for the parts of MPS that are changed or
+ * rejected to fit {@code Data}.
+ */
+class MpsReader {
+    // Where each field starts and ends in fixed MPS
+    private static final int[] FIELD_START = {1, 4, 14, 24, 39, 49};
+    private static final int[] FIELD_END = {3, 12, 22, 36, 47, 61};
+
+    private final boolean fixed;
+    private final String[] fields = new String[FIELD_START.length];
+
+    private final InstanceBuilder builder = new InstanceBuilder();
+    private String objectiveName = null;
+    private final Set<String> freeRows = new HashSet<>();
+
+    // Most files list every entry of a column together, so remember the last one
+    private String lastColumnName = null;
+    private int lastColumn = -1;
+
+    // Columns are continuous unless they come between INTORG and INTEND markers
+    private boolean integerSection = false;
+
+    MpsReader(boolean fixed) {
+        this.fixed = fixed;
+
+        // MPS minimizes unless OBJSENSE says otherwise
+        builder.setMinimize(true);
+    }
+
+    Data read(Path path) throws IOException {
+        try (LineReader reader = new LineReader(path)) {
+            String section = null;
+            while (reader.next()) {
+                if (reader.length() == 0 || reader.charAt(0) == '*' || isBlank(reader)) {
+                    continue;
+                }
+
+                // Section names start in the first column and data lines don't
+                if (!Character.isWhitespace(reader.charAt(0))) {
+                    int numFields = split(reader, false);
+                    section = fields[0].toUpperCase();
+                    switch (section) {
+                        case "NAME", "ROWS", "COLUMNS", "RHS", "BOUNDS", "RANGES" -> { }
+                        case "OBJSENSE" -> {
+                            if (numFields > 1) {
+                                setObjectiveSense(fields[1], reader.getLineNumber());
+                            }
+                        }
+                        case "OBJNAME" -> {
+                            if (numFields > 1) {
+                                objectiveName = fields[1];
+                            }
+                        }
+                        case "ENDATA" -> {
+                            return builder.build();
+                        }
+                        default -> throw new InstanceFormatException(
+                                "The %s section isn't supported".formatted(section), reader.getLineNumber());
+                    }
+                    continue;
+                }
+
+                if (section == null) {
+                    throw new InstanceFormatException("Data came before any section", reader.getLineNumber());
+                }
+                switch (section) {
+                    case "OBJSENSE" -> {
+                        split(reader, false);
+                        setObjectiveSense(fields[0], reader.getLineNumber());
+                    }
+                    case "OBJNAME" -> {
+                        split(reader, false);
+                        objectiveName = fields[0];
+                    }
+                    case "ROWS" -> readRow(reader);
+                    case "COLUMNS" -> readColumn(reader);
+                    case "RHS" -> readRhs(reader);
+                    case "RANGES" -> throw new InstanceFormatException("Ranges aren't supported", reader.getLineNumber());
+                    case "BOUNDS" -> readBound(reader);
+                    default -> throw new InstanceFormatException(
+                            "The %s section doesn't have data lines".formatted(section), reader.getLineNumber());
+                }
+            }
+        }
+
+        throw new InstanceFormatException("The file ended without ENDATA");
+    }
+
+    private void setObjectiveSense(String sense, int lineNumber) throws InstanceFormatException {
+        switch (sense.toUpperCase()) {
+            case "MAX", "MAXIMIZE" -> builder.setMinimize(false);
+            case "MIN", "MINIMIZE" -> builder.setMinimize(true);
+            default -> throw new InstanceFormatException("Unknown objective sense %s".formatted(sense), lineNumber);
+        }
+    }
+
+    private void readRow(LineReader reader) throws InstanceFormatException {
+        int numFields = split(reader, true);
+        String type = fields[0];
+        String name = fields[1];
+        if (numFields < 2 || name.isEmpty()) {
+            throw new InstanceFormatException("The row needs a name", reader.getLineNumber());
+        }
+
+        switch (type.toUpperCase()) {
+            case "N" -> {
+                // The first free row is the objective unless OBJNAME picked one. The rest are ignored.
+                if (objectiveName == null) {
+                    objectiveName = name;
+                } else if (!objectiveName.equals(name)) {
+                    freeRows.add(name);
+                }
+            }
+            case "L" -> builder.addRow(name, InstanceBuilder.LESS_THAN, reader.getLineNumber());
+            case "G" -> builder.addRow(name, InstanceBuilder.GREATER_THAN, reader.getLineNumber());
+            case "E" -> builder.addRow(name, InstanceBuilder.EQUAL, reader.getLineNumber());
+            default -> throw new InstanceFormatException("Unknown row type %s".formatted(type), reader.getLineNumber());
+        }
+    }
+
+    private void readColumn(LineReader reader) throws InstanceFormatException {
+        if (contains(reader, "'MARKER'")) {
+            if (contains(reader, "'INTORG'")) {
+                integerSection = true;
+            } else if (contains(reader, "'INTEND'")) {
+                integerSection = false;
+            } else {
+                throw new InstanceFormatException("Unknown marker", reader.getLineNumber());
+            }
+            return;
+        }
+
+        int numFields = split(reader, true);
+        String name = fixed ? fields[1] : fields[0];
+        int first = fixed ? 2 : 1;
+        if (!fixed && numFields % 2 == 0) {
+            throw new InstanceFormatException("Every row in a column needs a value", reader.getLineNumber());
+        }
+
+        int column;
+        if (name.equals(lastColumnName)) {
+            column = lastColumn;
+        } else {
+            column = builder.variable(name);
+            lastColumnName = name;
+            lastColumn = column;
+        }
+        if (integerSection) {
+            builder.setInteger(column);
+        }
+
+        for (int pair = first; pair + 1 < numFields; pair += 2) {
+            if (fields[pair].isEmpty()) {
+                break;
+            }
+            double value = parse(fields[pair + 1], reader);
+
+            if (fields[pair].equals(objectiveName)) {
+                builder.addObjective(column, value);
+                continue;
+            }
+            int row = builder.findRow(fields[pair]);
+            if (row >= 0) {
+                builder.addEntry(row, column, value);
+            } else if (!freeRows.contains(fields[pair])) {
+                throw new InstanceFormatException("Unknown row %s".formatted(fields[pair]), reader.getLineNumber());
+            }
+        }
+    }
+
+    private void readRhs(LineReader reader) throws InstanceFormatException {
+        int numFields = split(reader, true);
+
+        // Free MPS doesn't always have the name of the right hand side, which is the odd field out
+        int first = fixed ? 2 : numFields % 2;
+        for (int pair = first; pair + 1 < numFields; pair += 2) {
+            if (fields[pair].isEmpty()) {
+                break;
+            }
+            double value = parse(fields[pair + 1], reader);
+
+            if (fields[pair].equals(objectiveName)) {
+                if (value != 0) {
+                    throw new InstanceFormatException("A constant in the objective isn't supported",
+                            reader.getLineNumber());
+                }
+                continue;
+            }
+            int row = builder.findRow(fields[pair]);
+            if (row >= 0) {
+                builder.setRhs(row, value, reader.getLineNumber());
+            } else if (!freeRows.contains(fields[pair])) {
+                throw new InstanceFormatException("Unknown row %s".formatted(fields[pair]), reader.getLineNumber());
+            }
+        }
+    }
+
+    private void readBound(LineReader reader) throws InstanceFormatException {
+        int numFields = split(reader, true);
+        String type = fields[0].toUpperCase();
+        boolean needsValue = switch (type) {
+            case "UP", "LO", "FX", "LI", "UI", "SC" -> true;
+            default -> false;
+        };
+
+        String column;
+        String value;
+        if (fixed) {
+            column = fields[2];
+            value = fields[3];
+        } else if (numFields >= 4 || (numFields == 3 && !needsValue)) {
+            // The bound set has a name
+            column = fields[2];
+            value = numFields >= 4 ? fields[3] : null;
+        } else {
+            column = fields[1];
+            value = numFields >= 3 ? fields[2] : null;
+        }
+        if (needsValue && (value == null || value.isEmpty())) {
+            throw new InstanceFormatException("The %s bound needs a value".formatted(type), reader.getLineNumber());
+        }
+
+        int lineNumber = reader.getLineNumber();
+        int variable = builder.findVariable(column);
+        if (variable < 0) {
+            throw new InstanceFormatException("Unknown column %s".formatted(column), lineNumber);
+        }
+        switch (type) {
+            case "UP" -> builder.setBounds(variable, Double.NaN, parse(value, reader), lineNumber);
+            case "LO" -> builder.setBounds(variable, parse(value, reader), Double.NaN, lineNumber);
+            case "UI" -> {
+                builder.setBounds(variable, Double.NaN, parse(value, reader), lineNumber);
+                builder.setInteger(variable);
+            }
+            case "LI" -> {
+                builder.setBounds(variable, parse(value, reader), Double.NaN, lineNumber);
+                builder.setInteger(variable);
+            }
+            case "FX" -> builder.setBounds(variable, parse(value, reader), parse(value, reader), lineNumber);
+            case "PL" -> builder.setBounds(variable, Double.NaN, Double.POSITIVE_INFINITY, lineNumber);
+            case "MI" -> builder.setBounds(variable, Double.NEGATIVE_INFINITY, Double.NaN, lineNumber);
+            case "FR" -> builder.setBounds(variable, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, lineNumber);
+            case "BV" -> builder.setBounds(variable, 0, 1, lineNumber);
+            default -> throw new InstanceFormatException("The %s bound isn't supported".formatted(type), lineNumber);
+        }
+    }
+
+    /**
+     * Put the fields of the line into fields and return how many there are. Fixed MPS data lines are split by column,
+     * so a field can be empty. Everything else is split on white space.
+     */
+    private int split(LineReader reader, boolean dataLine) {
+        if (fixed && dataLine) {
+            for (int f = 0; f < FIELD_START.length; f++) {
+                int from = Math.min(FIELD_START[f], reader.length());
+                int to = Math.min(FIELD_END[f], reader.length());
+                while (from < to && reader.charAt(from) == ' ') {
+                    from++;
+                }
+                while (to > from && reader.charAt(to - 1) == ' ') {
+                    to--;
+                }
+                fields[f] = reader.substring(from, to);
+            }
+
+            return fields.length;
+        }
+
+        int numFields = 0;
+        int position = 0;
+        while (position < reader.length() && numFields < fields.length) {
+            while (position < reader.length() && Character.isWhitespace(reader.charAt(position))) {
+                position++;
+            }
+            int start = position;
+            while (position < reader.length() && !Character.isWhitespace(reader.charAt(position))) {
+                position++;
+            }
+            if (position > start) {
+                fields[numFields++] = reader.substring(start, position);
+            }
+        }
+        for (int f = numFields; f < fields.length; f++) {
+            fields[f] = null;
+        }
+
+        return numFields;
+    }
+
+    private static double parse(String value, LineReader reader) throws InstanceFormatException {
+        try {
+            return Numbers.parse(value);
+        } catch (NumberFormatException e) {
+            throw new InstanceFormatException("%s is not a number".formatted(value), reader.getLineNumber());
+        }
+    }
+
+    private static boolean isBlank(LineReader reader) {
+        for (int i = 0; i < reader.length(); i++) {
+            if (!Character.isWhitespace(reader.charAt(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean contains(LineReader reader, String text) {
+        for (int i = 0; i + text.length() <= reader.length(); i++) {
+            int k = 0;
+            while (k < text.length() && reader.charAt(i + k) == text.charAt(k)) {
+                k++;
+            }
+            if (k == text.length()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
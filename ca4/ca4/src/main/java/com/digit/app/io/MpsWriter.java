@@ -0,0 +1,176 @@
+package com.digit.app.io;
+
+import com.digit.app.data.Constraints;
+import com.digit.app.data.Data;
+import com.digit.app.data.OptimizationFunction;
+import com.digit.app.data.SparseMatrix;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes {@code Data} as MPS. Variables are named x1, x2, ... and rows c1, c2, ... like when the data is printed. The
+ * objective is always maximized and every variable gets an explicit upper bound, since the MPS default is no bound.
+ *
+ * Fixed MPS only has 8 characters for a name and 12 for a number. Names that don't fit are an error, and numbers that
+ * don't fit are rounded, so use free MPS when the coefficients aren't short.
+ */
+class MpsWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int NAME_WIDTH = 8;
+    private static final int NUMBER_WIDTH = 12;
+    private static final String OBJECTIVE = "obj";
+
+    private final boolean fixed;
+    private final StringBuilder line = new StringBuilder();
+
+    MpsWriter(boolean fixed) {
+        this.fixed = fixed;
+    }
+
+    void write(Data data, Path path) throws IOException {
+        Constraints constraints = data.getConstraints();
+        double[] c = data.getOptimizationFn().getC();
+        SparseMatrix byColumn = constraints.getA().getColumnMajor();
+
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(path, StandardCharsets.US_ASCII), BUFFER_SIZE)) {
+            String name = path.getFileName().toString().replaceFirst("\\.[^.]*$", "");
+            out.write("NAME          %s\n".formatted(fixed ? truncate(name) : name));
+            out.write("OBJSENSE\n    MAX\n");
+
+            out.write("ROWS\n");
+            writeLine(out, "N", OBJECTIVE, null, null, null, null);
+            for (int i = 0; i < constraints.getNumConstraints(); i++) {
+                writeLine(out, constraints.getAlessThanb()[i] ? "L" : "G", rowName(i), null, null, null, null);
+            }
+
+            // The objective entry is always written so that a variable without any entries still shows up
+            out.write("COLUMNS\n");
+            out.write("    MARKER                 'MARKER'                 'INTORG'\n");
+            for (int j = 0; j < c.length; j++) {
+                String column = variableName(j);
+                String pendingRow = OBJECTIVE;
+                String pendingValue = number(c[j]);
+                for (int k = byColumn.rowStart(j); k < byColumn.rowEnd(j); k++) {
+                    String row = rowName(byColumn.column(k));
+                    String value = number(byColumn.value(k));
+                    if (pendingRow == null) {
+                        pendingRow = row;
+                        pendingValue = value;
+                    } else {
+                        writeLine(out, null, column, pendingRow, pendingValue, row, value);
+                        pendingRow = null;
+                    }
+                }
+                if (pendingRow != null) {
+                    writeLine(out, null, column, pendingRow, pendingValue, null, null);
+                }
+            }
+            out.write("    MARKER                 'MARKER'                 'INTEND'\n");
+
+            out.write("RHS\n");
+            for (int i = 0; i < constraints.getNumConstraints(); i++) {
+                if (constraints.getB()[i] != 0) {
+                    writeLine(out, null, "RHS", rowName(i), number(constraints.getB()[i]), null, null);
+                }
+            }
+
+            out.write("BOUNDS\n");
+            String upperBound = number(OptimizationFunction.VARIABLE_UPPER_BOUND);
+            for (int j = 0; j < c.length; j++) {
+                writeLine(out, "UP", "BND", variableName(j), upperBound, null, null);
+            }
+
+            out.write("ENDATA\n");
+        }
+    }
+
+    static String variableName(int variable) {
+        return "x" + (variable + 1);
+    }
+
+    static String rowName(int row) {
+        return "c" + (row + 1);
+    }
+
+    /**
+     * Write a data line. Fixed MPS puts each field in its own columns and free MPS separates them with spaces.
+     */
+    private void writeLine(Writer out, String type, String field2, String field3, String field4, String field5,
+                           String field6) throws IOException {
+        line.setLength(0);
+        if (fixed) {
+            line.append(' ');
+            pad(type, 2);
+            line.append(' ');
+            pad(checkName(field2), NAME_WIDTH);
+            line.append("  ");
+            pad(checkName(field3), NAME_WIDTH);
+            line.append("  ");
+            pad(field4, NUMBER_WIDTH);
+            line.append("   ");
+            pad(checkName(field5), NAME_WIDTH);
+            line.append("  ");
+            pad(field6, NUMBER_WIDTH);
+
+            // Drop the padding at the end of the line
+            int end = line.length();
+            while (end > 0 && line.charAt(end - 1) == ' ') {
+                end--;
+            }
+            line.setLength(end);
+        } else {
+            line.append(type == null ? "   " : " " + type + " ");
+            for (String field: new String[] {field2, field3, field4, field5, field6}) {
+                if (field != null) {
+                    line.append(' ').append(field);
+                }
+            }
+        }
+        line.append('\n');
+        out.append(line);
+    }
+
+    private void pad(String field, int width) {
+        int start = line.length();
+        if (field != null) {
+            line.append(field);
+        }
+        while (line.length() < start + width) {
+            line.append(' ');
+        }
+    }
+
+    private String number(double value) {
+        String formatted = Numbers.format(value);
+        if (!fixed || formatted.length() <= NUMBER_WIDTH) {
+            return formatted;
+        }
+
+        // Drop digits until it fits
+        for (int digits = NUMBER_WIDTH - 1; digits > 0; digits--) {
+            String rounded = String.format("%." + digits + "G", value);
+            if (rounded.length() <= NUMBER_WIDTH) {
+                return rounded;
+            }
+        }
+
+        return formatted;
+    }
+
+    private static String checkName(String name) throws InstanceFormatException {
+        if (name != null && name.length() > NAME_WIDTH) {
+            throw new InstanceFormatException("%s is too long for fixed MPS. Use free MPS instead.".formatted(name));
+        }
+
+        return name;
+    }
+
+    private static String truncate(String name) {
+        return name.length() > NAME_WIDTH ? name.substring(0, NAME_WIDTH) : name;
+    }
+}
@@ -0,0 +1,44 @@
+package com.digit.app.io;
+
+/**
+ * Reading and writing numbers for the text formats
+ */
+class Numbers {
+    private static final double LARGEST_EXACT_LONG = 1e15;
+    private static final int MAX_FAST_DIGITS = 15;
+
+    /**
+     * Parse a number. Most coefficients are small whole numbers, which are parsed directly since that is a lot faster
+     * than going through Double.parseDouble.
+     */
+    static double parse(String text) {
+        int start = text.startsWith("-") || text.startsWith("+") ? 1 : 0;
+        if (text.length() > start && text.length() - start <= MAX_FAST_DIGITS) {
+            long value = 0;
+            int i = start;
+            for (; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                value = value * 10 + (c - '0');
+            }
+            if (i == text.length()) {
+                return text.charAt(0) == '-' ? - (double) value : value;
+            }
+        }
+
+        return Double.parseDouble(text);
+    }
+
+    /**
+     * Whole numbers are written without a decimal point and everything else with enough digits to read back exactly
+     */
+    static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < LARGEST_EXACT_LONG) {
+            return Long.toString((long) value);
+        }
+
+        return Double.toString(value);
+    }
+}
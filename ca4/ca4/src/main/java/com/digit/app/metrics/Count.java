@@ -0,0 +1,26 @@
+package com.digit.app.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The things that get counted during a round
+ */
+@AllArgsConstructor
+public enum Count {
+    ITERATIONS("iterations"),
+    INFEASIBLE_SOLVES("infeasible solves"),
+
+    /**
+     * How many times the engine made its step smaller, like halving epsilon
+     */
+    E_DECREASES("epsilon decreases"),
+
+    /**
+     * How many times a solution of the whole instance came from the {@code ResultCache} instead of a solve
+     */
+    CACHE_HITS("cached solutions");
+
+    @Getter
+    private final String description;
+}
@@ -0,0 +1,104 @@
+package com.digit.app.metrics;
+
+import lombok.Getter;
+
+/**
+ * A histogram of non-negative longs with buckets that grow exponentially. Values under 16 get their own bucket and
+ * every power of two above that is split into 8 buckets, so percentiles are within about 6% of the real value while
+ * recording is only a few shifts and an increment.
+ *
+ * This isn't thread safe. Each round records into its own and they are merged afterwards.
+ */
+public class Histogram {
+    private static final int LINEAR_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int NUM_BUCKETS = LINEAR_BUCKETS + (63 - 4) * SUB_BUCKETS;
+
+    private final long[] counts = new long[NUM_BUCKETS];
+
+    @Getter
+    private long count = 0;
+
+    @Getter
+    private long sum = 0;
+
+    @Getter
+    private long max = 0;
+
+    public void record(long value) {
+        // Negative values can only come from a clock going backwards, so count them as 0
+        long clamped = Math.max(value, 0);
+        counts[bucketOf(clamped)]++;
+        count++;
+        sum = sum + clamped;
+        max = Math.max(max, clamped);
+    }
+
+    /**
+     * Record the nanoseconds since the start, which should come from {@link System#nanoTime()}
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Get the value that the fraction of recorded values are at or below. This is the middle of its bucket, but never
+     * more than the largest value recorded.
+     */
+    public long percentile(double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+            seen = seen + counts[bucket];
+            if (seen >= rank) {
+                return Math.min(max, middleOf(bucket));
+            }
+        }
+
+        return max;
+    }
+
+    public double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Add everything recorded in the other histogram to this one
+     */
+    public void add(Histogram other) {
+        for (int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+            counts[bucket] = counts[bucket] + other.counts[bucket];
+        }
+        count = count + other.count;
+        sum = sum + other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    static int bucketOf(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+
+        // The highest bit picks the power of two and the next three bits pick the bucket inside of it
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long middleOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 4;
+        int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lower = (1L << exponent) + subBucket * width;
+        return lower + width / 2;
+    }
+}
@@ -0,0 +1,161 @@
+package com.digit.app.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Where the metrics get recorded. Each thread records into its own registry, which is what a round uses since a round
+ * stays on one thread, so the hot loop never waits on a lock. When a round finishes its registry is added to the
+ * total, which is what JMX shows.
+ */
+public class Metrics {
+    /**
+     * The name the total is registered under in JMX
+     */
+    public static final String OBJECT_NAME = "com.digit.app:type=Metrics";
+
+    private static final ThreadLocal<MetricsRegistry> CURRENT = ThreadLocal.withInitial(MetricsRegistry::new);
+
+    private static MetricsRegistry total = new MetricsRegistry();
+
+    /**
+     * The registry for whatever this thread is running
+     */
+    public static MetricsRegistry current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Give this thread an empty registry for a new round
+     */
+    public static MetricsRegistry startRound() {
+        MetricsRegistry registry = new MetricsRegistry();
+        CURRENT.set(registry);
+        return registry;
+    }
+
+    /**
+     * Finish the round running on this thread and add its metrics to the total. Returns the round's metrics.
+     */
+    public static MetricsRegistry finishRound(long roundNanos) {
+        MetricsRegistry registry = current();
+        registry.finishRound(roundNanos);
+        synchronized (Metrics.class) {
+            total.add(registry);
+        }
+
+        return registry;
+    }
+
+    /**
+     * A copy of the metrics from every round that has finished
+     */
+    public static synchronized MetricsRegistry total() {
+        MetricsRegistry copy = new MetricsRegistry();
+        copy.add(total);
+        return copy;
+    }
+
+    public static synchronized void reset() {
+        total = new MetricsRegistry();
+    }
+
+    /**
+     * Show the total in JMX. Calling this more than once does nothing.
+     */
+    public static synchronized void registerWithJmx() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (!server.isRegistered(name)) {
+            server.registerMBean(new MetricsBean(), name);
+        }
+    }
+
+    private static class MetricsBean implements MetricsMXBean {
+        @Override
+        public long getRounds() {
+            return total().getRounds().getCount();
+        }
+
+        @Override
+        public long getIterations() {
+            return total().getCount(Count.ITERATIONS);
+        }
+
+        @Override
+        public long getSolves() {
+            return total().getTimer(Phase.SOLVE).getCount();
+        }
+
+        @Override
+        public long getInfeasibleSolves() {
+            return total().getCount(Count.INFEASIBLE_SOLVES);
+        }
+
+        @Override
+        public long getEpsilonDecreases() {
+            return total().getCount(Count.E_DECREASES);
+        }
+
+        @Override
+        public double getSolveP50Micros() {
+            return total().getTimer(Phase.SOLVE).percentile(0.5) / 1e3;
+        }
+
+        @Override
+        public double getSolveP99Micros() {
+            return total().getTimer(Phase.SOLVE).percentile(0.99) / 1e3;
+        }
+
+        @Override
+        public double getSolveMaxMicros() {
+            return total().getTimer(Phase.SOLVE).getMax() / 1e3;
+        }
+
+        @Override
+        public double getModelBuildMillis() {
+            return millis(Phase.MODEL_BUILD);
+        }
+
+        @Override
+        public double getSolveMillis() {
+            return millis(Phase.SOLVE);
+        }
+
+        @Override
+        public double getExtractMillis() {
+            return millis(Phase.EXTRACT);
+        }
+
+        @Override
+        public double getWithLagrangeMillis() {
+            return millis(Phase.WITH_LAGRANGE);
+        }
+
+        @Override
+        public double getStepMillis() {
+            return millis(Phase.STEP);
+        }
+
+        @Override
+        public double getRepairMillis() {
+            return millis(Phase.REPAIR);
+        }
+
+        @Override
+        public double getRoundMillis() {
+            return total().getRounds().getSum() / 1e6;
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+
+        private static double millis(Phase phase) {
+            return total().getTimer(phase).getSum() / 1e6;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.digit.app.metrics;
+
+/**
+ * The metrics of every finished round added together, so they can be watched from JConsole or VisualVM while a long
+ * run is going. Times are in milliseconds unless the name says otherwise.
+ */
+public interface MetricsMXBean {
+    long getRounds();
+
+    long getIterations();
+
+    long getSolves();
+
+    long getInfeasibleSolves();
+
+    long getEpsilonDecreases();
+
+    double getSolveP50Micros();
+
+    double getSolveP99Micros();
+
+    double getSolveMaxMicros();
+
+    double getModelBuildMillis();
+
+    double getSolveMillis();
+
+    double getExtractMillis();
+
+    double getWithLagrangeMillis();
+
+    double getStepMillis();
+
+    double getRepairMillis();
+
+    double getRoundMillis();
+
+    /**
+     * Start counting from zero again
+     */
+    void reset();
+}
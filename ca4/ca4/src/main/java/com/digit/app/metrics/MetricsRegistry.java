@@ -0,0 +1,98 @@
+package com.digit.app.metrics;
+
+import lombok.Getter;
+
+/**
+ * The timers and counters for one round, or for every round added together. Recording is a couple of array writes,
+ * so it can stay on in the hot loop. Like {@link Histogram}, this isn't thread safe.
+ */
+public class MetricsRegistry {
+    private final Histogram[] timers = new Histogram[Phase.values().length];
+    private final long[] counts = new long[Count.values().length];
+
+    /**
+     * The wall time of each round
+     */
+    @Getter
+    private final Histogram rounds = new Histogram();
+
+    /**
+     * How many iterations each round took
+     */
+    @Getter
+    private final Histogram iterationsPerRound = new Histogram();
+
+    public MetricsRegistry() {
+        for (int i = 0; i < timers.length; i++) {
+            timers[i] = new Histogram();
+        }
+    }
+
+    /**
+     * Record the nanoseconds since the start for the phase. The start should come from {@link System#nanoTime()}.
+     */
+    public void time(Phase phase, long startNanos) {
+        timers[phase.ordinal()].recordSince(startNanos);
+    }
+
+    public Histogram getTimer(Phase phase) {
+        return timers[phase.ordinal()];
+    }
+
+    public void increment(Count count) {
+        counts[count.ordinal()]++;
+    }
+
+    public long getCount(Count count) {
+        return counts[count.ordinal()];
+    }
+
+    /**
+     * Record that the round this registry is for finished after the given time
+     */
+    public void finishRound(long roundNanos) {
+        rounds.record(roundNanos);
+        iterationsPerRound.record(getCount(Count.ITERATIONS));
+    }
+
+    /**
+     * Add everything recorded in the other registry to this one
+     */
+    public void add(MetricsRegistry other) {
+        for (int i = 0; i < timers.length; i++) {
+            timers[i].add(other.timers[i]);
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = counts[i] + other.counts[i];
+        }
+        rounds.add(other.rounds);
+        iterationsPerRound.add(other.iterationsPerRound);
+    }
+
+    /**
+     * A table with how long each phase took, its solve latencies and the counts
+     */
+    public String summary() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("%-20s %10s %12s %12s %12s %12s\n".formatted("Phase", "Count", "Total ms", "p50 us", "p99 us",
+                "Max us"));
+
+        long timed = 0;
+        for (Phase phase: Phase.values()) {
+            Histogram timer = getTimer(phase);
+            timed = timed + timer.getSum();
+            builder.append("%-20s %10d %12.3f %12.1f %12.1f %12.1f\n".formatted(phase.getDescription(),
+                    timer.getCount(), timer.getSum() / 1e6, timer.percentile(0.5) / 1e3, timer.percentile(0.99) / 1e3,
+                    timer.getMax() / 1e3));
+        }
+        // Whatever the phases don't cover, which is mostly printing, tracing and filling in the tables
+        builder.append("%-20s %10s %12.3f\n".formatted("Rest of the round", "",
+                Math.max(0, rounds.getSum() - timed) / 1e6));
+
+        for (Count count: Count.values()) {
+            builder.append("%s: %d  ".formatted(count.getDescription(), getCount(count)));
+        }
+
+        return builder.append('\n').toString();
+    }
+}
@@ -0,0 +1,49 @@
+package com.digit.app.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The parts of a round that get timed. Anything that isn't one of these, like printing and tracing, shows up as the
+ * rest of the round's time in the summary.
+ */
+@AllArgsConstructor
+public enum Phase {
+    /**
+     * Adding the variables, constraints and objective to the solver
+     */
+    MODEL_BUILD("Model building"),
+
+    /**
+     * The solver's solve, including the linear relaxation at the start of the round
+     */
+    SOLVE("Solve"),
+
+    /**
+     * Getting the values and slacks back out of the solver
+     */
+    EXTRACT("Values and slacks"),
+
+    /**
+     * Turning the multipliers into the c of L(u)
+     */
+    WITH_LAGRANGE("withLagrange"),
+
+    /**
+     * The dual engine picking the step and moving the multipliers
+     */
+    STEP("Multiplier update"),
+
+    /**
+     * Repairing the x of L(u) into a feasible solution of the original problem
+     */
+    REPAIR("Primal repair"),
+
+    /**
+     * Writing the state of the round to its checkpoint file
+     */
+    CHECKPOINT("Checkpoint");
+
+    @Getter
+    private final String description;
+}
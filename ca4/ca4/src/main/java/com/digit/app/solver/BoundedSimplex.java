@@ -0,0 +1,632 @@
+package com.digit.app.solver;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A dense simplex tableau where every variable has its own lower and upper bound. Nonbasic variables sit at one of
+ * their bounds instead of always sitting at 0, which means branching only has to change bounds instead of adding rows.
+ *
+ * The columns are laid out as the structural variables, then one slack per row, then one artificial per row. Every
+ * row is stored as a <= row (>= rows are multiplied by -1), so a slack is always the distance from the row's bound.
+ * The artificials are only used by phase 1 and are fixed to 0 after that.
+ */
+class BoundedSimplex {
+    static final double FEASIBILITY_TOLERANCE = 1e-7;
+    private static final double OPTIMALITY_TOLERANCE = 1e-9;
+    private static final double PIVOT_TOLERANCE = 1e-9;
+    private static final double DEGENERATE_STEP = 1e-12;
+    private static final int DEGENERATE_PIVOTS_BEFORE_BLAND = 50;
+
+    enum Status {
+        OPTIMAL,
+        INFEASIBLE,
+        UNBOUNDED,
+        ITERATION_LIMIT
+    }
+
+    private final int numRows;
+    private final int numStructural;
+    private final int numColumns;
+    private final int maxPivots;
+
+    /**
+     * The rows in <= form, kept so we can start over from the slack basis
+     */
+    private final double[][] rowCoefficients;
+    private final double[] rowRhs;
+    private final double[] rowSign;
+
+    /**
+     * B^-1 A and B^-1 b for the current basis
+     */
+    private final double[][] tableau;
+    private final double[] rhs;
+
+    private final int[] basis;
+    private final boolean[] isBasic;
+    private final boolean[] atUpper;
+    private final double[] lower;
+    private final double[] upper;
+    private final double[] value;
+    private final double[] cost;
+    private final double[] reducedCost;
+
+    BoundedSimplex(int numStructural, double[] structuralLower, double[] structuralUpper, List<JavaSolver.Row> rows) {
+        this.numRows = rows.size();
+        this.numStructural = numStructural;
+        this.numColumns = numStructural + 2 * numRows;
+        this.maxPivots = 1000 + 50 * (numRows + numColumns);
+
+        this.rowCoefficients = new double[numRows][numStructural];
+        this.rowRhs = new double[numRows];
+        this.rowSign = new double[numRows];
+        for (int i = 0; i < numRows; i++) {
+            JavaSolver.Row row = rows.get(i);
+            // Turn Ax >= b into -Ax <= -b
+            double sign = row.isLessThan() ? 1 : -1;
+            for (int k = 0; k < row.getVariables().length; k++) {
+                rowCoefficients[i][row.getVariables()[k]] += sign * row.getCoefficients()[k];
+            }
+            rowRhs[i] = sign * row.getRhs();
+            rowSign[i] = sign;
+        }
+
+        this.tableau = new double[numRows][numColumns];
+        this.rhs = new double[numRows];
+        this.basis = new int[numRows];
+        this.isBasic = new boolean[numColumns];
+        this.atUpper = new boolean[numColumns];
+        this.lower = new double[numColumns];
+        this.upper = new double[numColumns];
+        this.value = new double[numColumns];
+        this.cost = new double[numColumns];
+        this.reducedCost = new double[numColumns];
+
+        System.arraycopy(structuralLower, 0, lower, 0, numStructural);
+        System.arraycopy(structuralUpper, 0, upper, 0, numStructural);
+    }
+
+    /**
+     * Set the cost of the structural variables. The basis is kept so the next solve can start from it.
+     */
+    void setCost(double[] structuralCost) {
+        System.arraycopy(structuralCost, 0, cost, 0, numStructural);
+        Arrays.fill(cost, numStructural, numColumns, 0);
+        recomputeReducedCosts();
+    }
+
+    /**
+     * Change the bounds of a structural variable. If it isn't basic, it moves to the matching new bound.
+     */
+    void setBounds(int variable, double newLower, double newUpper) {
+        lower[variable] = newLower;
+        upper[variable] = newUpper;
+
+        if (!isBasic[variable]) {
+            moveToBound(variable, atUpper[variable]);
+        }
+    }
+
+    double getLower(int variable) {
+        return lower[variable];
+    }
+
+    double getUpper(int variable) {
+        return upper[variable];
+    }
+
+    double getValue(int variable) {
+        return value[variable];
+    }
+
+    /**
+     * The dual of the row as it was added. The slack of a row has a cost of 0, so its reduced cost is minus the dual of
+     * the row in <= form, which is then turned back for >= rows.
+     */
+    double getDual(int row) {
+        return -reducedCost[numStructural + row] * rowSign[row];
+    }
+
+    double getReducedCost(int variable) {
+        return reducedCost[variable];
+    }
+
+    /**
+     * The value of the structural part of the objective
+     */
+    double getObjectiveValue() {
+        double objective = 0;
+        for (int j = 0; j < numStructural; j++) {
+            objective = objective + cost[j] * value[j];
+        }
+
+        return objective;
+    }
+
+    /**
+     * Solve starting from the slack basis
+     */
+    Status solveFromScratch() {
+        // Every structural variable starts at its lower bound
+        for (int j = 0; j < numStructural; j++) {
+            isBasic[j] = false;
+            moveToBound(j, false);
+        }
+
+        boolean needsPhase1 = false;
+
+        for (int i = 0; i < numRows; i++) {
+            int slack = numStructural + i;
+            int artificial = numStructural + numRows + i;
+
+            Arrays.fill(tableau[i], 0);
+            System.arraycopy(rowCoefficients[i], 0, tableau[i], 0, numStructural);
+            tableau[i][slack] = 1;
+            rhs[i] = rowRhs[i];
+
+            double residual = rhs[i];
+            for (int j = 0; j < numStructural; j++) {
+                residual = residual - tableau[i][j] * value[j];
+            }
+
+            // The slack is always nonnegative
+            lower[slack] = 0;
+            upper[slack] = Double.POSITIVE_INFINITY;
+
+            if (residual >= 0) {
+                // The slack can hold the row on its own
+                setBasic(i, slack);
+                value[slack] = residual;
+                lower[artificial] = 0;
+                upper[artificial] = 0;
+                setNonbasic(artificial, false);
+                moveToBound(artificial, false);
+            } else {
+                // Flip the row so an artificial can hold it with a positive value
+                for (int j = 0; j < numColumns; j++) {
+                    tableau[i][j] = -tableau[i][j];
+                }
+                rhs[i] = -rhs[i];
+                tableau[i][artificial] = 1;
+                lower[artificial] = 0;
+                upper[artificial] = Double.POSITIVE_INFINITY;
+                setBasic(i, artificial);
+                value[artificial] = -residual;
+                setNonbasic(slack, false);
+                moveToBound(slack, false);
+                needsPhase1 = true;
+            }
+        }
+
+        double[] phase2Cost = Arrays.copyOf(cost, numStructural);
+
+        if (needsPhase1) {
+            // Phase 1: push the artificials to 0
+            Arrays.fill(cost, 0);
+            for (int i = 0; i < numRows; i++) {
+                int artificial = numStructural + numRows + i;
+                if (upper[artificial] > 0) {
+                    cost[artificial] = -1;
+                }
+            }
+            recomputeReducedCosts();
+
+            Status status = primal();
+            if (status == Status.ITERATION_LIMIT) {
+                setCost(phase2Cost);
+                return status;
+            }
+
+            double infeasibility = 0;
+            for (int i = 0; i < numRows; i++) {
+                infeasibility = infeasibility + value[numStructural + numRows + i];
+            }
+
+            // The artificials are done so fix them at 0. If any are still positive, the basis is left infeasible
+            // so the next solve can't mistake it for a feasible one.
+            for (int i = 0; i < numRows; i++) {
+                int artificial = numStructural + numRows + i;
+                upper[artificial] = 0;
+                if (!isBasic[artificial]) {
+                    moveToBound(artificial, false);
+                }
+            }
+
+            if (infeasibility > FEASIBILITY_TOLERANCE * (1 + numRows)) {
+                setCost(phase2Cost);
+                return Status.INFEASIBLE;
+            }
+        }
+
+        // Phase 2: optimize the real objective
+        setCost(phase2Cost);
+        return primal();
+    }
+
+    /**
+     * Solve starting from the current basis. This is what makes changing the objective or a bound cheap.
+     */
+    Status reoptimize() {
+        recomputeBasicValues();
+
+        if (isPrimalFeasible()) {
+            return primal();
+        }
+
+        if (isDualFeasible()) {
+            Status status = dual();
+            if (status != Status.OPTIMAL) {
+                return status;
+            }
+
+            // Clean up anything the tolerances let through
+            return primal();
+        }
+
+        return solveFromScratch();
+    }
+
+    /**
+     * Copy the current basis so we can go back to it
+     */
+    Snapshot save() {
+        double[][] tableauCopy = new double[numRows][];
+        for (int i = 0; i < numRows; i++) {
+            tableauCopy[i] = tableau[i].clone();
+        }
+
+        return new Snapshot(tableauCopy, rhs.clone(), basis.clone(), atUpper.clone(), lower.clone(), upper.clone(),
+                value.clone());
+    }
+
+    /**
+     * Go back to a basis from {@link #save()}. The costs are kept as they are now.
+     */
+    void restore(Snapshot snapshot) {
+        for (int i = 0; i < numRows; i++) {
+            System.arraycopy(snapshot.tableau[i], 0, tableau[i], 0, numColumns);
+        }
+        System.arraycopy(snapshot.rhs, 0, rhs, 0, numRows);
+        System.arraycopy(snapshot.atUpper, 0, atUpper, 0, numColumns);
+        System.arraycopy(snapshot.lower, 0, lower, 0, numColumns);
+        System.arraycopy(snapshot.upper, 0, upper, 0, numColumns);
+        System.arraycopy(snapshot.value, 0, value, 0, numColumns);
+
+        Arrays.fill(isBasic, false);
+        for (int i = 0; i < numRows; i++) {
+            basis[i] = snapshot.basis[i];
+            isBasic[basis[i]] = true;
+        }
+
+        recomputeReducedCosts();
+    }
+
+    /**
+     * The primal simplex. This needs the current basis to be primal feasible.
+     */
+    private Status primal() {
+        int degeneratePivots = 0;
+
+        for (int pivots = 0; pivots < maxPivots; pivots++) {
+            // Switch to Bland's rule if we look like we are cycling
+            boolean bland = degeneratePivots > DEGENERATE_PIVOTS_BEFORE_BLAND;
+            int entering = chooseEntering(bland);
+
+            if (entering < 0) {
+                return Status.OPTIMAL;
+            }
+
+            // Increase it if it is at its lower bound, decrease it if it is at its upper bound
+            double direction = reducedCost[entering] > 0 ? 1 : -1;
+
+            // The entering variable can always go as far as its other bound
+            double step = upper[entering] - lower[entering];
+            int leavingRow = -1;
+            boolean leavingToUpper = false;
+            double leavingAlpha = 0;
+
+            for (int i = 0; i < numRows; i++) {
+                // The basic variable changes by -alpha * step
+                double alpha = tableau[i][entering] * direction;
+                int basic = basis[i];
+                double ratio;
+                boolean toUpper;
+
+                if (alpha > PIVOT_TOLERANCE) {
+                    ratio = (value[basic] - lower[basic]) / alpha;
+                    toUpper = false;
+                } else if (alpha < -PIVOT_TOLERANCE && upper[basic] != Double.POSITIVE_INFINITY) {
+                    ratio = (upper[basic] - value[basic]) / -alpha;
+                    toUpper = true;
+                } else {
+                    continue;
+                }
+
+                ratio = Math.max(ratio, 0);
+
+                boolean better;
+                if (leavingRow < 0 && step == Double.POSITIVE_INFINITY) {
+                    better = true;
+                } else if (ratio < step - DEGENERATE_STEP) {
+                    better = true;
+                } else if (ratio <= step + DEGENERATE_STEP && leavingRow >= 0) {
+                    // Break ties with the biggest pivot, or the smallest index when we are using Bland's rule
+                    better = bland ? basic < basis[leavingRow] : Math.abs(alpha) > Math.abs(leavingAlpha);
+                } else {
+                    better = false;
+                }
+
+                if (better) {
+                    step = ratio;
+                    leavingRow = i;
+                    leavingToUpper = toUpper;
+                    leavingAlpha = alpha;
+                }
+            }
+
+            if (step == Double.POSITIVE_INFINITY) {
+                return Status.UNBOUNDED;
+            }
+
+            degeneratePivots = step < DEGENERATE_STEP ? degeneratePivots + 1 : 0;
+
+            // Move everything along the edge
+            for (int i = 0; i < numRows; i++) {
+                value[basis[i]] = value[basis[i]] - tableau[i][entering] * direction * step;
+            }
+            value[entering] = value[entering] + direction * step;
+
+            if (leavingRow < 0) {
+                // The entering variable hit its other bound before anything else so it just flips
+                moveToBound(entering, direction > 0);
+            } else {
+                int leaving = basis[leavingRow];
+                pivot(leavingRow, entering);
+                setNonbasic(leaving, leavingToUpper);
+                moveToBound(leaving, leavingToUpper);
+            }
+        }
+
+        return Status.ITERATION_LIMIT;
+    }
+
+    /**
+     * The dual simplex. This needs the current basis to be dual feasible.
+     */
+    private Status dual() {
+        for (int pivots = 0; pivots < maxPivots; pivots++) {
+            // Pick the basic variable that is the furthest outside its bounds
+            int leavingRow = -1;
+            double worst = FEASIBILITY_TOLERANCE;
+            boolean toLower = false;
+            for (int i = 0; i < numRows; i++) {
+                int basic = basis[i];
+                if (lower[basic] - value[basic] > worst) {
+                    worst = lower[basic] - value[basic];
+                    leavingRow = i;
+                    toLower = true;
+                } else if (value[basic] - upper[basic] > worst) {
+                    worst = value[basic] - upper[basic];
+                    leavingRow = i;
+                    toLower = false;
+                }
+            }
+
+            if (leavingRow < 0) {
+                return Status.OPTIMAL;
+            }
+
+            // Find the entering variable that keeps the reduced costs optimal
+            int entering = -1;
+            double bestRatio = Double.POSITIVE_INFINITY;
+            double[] row = tableau[leavingRow];
+            for (int j = 0; j < numColumns; j++) {
+                if (isBasic[j] || lower[j] == upper[j]) {
+                    continue;
+                }
+
+                double alpha = row[j];
+                // If the leaving variable is too low, it goes up by -alpha * delta
+                double needed = toLower ? -alpha : alpha;
+                double ratio;
+                if (!atUpper[j] && needed > PIVOT_TOLERANCE) {
+                    ratio = Math.max(-reducedCost[j], 0) / Math.abs(alpha);
+                } else if (atUpper[j] && needed < -PIVOT_TOLERANCE) {
+                    ratio = Math.max(reducedCost[j], 0) / Math.abs(alpha);
+                } else {
+                    continue;
+                }
+
+                if (entering < 0 || ratio < bestRatio - DEGENERATE_STEP
+                        || (ratio <= bestRatio + DEGENERATE_STEP && Math.abs(alpha) > Math.abs(row[entering]))) {
+                    bestRatio = ratio;
+                    entering = j;
+                }
+            }
+
+            if (entering < 0) {
+                return Status.INFEASIBLE;
+            }
+
+            int leaving = basis[leavingRow];
+            double target = toLower ? lower[leaving] : upper[leaving];
+            double delta = (value[leaving] - target) / row[entering];
+
+            for (int i = 0; i < numRows; i++) {
+                value[basis[i]] = value[basis[i]] - tableau[i][entering] * delta;
+            }
+            value[entering] = value[entering] + delta;
+
+            pivot(leavingRow, entering);
+            setNonbasic(leaving, !toLower);
+            moveToBound(leaving, !toLower);
+        }
+
+        return Status.ITERATION_LIMIT;
+    }
+
+    private int chooseEntering(boolean bland) {
+        int entering = -1;
+        double best = OPTIMALITY_TOLERANCE;
+
+        for (int j = 0; j < numColumns; j++) {
+            if (isBasic[j] || lower[j] == upper[j]) {
+                continue;
+            }
+
+            // At the lower bound it can only go up, at the upper bound it can only go down
+            double improvement = atUpper[j] ? -reducedCost[j] : reducedCost[j];
+            if (improvement > best) {
+                if (bland) {
+                    return j;
+                }
+                best = improvement;
+                entering = j;
+            }
+        }
+
+        return entering;
+    }
+
+    private void pivot(int pivotRow, int entering) {
+        double[] row = tableau[pivotRow];
+        double pivot = row[entering];
+
+        for (int j = 0; j < numColumns; j++) {
+            row[j] = row[j] / pivot;
+        }
+        rhs[pivotRow] = rhs[pivotRow] / pivot;
+        row[entering] = 1;
+
+        for (int i = 0; i < numRows; i++) {
+            double factor = tableau[i][entering];
+            if (i == pivotRow || factor == 0) {
+                continue;
+            }
+
+            double[] other = tableau[i];
+            for (int j = 0; j < numColumns; j++) {
+                other[j] = other[j] - factor * row[j];
+            }
+            rhs[i] = rhs[i] - factor * rhs[pivotRow];
+            other[entering] = 0;
+        }
+
+        double factor = reducedCost[entering];
+        if (factor != 0) {
+            for (int j = 0; j < numColumns; j++) {
+                reducedCost[j] = reducedCost[j] - factor * row[j];
+            }
+            reducedCost[entering] = 0;
+        }
+
+        isBasic[basis[pivotRow]] = false;
+        setBasic(pivotRow, entering);
+    }
+
+    private void setBasic(int row, int column) {
+        basis[row] = column;
+        isBasic[column] = true;
+        atUpper[column] = false;
+    }
+
+    private void setNonbasic(int column, boolean toUpper) {
+        isBasic[column] = false;
+        atUpper[column] = toUpper;
+    }
+
+    /**
+     * Put a nonbasic variable on a bound. It can't sit on an upper bound of infinity.
+     */
+    private void moveToBound(int column, boolean toUpper) {
+        if (toUpper && upper[column] != Double.POSITIVE_INFINITY) {
+            atUpper[column] = true;
+            value[column] = upper[column];
+        } else {
+            atUpper[column] = false;
+            value[column] = lower[column];
+        }
+    }
+
+    private void recomputeBasicValues() {
+        for (int i = 0; i < numRows; i++) {
+            double basicValue = rhs[i];
+            double[] row = tableau[i];
+            for (int j = 0; j < numColumns; j++) {
+                if (!isBasic[j] && row[j] != 0) {
+                    basicValue = basicValue - row[j] * value[j];
+                }
+            }
+            value[basis[i]] = basicValue;
+        }
+    }
+
+    private void recomputeReducedCosts() {
+        System.arraycopy(cost, 0, reducedCost, 0, numColumns);
+        for (int i = 0; i < numRows; i++) {
+            double basicCost = cost[basis[i]];
+            if (basicCost == 0) {
+                continue;
+            }
+
+            double[] row = tableau[i];
+            for (int j = 0; j < numColumns; j++) {
+                reducedCost[j] = reducedCost[j] - basicCost * row[j];
+            }
+        }
+
+        for (int i = 0; i < numRows; i++) {
+            reducedCost[basis[i]] = 0;
+        }
+    }
+
+    private boolean isPrimalFeasible() {
+        for (int i = 0; i < numRows; i++) {
+            int basic = basis[i];
+            if (value[basic] < lower[basic] - FEASIBILITY_TOLERANCE || value[basic] > upper[basic] + FEASIBILITY_TOLERANCE) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean isDualFeasible() {
+        for (int j = 0; j < numColumns; j++) {
+            if (isBasic[j] || lower[j] == upper[j]) {
+                continue;
+            }
+
+            if ((!atUpper[j] && reducedCost[j] > OPTIMALITY_TOLERANCE) || (atUpper[j] && reducedCost[j] < -OPTIMALITY_TOLERANCE)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * A copy of a basis and the bounds that went with it
+     */
+    static class Snapshot {
+        private final double[][] tableau;
+        private final double[] rhs;
+        private final int[] basis;
+        private final boolean[] atUpper;
+        private final double[] lower;
+        private final double[] upper;
+        private final double[] value;
+
+        private Snapshot(double[][] tableau, double[] rhs, int[] basis, boolean[] atUpper, double[] lower,
+                         double[] upper, double[] value) {
+            this.tableau = tableau;
+            this.rhs = rhs;
+            this.basis = basis;
+            this.atUpper = atUpper;
+            this.lower = lower;
+            this.upper = upper;
+            this.value = value;
+        }
+    }
+}
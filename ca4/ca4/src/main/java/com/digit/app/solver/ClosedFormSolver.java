@@ -0,0 +1,115 @@
+package com.digit.app.solver;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * A solver for models without any constraints, where every variable just goes to the bound that its objective
+ * coefficient points to. Variables with a coefficient of 0 stay at their lower bound. A solve is one pass over the
+ * variables, so this is what L(u) uses once every constraint is relaxed.
+ */
+public class ClosedFormSolver implements Solver {
+    protected int numVariables = 0;
+    protected double[] lower = new double[0];
+    protected double[] upper = new double[0];
+    protected double[] objective = new double[0];
+
+    protected double objectiveValue;
+    protected double[] values;
+
+    @Override
+    public void addVariables(int numNewVariables, double lowerBound, double upperBound, boolean integer) {
+        Preconditions.checkArgument(Double.isFinite(lowerBound) && Double.isFinite(upperBound),
+                "The closed form needs finite bounds but got [%s, %s]".formatted(lowerBound, upperBound));
+        Preconditions.checkArgument(lowerBound <= upperBound,
+                "The lower bound %s is above the upper bound %s".formatted(lowerBound, upperBound));
+        // Integer variables only matter if the bounds aren't integers themselves
+        Preconditions.checkArgument(!integer || (lowerBound == Math.rint(lowerBound) && upperBound == Math.rint(upperBound)),
+                "Integer variables need integer bounds but got [%s, %s]".formatted(lowerBound, upperBound));
+
+        int newSize = numVariables + numNewVariables;
+        lower = Arrays.copyOf(lower, newSize);
+        upper = Arrays.copyOf(upper, newSize);
+        objective = Arrays.copyOf(objective, newSize);
+        Arrays.fill(lower, numVariables, newSize, lowerBound);
+        Arrays.fill(upper, numVariables, newSize, upperBound);
+        numVariables = newSize;
+    }
+
+    @Override
+    public void setBounds(int variable, double lowerBound, double upperBound) {
+        Preconditions.checkArgument(lowerBound <= upperBound,
+                "The lower bound %s is above the upper bound %s".formatted(lowerBound, upperBound));
+        lower[variable] = lowerBound;
+        upper[variable] = upperBound;
+    }
+
+    @Override
+    public void addConstraint(int[] variables, double[] coefficients, boolean lessThan, double rhs)
+            throws SolverException {
+        throw new SolverException("The closed form solver can't have constraints, so it can't add a row with %s variables"
+                .formatted(variables.length));
+    }
+
+    @Override
+    public void setObjective(double[] coefficients) {
+        Preconditions.checkArgument(coefficients.length == numVariables,
+                "The objective needs a coefficient for each variable. Variables: %s Coefficients: %s".formatted(numVariables, coefficients.length));
+        System.arraycopy(coefficients, 0, objective, 0, numVariables);
+    }
+
+    @Override
+    public void setStart(double[] values) {
+        // There is nothing to search, so a start doesn't help
+    }
+
+    @Override
+    public boolean solve() throws SolverException {
+        values = new double[numVariables];
+        objectiveValue = 0;
+        for (int j = 0; j < numVariables; j++) {
+            values[j] = objective[j] > 0 ? upper[j] : lower[j];
+            objectiveValue = objectiveValue + objective[j] * values[j];
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean isOptimal() {
+        return true;
+    }
+
+    @Override
+    public double getObjectiveValue() {
+        return objectiveValue;
+    }
+
+    @Override
+    public double[] getValues() {
+        return values;
+    }
+
+    @Override
+    public double[] getSlacks() {
+        return new double[0];
+    }
+
+    @Override
+    public double[] getDuals() throws SolverException {
+        return new double[0];
+    }
+
+    /**
+     * Without constraints, moving a variable changes the objective by exactly its coefficient
+     */
+    @Override
+    public double[] getReducedCosts() throws SolverException {
+        return objective.clone();
+    }
+
+    @Override
+    public void close() {
+    }
+}
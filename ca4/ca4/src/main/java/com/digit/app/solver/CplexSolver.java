@@ -0,0 +1,181 @@
+package com.digit.app.solver;
+
+import ilog.concert.*;
+import ilog.cplex.IloCplex;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A solver that passes everything through to CPLEX
+ */
+public class CplexSolver implements Solver {
+    private final IloCplex cplex;
+    private final List<IloNumVar> variables = new ArrayList<>();
+    private final List<IloRange> constraints = new ArrayList<>();
+    private IloObjective objective;
+
+    CplexSolver() throws SolverException {
+        try {
+            cplex = new IloCplex();
+        } catch (IloException e) {
+            throw new SolverException("Could not create CPLEX", e);
+        }
+
+        // Have it not print stuff out because it is very verbose
+        cplex.setOut(new PrintStream(new OutputStream() {
+            public void write(int b) {
+                //DO NOTHING
+            }
+        }));
+    }
+
+    @Override
+    public void addVariables(int numVariables, double lowerBound, double upperBound, boolean integer) throws SolverException {
+        try {
+            IloNumVarType type = integer ? IloNumVarType.Int : IloNumVarType.Float;
+            Collections.addAll(variables, cplex.numVarArray(numVariables, lowerBound, upperBound, type));
+        } catch (IloException e) {
+            throw new SolverException("Could not add variables to CPLEX", e);
+        }
+    }
+
+    @Override
+    public void setBounds(int variable, double lowerBound, double upperBound) throws SolverException {
+        try {
+            variables.get(variable).setLB(lowerBound);
+            variables.get(variable).setUB(upperBound);
+        } catch (IloException e) {
+            throw new SolverException("Could not change the bounds in CPLEX", e);
+        }
+    }
+
+    @Override
+    public void addConstraint(int[] variableIndices, double[] coefficients, boolean lessThan, double rhs) throws SolverException {
+        try {
+            IloLinearNumExpr constraint = cplex.linearNumExpr();
+            for (int k = 0; k < variableIndices.length; k++) {
+                constraint.addTerm(coefficients[k], variables.get(variableIndices[k]));
+            }
+
+            // If it is Ax <= b
+            if (lessThan) {
+                constraints.add(cplex.addLe(constraint, rhs));
+            // Otherwise it is Ax >= b
+            } else {
+                constraints.add(cplex.addGe(constraint, rhs));
+            }
+        } catch (IloException e) {
+            throw new SolverException("Could not add a constraint to CPLEX", e);
+        }
+    }
+
+    @Override
+    public void setObjective(double[] coefficients) throws SolverException {
+        try {
+            // The first time, create the optimization function (maximize)
+            if (objective == null) {
+                IloLinearNumExpr optimizationFunction = cplex.linearNumExpr();
+                for (int i = 0; i < coefficients.length; i++) {
+                    optimizationFunction.addTerm(coefficients[i], variables.get(i));
+                }
+                objective = cplex.addMaximize(optimizationFunction);
+            // After that, just swap out the coefficients
+            } else {
+                cplex.setLinearCoefs(objective, coefficients, variableArray());
+            }
+        } catch (IloException e) {
+            throw new SolverException("Could not set the objective in CPLEX", e);
+        }
+    }
+
+    @Override
+    public void setStart(double[] values) throws SolverException {
+        try {
+            cplex.addMIPStart(variableArray(), values);
+        } catch (IloException e) {
+            throw new SolverException("Could not add the MIP start to CPLEX", e);
+        }
+    }
+
+    @Override
+    public boolean solve() throws SolverException {
+        try {
+            boolean feasible = cplex.solve();
+
+            // The start was only for this solve
+            if (cplex.getNMIPStarts() > 0) {
+                cplex.deleteMIPStarts(0, cplex.getNMIPStarts());
+            }
+
+            return feasible;
+        } catch (IloException e) {
+            throw new SolverException("CPLEX failed to solve", e);
+        }
+    }
+
+    /**
+     * CPLEX is run without any limits, so it only comes back with a solution once it is optimal
+     */
+    @Override
+    public boolean isOptimal() {
+        return true;
+    }
+
+    @Override
+    public double getObjectiveValue() throws SolverException {
+        try {
+            return cplex.getObjValue();
+        } catch (IloException e) {
+            throw new SolverException("Could not get the objective value from CPLEX", e);
+        }
+    }
+
+    @Override
+    public double[] getValues() throws SolverException {
+        try {
+            return cplex.getValues(variableArray());
+        } catch (IloException e) {
+            throw new SolverException("Could not get the values from CPLEX", e);
+        }
+    }
+
+    @Override
+    public double[] getSlacks() throws SolverException {
+        try {
+            return cplex.getSlacks(constraints.toArray(new IloRange[0]));
+        } catch (IloException e) {
+            throw new SolverException("Could not get the slacks from CPLEX", e);
+        }
+    }
+
+    @Override
+    public double[] getDuals() throws SolverException {
+        try {
+            return cplex.getDuals(constraints.toArray(new IloRange[0]));
+        } catch (IloException e) {
+            throw new SolverException("Could not get the duals from CPLEX", e);
+        }
+    }
+
+    @Override
+    public double[] getReducedCosts() throws SolverException {
+        try {
+            return cplex.getReducedCosts(variableArray());
+        } catch (IloException e) {
+            throw new SolverException("Could not get the reduced costs from CPLEX", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        cplex.end();
+    }
+
+    private IloNumVar[] variableArray() {
+        return variables.toArray(new IloNumVar[0]);
+    }
+}
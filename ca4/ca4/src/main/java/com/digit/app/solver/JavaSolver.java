@@ -0,0 +1,416 @@
+package com.digit.app.solver;
+
+import com.google.common.base.Preconditions;
+import lombok.Value;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * A solver written in plain Java so we can run without a CPLEX license. Linear programs are solved with a bounded
+ * simplex and integer programs are solved with depth first branch and bound on top of it.
+ */
+public class JavaSolver implements Solver {
+    private static final double INTEGER_TOLERANCE = 1e-6;
+    private static final double PRUNE_TOLERANCE = 1e-6;
+    private static final int MAX_NODES = 1_000_000;
+
+    /**
+     * How many nodes of the tree one solve can go through before it stops with the best solution so far
+     */
+    private final int maxNodes;
+
+    private final List<Row> rows = new ArrayList<>();
+    private int numVariables = 0;
+    private double[] lower = new double[0];
+    private double[] upper = new double[0];
+    private boolean[] integer = new boolean[0];
+    private double[] objective = new double[0];
+
+    /**
+     * The solution to start branch and bound with, if there is one
+     */
+    private double[] start;
+
+    /**
+     * The tableau from the last solve. This is thrown away whenever the model itself changes.
+     */
+    private BoundedSimplex simplex;
+
+    private double objectiveValue;
+    private double[] values;
+    private double[] slacks;
+
+    /**
+     * False when the last solve ran out of nodes before the tree was done
+     */
+    private boolean optimal;
+
+    JavaSolver() {
+        this(MAX_NODES);
+    }
+
+    JavaSolver(int maxNodes) {
+        this.maxNodes = maxNodes;
+    }
+
+    @Override
+    public void addVariables(int numNewVariables, double lowerBound, double upperBound, boolean isInteger) {
+        Preconditions.checkArgument(Double.isFinite(lowerBound), "The lower bound has to be finite");
+        Preconditions.checkArgument(lowerBound <= upperBound,
+                "The lower bound %s is above the upper bound %s".formatted(lowerBound, upperBound));
+
+        int newSize = numVariables + numNewVariables;
+        lower = Arrays.copyOf(lower, newSize);
+        upper = Arrays.copyOf(upper, newSize);
+        integer = Arrays.copyOf(integer, newSize);
+        objective = Arrays.copyOf(objective, newSize);
+
+        Arrays.fill(lower, numVariables, newSize, lowerBound);
+        Arrays.fill(upper, numVariables, newSize, upperBound);
+        Arrays.fill(integer, numVariables, newSize, isInteger);
+
+        numVariables = newSize;
+        simplex = null;
+    }
+
+    @Override
+    public void setBounds(int variable, double lowerBound, double upperBound) {
+        Preconditions.checkArgument(Double.isFinite(lowerBound), "The lower bound has to be finite");
+        Preconditions.checkArgument(lowerBound <= upperBound,
+                "The lower bound %s is above the upper bound %s".formatted(lowerBound, upperBound));
+
+        lower[variable] = lowerBound;
+        upper[variable] = upperBound;
+        simplex = null;
+    }
+
+    @Override
+    public void addConstraint(int[] variables, double[] coefficients, boolean lessThan, double rhs) {
+        Preconditions.checkArgument(variables.length == coefficients.length,
+                "Each variable needs a coefficient. Variables: %s Coefficients: %s".formatted(variables.length, coefficients.length));
+
+        rows.add(new Row(variables.clone(), coefficients.clone(), lessThan, rhs));
+        simplex = null;
+    }
+
+    @Override
+    public void setObjective(double[] coefficients) {
+        Preconditions.checkArgument(coefficients.length == numVariables,
+                "The objective needs a coefficient for each variable. Variables: %s Coefficients: %s".formatted(numVariables, coefficients.length));
+
+        System.arraycopy(coefficients, 0, objective, 0, numVariables);
+    }
+
+    @Override
+    public void setStart(double[] values) {
+        Preconditions.checkArgument(values.length == numVariables,
+                "The start needs a value for each variable. Variables: %s Values: %s".formatted(numVariables, values.length));
+
+        start = values.clone();
+    }
+
+    @Override
+    public boolean solve() throws SolverException {
+        // The start only applies to this solve
+        double[] incumbent = start != null && isFeasible(start) ? start : null;
+        start = null;
+        optimal = true;
+
+        BoundedSimplex.Status status;
+
+        // Start from the last basis if we have one. Otherwise, start from scratch.
+        if (simplex == null) {
+            simplex = new BoundedSimplex(numVariables, lower, upper, rows);
+            simplex.setCost(objective);
+            status = simplex.solveFromScratch();
+        } else {
+            simplex.setCost(objective);
+            status = simplex.reoptimize();
+        }
+
+        checkStatus(status);
+        if (status == BoundedSimplex.Status.INFEASIBLE) {
+            return false;
+        }
+
+        double[] rootValues = currentValues();
+
+        if (!hasIntegers() || firstFractional(rootValues) < 0) {
+            return setSolution(roundIntegers(rootValues));
+        }
+
+        double[] best = branchAndBound(incumbent);
+
+        if (best == null) {
+            return false;
+        }
+
+        return setSolution(best);
+    }
+
+    @Override
+    public boolean isOptimal() {
+        return optimal;
+    }
+
+    @Override
+    public double getObjectiveValue() {
+        return objectiveValue;
+    }
+
+    @Override
+    public double[] getValues() {
+        return values;
+    }
+
+    @Override
+    public double[] getSlacks() {
+        return slacks;
+    }
+
+    /**
+     * The duals of the last linear relaxation that was solved, which for an integer program is the root of the tree
+     */
+    @Override
+    public double[] getDuals() {
+        double[] duals = new double[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            duals[i] = simplex.getDual(i);
+        }
+
+        return duals;
+    }
+
+    /**
+     * The reduced costs of the last linear relaxation that was solved, which for an integer program is the root of the
+     * tree
+     */
+    @Override
+    public double[] getReducedCosts() {
+        double[] reducedCosts = new double[numVariables];
+        for (int j = 0; j < numVariables; j++) {
+            reducedCosts[j] = simplex.getReducedCost(j);
+        }
+
+        return reducedCosts;
+    }
+
+    @Override
+    public void close() {
+        simplex = null;
+    }
+
+    /**
+     * Search the tree depth first, always going to the closer child first. If there is a starting incumbent, anything
+     * that can't beat it is pruned right away. The root basis is put back at the end so the next solve starts from it.
+     * If the node limit is hit first, the best solution so far is returned and the solve isn't optimal.
+     */
+    private double[] branchAndBound(double[] incumbent) throws SolverException {
+        BoundedSimplex.Snapshot root = simplex.save();
+
+        double incumbentValue = incumbent == null ? Double.NEGATIVE_INFINITY : objectiveOf(incumbent);
+
+        Deque<double[][]> nodes = new ArrayDeque<>();
+        nodes.push(new double[][] { lower.clone(), upper.clone() });
+
+        int nodesSolved = 0;
+        while (!nodes.isEmpty() && nodesSolved < maxNodes) {
+            double[][] node = nodes.pop();
+            double[] nodeLower = node[0];
+            double[] nodeUpper = node[1];
+            nodesSolved++;
+
+            for (int j = 0; j < numVariables; j++) {
+                if (simplex.getLower(j) != nodeLower[j] || simplex.getUpper(j) != nodeUpper[j]) {
+                    simplex.setBounds(j, nodeLower[j], nodeUpper[j]);
+                }
+            }
+
+            BoundedSimplex.Status status = simplex.reoptimize();
+            checkStatus(status);
+            if (status != BoundedSimplex.Status.OPTIMAL) {
+                continue;
+            }
+
+            // Prune if it can't beat what we already have
+            double bound = simplex.getObjectiveValue();
+            if (bound <= incumbentValue + PRUNE_TOLERANCE * Math.max(1, Math.abs(incumbentValue))) {
+                continue;
+            }
+
+            double[] nodeValues = currentValues();
+            int branchOn = mostFractional(nodeValues);
+
+            // Everything is integer so we have a new best solution
+            if (branchOn < 0) {
+                incumbent = roundIntegers(nodeValues);
+                incumbentValue = objectiveOf(incumbent);
+                continue;
+            }
+
+            double down = Math.floor(nodeValues[branchOn]);
+            double[][] downNode = new double[][] { nodeLower.clone(), nodeUpper.clone() };
+            downNode[1][branchOn] = down;
+            double[][] upNode = new double[][] { nodeLower.clone(), nodeUpper.clone() };
+            upNode[0][branchOn] = down + 1;
+
+            // The stack pops the last one pushed, so push the further child first
+            if (nodeValues[branchOn] - down < 0.5) {
+                nodes.push(upNode);
+                nodes.push(downNode);
+            } else {
+                nodes.push(downNode);
+                nodes.push(upNode);
+            }
+        }
+
+        simplex.restore(root);
+
+        if (!nodes.isEmpty()) {
+            // Without a solution, it isn't known whether there is one
+            if (incumbent == null) {
+                throw new SolverException("Branch and bound hit the limit of %s nodes without finding a feasible solution"
+                        .formatted(maxNodes));
+            }
+            optimal = false;
+        }
+
+        return incumbent;
+    }
+
+    private boolean setSolution(double[] solution) {
+        values = solution;
+        objectiveValue = objectiveOf(solution);
+        slacks = new double[rows.size()];
+
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            double activity = 0;
+            for (int k = 0; k < row.variables.length; k++) {
+                activity = activity + row.coefficients[k] * solution[row.variables[k]];
+            }
+
+            // The slack is how far we are from the bound
+            slacks[i] = row.lessThan ? row.rhs - activity : activity - row.rhs;
+        }
+
+        return true;
+    }
+
+    /**
+     * Check if a solution is within the bounds, integer where it needs to be, and satisfies every constraint
+     */
+    private boolean isFeasible(double[] solution) {
+        for (int j = 0; j < numVariables; j++) {
+            if (solution[j] < lower[j] - BoundedSimplex.FEASIBILITY_TOLERANCE
+                    || solution[j] > upper[j] + BoundedSimplex.FEASIBILITY_TOLERANCE
+                    || (integer[j] && fractionality(solution[j]) > INTEGER_TOLERANCE)) {
+                return false;
+            }
+        }
+
+        for (Row row : rows) {
+            double activity = 0;
+            for (int k = 0; k < row.variables.length; k++) {
+                activity = activity + row.coefficients[k] * solution[row.variables[k]];
+            }
+
+            double slack = row.lessThan ? row.rhs - activity : activity - row.rhs;
+            if (slack < -BoundedSimplex.FEASIBILITY_TOLERANCE) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private double[] currentValues() {
+        double[] current = new double[numVariables];
+        for (int j = 0; j < numVariables; j++) {
+            current[j] = simplex.getValue(j);
+        }
+
+        return current;
+    }
+
+    private double objectiveOf(double[] solution) {
+        double value = 0;
+        for (int j = 0; j < numVariables; j++) {
+            value = value + objective[j] * solution[j];
+        }
+
+        return value;
+    }
+
+    private boolean hasIntegers() {
+        for (boolean isInteger : integer) {
+            if (isInteger) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private int firstFractional(double[] solution) {
+        for (int j = 0; j < numVariables; j++) {
+            if (integer[j] && fractionality(solution[j]) > INTEGER_TOLERANCE) {
+                return j;
+            }
+        }
+
+        return -1;
+    }
+
+    private int mostFractional(double[] solution) {
+        int branchOn = -1;
+        double most = INTEGER_TOLERANCE;
+        for (int j = 0; j < numVariables; j++) {
+            if (integer[j] && fractionality(solution[j]) > most) {
+                most = fractionality(solution[j]);
+                branchOn = j;
+            }
+        }
+
+        return branchOn;
+    }
+
+    private double[] roundIntegers(double[] solution) {
+        double[] rounded = solution.clone();
+        for (int j = 0; j < numVariables; j++) {
+            if (integer[j]) {
+                rounded[j] = Math.rint(rounded[j]);
+            }
+        }
+
+        return rounded;
+    }
+
+    private static double fractionality(double value) {
+        return Math.abs(value - Math.rint(value));
+    }
+
+    private static void checkStatus(BoundedSimplex.Status status) throws SolverException {
+        if (status == BoundedSimplex.Status.ITERATION_LIMIT) {
+            throw new SolverException("The simplex hit its iteration limit");
+        }
+        if (status == BoundedSimplex.Status.UNBOUNDED) {
+            throw new SolverException("The problem is unbounded");
+        }
+    }
+
+    /**
+     * A constraint as it was added
+     */
+    @Value
+    static class Row {
+        private final int[] variables;
+        private final double[] coefficients;
+        private final boolean lessThan;
+        private final double rhs;
+    }
+}
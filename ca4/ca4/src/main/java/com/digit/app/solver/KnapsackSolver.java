@@ -0,0 +1,234 @@
+package com.digit.app.solver;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * A solver for integer models with a single constraint, which is a bounded knapsack. It is solved exactly with depth
+ * first branch and bound over the items sorted by value per unit of weight, pruning with the greedy fractional bound.
+ * That bound is usually tight, so a solve is not much more than the sort.
+ *
+ * The constraint is turned into sum(w * y) <= capacity with every weight and value positive first. Variables that
+ * aren't in the constraint, or where the objective and the constraint agree on which bound is best, are set like in
+ * {@link ClosedFormSolver}. Variables where both the coefficient and the objective are negative are flipped to
+ * y = upper - x so that they become normal items.
+ *
+ * Only integer programs are solved, so there are no duals or reduced costs to give back.
+ */
+public class KnapsackSolver extends ClosedFormSolver {
+    private static final double PRUNE_TOLERANCE = 1e-9;
+    private static final int MAX_NODES = 1_000_000;
+
+    /**
+     * How many steps of the search one solve can take before it stops with the best solution so far
+     */
+    private final int maxNodes;
+
+    private int[] rowVariables;
+    private double[] rowCoefficients;
+    private boolean lessThan;
+    private double rhs;
+    private double slack;
+
+    /**
+     * False when the last search ran out of nodes before it was done
+     */
+    private boolean optimal;
+
+    public KnapsackSolver() {
+        this(MAX_NODES);
+    }
+
+    KnapsackSolver(int maxNodes) {
+        this.maxNodes = maxNodes;
+    }
+
+    @Override
+    public void addVariables(int numNewVariables, double lowerBound, double upperBound, boolean integer) {
+        Preconditions.checkArgument(integer, "The knapsack solver only handles integer variables");
+        super.addVariables(numNewVariables, lowerBound, upperBound, true);
+    }
+
+    @Override
+    public void addConstraint(int[] variables, double[] coefficients, boolean lessThan, double rhs) {
+        Preconditions.checkArgument(rowVariables == null, "The knapsack solver can only have one constraint");
+        Preconditions.checkArgument(variables.length == coefficients.length,
+                "Each variable needs a coefficient. Variables: %s Coefficients: %s".formatted(variables.length, coefficients.length));
+
+        this.rowVariables = variables.clone();
+        this.rowCoefficients = coefficients.clone();
+        this.lessThan = lessThan;
+        this.rhs = rhs;
+    }
+
+    @Override
+    public boolean solve() throws SolverException {
+        // Start everything at its best bound, then fix the variables in the constraint
+        super.solve();
+        optimal = true;
+        if (rowVariables == null) {
+            return true;
+        }
+
+        // Make it a <= row and move the part from the fixed values to the right hand side
+        double sign = lessThan ? 1 : -1;
+        double capacity = sign * rhs;
+        int numItems = 0;
+        int[] itemVariables = new int[rowVariables.length];
+        double[] itemWeights = new double[rowVariables.length];
+        double[] itemValues = new double[rowVariables.length];
+        boolean[] flipped = new boolean[rowVariables.length];
+        for (int k = 0; k < rowVariables.length; k++) {
+            int j = rowVariables[k];
+            double weight = sign * rowCoefficients[k];
+            if (weight == 0) {
+                // Not really in the row, so it keeps its best bound
+                continue;
+            } else if (weight > 0 && objective[j] <= 0) {
+                // Using it only costs capacity
+                values[j] = lower[j];
+            } else if (weight < 0 && objective[j] >= 0) {
+                // Using it only gives capacity
+                values[j] = upper[j];
+            } else {
+                // An item, which counts down from the upper bound if it was flipped
+                values[j] = weight < 0 ? upper[j] : lower[j];
+                itemVariables[numItems] = j;
+                itemWeights[numItems] = Math.abs(weight);
+                itemValues[numItems] = Math.abs(objective[j]);
+                flipped[numItems] = weight < 0;
+                numItems++;
+            }
+            capacity = capacity - weight * values[j];
+        }
+        if (capacity < -PRUNE_TOLERANCE) {
+            return false;
+        }
+
+        // Best value per unit of weight first, which is the order the greedy bound fills in
+        Integer[] order = new Integer[numItems];
+        for (int item = 0; item < numItems; item++) {
+            order[item] = item;
+        }
+        Arrays.sort(order, (i1, i2) -> Double.compare(itemValues[i2] / itemWeights[i2], itemValues[i1] / itemWeights[i1]));
+        double[] weights = new double[numItems];
+        double[] itemValuesSorted = new double[numItems];
+        long[] counts = new long[numItems];
+        for (int item = 0; item < numItems; item++) {
+            weights[item] = itemWeights[order[item]];
+            itemValuesSorted[item] = itemValues[order[item]];
+            int j = itemVariables[order[item]];
+            counts[item] = Math.round(upper[j] - lower[j]);
+        }
+
+        long[] taken = search(weights, itemValuesSorted, counts, Math.max(0, capacity));
+        for (int item = 0; item < numItems; item++) {
+            int j = itemVariables[order[item]];
+            values[j] = flipped[order[item]] ? upper[j] - taken[item] : lower[j] + taken[item];
+        }
+
+        objectiveValue = 0;
+        for (int j = 0; j < numVariables; j++) {
+            objectiveValue = objectiveValue + objective[j] * values[j];
+        }
+        double activity = 0;
+        for (int k = 0; k < rowVariables.length; k++) {
+            activity = activity + rowCoefficients[k] * values[rowVariables[k]];
+        }
+        slack = lessThan ? rhs - activity : activity - rhs;
+
+        return true;
+    }
+
+    @Override
+    public double[] getSlacks() {
+        return rowVariables == null ? new double[0] : new double[]{slack};
+    }
+
+    @Override
+    public boolean isOptimal() {
+        return optimal;
+    }
+
+    @Override
+    public double[] getDuals() throws SolverException {
+        throw new SolverException("The knapsack solver only solves integer programs, which have no duals");
+    }
+
+    @Override
+    public double[] getReducedCosts() throws SolverException {
+        throw new SolverException("The knapsack solver only solves integer programs, which have no reduced costs");
+    }
+
+    /**
+     * Find how many of each item to take. Each step fills in greedily from where it is, then backs up to the last item
+     * where taking one less could still beat the best so far. Taking less of an item never raises the bound of the
+     * items after it, since they are worth less per unit of weight, so an item that fails the bound is dropped. If the
+     * node limit is hit first, the best so far is returned and the solve isn't optimal.
+     */
+    private long[] search(double[] weights, double[] values, long[] counts, double capacity) {
+        int numItems = weights.length;
+        long[] current = new long[numItems];
+        long[] best = new long[numItems];
+        double bestValue = -1;
+        double value = 0;
+        double left = capacity;
+
+        int next = 0;
+        boolean finished = false;
+        for (int nodes = 0; nodes < maxNodes; nodes++) {
+            // Fill in greedily
+            for (int item = next; item < numItems; item++) {
+                current[item] = Math.min(counts[item], (long) Math.floor((left + PRUNE_TOLERANCE) / weights[item]));
+                left = left - current[item] * weights[item];
+                value = value + current[item] * values[item];
+            }
+            if (value > bestValue) {
+                bestValue = value;
+                System.arraycopy(current, 0, best, 0, numItems);
+            }
+
+            // Back up to an item where taking one less might do better
+            next = -1;
+            for (int item = numItems - 1; item >= 0 && next < 0; item--) {
+                if (current[item] == 0) {
+                    continue;
+                }
+
+                current[item]--;
+                left = left + weights[item];
+                value = value - values[item];
+                if (value + greedyBound(weights, values, counts, item + 1, left) > bestValue + PRUNE_TOLERANCE) {
+                    next = item + 1;
+                } else {
+                    left = left + current[item] * weights[item];
+                    value = value - current[item] * values[item];
+                    current[item] = 0;
+                }
+            }
+
+            if (next < 0) {
+                finished = true;
+                break;
+            }
+        }
+        optimal = finished;
+
+        return best;
+    }
+
+    /**
+     * The most the items from the first one on could add if they could be taken fractionally
+     */
+    private static double greedyBound(double[] weights, double[] values, long[] counts, int first, double capacity) {
+        double bound = 0;
+        for (int item = first; item < weights.length && capacity > 0; item++) {
+            double amount = Math.min(counts[item], capacity / weights[item]);
+            bound = bound + amount * values[item];
+            capacity = capacity - amount * weights[item];
+        }
+
+        return bound;
+    }
+}
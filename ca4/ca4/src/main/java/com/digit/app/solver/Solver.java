@@ -0,0 +1,77 @@
+package com.digit.app.solver;
+
+/**
+ * A maximization model that can be built up, solved, and read back. Variables are referred to by the order they were
+ * added in, starting at 0, so the data classes never need to hold on to solver specific types.
+ */
+public interface Solver extends AutoCloseable {
+
+    /**
+     * Add variables to the model with the given bounds. The lower bound has to be finite.
+     */
+    void addVariables(int numVariables, double lowerBound, double upperBound, boolean integer) throws SolverException;
+
+    /**
+     * Change the bounds of a variable that was already added, like when it can be fixed. The lower bound has to be
+     * finite.
+     */
+    void setBounds(int variable, double lowerBound, double upperBound) throws SolverException;
+
+    /**
+     * Add the constraint sum(coefficients[k] * x[variables[k]]) <= rhs, or >= rhs if it isn't less than.
+     */
+    void addConstraint(int[] variables, double[] coefficients, boolean lessThan, double rhs) throws SolverException;
+
+    /**
+     * Set the coefficients of the function we are maximizing. Calling this again replaces the old coefficients.
+     */
+    void setObjective(double[] coefficients) throws SolverException;
+
+    /**
+     * Give the next solve a solution to start from, like the one from the last iteration. This is only a hint, so if it
+     * isn't feasible it is ignored. It only applies to the next solve.
+     */
+    void setStart(double[] values) throws SolverException;
+
+    /**
+     * Solve the model. Returns false if no feasible solution was found.
+     */
+    boolean solve() throws SolverException;
+
+    /**
+     * Whether the last solve proved its solution optimal. A solver that stops early, like at a node limit, still returns
+     * the best solution it found, but says so here.
+     */
+    boolean isOptimal() throws SolverException;
+
+    /**
+     * Get the optimal objective value from the last solve
+     */
+    double getObjectiveValue() throws SolverException;
+
+    /**
+     * Get the variable values from the last solve
+     */
+    double[] getValues() throws SolverException;
+
+    /**
+     * Get the slack of every constraint from the last solve
+     */
+    double[] getSlacks() throws SolverException;
+
+    /**
+     * Get the dual of every constraint from the last solve of a linear program, which is how much the objective goes up
+     * when the right hand side goes up by 1. That is >= 0 for <= constraints and <= 0 for >= constraints.
+     */
+    double[] getDuals() throws SolverException;
+
+    /**
+     * Get the reduced cost of every variable from the last solve of a linear program, which is how much the objective
+     * goes up when the variable goes up by 1 and the basic variables make up for it. At the optimal solution that is
+     * <= 0 for a variable at its lower bound and >= 0 for one at its upper bound.
+     */
+    double[] getReducedCosts() throws SolverException;
+
+    @Override
+    void close() throws SolverException;
+}
@@ -0,0 +1,17 @@
+package com.digit.app.solver;
+
+/**
+ * Something went wrong inside of a solver. This wraps the solver specific exceptions so callers don't need to know
+ * which solver they are using.
+ */
+public class SolverException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    public SolverException(String message) {
+        super(message);
+    }
+
+    public SolverException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,43 @@
+package com.digit.app.solver;
+
+/**
+ * The solvers we can build models with
+ */
+public enum SolverType {
+    /**
+     * IBM CPLEX. This needs the CPLEX jar and native library along with a license.
+     */
+    CPLEX {
+        @Override
+        public Solver create() throws SolverException {
+            return new CplexSolver();
+        }
+    },
+
+    /**
+     * Our own bounded simplex with branch and bound. This doesn't need anything installed.
+     */
+    JAVA {
+        @Override
+        public Solver create() throws SolverException {
+            return new JavaSolver();
+        }
+    };
+
+    /**
+     * The system property used to pick the solver. ie, -Dsolver=java
+     */
+    public static final String PROPERTY = "solver";
+
+    /**
+     * Create a new, empty model for this solver
+     */
+    public abstract Solver create() throws SolverException;
+
+    /**
+     * Get the solver chosen through the system property. CPLEX is used if nothing was chosen.
+     */
+    public static SolverType fromSystemProperty() {
+        return SolverType.valueOf(System.getProperty(PROPERTY, CPLEX.name()).toUpperCase());
+    }
+}
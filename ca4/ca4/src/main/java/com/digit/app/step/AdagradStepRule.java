@@ -0,0 +1,49 @@
+package com.digit.app.step;
+
+import com.digit.app.RoundCheckpoint;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * ADAGRAD style steps where every multiplier gets its own step. Each coordinate of the subgradient is divided by the
+ * root of the sum of its squares so far, so multipliers whose constraints keep getting big violations slow down while
+ * the rest keep moving. The overall length still comes from e * (L(u) - bound) / ||subgradient||.
+ */
+class AdagradStepRule extends HalvingStepRule {
+    private double[] sumOfSquares;
+
+    @Override
+    public double step(double lagrangianValue, double bound, double[] subgradient, double[] direction) {
+        if (sumOfSquares == null) {
+            sumOfSquares = new double[subgradient.length];
+        }
+
+        double normSquared = 0;
+        for (int i = 0; i < subgradient.length; i++) {
+            sumOfSquares[i] = sumOfSquares[i] + subgradient[i] * subgradient[i];
+            direction[i] = sumOfSquares[i] > 0 ? subgradient[i] / Math.sqrt(sumOfSquares[i]) : 0;
+            normSquared = normSquared + subgradient[i] * subgradient[i];
+        }
+
+        // With nowhere to move, don't move
+        if (normSquared == 0) {
+            return 0;
+        }
+
+        return getE() * (lagrangianValue - bound) / Math.sqrt(normSquared);
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        super.writeState(out);
+        RoundCheckpoint.writeDoubles(out, sumOfSquares);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        super.readState(in);
+        sumOfSquares = RoundCheckpoint.readDoubles(in);
+    }
+}
@@ -0,0 +1,53 @@
+package com.digit.app.step;
+
+import com.digit.app.LagrangianRelaxation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Camerini, Fratta and Maffioli's deflected subgradient. The direction is the subgradient plus part of the last
+ * direction, which only kicks in when the two point away from each other. This cuts down on the zig-zagging you get
+ * when the subgradient keeps flipping between two faces.
+ */
+class DeflectedStepRule extends HalvingStepRule {
+    /**
+     * How much of the last direction to keep. 1.5 is what Camerini, Fratta and Maffioli recommend.
+     */
+    private static final double GAMMA = 1.5;
+
+    private boolean first = true;
+
+    @Override
+    public double step(double lagrangianValue, double bound, double[] subgradient, double[] direction) {
+        // d = g + beta * d_last where beta = max(0, -gamma * g.d_last / ||d_last||^2)
+        double beta = 0;
+        if (!first) {
+            double lastNormSquared = dot(direction, direction);
+            if (lastNormSquared > 0) {
+                beta = Math.max(0, -GAMMA * dot(subgradient, direction) / lastNormSquared);
+            }
+        }
+        first = false;
+
+        for (int i = 0; i < subgradient.length; i++) {
+            direction[i] = subgradient[i] + beta * direction[i];
+        }
+
+        return LagrangianRelaxation.stepValue(getE(), direction, lagrangianValue, bound);
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        // The last direction is in the workspace, which the checkpoint keeps on its own
+        super.writeState(out);
+        out.writeBoolean(first);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        super.readState(in);
+        first = in.readBoolean();
+    }
+}
@@ -0,0 +1,73 @@
+package com.digit.app.step;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The textbook diminishing series. The multipliers move a distance of a / k on iteration k, which adds up to infinity
+ * but goes to zero, so it converges without needing a good bound. a is the length of the first Polyak step, or a small
+ * part of L(u) if the bound isn't below it yet, so the series never starts at 0.
+ */
+class DiminishingStepRule implements StepRule {
+    /**
+     * Stop once the distance is this fraction of the first one
+     */
+    private static final double BREAK_IF_FRACTION_LESS_THAN = 0.0005;
+
+    /**
+     * The smallest gap the first length is taken from, as a fraction of L(u)
+     */
+    private static final double MIN_RELATIVE_GAP = 1e-3;
+
+    private double firstLength = Double.NaN;
+    private int iteration = 0;
+
+    @Override
+    public double step(double lagrangianValue, double bound, double[] subgradient, double[] direction) {
+        double normSquared = 0;
+        for (int i = 0; i < subgradient.length; i++) {
+            direction[i] = subgradient[i];
+            normSquared = normSquared + subgradient[i] * subgradient[i];
+        }
+        // With nowhere to move, don't move, and wait for a subgradient to take the first length from
+        if (normSquared == 0) {
+            return 0;
+        }
+        double norm = Math.sqrt(normSquared);
+
+        if (Double.isNaN(firstLength)) {
+            double gap = Math.max(lagrangianValue - bound, MIN_RELATIVE_GAP * Math.max(1, Math.abs(lagrangianValue)));
+            firstLength = gap / norm;
+        }
+
+        return firstLength * getE() / norm;
+    }
+
+    @Override
+    public void record(boolean improved) {
+        iteration++;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return getE() <= BREAK_IF_FRACTION_LESS_THAN;
+    }
+
+    @Override
+    public double getE() {
+        return 1.0 / (iteration + 1);
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeDouble(firstLength);
+        out.writeInt(iteration);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        firstLength = in.readDouble();
+        iteration = in.readInt();
+    }
+}
@@ -0,0 +1,67 @@
+package com.digit.app.step;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The epsilon schedule we have always used: start epsilon at 1.5, halve it when L(u) hasn't gone down for 4
+ * iterations in a row, and stop once it is below 0.0005.
+ */
+abstract class HalvingStepRule implements StepRule {
+    // Make epsilon 1.5 because that is what the research says is a good way to start
+    private static final double START_E = 1.5;
+
+    private static final int ITERATIONS_UNTIL_DECREASE = 4;
+    private static final double FRACTION_OF_E_IF_NO_DECREASE = 0.5;
+
+    private static final double BREAK_IF_E_LESS_THAN = 0.0005;
+
+    private double e = START_E;
+    private int iterationsSinceImprovement = 0;
+
+    @Override
+    public void record(boolean improved) {
+        iterationsSinceImprovement++;
+        if (improved) {
+            iterationsSinceImprovement = 0;
+        }
+
+        // If we haven't improved in T iterations, half e
+        if (iterationsSinceImprovement >= ITERATIONS_UNTIL_DECREASE) {
+            iterationsSinceImprovement = 0;
+            e = e * FRACTION_OF_E_IF_NO_DECREASE;
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return e <= BREAK_IF_E_LESS_THAN;
+    }
+
+    @Override
+    public double getE() {
+        return e;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeDouble(e);
+        out.writeInt(iterationsSinceImprovement);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        e = in.readDouble();
+        iterationsSinceImprovement = in.readInt();
+    }
+
+    static double dot(double[] a, double[] b) {
+        double value = 0;
+        for (int i = 0; i < a.length; i++) {
+            value = value + a[i] * b[i];
+        }
+
+        return value;
+    }
+}
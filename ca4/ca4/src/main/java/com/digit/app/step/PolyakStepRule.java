@@ -0,0 +1,16 @@
+package com.digit.app.step;
+
+import com.digit.app.LagrangianRelaxation;
+
+/**
+ * The rule we started with. The step is e * (L(u) - bound) / ||subgradient||^2 and we move along the subgradient.
+ */
+class PolyakStepRule extends HalvingStepRule {
+
+    @Override
+    public double step(double lagrangianValue, double bound, double[] subgradient, double[] direction) {
+        System.arraycopy(subgradient, 0, direction, 0, subgradient.length);
+
+        return LagrangianRelaxation.stepValue(getE(), subgradient, lagrangianValue, bound);
+    }
+}
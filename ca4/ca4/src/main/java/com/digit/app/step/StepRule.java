@@ -0,0 +1,50 @@
+package com.digit.app.step;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Decides how far to move the lagrange multipliers on each iteration of a round. The multipliers are moved with
+ * u = max(0, u + step * direction), where the rule picks both the step and the direction. A new rule is created for
+ * every round since most of them keep state between iterations.
+ */
+public interface StepRule {
+
+    /**
+     * Get the step for this iteration and write the direction to move in. The direction array is reused between
+     * iterations, so rules like the deflected one can read the last direction from it.
+     *
+     * @param lagrangianValue The value of L(u) for this iteration
+     * @param bound The best value we have for the original problem
+     * @param subgradient The subgradient at the x from this iteration
+     * @param direction Where the direction gets written
+     */
+    double step(double lagrangianValue, double bound, double[] subgradient, double[] direction);
+
+    /**
+     * Tell the rule whether L(u) went down this iteration. Rules that shrink their step when we stop improving use
+     * this.
+     */
+    void record(boolean improved);
+
+    /**
+     * Has the step gotten too small to keep going
+     */
+    boolean isFinished();
+
+    /**
+     * The current scale of the step, which is epsilon for the Polyak style rules
+     */
+    double getE();
+
+    /**
+     * Write everything the rule keeps between iterations, so that a round can be resumed from a checkpoint
+     */
+    void writeState(DataOutput out) throws IOException;
+
+    /**
+     * Put back what {@link #writeState(DataOutput)} wrote, into a rule that was just created
+     */
+    void readState(DataInput in) throws IOException;
+}
@@ -0,0 +1,73 @@
+package com.digit.app.step;
+
+/**
+ * The step rules that a run can use
+ */
+public enum StepRuleType {
+    /**
+     * e * (L(u) - bound) / ||g||^2 with e halved when we stop improving. This is what we have always used.
+     */
+    POLYAK {
+        @Override
+        public StepRule create() {
+            return new PolyakStepRule();
+        }
+    },
+
+    /**
+     * Polyak steps toward a target below the best L(u) that gets closer as we stop improving
+     */
+    TARGET {
+        @Override
+        public StepRule create() {
+            return new TargetValueStepRule();
+        }
+    },
+
+    /**
+     * Move a / k on iteration k
+     */
+    DIMINISHING {
+        @Override
+        public StepRule create() {
+            return new DiminishingStepRule();
+        }
+    },
+
+    /**
+     * Camerini-Fratta-Maffioli deflected subgradient
+     */
+    DEFLECTED {
+        @Override
+        public StepRule create() {
+            return new DeflectedStepRule();
+        }
+    },
+
+    /**
+     * A step per multiplier scaled by the history of its subgradient
+     */
+    ADAGRAD {
+        @Override
+        public StepRule create() {
+            return new AdagradStepRule();
+        }
+    };
+
+    /**
+     * The system property used to pick the step rule. ie, -Dstep=deflected
+     */
+    public static final String PROPERTY = "step";
+
+    /**
+     * Create the rule for a new round
+     */
+    public abstract StepRule create();
+
+    /**
+     * Get the rule chosen through the system property. Polyak is used if nothing was chosen.
+     */
+    public static StepRuleType fromSystemProperty() {
+        return StepRuleType.valueOf(System.getProperty(PROPERTY, POLYAK.name()).toUpperCase());
+    }
+}
@@ -0,0 +1,87 @@
+package com.digit.app.step;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Polyak steps toward a target that moves. The target is the best L(u) so far minus delta, but never below the bound
+ * we already have. Delta is halved whenever L(u) hasn't reached the target for a few iterations, and we stop once it
+ * is tiny compared to L(u). Unlike the plain Polyak rule, this doesn't need the bound to be close to the optimal value
+ * to converge.
+ */
+class TargetValueStepRule implements StepRule {
+    private static final int ITERATIONS_UNTIL_DECREASE = 4;
+    private static final double FRACTION_OF_DELTA_IF_NO_DECREASE = 0.5;
+
+    /**
+     * Stop once delta is this fraction of L(u)
+     */
+    private static final double RELATIVE_TOLERANCE = 1e-7;
+
+    private double bestLagrangianValue = Double.POSITIVE_INFINITY;
+    private double delta = Double.NaN;
+    private int iterationsSinceImprovement = 0;
+
+    @Override
+    public double step(double lagrangianValue, double bound, double[] subgradient, double[] direction) {
+        // Start delta at half the gap between L(u) and the bound
+        if (Double.isNaN(delta)) {
+            delta = Math.max(0.5 * (lagrangianValue - bound), RELATIVE_TOLERANCE * Math.max(1, Math.abs(lagrangianValue)));
+        }
+
+        // It counts as reaching the target if it went down by at least half of delta
+        if (lagrangianValue <= bestLagrangianValue - 0.5 * delta) {
+            iterationsSinceImprovement = 0;
+        }
+        bestLagrangianValue = Math.min(bestLagrangianValue, lagrangianValue);
+
+        double target = Math.max(bound, bestLagrangianValue - delta);
+
+        double normSquared = 0;
+        for (int i = 0; i < subgradient.length; i++) {
+            direction[i] = subgradient[i];
+            normSquared = normSquared + subgradient[i] * subgradient[i];
+        }
+
+        // With nowhere to move, don't move
+        if (normSquared == 0) {
+            return 0;
+        }
+
+        return (lagrangianValue - target) / normSquared;
+    }
+
+    @Override
+    public void record(boolean improved) {
+        iterationsSinceImprovement++;
+        if (iterationsSinceImprovement >= ITERATIONS_UNTIL_DECREASE) {
+            iterationsSinceImprovement = 0;
+            delta = delta * FRACTION_OF_DELTA_IF_NO_DECREASE;
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return delta <= RELATIVE_TOLERANCE * Math.max(1, Math.abs(bestLagrangianValue));
+    }
+
+    @Override
+    public double getE() {
+        return delta;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeDouble(bestLagrangianValue);
+        out.writeDouble(delta);
+        out.writeInt(iterationsSinceImprovement);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        bestLagrangianValue = in.readDouble();
+        delta = in.readDouble();
+        iterationsSinceImprovement = in.readInt();
+    }
+}
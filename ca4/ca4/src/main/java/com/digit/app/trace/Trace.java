@@ -0,0 +1,167 @@
+package com.digit.app.trace;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * The structured trace for the relaxation engine. Records are written to a CSV file by a background thread, so the
+ * hot loop only copies a few numbers instead of formatting text. The round and iteration are tracked per thread, so
+ * rounds running at the same time don't get mixed up.
+ *
+ * The old console output is still available by turning on debug mode with -Ddebug=true.
+ *
+ * Recording is called from the hot loop, so a failure to write the trace is thrown as an {@link UncheckedIOException}.
+ */
+public class Trace {
+    /**
+     * The system property for the file the trace goes to. ie, -Dtrace.file=trace.csv
+     */
+    public static final String FILE_PROPERTY = "trace.file";
+
+    /**
+     * The system property for printing everything to the console like we used to. ie, -Ddebug=true
+     */
+    public static final String DEBUG_PROPERTY = "debug";
+
+    private static final int NUM_RECORDS = 8192;
+
+    private static final boolean DEBUG = Boolean.getBoolean(DEBUG_PROPERTY);
+
+    private static final ThreadLocal<int[]> CONTEXT = ThreadLocal.withInitial(() -> new int[2]);
+
+    private static volatile TraceLevel level = TraceLevel.OFF;
+    private static volatile TraceWriter writer;
+
+    /**
+     * Start tracing at the level and to the file chosen through the system properties
+     */
+    public static void startFromSystemProperties(int vectorCapacity) throws IOException {
+        start(TraceLevel.fromSystemProperty(), Path.of(System.getProperty(FILE_PROPERTY, "trace.csv")), vectorCapacity);
+    }
+
+    /**
+     * Start tracing. The vector capacity should be the longest vector that will be traced so records never need to
+     * grow.
+     */
+    public static synchronized void start(TraceLevel newLevel, Path path, int vectorCapacity) throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("The trace was already started");
+        }
+
+        if (newLevel != TraceLevel.OFF) {
+            writer = new TraceWriter(path, NUM_RECORDS, vectorCapacity);
+        }
+        level = newLevel;
+    }
+
+    /**
+     * Finish writing the trace
+     */
+    public static synchronized void close() throws IOException {
+        level = TraceLevel.OFF;
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    /**
+     * Should the old pretty printing go to the console
+     */
+    public static boolean isDebug() {
+        return DEBUG;
+    }
+
+    public static boolean isEnabled(TraceEvent event) {
+        return event.getLevel().compareTo(level) <= 0;
+    }
+
+    /**
+     * Set the round and iteration that records from this thread belong to
+     */
+    public static void setContext(int round, int iteration) {
+        int[] context = CONTEXT.get();
+        context[0] = round;
+        context[1] = iteration;
+    }
+
+    /**
+     * Record a scalar event. Only the first {@link TraceEvent#getWidth()} values are kept.
+     */
+    public static void record(TraceEvent event, double v0, double v1, double v2, double v3, double v4) {
+        if (!isEnabled(event)) {
+            return;
+        }
+
+        TraceRecord record = acquire(event);
+        if (record == null) {
+            return;
+        }
+
+        double[] values = record.values;
+        int width = event.getWidth();
+        record.length = width;
+        if (width > 0) values[0] = v0;
+        if (width > 1) values[1] = v1;
+        if (width > 2) values[2] = v2;
+        if (width > 3) values[3] = v3;
+        if (width > 4) values[4] = v4;
+
+        publish(record);
+    }
+
+    /**
+     * Record a vector event. The vector is copied so the caller can keep changing it.
+     */
+    public static void record(TraceEvent event, double[] vector) {
+        if (!isEnabled(event)) {
+            return;
+        }
+
+        TraceRecord record = acquire(event);
+        if (record == null) {
+            return;
+        }
+
+        record.ensureCapacity(vector.length);
+        System.arraycopy(vector, 0, record.values, 0, vector.length);
+        record.length = vector.length;
+
+        publish(record);
+    }
+
+    private static TraceRecord acquire(TraceEvent event) {
+        TraceWriter current = writer;
+        if (current == null) {
+            return null;
+        }
+
+        try {
+            TraceRecord record = current.acquire();
+            int[] context = CONTEXT.get();
+            record.event = event;
+            record.round = context[0];
+            record.iteration = context[1];
+            return record;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private static void publish(TraceRecord record) {
+        TraceWriter current = writer;
+        if (current == null) {
+            return;
+        }
+
+        try {
+            current.publish(record);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
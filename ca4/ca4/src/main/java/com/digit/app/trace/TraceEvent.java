@@ -0,0 +1,65 @@
+package com.digit.app.trace;
+
+import lombok.Getter;
+
+/**
+ * The kinds of records in the trace. Scalar events always have the same columns, which are listed here. Vector events
+ * have one column per entry in the vector.
+ */
+@Getter
+public enum TraceEvent {
+    /**
+     * numMultipliers, upperBound, e
+     */
+    ROUND_START(TraceLevel.ROUND, 3),
+
+    /**
+     * finalIteration, bestSolutionFoundIteration, lagrangianOptimal, upperBound
+     */
+    ROUND_END(TraceLevel.ROUND, 4),
+
+    /**
+     * lagrangianValue, originalProblemValue, upperBound, violationSquared
+     */
+    ITERATION(TraceLevel.ITERATION, 4),
+
+    /**
+     * e, lagrangianValue, upperBound, euclideanNorm, step
+     */
+    STEP(TraceLevel.ITERATION, 5),
+
+    /**
+     * The c vector after the lagrange multipliers were applied
+     */
+    OBJECTIVE(TraceLevel.DETAIL, -1),
+
+    /**
+     * The lagrange multipliers used for the iteration
+     */
+    MULTIPLIERS(TraceLevel.DETAIL, -1),
+
+    /**
+     * The x from the subproblem
+     */
+    SOLUTION(TraceLevel.DETAIL, -1),
+
+    /**
+     * The subgradient at x
+     */
+    SUBGRADIENT(TraceLevel.DETAIL, -1);
+
+    /**
+     * The lowest level that this gets written at
+     */
+    private final TraceLevel level;
+
+    /**
+     * The number of scalar columns, or -1 if this holds a vector
+     */
+    private final int width;
+
+    TraceEvent(TraceLevel level, int width) {
+        this.level = level;
+        this.width = width;
+    }
+}
@@ -0,0 +1,38 @@
+package com.digit.app.trace;
+
+/**
+ * How much gets written to the trace. Each level includes everything from the levels before it.
+ */
+public enum TraceLevel {
+    /**
+     * Nothing is written
+     */
+    OFF,
+
+    /**
+     * One record at the start and end of each round
+     */
+    ROUND,
+
+    /**
+     * The scalars for every iteration (bounds, step size, epsilon)
+     */
+    ITERATION,
+
+    /**
+     * The vectors for every iteration too (multipliers, objective, x, subgradient)
+     */
+    DETAIL;
+
+    /**
+     * The system property used to pick the level. ie, -Dtrace=iteration
+     */
+    public static final String PROPERTY = "trace";
+
+    /**
+     * Get the level chosen through the system property. Nothing is traced if nothing was chosen.
+     */
+    public static TraceLevel fromSystemProperty() {
+        return TraceLevel.valueOf(System.getProperty(PROPERTY, OFF.name()).toUpperCase());
+    }
+}
@@ -0,0 +1,27 @@
+package com.digit.app.trace;
+
+/**
+ * A single line of the trace. These are allocated once up front and then reused, so tracing doesn't create garbage
+ * on every iteration.
+ */
+class TraceRecord {
+    TraceEvent event;
+    int round;
+    int iteration;
+    int length;
+    double[] values;
+
+    TraceRecord(int capacity) {
+        this.values = new double[capacity];
+    }
+
+    /**
+     * Make sure there is room for a vector of this size. This only allocates if the vector is bigger than anything
+     * this record has held before.
+     */
+    void ensureCapacity(int size) {
+        if (values.length < size) {
+            values = new double[size];
+        }
+    }
+}
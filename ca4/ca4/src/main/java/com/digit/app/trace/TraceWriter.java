@@ -0,0 +1,129 @@
+package com.digit.app.trace;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes trace records to a CSV file on a background thread. Records go around in a loop: the caller takes an empty
+ * one from the free queue, fills it in, and puts it on the filled queue. The writer thread turns it into text and puts
+ * it back on the free queue. If the writer falls behind, callers wait for a free record instead of records being lost.
+ * If the writer fails, it stops handing records back, so callers get its IOException instead of waiting forever.
+ */
+class TraceWriter implements AutoCloseable {
+    private static final long IDLE_FLUSH_MILLIS = 500;
+
+    private final BlockingQueue<TraceRecord> free;
+    private final BlockingQueue<TraceRecord> filled;
+    private final TraceRecord stop = new TraceRecord(0);
+    private final Writer out;
+    private final Thread thread;
+
+    private volatile IOException failure;
+
+    TraceWriter(Path path, int numRecords, int vectorCapacity) throws IOException {
+        this.free = new ArrayBlockingQueue<>(numRecords);
+        this.filled = new ArrayBlockingQueue<>(numRecords + 1);
+        for (int i = 0; i < numRecords; i++) {
+            free.add(new TraceRecord(vectorCapacity));
+        }
+
+        this.out = new BufferedWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8), 1 << 16);
+        this.out.write("event,round,iteration,values\n");
+
+        this.thread = new Thread(this::run, "trace-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    TraceRecord acquire() throws IOException, InterruptedException {
+        while (true) {
+            checkFailure();
+            TraceRecord record = free.poll(IDLE_FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+            if (record != null) {
+                return record;
+            }
+
+            // Nothing is coming back if the writer is gone
+            if (!thread.isAlive()) {
+                checkFailure();
+                throw new IOException("The trace writer stopped");
+            }
+        }
+    }
+
+    void publish(TraceRecord record) throws InterruptedException {
+        filled.put(record);
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                TraceRecord record = filled.poll(IDLE_FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+
+                // Nothing has come in for a while so make sure what we have is on disk
+                if (record == null) {
+                    out.flush();
+                    continue;
+                }
+
+                if (record == stop) {
+                    break;
+                }
+
+                write(record);
+                free.put(record);
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(TraceRecord record) throws IOException {
+        out.write(record.event.name());
+        out.write(',');
+        out.write(Integer.toString(record.round));
+        out.write(',');
+        out.write(Integer.toString(record.iteration));
+        for (int i = 0; i < record.length; i++) {
+            out.write(',');
+            out.write(Double.toString(record.values[i]));
+        }
+        out.write('\n');
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("Could not write the trace", failure);
+        }
+    }
+
+    /**
+     * Write out everything that was published and close the file. If this is interrupted, the thread's interrupt flag
+     * is set again and the file is left to the writer thread.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            filled.put(stop);
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while finishing the trace");
+        }
+        out.close();
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
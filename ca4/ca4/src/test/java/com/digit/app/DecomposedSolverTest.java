@@ -0,0 +1,128 @@
+package com.digit.app;
+
+import com.digit.app.data.Constraints;
+import com.digit.app.data.SparseMatrix;
+import com.digit.app.solver.Solver;
+import com.digit.app.solver.SolverException;
+import com.digit.app.solver.SolverType;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+public class DecomposedSolverTest {
+    private static final Offset<Double> TOLERANCE = Offset.offset(1e-6);
+
+    @Test
+    public void findBlocksTest() {
+        // Rows 0 and 2 share x3, row 1 only has x1 and x4 is in no row
+        int[][] A = {
+                {1, 0, 0, 2, 0},
+                {0, 3, 0, 0, 0},
+                {0, 0, 1, 1, 0},
+                {0, 0, 0, 0, 0}
+        };
+        Constraints constraints = new Constraints(A, new int[] {4, 5, 6, 0}, new boolean[] {true, true, false, true});
+
+        List<Constraints.Block> blocks = constraints.findBlocks();
+
+        // The biggest block comes first and the block without constraints is last, with the empty row
+        Assertions.assertThat(blocks).hasSize(3);
+        Assertions.assertThat(blocks.get(0).getVariables()).containsExactly(0, 2, 3);
+        Assertions.assertThat(blocks.get(0).getRows()).containsExactly(0, 2);
+        Assertions.assertThat(blocks.get(1).getVariables()).containsExactly(1);
+        Assertions.assertThat(blocks.get(1).getRows()).containsExactly(1);
+        Assertions.assertThat(blocks.get(2).getVariables()).containsExactly(4);
+        Assertions.assertThat(blocks.get(2).getRows()).containsExactly(3);
+
+        // The block's rows use the variables' places in the block
+        Constraints first = blocks.get(0).getConstraints();
+        Assertions.assertThat(first.getA().rowColumns(0)).containsExactly(0, 2);
+        Assertions.assertThat(first.getA().rowValues(1)).containsExactly(1, 1);
+        Assertions.assertThat(first.getB()).containsExactly(4, 6);
+        Assertions.assertThat(first.getAlessThanb()).containsExactly(true, false);
+    }
+
+    @Test
+    public void matchesJavaSolverTest() throws SolverException {
+        Random random = new Random(23);
+
+        for (int instance = 0; instance < 40; instance++) {
+            // A few blocks of two rows each on their own variables, in shuffled order so the blocks interleave
+            int numBlocks = 2 + random.nextInt(3);
+            int numVariables = 3 * numBlocks + 1;
+            int numRows = 2 * numBlocks;
+            int[] order = shuffled(numVariables, random);
+            SparseMatrix.Builder builder = SparseMatrix.builder(numVariables);
+            double[][] dense = new double[numRows][numVariables];
+            int[] b = new int[numRows];
+            boolean[] lessThan = new boolean[numRows];
+            for (int i = 0; i < numRows; i++) {
+                for (int k = 0; k < 3; k++) {
+                    dense[i][order[3 * (i / 2) + k]] = random.nextInt(21) - 5;
+                }
+                for (int j = 0; j < numVariables; j++) {
+                    builder.add(j, dense[i][j]);
+                }
+                builder.endRow();
+                b[i] = random.nextInt(20);
+                lessThan[i] = random.nextDouble() < 0.7;
+            }
+            Constraints constraints = new Constraints(builder.build(), b, lessThan);
+            double[] c = new double[numVariables];
+            for (int j = 0; j < numVariables; j++) {
+                c[j] = random.nextInt(16) - 5 + random.nextDouble();
+            }
+
+            // Both with the pool and one block at a time
+            int numThreads = 1 + instance % 2;
+            try (DecomposedSolver decomposed = new DecomposedSolver(constraints, SolverType.JAVA, numThreads);
+                 Solver java = SolverType.JAVA.create()) {
+                for (var solver: List.of(decomposed, java)) {
+                    solver.addVariables(numVariables, 0, 4, true);
+                    constraints.addToSolver(solver, numVariables);
+                    solver.setObjective(c);
+                }
+                Assertions.assertThat(decomposed.getNumBlocks()).isGreaterThan(1);
+
+                boolean feasible = java.solve();
+                Assertions.assertThat(decomposed.solve()).isEqualTo(feasible);
+                if (!feasible) {
+                    continue;
+                }
+
+                Assertions.assertThat(decomposed.getObjectiveValue()).isCloseTo(java.getObjectiveValue(), TOLERANCE);
+
+                // The values and slacks are back in the original order
+                double[] values = decomposed.getValues();
+                double[] slacks = decomposed.getSlacks();
+                double objective = 0;
+                for (int j = 0; j < numVariables; j++) {
+                    objective = objective + c[j] * values[j];
+                }
+                Assertions.assertThat(objective).isCloseTo(decomposed.getObjectiveValue(), TOLERANCE);
+                for (int i = 0; i < numRows; i++) {
+                    double activity = constraints.getA().rowDot(i, values);
+                    Assertions.assertThat(slacks[i]).isCloseTo(lessThan[i] ? b[i] - activity : activity - b[i], TOLERANCE);
+                }
+            }
+        }
+    }
+
+    private static int[] shuffled(int size, Random random) {
+        int[] order = new int[size];
+        for (int j = 0; j < size; j++) {
+            order[j] = j;
+        }
+        for (int j = size - 1; j > 0; j--) {
+            int other = random.nextInt(j + 1);
+            int swap = order[j];
+            order[j] = order[other];
+            order[other] = swap;
+        }
+
+        return order;
+    }
+}
@@ -0,0 +1,39 @@
+package com.digit.app;
+
+import com.digit.app.data.Data;
+import com.digit.app.solver.SolverType;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.Test;
+
+public class LagrangianSubproblemTest {
+    private static final Offset<Double> TOLERANCE = Offset.offset(1e-6);
+
+    @Test
+    public void matchesFromScratchTest() throws Exception {
+        Data lagrangianData = TestInstances.small().relax(2);
+        double[][] multipliers = {{0, 0}, {1, 1}, {0.5, 3}, {4, 0.25}, {1, 1}};
+
+        // One model that only gets a new objective each time, like a round uses it
+        try (LagrangianSubproblem subproblem = new LagrangianSubproblem(lagrangianData, SolverType.JAVA)) {
+            for (double[] u: multipliers) {
+                IPSolution solution = subproblem.solve(u);
+
+                Pair<Data, Double> pair = lagrangianData.withLagrange(u);
+                double fromScratch;
+                try (LP lp = LP.integerProgram(pair.getLeft(), SolverType.JAVA)) {
+                    fromScratch = lp.getLDSolution(pair.getRight()).getOptimizationValue();
+                }
+                Assertions.assertThat(solution.getOptimizationValue()).isCloseTo(fromScratch, TOLERANCE);
+
+                // The value is c(u) * x plus the constant from the multipliers, which is only 0 when u is
+                double value = LagrangianRelaxation.originalIPOptimalValue(pair.getLeft().getOptimizationFn().getC(),
+                        solution.getVariables()) + pair.getRight();
+                Assertions.assertThat(solution.getOptimizationValue()).isCloseTo(value, TOLERANCE);
+                Assertions.assertThat(pair.getRight() != 0).isEqualTo(u[0] != 0 || u[1] != 0);
+            }
+
+            Assertions.assertThat(subproblem.getSolves()).isEqualTo(multipliers.length);
+        }
+    }
+}
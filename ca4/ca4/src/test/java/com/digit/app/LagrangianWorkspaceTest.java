@@ -0,0 +1,76 @@
+package com.digit.app;
+
+import com.digit.app.data.Data;
+import com.digit.app.data.OptimizationFunction;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+public class LagrangianWorkspaceTest {
+    private static final int[][] A = {
+            {1, 0, 2},
+            {0, 3, -1},
+            {4, 0, 0}
+    };
+    private static final int[] B = {5, 6, 7};
+    private static final boolean[] A_LESS_THAN_B = {true, false, true};
+    private static final double[] C = {1, 2, 3};
+
+    @Test
+    public void matchesAllocatingVersionTest() {
+        OptimizationFunction lagrangianFn = Data.create(A, B, A_LESS_THAN_B, C).relax(2).getOptimizationFn();
+        LagrangianWorkspace workspace = new LagrangianWorkspace(lagrangianFn);
+        workspace.fillMultipliers(1);
+        double[] u = {1, 1};
+        double[] x = {2, 0, 1};
+
+        for (int iteration = 0; iteration < 5; iteration++) {
+            Pair<OptimizationFunction, Double> expected = lagrangianFn.withLagrange(u);
+            Assertions.assertThat(workspace.getCost()).containsExactly(expected.getLeft().getC());
+            Assertions.assertThat(workspace.getConstant()).isEqualTo(expected.getRight());
+
+            double[] subgradient = lagrangianFn.getSubgradient(x);
+            workspace.updateSubgradient(x);
+            Assertions.assertThat(workspace.getSubgradient()).containsExactly(subgradient);
+
+            u = LagrangianRelaxation.newLagrangianMultipliers(u, 0.1, subgradient);
+            workspace.step(0.1);
+            Assertions.assertThat(workspace.getLagrangeMultipliers()).containsExactly(u);
+        }
+    }
+
+    @Test
+    public void steadyStateDoesNotAllocateTest() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assertions.assertThat(threads.isThreadAllocatedMemorySupported()).isTrue();
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        LagrangianWorkspace workspace = new LagrangianWorkspace(DataGenerator.create(50, 200).relax(25).getOptimizationFn());
+        workspace.fillMultipliers(1);
+        double[] x = new double[200];
+        for (int j = 0; j < x.length; j++) {
+            x[j] = j % 7;
+        }
+
+        // Let the JIT settle first
+        iterate(workspace, x, 20_000);
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        iterate(workspace, x, 20_000);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        Assertions.assertThat(allocated).isZero();
+    }
+
+    private static void iterate(LagrangianWorkspace workspace, double[] x, int iterations) {
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            workspace.updateSubgradient(x);
+            if (workspace.isSubgradientZero()) {
+                workspace.fillMultipliers(1);
+            }
+            workspace.step(1e-6);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.digit.app;
+
+import com.digit.app.data.Data;
+import com.digit.app.dual.DualEngineType;
+import com.digit.app.solver.SolverType;
+import com.digit.app.step.StepRuleType;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.Test;
+
+public class LineSearchTest {
+    private static final Offset<Double> TOLERANCE = Offset.offset(1e-6);
+
+    @Test
+    public void factorsTest() {
+        Assertions.assertThat(LineSearch.factors(5)).containsExactly(1, 0.5, 2, 0.25, 4);
+    }
+
+    @Test
+    public void lowestTest() throws Exception {
+        Data lagrangianData = DataGenerator.create(6, 10, 0.5, 7).relax(3);
+        LagrangianWorkspace workspace = new LagrangianWorkspace(lagrangianData.getOptimizationFn());
+        double[] from = {1, 1, 1};
+        double[] to = {3, 0, 2};
+        workspace.setMultipliers(to);
+
+        // Solve every step on its own to know which one is lowest
+        double lowest = Double.POSITIVE_INFINITY;
+        try (LagrangianSubproblem subproblem = new LagrangianSubproblem(lagrangianData, SolverType.JAVA)) {
+            for (double factor: LineSearch.factors(3)) {
+                double[] u = new double[from.length];
+                for (int i = 0; i < u.length; i++) {
+                    u[i] = Math.max(0, from[i] + factor * (to[i] - from[i]));
+                }
+                lowest = Math.min(lowest, subproblem.solve(u).getOptimizationValue());
+            }
+        }
+
+        try (LagrangianSubproblem subproblem = new LagrangianSubproblem(lagrangianData, SolverType.JAVA);
+             LineSearch lineSearch = new LineSearch(lagrangianData, SolverType.JAVA, 3)) {
+            IPSolution solution = lineSearch.search(subproblem, workspace, from, null);
+
+            Assertions.assertThat(solution.getOptimizationValue()).isCloseTo(lowest, TOLERANCE);
+            Assertions.assertThat(lineSearch.getSolves()).isEqualTo(2);
+            Assertions.assertThat(subproblem.getSolves()).isEqualTo(1);
+
+            // The workspace moved to the step that gave the solution
+            try (LagrangianSubproblem check = new LagrangianSubproblem(lagrangianData, SolverType.JAVA)) {
+                double value = check.solve(workspace.getLagrangeMultipliers()).getOptimizationValue();
+                Assertions.assertThat(value).isCloseTo(lowest, TOLERANCE);
+            }
+        }
+    }
+
+    @Test
+    public void tieTest() throws Exception {
+        Data lagrangianData = TestInstances.small().relax(2);
+        LagrangianWorkspace workspace = new LagrangianWorkspace(lagrangianData.getOptimizationFn());
+        double[] u = {2, 0.5};
+        workspace.setMultipliers(u.clone());
+
+        // The engine didn't move, so every step solves the same L(u) and the engine's own is kept
+        try (LagrangianSubproblem subproblem = new LagrangianSubproblem(lagrangianData, SolverType.JAVA);
+             LineSearch lineSearch = new LineSearch(lagrangianData, SolverType.JAVA, 4)) {
+            IPSolution solution = lineSearch.search(subproblem, workspace, u, null);
+
+            Assertions.assertThat(solution.getOptimizationValue())
+                    .isCloseTo(subproblem.solve(u).getOptimizationValue(), TOLERANCE);
+            Assertions.assertThat(workspace.getLagrangeMultipliers()).containsExactly(u);
+            Assertions.assertThat(lineSearch.getImprovements()).isZero();
+            Assertions.assertThat(lineSearch.getSearches()).isEqualTo(1);
+        }
+
+        Assertions.assertThatThrownBy(() -> new LineSearch(lagrangianData, SolverType.JAVA, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void roundTest() throws Exception {
+        Data data = TestInstances.small();
+        RoundSettings settings = new RoundSettings(SolverType.JAVA, StepRuleType.POLYAK, DualEngineType.VOLUME,
+                RoundSettings.NO_GAP_TOLERANCE, null, RoundCheckpoint.DEFAULT_EVERY, false, false, 3);
+        RoundResult result = new LagrangianRound(2, data, settings, false).call();
+
+        // The other steps were solved on top of the engine's own
+        Assertions.assertThat(result.getSolves()).isGreaterThan(result.getTable2().getFinalIteration());
+    }
+}
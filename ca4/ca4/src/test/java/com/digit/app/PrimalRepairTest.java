@@ -0,0 +1,63 @@
+package com.digit.app;
+
+import com.digit.app.data.Constraints;
+import com.digit.app.data.Data;
+import com.digit.app.dual.DualEngineType;
+import com.digit.app.solver.SolverType;
+import com.digit.app.step.StepRuleType;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PrimalRepairTest {
+    @Test
+    public void repairTest() {
+        Constraints constraints = new Constraints(TestInstances.A, TestInstances.B, TestInstances.A_LESS_THAN_B);
+        PrimalRepair repair = new PrimalRepair(constraints, TestInstances.C);
+
+        // This breaks every <= row
+        assertFeasible(constraints, repair.repair(new double[]{10, 10, 10, 10}));
+
+        // and this only breaks the >= row
+        assertFeasible(constraints, repair.repair(new double[]{0, 0, 0, 0}));
+    }
+
+    @Test
+    public void unrepairableTest() {
+        // x1 can't get past 500, so no move fixes the >= row
+        Constraints constraints = new Constraints(new int[][]{{1, 0}, {1, 1}}, new int[]{600, 700},
+                new boolean[]{false, true});
+        PrimalRepair repair = new PrimalRepair(constraints, new double[]{1, 1});
+
+        Assertions.assertThat(repair.repair(new double[]{0, 0})).isNull();
+    }
+
+    @Test
+    public void roundStopsOnGapTest() throws Exception {
+        Data data = TestInstances.small();
+        RoundSettings settings = new RoundSettings(SolverType.JAVA, StepRuleType.POLYAK, DualEngineType.SUBGRADIENT,
+                0.2);
+        RoundResult result = new LagrangianRound(1, data, settings, false).call();
+
+        // The repaired solution is feasible, so its value is a real lower bound, and it got close enough to stop
+        Assertions.assertThat(result.isExactDualBound()).isTrue();
+        assertFeasible(data.getConstraints(), result.getPrimalSolution());
+        Assertions.assertThat(result.getPrimalBound()).isLessThanOrEqualTo(TestInstances.smallOptimum());
+        Assertions.assertThat(LagrangianRelaxation.relativeGap(result.getDualBound(), result.getPrimalBound(), true))
+                .isLessThanOrEqualTo(0.2);
+    }
+
+    private static void assertFeasible(Constraints constraints, double[] x) {
+        Assertions.assertThat(x).isNotNull();
+        for (int i = 0; i < constraints.getNumConstraints(); i++) {
+            double activity = constraints.getA().rowDot(i, x);
+            if (constraints.getAlessThanb()[i]) {
+                Assertions.assertThat(activity).isLessThanOrEqualTo(constraints.getB()[i]);
+            } else {
+                Assertions.assertThat(activity).isGreaterThanOrEqualTo(constraints.getB()[i]);
+            }
+        }
+        for (double value: x) {
+            Assertions.assertThat(value).isBetween(0.0, 500.0).isEqualTo(Math.rint(value));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.digit.app;
+
+import com.digit.app.data.Data;
+import com.digit.app.dual.DualEngineType;
+import com.digit.app.solver.SolverType;
+import com.digit.app.step.StepRuleType;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class RaceTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void boundsTest() throws InterruptedException {
+        Race race = new Race();
+
+        // Every thread offers its own values, so the best ones have to survive all of the others
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            threads.add(new Thread(() -> {
+                for (int k = 0; k < 10_000; k++) {
+                    race.offerDualBound(100 - (k % 50) - offset);
+                    race.offerPrimalBound((k % 50) + offset);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread: threads) {
+            thread.join();
+        }
+
+        Assertions.assertThat(race.getDualBound()).isEqualTo(48);
+        Assertions.assertThat(race.getPrimalBound()).isEqualTo(52);
+        Assertions.assertThat(race.finish()).isTrue();
+        Assertions.assertThat(race.finish()).isFalse();
+        Assertions.assertThat(race.isFinished()).isTrue();
+    }
+
+    @Test
+    public void roundRaceTest() throws Exception {
+        Data data = TestInstances.small();
+        RoundSettings settings = new RoundSettings(SolverType.JAVA, StepRuleType.POLYAK, DualEngineType.SUBGRADIENT);
+        RoundResult result = new RoundRace(1, data, settings, 4).call();
+
+        // The best feasible solution can come from a different run than the lowest L(u), but it comes with its value
+        Assertions.assertThat(result.getRound()).isEqualTo(1);
+        Assertions.assertThat(result.getPrimalSolution()).isNotNull();
+        Assertions.assertThat(LagrangianRelaxation.originalIPOptimalValue(TestInstances.C, result.getPrimalSolution()))
+                .isEqualTo(result.getPrimalBound());
+
+        // and every run's solves count toward the round
+        Assertions.assertThat(result.getSolves()).isGreaterThan(result.getTable2().getFinalIteration());
+    }
+
+    @Test
+    public void gapTest() throws Exception {
+        Data data = TestInstances.small();
+        RoundSettings settings = new RoundSettings(SolverType.JAVA, StepRuleType.POLYAK, DualEngineType.SUBGRADIENT,
+                0.2);
+        RoundResult result = new RoundRace(1, data, settings, 4).call();
+
+        // The race stops once the best bounds of all the runs are close enough
+        Assertions.assertThat(result.isExactDualBound()).isTrue();
+        Assertions.assertThat(LagrangianRelaxation.relativeGap(result.getDualBound(), result.getPrimalBound(), true))
+                .isLessThanOrEqualTo(0.2);
+    }
+
+    @Test
+    public void finishTest() throws Exception {
+        Data data = TestInstances.small();
+        RoundSettings settings = new RoundSettings(SolverType.JAVA, StepRuleType.POLYAK, DualEngineType.SUBGRADIENT);
+        RoundResult alone = new LagrangianRound(2, data, settings, false).call();
+
+        // Without a gap to close, a run that stops on its own leaves the race going
+        Race race = new Race();
+        new LagrangianRound(2, data, settings, 0, race).call();
+        Assertions.assertThat(race.isFinished()).isFalse();
+
+        // so a run after it still gets to its own stopping point
+        RoundResult other = new LagrangianRound(2, data, settings, 1, race).call();
+        Assertions.assertThat(race.isFinished()).isFalse();
+        Assertions.assertThat(other.getTable2().getFinalIteration()).isEqualTo(alone.getTable2().getFinalIteration());
+        Assertions.assertThat(other.getDualBound()).isEqualTo(alone.getDualBound());
+
+        // Closing the gap is what ends it
+        new LagrangianRound(2, data, settings.withGapTolerance(1), 1, race).call();
+        Assertions.assertThat(race.isFinished()).isTrue();
+    }
+
+    @Test
+    public void keepsSettingsTest() throws Exception {
+        RoundSettings settings = new RoundSettings(SolverType.JAVA, StepRuleType.POLYAK, DualEngineType.SUBGRADIENT,
+                RoundSettings.NO_GAP_TOLERANCE, directory, 7, true, true, 3);
+
+        // Only the step rule, the engine and the gap are the race's own
+        RoundSettings raced = new RoundRace.Start(2, StepRuleType.TARGET, DualEngineType.SUBGRADIENT)
+                .settingsFor(settings, 0);
+        Assertions.assertThat(raced).isEqualTo(new RoundSettings(SolverType.JAVA, StepRuleType.TARGET,
+                DualEngineType.SUBGRADIENT, 0, directory, 7, true, true, 3));
+    }
+
+    @Test
+    public void checkpointTest() throws Exception {
+        Data data = TestInstances.small();
+        RoundSettings settings = new RoundSettings(SolverType.JAVA, StepRuleType.POLYAK, DualEngineType.SUBGRADIENT,
+                RoundSettings.NO_GAP_TOLERANCE, directory, RoundCheckpoint.DEFAULT_EVERY, false, false,
+                RoundSettings.NO_LINE_SEARCH);
+        new RoundRace(1, data, settings, 2).call();
+
+        // Both runs checkpoint on their own even though they only differ in where they start
+        try (Stream<Path> files = Files.list(directory)) {
+            Assertions.assertThat(files.filter(path -> path.toString().endsWith(".ckpt"))).hasSize(2);
+        }
+    }
+}
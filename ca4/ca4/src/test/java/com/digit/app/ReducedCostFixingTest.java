@@ -0,0 +1,64 @@
+package com.digit.app;
+
+import com.digit.app.data.Data;
+import com.digit.app.dual.DualEngineType;
+import com.digit.app.solver.SolverType;
+import com.digit.app.step.StepRuleType;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.Test;
+
+public class ReducedCostFixingTest {
+    private static final Offset<Double> TOLERANCE = Offset.offset(1e-6);
+
+    @Test
+    public void keepsOptimalTest() throws Exception {
+        int totalFixed = 0;
+        for (long seed = 1; seed <= 20; seed++) {
+            Data data = DataGenerator.create(6, 10, 0.5, seed);
+            IPSolution optimal;
+            try (LP ip = LP.integerProgram(data, SolverType.JAVA)) {
+                optimal = ip.getGenericSolution();
+            }
+            if (!optimal.isFeasible()) {
+                continue;
+            }
+            IPSolution relaxation;
+            try (LP lp = LP.linearProgramRelaxation(data, SolverType.JAVA)) {
+                relaxation = lp.getGenericSolution();
+            }
+
+            // Even against the optimal value itself, the optimal solution has to stay inside of the bounds
+            ReducedCostFixing fixing = ReducedCostFixing.tighten(relaxation, optimal.getOptimizationValue());
+            double[] x = optimal.getVariables();
+            for (int j = 0; j < x.length; j++) {
+                Assertions.assertThat(x[j]).isBetween(fixing.getLower()[j] - 1e-9, fixing.getUpper()[j] + 1e-9);
+            }
+            totalFixed = totalFixed + fixing.getNumFixed();
+        }
+
+        Assertions.assertThat(totalFixed).isPositive();
+    }
+
+    @Test
+    public void multipliersFromDualsTest() {
+        double[] u = LagrangianRelaxation.multipliersFromDuals(new double[]{2, -3, 1e-12, 4},
+                new boolean[]{true, false, true, true}, 3);
+
+        // The >= constraint flips, and the last dual isn't relaxed in this round
+        Assertions.assertThat(u).containsExactly(new double[]{2, 3, 1e-12}, TOLERANCE);
+    }
+
+    @Test
+    public void roundTest() throws Exception {
+        Data data = TestInstances.small();
+        double optimal = TestInstances.smallOptimum();
+        RoundSettings settings = new RoundSettings(SolverType.JAVA, StepRuleType.POLYAK, DualEngineType.SUBGRADIENT,
+                RoundSettings.NO_GAP_TOLERANCE, null, RoundCheckpoint.DEFAULT_EVERY, true, true,
+                RoundSettings.NO_LINE_SEARCH);
+        RoundResult result = new LagrangianRound(3, data, settings, false).call();
+
+        // Tightening the variables can't cut off the optimal solution, so L(u) still can't go below it
+        Assertions.assertThat(result.getDualBound()).isGreaterThanOrEqualTo(optimal - 1e-6);
+    }
+}
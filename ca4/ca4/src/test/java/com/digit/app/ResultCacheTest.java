@@ -0,0 +1,124 @@
+package com.digit.app;
+
+import com.digit.app.data.Data;
+import com.digit.app.metrics.Count;
+import com.digit.app.metrics.Metrics;
+import com.digit.app.metrics.MetricsRegistry;
+import com.digit.app.solver.SolverType;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ResultCacheTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void contentHashTest() {
+        Data data = TestInstances.small();
+
+        int[][] A = TestInstances.A;
+        int[] B = TestInstances.B;
+        Assertions.assertThat(ResultCache.contentHash(Data.create(A, B, TestInstances.A_LESS_THAN_B,
+                TestInstances.C.clone()))).isEqualTo(ResultCache.contentHash(data));
+        Assertions.assertThat(ResultCache.contentHash(Data.create(A, B, TestInstances.A_LESS_THAN_B,
+                new double[]{5, 4, 6, 4}))).isNotEqualTo(ResultCache.contentHash(data));
+        Assertions.assertThat(ResultCache.contentHash(Data.create(A, B, new boolean[]{true, true, true, true},
+                TestInstances.C))).isNotEqualTo(ResultCache.contentHash(data));
+    }
+
+    @Test
+    public void memoryTest() throws Exception {
+        Data data = TestInstances.small();
+        ResultCache cache = new ResultCache(null);
+        MetricsRegistry metrics = Metrics.startRound();
+
+        // Every thread asks at once but only one of them solves
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<IPSolution>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(pool.submit(() -> cache.linearProgramRelaxation(data, SolverType.JAVA)));
+        }
+        IPSolution first = futures.get(0).get();
+        for (Future<IPSolution> future: futures) {
+            Assertions.assertThat(future.get()).isSameAs(first);
+        }
+        pool.shutdown();
+
+        IPSolution solution;
+        try (LP lp = LP.linearProgramRelaxation(data, SolverType.JAVA)) {
+            solution = lp.getGenericSolution();
+        }
+        Assertions.assertThat(first.getOptimizationValue()).isEqualTo(solution.getOptimizationValue());
+
+        // The integer program is kept apart from its relaxation
+        Assertions.assertThat(cache.integerProgram(data, SolverType.JAVA).getOptimizationValue())
+                .isLessThanOrEqualTo(first.getOptimizationValue());
+        Assertions.assertThat(metrics.getCount(Count.CACHE_HITS)).isZero();
+    }
+
+    @Test
+    public void diskTest() throws Exception {
+        Data data = TestInstances.small();
+        IPSolution solved = new ResultCache(directory).integerProgram(data, SolverType.JAVA);
+
+        // A new cache, like the next run, reads it back instead of solving
+        MetricsRegistry metrics = Metrics.startRound();
+        IPSolution read = new ResultCache(directory).integerProgram(data, SolverType.JAVA);
+        Assertions.assertThat(read).isEqualTo(solved);
+        Assertions.assertThat(metrics.getCount(Count.CACHE_HITS)).isEqualTo(1);
+
+        // A broken file gets solved again and replaced
+        List<Path> files;
+        try (var list = Files.list(directory)) {
+            files = list.toList();
+        }
+        Assertions.assertThat(files).hasSize(1);
+        byte[] bytes = Files.readAllBytes(files.get(0));
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(files.get(0), bytes);
+
+        IPSolution resolved = new ResultCache(directory).integerProgram(data, SolverType.JAVA);
+        Assertions.assertThat(resolved).isEqualTo(solved);
+        Assertions.assertThat(metrics.getCount(Count.CACHE_HITS)).isEqualTo(1);
+        Assertions.assertThat(new ResultCache(directory).integerProgram(data, SolverType.JAVA)).isEqualTo(solved);
+        Assertions.assertThat(metrics.getCount(Count.CACHE_HITS)).isEqualTo(2);
+    }
+
+    @Test
+    public void truncatedTest() throws Exception {
+        Data data = TestInstances.small();
+        IPSolution solved = new ResultCache(directory).linearProgramRelaxation(data, SolverType.JAVA);
+        Path file;
+        try (var list = Files.list(directory)) {
+            file = list.findFirst().orElseThrow();
+        }
+
+        // The duals and reduced costs that rounds start from come back from disk too
+        MetricsRegistry metrics = Metrics.startRound();
+        IPSolution read = new ResultCache(directory).linearProgramRelaxation(data, SolverType.JAVA);
+        Assertions.assertThat(read).isEqualTo(solved);
+        Assertions.assertThat(read.getDuals()).isNotNull();
+        Assertions.assertThat(read.getReducedCosts()).isNotNull();
+        Assertions.assertThat(metrics.getCount(Count.CACHE_HITS)).isEqualTo(1);
+
+        // A file cut off in the body or in the header gets solved again and replaced
+        byte[] bytes = Files.readAllBytes(file);
+        for (int length: new int[]{bytes.length - 8, 6, 0}) {
+            Files.write(file, Arrays.copyOf(bytes, length));
+            Assertions.assertThat(new ResultCache(directory).linearProgramRelaxation(data, SolverType.JAVA))
+                    .isEqualTo(solved);
+            Assertions.assertThat(Files.size(file)).isEqualTo(bytes.length);
+        }
+        Assertions.assertThat(metrics.getCount(Count.CACHE_HITS)).isEqualTo(1);
+    }
+}
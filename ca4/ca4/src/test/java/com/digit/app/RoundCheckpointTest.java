@@ -0,0 +1,126 @@
+package com.digit.app;
+
+import com.digit.app.data.Data;
+import com.digit.app.dual.DualEngineType;
+import com.digit.app.solver.SolverType;
+import com.digit.app.step.StepRuleType;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+public class RoundCheckpointTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void roundTripTest() throws IOException {
+        Table2 table2 = new Table2();
+        table2.setRound(3);
+        table2.setFinalIteration(120);
+        table2.setLagrangianOptimal(41.5);
+        table2.setLagrangeMultiplier(new double[]{0.5, 1.5});
+        table2.setOptimalX(new double[]{1, 2, 3, 4});
+        RoundCheckpoint checkpoint = new RoundCheckpoint("hash", "settings", 120, false, 41.5, 40, 41.5, true, 38,
+                null, new double[]{1, 2, 3, 4}, new double[]{0.5, 1.5}, new double[]{-1, 0}, new byte[]{1, 2, 3},
+                List.of(new Table1(3, 0, new double[]{1, 1}, 50, 0.25, 2, 9, 38)), table2);
+
+        Path path = directory.resolve("round.ckpt");
+        checkpoint.write(path);
+        RoundCheckpoint read = RoundCheckpoint.read(path);
+
+        Assertions.assertThat(read).isEqualTo(checkpoint);
+        Assertions.assertThat(Files.exists(path.resolveSibling("round.ckpt.tmp"))).isFalse();
+        Assertions.assertThat(RoundCheckpoint.read(directory.resolve("missing.ckpt"))).isNull();
+    }
+
+    @Test
+    public void corruptTest() throws IOException {
+        RoundCheckpoint checkpoint = new RoundCheckpoint("hash", "settings", 5, true, 1, 1, 1, false, 1, null, null,
+                null, null, new byte[0], List.of(), new Table2());
+        Path path = directory.resolve("round.ckpt");
+        checkpoint.write(path);
+
+        // Flip a bit in the body so only the CRC can tell
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(path, bytes);
+
+        Assertions.assertThatThrownBy(() -> RoundCheckpoint.read(path)).isInstanceOf(IOException.class)
+                .hasMessageContaining("corrupt");
+    }
+
+    @Test
+    public void truncatedTest() throws IOException {
+        RoundCheckpoint checkpoint = new RoundCheckpoint("hash", "settings", 5, true, 1, 1, 1, false, 1, null, null,
+                null, null, new byte[0], List.of(), new Table2());
+        Path path = directory.resolve("round.ckpt");
+        checkpoint.write(path);
+        byte[] bytes = Files.readAllBytes(path);
+
+        // Cut off in the middle of the body, like a copy that didn't finish
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 8));
+        Assertions.assertThatThrownBy(() -> RoundCheckpoint.read(path)).isInstanceOf(EOFException.class);
+
+        // Cut off in the header
+        Files.write(path, Arrays.copyOf(bytes, 6));
+        Assertions.assertThatThrownBy(() -> RoundCheckpoint.read(path)).isInstanceOf(EOFException.class);
+
+        // The version comes right after the magic number
+        bytes[7]++;
+        Files.write(path, bytes);
+        Assertions.assertThatThrownBy(() -> RoundCheckpoint.read(path)).isInstanceOf(IOException.class)
+                .hasMessageContaining("version");
+
+        Files.writeString(path, "not a checkpoint at all");
+        Assertions.assertThatThrownBy(() -> RoundCheckpoint.read(path)).isInstanceOf(IOException.class)
+                .hasMessageContaining("is not a checkpoint");
+    }
+
+    @Test
+    public void resumeTest() throws Exception {
+        Data data = TestInstances.small();
+        RoundSettings settings = new RoundSettings(SolverType.JAVA, StepRuleType.POLYAK, DualEngineType.VOLUME,
+                RoundSettings.NO_GAP_TOLERANCE, directory, 10, false, false, RoundSettings.NO_LINE_SEARCH);
+
+        RoundResult first = new LagrangianRound(2, data, settings, false).call();
+        Assertions.assertThat(Files.exists(RoundCheckpoint.pathFor(directory, 2, data, settings))).isTrue();
+
+        // The round already ended, so the second run gives back the same results without solving anything
+        RoundResult second = new LagrangianRound(2, data, settings, false).call();
+        Assertions.assertThat(second.getTable2()).isEqualTo(first.getTable2());
+        Assertions.assertThat(second.getTable1()).isEqualTo(first.getTable1());
+        Assertions.assertThat(second.getDualBound()).isEqualTo(first.getDualBound());
+        Assertions.assertThat(second.getPrimalBound()).isEqualTo(first.getPrimalBound());
+        Assertions.assertThat(second.getSolves()).isZero();
+    }
+
+    @Test
+    public void mismatchTest() throws Exception {
+        Data data = TestInstances.small();
+        RoundSettings settings = new RoundSettings(SolverType.JAVA, StepRuleType.POLYAK, DualEngineType.VOLUME,
+                RoundSettings.NO_GAP_TOLERANCE, directory, 10, false, false, RoundSettings.NO_LINE_SEARCH);
+        new LagrangianRound(2, data, settings, false).call();
+
+        // The volume engine doesn't use the step rule, so the file name is the same but the settings aren't
+        RoundSettings otherStep = settings.withStepRuleType(StepRuleType.TARGET);
+        Assertions.assertThat(RoundCheckpoint.pathFor(directory, 2, data, otherStep))
+                .isEqualTo(RoundCheckpoint.pathFor(directory, 2, data, settings));
+        Assertions.assertThatThrownBy(() -> new LagrangianRound(2, data, otherStep, false).call())
+                .isInstanceOf(IOException.class).hasMessageContaining("step target");
+
+        // A checkpoint copied over to the name of another instance is for the wrong instance
+        Data other = Data.create(TestInstances.A, new int[]{21, 15, 18, 4}, TestInstances.A_LESS_THAN_B,
+                TestInstances.C);
+        Files.copy(RoundCheckpoint.pathFor(directory, 2, data, settings),
+                RoundCheckpoint.pathFor(directory, 2, other, settings));
+        Assertions.assertThatThrownBy(() -> new LagrangianRound(2, other, settings, false).call())
+                .isInstanceOf(IOException.class).hasMessageContaining(ResultCache.contentHash(data));
+    }
+}
@@ -0,0 +1,38 @@
+package com.digit.app;
+
+import com.digit.app.data.Data;
+import com.digit.app.dual.DualEngineType;
+import com.digit.app.solver.SolverException;
+import com.digit.app.solver.SolverType;
+import com.digit.app.step.StepRuleType;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class RoundExecutorTest {
+    private static final RoundSettings SETTINGS = new RoundSettings(SolverType.JAVA, StepRuleType.POLYAK,
+            DualEngineType.VOLUME, 0.2);
+
+    @Test
+    public void roundOrderTest() throws Exception {
+        // More rounds than threads, so they finish in whatever order the pool gets to them
+        List<RoundResult> results = RoundExecutor.runAll(TestInstances.small(), 3, SETTINGS, 2, 1);
+
+        Assertions.assertThat(results).extracting(RoundResult::getRound).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    public void failureTest() {
+        // What the round threw comes out as it is instead of wrapped in an ExecutionException
+        SolverException failure = new SolverException("The round failed");
+        Assertions.assertThatThrownBy(() -> RoundExecutor.getResult(CompletableFuture.failedFuture(failure)))
+                .isSameAs(failure);
+
+        // The instance only has one constraint, so round 2 can't relax two of them
+        Data data = Data.create(new int[][]{{1, 1}}, new int[]{4}, new boolean[]{true}, new double[]{1, 1});
+        Assertions.assertThatThrownBy(() -> RoundExecutor.runAll(data, 2, SETTINGS, 2, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
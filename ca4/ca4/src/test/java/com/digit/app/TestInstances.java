@@ -0,0 +1,48 @@
+package com.digit.app;
+
+import com.digit.app.data.Data;
+import com.digit.app.solver.SolverException;
+import com.digit.app.solver.SolverType;
+
+/**
+ * Instances the tests share. They are small enough for the java solver to finish in a moment.
+ */
+public class TestInstances {
+    /**
+     * Three &lt;= rows and a &gt;= row
+     */
+    public static final int[][] A = {
+            {3, 2, 4, 1},
+            {1, 5, 0, 2},
+            {2, 1, 1, 3},
+            {0, 0, 1, 1}
+    };
+    public static final int[] B = {20, 15, 18, 4};
+    public static final boolean[] A_LESS_THAN_B = {true, true, true, false};
+    public static final double[] C = {5, 4, 6, 3};
+
+    /**
+     * The instance made from A, B, A_LESS_THAN_B and C
+     */
+    public static Data small() {
+        return Data.create(A, B, A_LESS_THAN_B, C);
+    }
+
+    /**
+     * The optimal value of {@link #small()}
+     */
+    public static double smallOptimum() throws SolverException {
+        try (LP ip = LP.integerProgram(small(), SolverType.JAVA)) {
+            return ip.getGenericSolution().getOptimizationValue();
+        }
+    }
+
+    /**
+     * The optimal value of the linear relaxation of {@link #small()}
+     */
+    public static double smallLinearRelaxation() throws SolverException {
+        try (LP lp = LP.linearProgramRelaxation(small(), SolverType.JAVA)) {
+            return lp.getGenericSolution().getOptimizationValue();
+        }
+    }
+}
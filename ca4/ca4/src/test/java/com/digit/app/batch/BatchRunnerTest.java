@@ -0,0 +1,54 @@
+package com.digit.app.batch;
+
+import com.digit.app.RoundSettings;
+import com.digit.app.dual.DualEngineType;
+import com.digit.app.solver.SolverType;
+import com.digit.app.step.StepRuleType;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class BatchRunnerTest {
+    @Test
+    public void parseTest() {
+        Assertions.assertThat(BatchSettings.parseLongs("-2..1,7")).containsExactly(-2L, -1L, 0L, 1L, 7L);
+        Assertions.assertThatThrownBy(() -> BatchSettings.parseLongs("3..1"))
+                .isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThatThrownBy(() -> BatchSettings.fromArgs(new String[] {"--density", "1.5"}))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        BatchSettings settings = BatchSettings.fromArgs(new String[] {"--seeds", "1..3", "--constraints", "4,8",
+                "--rounds", "2,6"});
+        Assertions.assertThat(settings.getNumInstances()).isEqualTo(6);
+        Assertions.assertThat(settings.roundsFor(4)).containsExactly(2);
+        Assertions.assertThat(settings.roundsFor(8)).containsExactly(2, 6);
+    }
+
+    @Test
+    public void runTest(@TempDir Path directory) throws Exception {
+        Path output = directory.resolve("batch.csv");
+        RoundSettings roundSettings = new RoundSettings(SolverType.JAVA, StepRuleType.POLYAK, DualEngineType.BUNDLE);
+        BatchSettings settings = new BatchSettings(List.of(1L, 2L, 3L), List.of(3), List.of(6), List.of(0.4),
+                List.of(), 2, output, roundSettings);
+
+        Assertions.assertThat(BatchRunner.run(settings)).isEqualTo(0);
+
+        List<String> lines = Files.readAllLines(output);
+        Assertions.assertThat(lines.get(0)).isEqualTo(BatchRow.HEADER);
+        for (long seed = 1; seed <= 3; seed++) {
+            String prefix = "%s,3,6,0.4,".formatted(seed);
+            List<String> rows = lines.stream().filter(line -> line.startsWith(prefix)).toList();
+
+            // A feasible instance gets a row for every round and an infeasible one gets a single row
+            if (rows.size() == 1) {
+                Assertions.assertThat(rows.get(0)).contains(",0,infeasible,");
+            } else {
+                Assertions.assertThat(rows).hasSize(3).allMatch(row -> row.contains(",ok,"));
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.digit.app.data;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.Test;
+
+public class OptimizationFunctionTest {
+    private static final Offset<Double> TOLERANCE = Offset.offset(1e-6);
+
+    // x0 + 2x1 <= 4 and 3x0 + x1 >= 3
+    private static final int[][] A = {
+            {1, 2},
+            {3, 1}
+    };
+    private static final int[] B = {4, 3};
+    private static final boolean[] A_LESS_THAN_B = {true, false};
+    private static final double[] C = {1, 1};
+
+    @Test
+    public void subgradientSignsTest() {
+        OptimizationFunction lagrangianFn = Data.create(A, B, A_LESS_THAN_B, C).relax(2).getOptimizationFn();
+        double[] x = {500, 500};
+        double[] subgradient = lagrangianFn.getSubgradient(x);
+
+        // Ax - b for the <= row and b - Ax for the >= row, so only the broken one pushes its multiplier up
+        Assertions.assertThat(subgradient).containsExactly(new double[]{1496, -1997}, TOLERANCE);
+
+        double[] terms = new double[2];
+        lagrangianFn.getLagrangianTermsInto(x, terms);
+        Assertions.assertThat(terms).containsExactly(new double[]{-1496, 1997}, TOLERANCE);
+    }
+
+    @Test
+    public void stepDecreasesTest() {
+        OptimizationFunction lagrangianFn = Data.create(A, B, A_LESS_THAN_B, C).relax(2).getOptimizationFn();
+        double[] u = {1, 2};
+
+        // Every c of L(u) is positive here, so x is at the upper bounds and L is linear around u
+        double value = lagrangianValue(lagrangianFn, u);
+        double[] x = {OptimizationFunction.VARIABLE_UPPER_BOUND, OptimizationFunction.VARIABLE_UPPER_BOUND};
+        double[] subgradient = lagrangianFn.getSubgradient(x);
+
+        double step = 1e-4;
+        double[] next = new double[u.length];
+        double normSquared = 0;
+        for (int i = 0; i < u.length; i++) {
+            next[i] = Math.max(0, u[i] + step * subgradient[i]);
+            normSquared = normSquared + subgradient[i] * subgradient[i];
+        }
+
+        double nextValue = lagrangianValue(lagrangianFn, next);
+        Assertions.assertThat(nextValue).isLessThan(value);
+        Assertions.assertThat(nextValue).isCloseTo(value - step * normSquared, TOLERANCE);
+    }
+
+    /**
+     * L(u) with only the bounds left, where each variable goes to the bound its coefficient points to
+     */
+    private static double lagrangianValue(OptimizationFunction lagrangianFn, double[] u) {
+        double[] c = new double[lagrangianFn.getNumVariables()];
+        double value = lagrangianFn.withLagrangeInto(u, c);
+        for (double coefficient: c) {
+            value = value + coefficient * (coefficient > 0
+                    ? OptimizationFunction.VARIABLE_UPPER_BOUND : OptimizationFunction.VARIABLE_LOWER_BOUND);
+        }
+
+        return value;
+    }
+}
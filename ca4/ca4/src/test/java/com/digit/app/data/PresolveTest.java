@@ -0,0 +1,93 @@
+package com.digit.app.data;
+
+import com.digit.app.DataGenerator;
+import com.digit.app.IPSolution;
+import com.digit.app.LP;
+import com.digit.app.solver.SolverType;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.Test;
+
+public class PresolveTest {
+    private static final Offset<Double> TOLERANCE = Offset.offset(1e-6);
+
+    // x0 <= 1 and x1 <= 2 are bounds, 3x0 + x1 <= 4 can be tightened and x1 + x2 <= 1000 always holds
+    private static final int[][] A = {
+            {1, 0, 0},
+            {0, 1, 0},
+            {3, 1, 0},
+            {0, 1, 1}
+    };
+    private static final int[] B = {1, 2, 4, 1000};
+    private static final boolean[] A_LESS_THAN_B = {true, true, true, true};
+    private static final double[] C = {2, 1, 1};
+
+    @Test
+    public void reduceTest() {
+        Presolve presolve = Presolve.run(new Constraints(A, B, A_LESS_THAN_B), C);
+
+        Assertions.assertThat(presolve.getNumSingletonRows()).isEqualTo(2);
+        Assertions.assertThat(presolve.getNumRedundantRows()).isEqualTo(1);
+        Assertions.assertThat(presolve.getNumTightenedCoefficients()).isEqualTo(1);
+        Assertions.assertThat(presolve.getRows()).containsExactly(2);
+
+        // x2 isn't in any row that is left, so it goes to its best bound
+        Assertions.assertThat(presolve.getColumns()).containsExactly(0, 1);
+        Assertions.assertThat(presolve.getLower()).containsExactly(0, 0);
+        Assertions.assertThat(presolve.getUpper()).containsExactly(1, 2);
+        Assertions.assertThat(presolve.fixedValue(C)).isEqualTo(OptimizationFunction.VARIABLE_UPPER_BOUND);
+
+        // 3x0 + x1 <= 4 becomes x0 + x1 <= 2, which is the same at x0 = 0 and x0 = 1
+        Constraints reduced = presolve.getConstraints();
+        Assertions.assertThat(reduced.getA().rowValues(0)).containsExactly(1, 1);
+        Assertions.assertThat(reduced.getB()).containsExactly(2);
+
+        Assertions.assertThat(presolve.postsolve(new double[]{1, 1})).containsExactly(1, 1, 500);
+    }
+
+    @Test
+    public void withoutObjectiveTest() {
+        Presolve presolve = Presolve.run(new Constraints(A, B, A_LESS_THAN_B), null);
+
+        // Without c, the best bound of x2 isn't known, so it stays
+        Assertions.assertThat(presolve.getColumns()).containsExactly(0, 1, 2);
+        Assertions.assertThat(presolve.restrict(C)).containsExactly(C);
+    }
+
+    @Test
+    public void sameOptimalTest() throws Exception {
+        int numReduced = 0;
+        for (long seed = 1; seed <= 20; seed++) {
+            Data data = DataGenerator.create(6, 10, 0.4, seed);
+            IPSolution original;
+            try (LP ip = LP.integerProgram(data, SolverType.JAVA.create())) {
+                original = ip.getGenericSolution();
+            }
+            IPSolution presolved;
+            try (LP ip = LP.integerProgram(data, SolverType.JAVA)) {
+                Assertions.assertThat(ip.getPresolve()).isNotNull();
+                numReduced = numReduced + ip.getPresolve().getNumTightenedBounds();
+                presolved = ip.getGenericSolution();
+            }
+
+            Assertions.assertThat(presolved.isFeasible()).isEqualTo(original.isFeasible());
+            if (!original.isFeasible()) {
+                continue;
+            }
+
+            // The values are for the original variables and satisfy the original constraints
+            Assertions.assertThat(presolved.getOptimizationValue()).isCloseTo(original.getOptimizationValue(), TOLERANCE);
+            Assertions.assertThat(presolved.getVariables()).hasSize(10);
+            for (double slack: presolved.getSlack()) {
+                Assertions.assertThat(slack).isGreaterThanOrEqualTo(-1e-6);
+            }
+            double value = 0;
+            for (int j = 0; j < 10; j++) {
+                value = value + data.getOptimizationFn().getC()[j] * presolved.getVariables()[j];
+            }
+            Assertions.assertThat(value).isCloseTo(presolved.getOptimizationValue(), TOLERANCE);
+        }
+
+        Assertions.assertThat(numReduced).isPositive();
+    }
+}
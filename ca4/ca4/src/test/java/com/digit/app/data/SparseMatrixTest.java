@@ -0,0 +1,63 @@
+package com.digit.app.data;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SparseMatrixTest {
+    private static final int[][] DENSE = {
+            {1, 0, 0, 2},
+            {0, 0, 0, 0},
+            {0, -3, 4, 0}
+    };
+
+    @Test
+    public void fromDenseTest() {
+        SparseMatrix matrix = SparseMatrix.fromDense(DENSE, 4);
+
+        Assertions.assertThat(matrix.getNumRows()).isEqualTo(3);
+        Assertions.assertThat(matrix.getNumColumns()).isEqualTo(4);
+        Assertions.assertThat(matrix.getNumNonZeros()).isEqualTo(4);
+        for (int i = 0; i < DENSE.length; i++) {
+            for (int j = 0; j < DENSE[i].length; j++) {
+                Assertions.assertThat(matrix.get(i, j)).isEqualTo(DENSE[i][j]);
+            }
+        }
+        Assertions.assertThat(matrix.rowColumns(2)).containsExactly(1, 2);
+        Assertions.assertThat(matrix.rowValues(2)).containsExactly(-3, 4);
+        Assertions.assertThat(matrix.rowColumns(1)).isEmpty();
+    }
+
+    @Test
+    public void productTest() {
+        SparseMatrix matrix = SparseMatrix.fromDense(DENSE, 4);
+        double[] x = {1, 2, 3, 4};
+
+        Assertions.assertThat(matrix.rowDot(0, x)).isEqualTo(9);
+        Assertions.assertThat(matrix.rowDot(1, x)).isEqualTo(0);
+        Assertions.assertThat(matrix.rowDot(2, x)).isEqualTo(6);
+
+        double[] target = {1, 1, 1, 1};
+        matrix.addRowTimes(2, 2, target);
+        Assertions.assertThat(target).containsExactly(1, -5, 9, 1);
+    }
+
+    @Test
+    public void rowsAndNegateTest() {
+        SparseMatrix rows = SparseMatrix.fromDense(DENSE, 4).rows(1, 3).negate();
+
+        Assertions.assertThat(rows).isEqualTo(SparseMatrix.fromDense(new int[][] {{0, 0, 0, 0}, {0, 3, -4, 0}}, 4));
+        Assertions.assertThat(SparseMatrix.fromDense(DENSE, 4).rows(0, 0).getNumColumns()).isEqualTo(4);
+    }
+
+    @Test
+    public void columnMajorTest() {
+        SparseMatrix transpose = SparseMatrix.fromDense(DENSE, 4).getColumnMajor();
+
+        Assertions.assertThat(transpose).isEqualTo(SparseMatrix.fromDense(new int[][] {
+                {1, 0, 0},
+                {0, 0, -3},
+                {0, 0, 4},
+                {2, 0, 0}
+        }, 3));
+    }
+}
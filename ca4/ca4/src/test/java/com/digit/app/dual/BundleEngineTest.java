@@ -0,0 +1,57 @@
+package com.digit.app.dual;
+
+import com.digit.app.IPSolution;
+import com.digit.app.LagrangianSubproblem;
+import com.digit.app.LagrangianWorkspace;
+import com.digit.app.RoundSettings;
+import com.digit.app.TestInstances;
+import com.digit.app.data.Data;
+import com.digit.app.solver.SolverType;
+import com.digit.app.step.StepRuleType;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.Test;
+
+public class BundleEngineTest {
+    @Test
+    public void boundTest() throws Exception {
+        Data data = TestInstances.small();
+        double linearRelaxation = TestInstances.smallLinearRelaxation();
+        double[] subgradientResult = minimize(data, DualEngineType.SUBGRADIENT);
+        double[] bundleResult = minimize(data, DualEngineType.BUNDLE);
+
+        // With every constraint relaxed only the box is left, which is already integral, so the best bound is the LP
+        Assertions.assertThat(bundleResult[0]).isCloseTo(linearRelaxation, Offset.offset(1e-4 * linearRelaxation));
+
+        // The bundle gets at least as low with fewer solves
+        Assertions.assertThat(bundleResult[0]).isLessThanOrEqualTo(subgradientResult[0] + 1e-6);
+        Assertions.assertThat(bundleResult[1]).isLessThan(subgradientResult[1]);
+    }
+
+    /**
+     * Relax all of the constraints and return the lowest L(u) found along with the number of solves
+     */
+    private static double[] minimize(Data data, DualEngineType engineType) throws Exception {
+        Data lagrangianData = data.relax(TestInstances.A.length);
+        RoundSettings settings = new RoundSettings(SolverType.JAVA, StepRuleType.POLYAK, engineType);
+        DualEngine engine = engineType.create(lagrangianData.getOptimizationFn(), settings);
+        LagrangianWorkspace workspace = new LagrangianWorkspace(lagrangianData.getOptimizationFn());
+        workspace.fillMultipliers(1);
+
+        double best = Double.POSITIVE_INFINITY;
+        int solves = 0;
+        try (LagrangianSubproblem subproblem = new LagrangianSubproblem(lagrangianData, SolverType.JAVA)) {
+            while (!engine.isFinished() && solves < 10000) {
+                IPSolution solution = subproblem.solve(workspace, null);
+                solves++;
+                workspace.updateSubgradient(solution.getVariables());
+
+                boolean improved = solution.getOptimizationValue() < best;
+                best = Math.min(best, solution.getOptimizationValue());
+                engine.update(workspace, solution.getOptimizationValue(), 0, solution.getVariables(), improved);
+            }
+        }
+
+        return new double[] {best, solves};
+    }
+}
@@ -0,0 +1,102 @@
+package com.digit.app.dual;
+
+import com.digit.app.IPSolution;
+import com.digit.app.LagrangianSubproblem;
+import com.digit.app.LagrangianWorkspace;
+import com.digit.app.RoundSettings;
+import com.digit.app.TestInstances;
+import com.digit.app.data.Data;
+import com.digit.app.solver.SolverType;
+import com.digit.app.step.StepRuleType;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+public class VolumeEngineTest {
+    @Test
+    public void primalEstimateTest() throws Exception {
+        Data data = TestInstances.small();
+        double linearRelaxation = TestInstances.smallLinearRelaxation();
+
+        Data lagrangianData = data.relax(TestInstances.A.length);
+        RoundSettings settings = new RoundSettings(SolverType.JAVA, StepRuleType.POLYAK, DualEngineType.VOLUME);
+        DualEngine engine = DualEngineType.VOLUME.create(lagrangianData.getOptimizationFn(), settings);
+        LagrangianWorkspace workspace = new LagrangianWorkspace(lagrangianData.getOptimizationFn());
+        workspace.fillMultipliers(1);
+
+        double best;
+        try (LagrangianSubproblem subproblem = new LagrangianSubproblem(lagrangianData, SolverType.JAVA)) {
+            best = run(engine, workspace, subproblem, 10000, Double.POSITIVE_INFINITY);
+        }
+
+        // With every constraint relaxed the best bound is the LP
+        Assertions.assertThat(best).isCloseTo(linearRelaxation, Offset.offset(1e-2 * linearRelaxation));
+
+        // The averaged x should be close to an optimal solution of that LP
+        double[] x = engine.getPrimalEstimate();
+        double value = 0;
+        for (int j = 0; j < TestInstances.C.length; j++) {
+            value = value + TestInstances.C[j] * x[j];
+        }
+        Assertions.assertThat(value).isCloseTo(linearRelaxation, Offset.offset(1e-2 * linearRelaxation));
+
+        for (int i = 0; i < TestInstances.A.length; i++) {
+            double ax = 0;
+            for (int j = 0; j < TestInstances.C.length; j++) {
+                ax = ax + TestInstances.A[i][j] * x[j];
+            }
+            double violation = TestInstances.A_LESS_THAN_B[i] ? ax - TestInstances.B[i] : TestInstances.B[i] - ax;
+            Assertions.assertThat(violation).isLessThanOrEqualTo(1e-2 * TestInstances.B[i] + 1e-2);
+        }
+    }
+
+    @Test
+    public void stateTest() throws Exception {
+        Data lagrangianData = TestInstances.small().relax(TestInstances.A.length);
+        RoundSettings settings = new RoundSettings(SolverType.JAVA, StepRuleType.POLYAK, DualEngineType.VOLUME);
+        DualEngine engine = DualEngineType.VOLUME.create(lagrangianData.getOptimizationFn(), settings);
+        LagrangianWorkspace workspace = new LagrangianWorkspace(lagrangianData.getOptimizationFn());
+        workspace.fillMultipliers(1);
+
+        try (LagrangianSubproblem subproblem = new LagrangianSubproblem(lagrangianData, SolverType.JAVA)) {
+            double best = run(engine, workspace, subproblem, 30, Double.POSITIVE_INFINITY);
+
+            // An engine that reads the state, like a resumed round, carries on exactly where the first one is
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            engine.writeState(new DataOutputStream(bytes));
+            DualEngine resumed = DualEngineType.VOLUME.create(lagrangianData.getOptimizationFn(), settings);
+            resumed.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+            LagrangianWorkspace resumedWorkspace = new LagrangianWorkspace(lagrangianData.getOptimizationFn());
+            resumedWorkspace.setMultipliers(workspace.getLagrangeMultipliers().clone());
+
+            run(engine, workspace, subproblem, 20, best);
+            run(resumed, resumedWorkspace, subproblem, 20, best);
+            Assertions.assertThat(resumedWorkspace.getLagrangeMultipliers())
+                    .containsExactly(workspace.getLagrangeMultipliers());
+            Assertions.assertThat(resumed.getPrimalEstimate()).containsExactly(engine.getPrimalEstimate());
+            Assertions.assertThat(resumed.getE()).isEqualTo(engine.getE());
+        }
+    }
+
+    /**
+     * Run the engine for up to the number of solves and return the lowest L(u), starting from the best one so far
+     */
+    private static double run(DualEngine engine, LagrangianWorkspace workspace, LagrangianSubproblem subproblem,
+                              int maxSolves, double best) throws Exception {
+        for (int solves = 0; solves < maxSolves && !engine.isFinished(); solves++) {
+            IPSolution solution = subproblem.solve(workspace, null);
+            workspace.updateSubgradient(solution.getVariables());
+
+            boolean improved = solution.getOptimizationValue() < best;
+            best = Math.min(best, solution.getOptimizationValue());
+            engine.update(workspace, solution.getOptimizationValue(), 0, solution.getVariables(), improved);
+        }
+
+        return best;
+    }
+}
@@ -0,0 +1,168 @@
+package com.digit.app.io;
+
+import com.digit.app.DataGenerator;
+import com.digit.app.data.Constraints;
+import com.digit.app.data.Data;
+import com.digit.app.data.SparseMatrix;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class InstanceFormatTest {
+    @Test
+    public void roundTripTest(@TempDir Path directory) throws Exception {
+        Data data = DataGenerator.create(12, 20, 0.4, 7);
+
+        for (InstanceFormat format: InstanceFormat.values()) {
+            Path path = directory.resolve("instance." + format.name().toLowerCase());
+            format.write(data, path);
+            Data read = format.read(path);
+
+            Assertions.assertThat(read.getOptimizationFn().getC()).containsExactly(data.getOptimizationFn().getC());
+            Assertions.assertThat(read.getConstraints()).isEqualTo(data.getConstraints());
+        }
+    }
+
+    @Test
+    public void fixedMpsTest(@TempDir Path directory) throws Exception {
+        Path path = directory.resolve("fixed.mps");
+        Files.writeString(path, """
+                * A row and a column with spaces in their names
+                NAME          SMALL
+                ROWS
+                 N  COST
+                 L  LIM 1
+                 G  LIM2
+                 E  BAL
+                COLUMNS
+                    MARKER                 'MARKER'                 'INTORG'
+                    X ONE     COST                 1   LIM 1                1
+                    X ONE     LIM2                 2   BAL                  1
+                    Y         COST                -3   BAL                 -1
+                    MARKER                 'MARKER'                 'INTEND'
+                RHS
+                    RHS       LIM 1                4   LIM2                 1
+                BOUNDS
+                 UP BND       X ONE              500
+                 UP BND       Y                  500
+                ENDATA
+                """);
+
+        Data data = InstanceFormat.MPS.read(path);
+
+        // MPS minimizes by default so c is flipped, and the equality row becomes <= then >=
+        Assertions.assertThat(data.getOptimizationFn().getC()).containsExactly(-1, 3);
+        Constraints constraints = data.getConstraints();
+        Assertions.assertThat(constraints.getA()).isEqualTo(SparseMatrix.fromDense(new int[][] {
+                {1, 0}, {2, 0}, {1, -1}, {1, -1}}, 2));
+        Assertions.assertThat(constraints.getB()).containsExactly(4, 1, 0, 0);
+        Assertions.assertThat(constraints.getAlessThanb()).containsExactly(true, false, true, false);
+    }
+
+    @Test
+    public void lpTest(@TempDir Path directory) throws Exception {
+        Path path = directory.resolve("small.lp");
+        Files.writeString(path, """
+                \\ Terms can repeat, run over lines and come in any order
+                Maximize
+                 profit: 2 x + 3y
+                   - z
+                Subject To
+                 cap: y + 2 x + x <= 12
+                 -3 z + x >= -2
+                 tie: x - y = 0
+                Bounds
+                 0 <= x <= 500
+                 y <= 500
+                 z <= 500
+                General
+                 x y z
+                End
+                """);
+
+        Data data = InstanceFormat.LP.read(path);
+
+        Assertions.assertThat(data.getOptimizationFn().getC()).containsExactly(2, 3, -1);
+        Constraints constraints = data.getConstraints();
+        Assertions.assertThat(constraints.getA()).isEqualTo(SparseMatrix.fromDense(new int[][] {
+                {3, 1, 0}, {1, 0, -3}, {1, -1, 0}, {1, -1, 0}}, 3));
+        Assertions.assertThat(constraints.getB()).containsExactly(12, -2, 0, 0);
+        Assertions.assertThat(constraints.getAlessThanb()).containsExactly(true, false, true, false);
+    }
+
+    @Test
+    public void binaryHeaderTest(@TempDir Path directory) throws Exception {
+        Path path = directory.resolve("instance.bin");
+        InstanceFormat.BINARY.write(DataGenerator.create(5, 8, 0.4, 3), path);
+        Assertions.assertThat(Files.size(path)).isEqualTo(BinaryInstance.sizeOf(5, 8,
+                InstanceFormat.BINARY.read(path).getConstraints().getA().getNumNonZeros()));
+
+        // Bump the version, which comes right after the magic number
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[4] = (byte) (BinaryInstance.VERSION + 1);
+        Files.write(path, bytes);
+        Assertions.assertThatThrownBy(() -> InstanceFormat.BINARY.read(path))
+                .isInstanceOf(InstanceFormatException.class)
+                .hasMessageContaining("version");
+
+        Files.writeString(path, "NAME\nENDATA\n");
+        Assertions.assertThatThrownBy(() -> InstanceFormat.BINARY.read(path))
+                .isInstanceOf(InstanceFormatException.class);
+    }
+
+    @Test
+    public void unsupportedTest(@TempDir Path directory) throws Exception {
+        Path bounds = directory.resolve("bounds.lp");
+        Files.writeString(bounds, "Maximize\n x\nSubject To\n x <= 4\nBounds\n x <= 10\nEnd\n");
+        Assertions.assertThatThrownBy(() -> InstanceFormat.LP.read(bounds))
+                .isInstanceOf(InstanceFormatException.class)
+                .hasMessageContaining("Line 6");
+
+        Path fraction = directory.resolve("fraction.mps");
+        Files.writeString(fraction, "NAME\nROWS\n N obj\n L c1\nCOLUMNS\n x obj 1 c1 1\nRHS\n RHS c1 2.5\nENDATA\n");
+        Assertions.assertThatThrownBy(() -> InstanceFormat.FREE_MPS.read(fraction))
+                .isInstanceOf(InstanceFormatException.class)
+                .hasMessageContaining("only integers");
+    }
+
+    @Test
+    public void mpsBoundsTest(@TempDir Path directory) throws Exception {
+        String rows = "NAME\nROWS\n N obj\n L c1\nCOLUMNS\n";
+        String integers = " M1 'MARKER' 'INTORG'\n x obj 1 c1 1\n M2 'MARKER' 'INTEND'\n";
+        String rhs = "RHS\n RHS c1 2\n";
+
+        // Without the markers x is continuous
+        Path continuous = directory.resolve("continuous.mps");
+        Files.writeString(continuous, rows + " x obj 1 c1 1\n" + rhs + "BOUNDS\n UP BND x 500\nENDATA\n");
+        Assertions.assertThatThrownBy(() -> InstanceFormat.FREE_MPS.read(continuous))
+                .isInstanceOf(InstanceFormatException.class)
+                .hasMessageContaining("continuous");
+
+        // A UI bound makes it an integer too
+        Path upperInteger = directory.resolve("upperInteger.mps");
+        Files.writeString(upperInteger, rows + " x obj 1 c1 1\n" + rhs + "BOUNDS\n UI BND x 500\nENDATA\n");
+        Assertions.assertThat(InstanceFormat.FREE_MPS.read(upperInteger).getOptimizationFn().getC()).containsExactly(-1);
+
+        // Without an upper bound x is in [0, +inf)
+        Path noBound = directory.resolve("noBound.mps");
+        Files.writeString(noBound, rows + integers + rhs + "ENDATA\n");
+        Assertions.assertThatThrownBy(() -> InstanceFormat.FREE_MPS.read(noBound))
+                .isInstanceOf(InstanceFormatException.class)
+                .hasMessageContaining("Infinity");
+
+        Path plus = directory.resolve("plus.mps");
+        Files.writeString(plus, rows + integers + rhs + "BOUNDS\n UP BND x 500\n PL BND x\nENDATA\n");
+        Assertions.assertThatThrownBy(() -> InstanceFormat.FREE_MPS.read(plus))
+                .isInstanceOf(InstanceFormatException.class)
+                .hasMessageContaining("Line 13");
+
+        Path continuousLp = directory.resolve("continuous.lp");
+        Files.writeString(continuousLp, "Maximize\n x\nSubject To\n x <= 4\nBounds\n x <= 500\nEnd\n");
+        Assertions.assertThatThrownBy(() -> InstanceFormat.LP.read(continuousLp))
+                .isInstanceOf(InstanceFormatException.class)
+                .hasMessageContaining("continuous");
+    }
+}
@@ -0,0 +1,72 @@
+package com.digit.app.metrics;
+
+import com.digit.app.LagrangianRound;
+import com.digit.app.RoundResult;
+import com.digit.app.RoundSettings;
+import com.digit.app.data.Data;
+import com.digit.app.dual.DualEngineType;
+import com.digit.app.solver.SolverType;
+import com.digit.app.step.StepRuleType;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Percentage;
+import org.junit.jupiter.api.Test;
+
+public class MetricsRegistryTest {
+    @Test
+    public void percentileTest() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+
+        Assertions.assertThat(histogram.getCount()).isEqualTo(100_000);
+        Assertions.assertThat(histogram.getMax()).isEqualTo(100_000);
+        Assertions.assertThat(histogram.percentile(0.5)).isCloseTo(50_000, Percentage.withPercentage(7));
+        Assertions.assertThat(histogram.percentile(0.99)).isCloseTo(99_000, Percentage.withPercentage(7));
+        Assertions.assertThat(histogram.percentile(1)).isEqualTo(100_000);
+    }
+
+    @Test
+    public void bucketsAreInOrderTest() {
+        int last = -1;
+        for (long value = 0; value < 1 << 20; value++) {
+            int bucket = Histogram.bucketOf(value);
+            Assertions.assertThat(bucket).isBetween(last, last + 1);
+            last = bucket;
+        }
+        Assertions.assertThat(Histogram.bucketOf(Long.MAX_VALUE)).isGreaterThan(last);
+    }
+
+    @Test
+    public void addTest() {
+        MetricsRegistry first = new MetricsRegistry();
+        first.increment(Count.ITERATIONS);
+        first.getTimer(Phase.SOLVE).record(10);
+        MetricsRegistry second = new MetricsRegistry();
+        second.increment(Count.ITERATIONS);
+        second.getTimer(Phase.SOLVE).record(1000);
+
+        first.add(second);
+
+        Assertions.assertThat(first.getCount(Count.ITERATIONS)).isEqualTo(2);
+        Assertions.assertThat(first.getTimer(Phase.SOLVE).getCount()).isEqualTo(2);
+        Assertions.assertThat(first.getTimer(Phase.SOLVE).getMax()).isEqualTo(1000);
+    }
+
+    @Test
+    public void roundRecordsMetricsTest() throws Exception {
+        Data data = Data.create(new int[][]{{3, 2, 4}, {1, 5, 2}}, new int[]{20, 15}, new boolean[]{true, true},
+                new double[]{5, 4, 6});
+        RoundSettings settings = new RoundSettings(SolverType.JAVA, StepRuleType.POLYAK, DualEngineType.SUBGRADIENT);
+        long roundsBefore = Metrics.total().getRounds().getCount();
+
+        RoundResult result = new LagrangianRound(1, data, settings, false).call();
+        MetricsRegistry metrics = Metrics.current();
+
+        // The first solve is the linear relaxation
+        Assertions.assertThat(metrics.getTimer(Phase.SOLVE).getCount()).isEqualTo(result.getSolves() + 1);
+        Assertions.assertThat(metrics.getCount(Count.ITERATIONS)).isGreaterThan(0);
+        Assertions.assertThat(metrics.getTimer(Phase.MODEL_BUILD).getCount()).isEqualTo(2);
+        Assertions.assertThat(Metrics.total().getRounds().getCount()).isEqualTo(roundsBefore + 1);
+    }
+}
@@ -0,0 +1,207 @@
+package com.digit.app.solver;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class JavaSolverTest {
+    private static final Offset<Double> TOLERANCE = Offset.offset(1e-6);
+
+    @Test
+    public void linearProgramTest() throws SolverException {
+        JavaSolver solver = new JavaSolver();
+        solver.addVariables(2, 0, 500, false);
+        solver.setObjective(new double[] {3, 2});
+        solver.addConstraint(new int[] {0, 1}, new double[] {1, 1}, true, 4);
+        solver.addConstraint(new int[] {0, 1}, new double[] {1, 3}, true, 6);
+        solver.addConstraint(new int[] {0}, new double[] {1}, true, 3);
+
+        Assertions.assertThat(solver.solve()).isTrue();
+        Assertions.assertThat(solver.getObjectiveValue()).isCloseTo(11, TOLERANCE);
+        Assertions.assertThat(solver.getValues()).containsExactly(new double[] {3, 1}, TOLERANCE);
+        Assertions.assertThat(solver.getSlacks()).containsExactly(new double[] {0, 0, 0}, TOLERANCE);
+    }
+
+    @Test
+    public void dualsTest() throws SolverException {
+        JavaSolver solver = new JavaSolver();
+        solver.addVariables(2, 0, 500, false);
+        solver.setObjective(new double[] {3, 2});
+        // The same as x + y <= 4, but written as >= so its dual is negative
+        solver.addConstraint(new int[] {0, 1}, new double[] {-1, -1}, false, -4);
+        solver.addConstraint(new int[] {0, 1}, new double[] {1, 3}, true, 6);
+
+        Assertions.assertThat(solver.solve()).isTrue();
+        Assertions.assertThat(solver.getValues()).containsExactly(new double[] {4, 0}, TOLERANCE);
+        Assertions.assertThat(solver.getDuals()).containsExactly(new double[] {-3, 0}, TOLERANCE);
+        Assertions.assertThat(solver.getReducedCosts()).containsExactly(new double[] {0, -1}, TOLERANCE);
+    }
+
+    @Test
+    public void boundsTest() throws SolverException {
+        JavaSolver solver = new JavaSolver();
+        solver.addVariables(2, 0, 500, true);
+        solver.setObjective(new double[] {5, 4});
+        solver.addConstraint(new int[] {0, 1}, new double[] {6, 4}, true, 24);
+        solver.addConstraint(new int[] {0, 1}, new double[] {1, 2}, true, 6);
+        Assertions.assertThat(solver.solve()).isTrue();
+
+        // Keeping x out moves the optimal solution to y
+        solver.setBounds(0, 0, 0);
+        Assertions.assertThat(solver.solve()).isTrue();
+        Assertions.assertThat(solver.getValues()).containsExactly(new double[] {0, 3}, TOLERANCE);
+    }
+
+    @Test
+    public void integerProgramTest() throws SolverException {
+        JavaSolver solver = new JavaSolver();
+        solver.addVariables(2, 0, 500, true);
+        solver.setObjective(new double[] {5, 4});
+        solver.addConstraint(new int[] {0, 1}, new double[] {6, 4}, true, 24);
+        solver.addConstraint(new int[] {0, 1}, new double[] {1, 2}, true, 6);
+
+        Assertions.assertThat(solver.solve()).isTrue();
+        Assertions.assertThat(solver.getObjectiveValue()).isCloseTo(20, TOLERANCE);
+        Assertions.assertThat(solver.getValues()).containsExactly(new double[] {4, 0}, TOLERANCE);
+    }
+
+    @Test
+    public void nodeLimitTest() throws SolverException {
+        // The root is fractional, so one node isn't enough to finish the tree
+        JavaSolver solver = new JavaSolver(1);
+        solver.addVariables(2, 0, 500, true);
+        solver.setObjective(new double[] {5, 4});
+        solver.addConstraint(new int[] {0, 1}, new double[] {6, 4}, true, 24);
+        solver.addConstraint(new int[] {0, 1}, new double[] {1, 2}, true, 6);
+
+        // The start is all there is to return, and it is marked as not optimal
+        solver.setStart(new double[] {2, 2});
+        Assertions.assertThat(solver.solve()).isTrue();
+        Assertions.assertThat(solver.isOptimal()).isFalse();
+        Assertions.assertThat(solver.getValues()).containsExactly(new double[] {2, 2}, TOLERANCE);
+
+        // Without a start, it doesn't know if there is a solution at all
+        Assertions.assertThatThrownBy(solver::solve).isInstanceOf(SolverException.class);
+
+        // The whole tree fits in the default limit
+        JavaSolver unlimited = new JavaSolver();
+        unlimited.addVariables(2, 0, 500, true);
+        unlimited.setObjective(new double[] {5, 4});
+        unlimited.addConstraint(new int[] {0, 1}, new double[] {6, 4}, true, 24);
+        unlimited.addConstraint(new int[] {0, 1}, new double[] {1, 2}, true, 6);
+        Assertions.assertThat(unlimited.solve()).isTrue();
+        Assertions.assertThat(unlimited.isOptimal()).isTrue();
+    }
+
+    @Test
+    public void startTest() throws SolverException {
+        JavaSolver solver = new JavaSolver();
+        solver.addVariables(2, 0, 500, true);
+        solver.setObjective(new double[] {5, 4});
+        solver.addConstraint(new int[] {0, 1}, new double[] {6, 4}, true, 24);
+        solver.addConstraint(new int[] {0, 1}, new double[] {1, 2}, true, 6);
+
+        // A feasible but worse start still ends on the optimal solution
+        solver.setStart(new double[] {2, 2});
+        Assertions.assertThat(solver.solve()).isTrue();
+        Assertions.assertThat(solver.getObjectiveValue()).isCloseTo(20, TOLERANCE);
+
+        // An infeasible start is ignored
+        solver.setStart(new double[] {6, 6});
+        Assertions.assertThat(solver.solve()).isTrue();
+        Assertions.assertThat(solver.getValues()).containsExactly(new double[] {4, 0}, TOLERANCE);
+    }
+
+    @Test
+    public void infeasibleTest() throws SolverException {
+        JavaSolver solver = new JavaSolver();
+        solver.addVariables(2, 0, 500, true);
+        solver.setObjective(new double[] {1, 1});
+        solver.addConstraint(new int[] {0, 1}, new double[] {1, 1}, false, 10);
+        solver.addConstraint(new int[] {0, 1}, new double[] {1, 1}, true, 5);
+
+        Assertions.assertThat(solver.solve()).isFalse();
+    }
+
+    @Test
+    public void matchesEnumerationTest() throws SolverException {
+        Random random = new Random(391);
+
+        for (int instance = 0; instance < 50; instance++) {
+            int numVariables = 4;
+            int numConstraints = 3;
+            int maxValue = 4;
+            double[][] A = new double[numConstraints][numVariables];
+            double[] b = new double[numConstraints];
+            boolean[] lessThan = new boolean[numConstraints];
+
+            JavaSolver solver = new JavaSolver();
+            solver.addVariables(numVariables, 0, maxValue, true);
+            int[] variables = {0, 1, 2, 3};
+            for (int i = 0; i < numConstraints; i++) {
+                for (int j = 0; j < numVariables; j++) {
+                    A[i][j] = random.nextInt(21) - 5;
+                }
+                b[i] = random.nextInt(20);
+                lessThan[i] = random.nextDouble() < 0.7;
+                solver.addConstraint(variables, A[i], lessThan[i], b[i]);
+            }
+
+            // Solve the same model with a few objectives to make sure starting from the old basis works
+            for (int objective = 0; objective < 3; objective++) {
+                double[] c = new double[numVariables];
+                for (int j = 0; j < numVariables; j++) {
+                    c[j] = random.nextInt(16) - 5 + random.nextDouble();
+                }
+                solver.setObjective(c);
+
+                Double expected = enumerate(A, b, lessThan, c, maxValue);
+                Assertions.assertThat(solver.solve()).isEqualTo(expected != null);
+                if (expected != null) {
+                    Assertions.assertThat(solver.getObjectiveValue()).isCloseTo(expected, TOLERANCE);
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the best value by trying every point in the box
+     */
+    private static Double enumerate(double[][] A, double[] b, boolean[] lessThan, double[] c, int maxValue) {
+        Double best = null;
+        int numVariables = c.length;
+        int[] x = new int[numVariables];
+        int points = (int) Math.pow(maxValue + 1, numVariables);
+
+        for (int point = 0; point < points; point++) {
+            int remaining = point;
+            for (int j = 0; j < numVariables; j++) {
+                x[j] = remaining % (maxValue + 1);
+                remaining = remaining / (maxValue + 1);
+            }
+
+            boolean feasible = true;
+            for (int i = 0; i < A.length && feasible; i++) {
+                double activity = 0;
+                for (int j = 0; j < numVariables; j++) {
+                    activity = activity + A[i][j] * x[j];
+                }
+                feasible = lessThan[i] ? activity <= b[i] : activity >= b[i];
+            }
+
+            if (feasible) {
+                double value = 0;
+                for (int j = 0; j < numVariables; j++) {
+                    value = value + c[j] * x[j];
+                }
+                if (best == null || value > best) {
+                    best = value;
+                }
+            }
+        }
+
+        return best;
+    }
+}
@@ -0,0 +1,114 @@
+package com.digit.app.solver;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class KnapsackSolverTest {
+    private static final Offset<Double> TOLERANCE = Offset.offset(1e-6);
+
+    @Test
+    public void closedFormTest() throws SolverException {
+        ClosedFormSolver solver = new ClosedFormSolver();
+        solver.addVariables(3, 0, 500, true);
+        solver.setObjective(new double[] {2, -1, 0});
+
+        Assertions.assertThat(solver.solve()).isTrue();
+        Assertions.assertThat(solver.getObjectiveValue()).isCloseTo(1000, TOLERANCE);
+        Assertions.assertThat(solver.getValues()).containsExactly(new double[] {500, 0, 0}, TOLERANCE);
+        Assertions.assertThat(solver.getSlacks()).isEmpty();
+    }
+
+    @Test
+    public void knapsackTest() throws SolverException {
+        KnapsackSolver solver = new KnapsackSolver();
+        solver.addVariables(2, 0, 500, true);
+        solver.setObjective(new double[] {5, 4});
+        solver.addConstraint(new int[] {0, 1}, new double[] {6, 4}, true, 24);
+
+        Assertions.assertThat(solver.solve()).isTrue();
+        Assertions.assertThat(solver.getObjectiveValue()).isCloseTo(24, TOLERANCE);
+        Assertions.assertThat(solver.getValues()).containsExactly(new double[] {0, 6}, TOLERANCE);
+        Assertions.assertThat(solver.getSlacks()).containsExactly(new double[] {0}, TOLERANCE);
+    }
+
+    @Test
+    public void nodeLimitTest() throws SolverException {
+        // Greedy takes the first item, but the other two together are worth more
+        KnapsackSolver solver = new KnapsackSolver(1);
+        solver.addVariables(3, 0, 1, true);
+        solver.setObjective(new double[] {7, 5, 5});
+        solver.addConstraint(new int[] {0, 1, 2}, new double[] {6, 5, 5}, true, 10);
+
+        Assertions.assertThat(solver.solve()).isTrue();
+        Assertions.assertThat(solver.isOptimal()).isFalse();
+        Assertions.assertThat(solver.getObjectiveValue()).isCloseTo(7, TOLERANCE);
+
+        KnapsackSolver unlimited = new KnapsackSolver();
+        unlimited.addVariables(3, 0, 1, true);
+        unlimited.setObjective(new double[] {7, 5, 5});
+        unlimited.addConstraint(new int[] {0, 1, 2}, new double[] {6, 5, 5}, true, 10);
+
+        Assertions.assertThat(unlimited.solve()).isTrue();
+        Assertions.assertThat(unlimited.isOptimal()).isTrue();
+        Assertions.assertThat(unlimited.getObjectiveValue()).isCloseTo(10, TOLERANCE);
+    }
+
+    @Test
+    public void unsupportedTest() {
+        // These are solver errors the caller can handle, not a crash
+        Assertions.assertThatThrownBy(new KnapsackSolver()::getDuals).isInstanceOf(SolverException.class);
+        Assertions.assertThatThrownBy(new KnapsackSolver()::getReducedCosts).isInstanceOf(SolverException.class);
+        Assertions.assertThatThrownBy(() -> new ClosedFormSolver().addConstraint(new int[] {0}, new double[] {1}, true, 1))
+                .isInstanceOf(SolverException.class);
+    }
+
+    @Test
+    public void infeasibleTest() throws SolverException {
+        KnapsackSolver solver = new KnapsackSolver();
+        solver.addVariables(2, 0, 5, true);
+        solver.setObjective(new double[] {1, 1});
+        solver.addConstraint(new int[] {0, 1}, new double[] {1, 1}, false, 20);
+
+        Assertions.assertThat(solver.solve()).isFalse();
+    }
+
+    @Test
+    public void matchesJavaSolverTest() throws SolverException {
+        Random random = new Random(17);
+
+        for (int instance = 0; instance < 200; instance++) {
+            // Rows like the ones left in the last rounds, with mixed signs and the full box
+            int numVariables = 2 + random.nextInt(6);
+            int[] variables = new int[numVariables - 1];
+            double[] coefficients = new double[numVariables - 1];
+            for (int k = 0; k < variables.length; k++) {
+                variables[k] = k;
+                coefficients[k] = random.nextInt(41) - 10;
+            }
+            boolean lessThan = random.nextDouble() < 0.7;
+            double rhs = random.nextInt(11);
+            double[] c = new double[numVariables];
+            for (int j = 0; j < numVariables; j++) {
+                c[j] = random.nextInt(16) - 5 + random.nextDouble();
+            }
+
+            KnapsackSolver knapsack = new KnapsackSolver();
+            JavaSolver java = new JavaSolver();
+            for (Solver solver: new Solver[] {knapsack, java}) {
+                solver.addVariables(numVariables, 0, 500, true);
+                solver.setObjective(c);
+                solver.addConstraint(variables, coefficients, lessThan, rhs);
+            }
+
+            boolean feasible = java.solve();
+            Assertions.assertThat(knapsack.solve()).isEqualTo(feasible);
+            if (feasible) {
+                Assertions.assertThat(knapsack.getObjectiveValue()).isCloseTo(java.getObjectiveValue(), TOLERANCE);
+                Assertions.assertThat(knapsack.getSlacks()[0]).isGreaterThanOrEqualTo(-1e-9);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.digit.app.step;
+
+import com.digit.app.LagrangianRelaxation;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.Test;
+
+public class StepRuleTest {
+    private static final Offset<Double> TOLERANCE = Offset.offset(1e-9);
+
+    @Test
+    public void polyakTest() {
+        StepRule rule = StepRuleType.POLYAK.create();
+        double[] subgradient = {3, -4};
+        double[] direction = new double[2];
+
+        double step = rule.step(110, 100, subgradient, direction);
+        Assertions.assertThat(step).isCloseTo(LagrangianRelaxation.stepValue(1.5, subgradient, 110, 100), TOLERANCE);
+        Assertions.assertThat(direction).containsExactly(subgradient);
+
+        // e is halved after 4 iterations without improving
+        rule.record(true);
+        for (int i = 0; i < 3; i++) {
+            rule.record(false);
+            Assertions.assertThat(rule.getE()).isEqualTo(1.5);
+        }
+        rule.record(false);
+        Assertions.assertThat(rule.getE()).isEqualTo(0.75);
+        Assertions.assertThat(rule.isFinished()).isFalse();
+    }
+
+    @Test
+    public void deflectedTest() {
+        StepRule rule = StepRuleType.DEFLECTED.create();
+        double[] direction = new double[2];
+
+        rule.step(110, 100, new double[] {1, 0}, direction);
+        Assertions.assertThat(direction).containsExactly(1, 0);
+
+        // The new subgradient points back against the last direction, so part of the last direction is kept
+        rule.step(110, 100, new double[] {-1, 1}, direction);
+        Assertions.assertThat(direction).containsExactly(new double[] {0.5, 1}, TOLERANCE);
+
+        // Nothing is kept when they don't point against each other
+        rule.step(110, 100, new double[] {1, 1}, direction);
+        Assertions.assertThat(direction).containsExactly(1, 1);
+    }
+
+    @Test
+    public void adagradTest() {
+        StepRule rule = StepRuleType.ADAGRAD.create();
+        double[] direction = new double[2];
+
+        rule.step(110, 100, new double[] {3, 0}, direction);
+        Assertions.assertThat(direction).containsExactly(1, 0);
+
+        rule.step(110, 100, new double[] {4, 1}, direction);
+        Assertions.assertThat(direction).containsExactly(new double[] {4.0 / 5, 1}, TOLERANCE);
+    }
+
+    @Test
+    public void diminishingTest() {
+        StepRule rule = StepRuleType.DIMINISHING.create();
+        double[] subgradient = {3, 4};
+        double[] direction = new double[2];
+
+        // The first step moves the multipliers (110 - 100) / 5 = 2, then 1, then 2 / 3
+        Assertions.assertThat(rule.step(110, 100, subgradient, direction) * 5).isCloseTo(2, TOLERANCE);
+        rule.record(false);
+        Assertions.assertThat(rule.step(120, 100, subgradient, direction) * 5).isCloseTo(1, TOLERANCE);
+        rule.record(false);
+        Assertions.assertThat(rule.step(120, 100, subgradient, direction) * 5).isCloseTo(2.0 / 3, TOLERANCE);
+    }
+
+    @Test
+    public void zeroSubgradientTest() {
+        // Nothing is broken, so there is nowhere to move instead of a step of infinity or NaN
+        for (StepRuleType type: new StepRuleType[] {StepRuleType.ADAGRAD, StepRuleType.TARGET, StepRuleType.DIMINISHING}) {
+            double[] direction = new double[2];
+            Assertions.assertThat(type.create().step(110, 100, new double[] {0, 0}, direction)).isZero();
+        }
+    }
+
+    @Test
+    public void diminishingWithoutGapTest() {
+        StepRule rule = StepRuleType.DIMINISHING.create();
+        double[] direction = new double[2];
+
+        // L(u) is already at the bound, but the series still starts somewhere
+        Assertions.assertThat(rule.step(100, 100, new double[] {3, 4}, direction)).isPositive();
+        Assertions.assertThat(rule.isFinished()).isFalse();
+    }
+
+    @Test
+    public void targetValueTest() {
+        StepRule rule = StepRuleType.TARGET.create();
+        double[] subgradient = {3, 4};
+        double[] direction = new double[2];
+
+        // The target starts halfway between L(u) and the bound
+        Assertions.assertThat(rule.step(110, 100, subgradient, direction)).isCloseTo(5.0 / 25, TOLERANCE);
+        Assertions.assertThat(rule.getE()).isEqualTo(5);
+
+        // Delta is halved when we stop reaching the target
+        for (int i = 0; i < 4; i++) {
+            rule.record(false);
+        }
+        Assertions.assertThat(rule.getE()).isEqualTo(2.5);
+    }
+}
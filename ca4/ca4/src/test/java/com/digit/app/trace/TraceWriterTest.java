@@ -0,0 +1,56 @@
+package com.digit.app.trace;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class TraceWriterTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void writeTest() throws Exception {
+        Path path = directory.resolve("trace.csv");
+        TraceWriter writer = new TraceWriter(path, 2, 3);
+        for (int i = 0; i < 5; i++) {
+            TraceRecord record = writer.acquire();
+            record.event = TraceEvent.ROUND_START;
+            record.round = 1;
+            record.iteration = i;
+            record.length = 3;
+            record.values[0] = 4;
+            writer.publish(record);
+        }
+        writer.close();
+
+        Assertions.assertThat(Files.readAllLines(path)).hasSize(6)
+                .contains("ROUND_START,1,4,4.0,0.0,0.0");
+    }
+
+    @Test
+    @Timeout(10)
+    public void failureTest() throws IOException {
+        // Every write to /dev/full fails with no space left
+        Path full = Path.of("/dev/full");
+        Assumptions.assumeTrue(Files.isWritable(full));
+        TraceWriter writer = new TraceWriter(full, 2, 1);
+
+        // Once the writer can't flush, it stops handing records back and the failure comes out here instead
+        Assertions.assertThatThrownBy(() -> {
+            while (true) {
+                TraceRecord record = writer.acquire();
+                record.event = TraceEvent.SOLUTION;
+                record.length = 0;
+                writer.publish(record);
+            }
+        }).isInstanceOf(IOException.class);
+
+        Assertions.assertThatThrownBy(writer::close).isInstanceOf(IOException.class);
+    }
+}